@@ -0,0 +1,88 @@
+package Hospital_Patient_Record_System;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HospitalSystemWithCSV.admitPatient and dischargePatient, including the
+ * journal write each of them performs (or, with ASYNC durability, only
+ * hands to the JournalWriter).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AdmissionBenchmark {
+    /**
+     * A hospital over a fresh temp data dir with 10k patients on record
+     */
+    @State(Scope.Thread)
+    public abstract static class HospitalState {
+        @Param({"SYNC", "GROUP", "ASYNC"})
+        DurabilityMode durability;
+
+        Path dataDir;
+        HospitalSystemWithCSV hospital;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            dataDir = SyntheticData.createDataDir(10_000);
+            hospital = new HospitalSystemWithCSV(dataDir);
+            hospital.setDurabilityMode(durability);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            hospital.close();
+            SyntheticData.deleteRecursively(dataDir);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class AdmitState extends HospitalState {
+        String admitted;
+
+        @TearDown(Level.Invocation)
+        public void releaseBed() throws Exception {
+            hospital.dischargePatient(admitted);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class DischargeState extends HospitalState {
+        String admitted;
+
+        @Setup(Level.Invocation)
+        public void admit() throws Exception {
+            admitted = "BD" + next++;
+            hospital.admitPatient(admitted, "Bench Patient", 40, "General");
+        }
+    }
+
+    @Benchmark
+    public void admitPatient(AdmitState state) throws Exception {
+        state.admitted = "BA" + state.next++;
+        state.hospital.admitPatient(state.admitted, "Bench Patient", 40, "General");
+    }
+
+    @Benchmark
+    public void dischargePatient(DischargeState state) throws Exception {
+        state.hospital.dischargePatient(state.admitted);
+    }
+}
@@ -0,0 +1,118 @@
+package Hospital_Patient_Record_System;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Rebuilding past states from an AuditLog holding {@code events} events,
+ * one every five minutes (about ten years at 1M events): roughly 55%
+ * admissions, 40% discharges and the rest rate and discount changes, with
+ * the default segment size and snapshot interval.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx3g"})
+@State(Scope.Benchmark)
+public class AuditLogBenchmark {
+    private static final long START = Instant.parse("2015-01-01T00:00:00Z").toEpochMilli();
+    private static final long STEP = TimeUnit.MINUTES.toMillis(5);
+
+    @Param({"1000000"})
+    public int events;
+
+    private Path dir;
+    private AuditLog log;
+    private long end;
+    private final SplittableRandom random = new SplittableRandom(7);
+
+    @Setup
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("audit-bench");
+        long[] now = {START};
+        Clock clock = new Clock() {
+            public ZoneId getZone() { return ZoneOffset.UTC; }
+            public Clock withZone(ZoneId zone) { return this; }
+            public Instant instant() { return Instant.ofEpochMilli(now[0]); }
+        };
+        log = new AuditLog(dir, EventSink.NO_OP, clock, AuditLog.DEFAULT_SEGMENT_EVENTS, AuditLog.DEFAULT_SNAPSHOT_EVERY);
+        log.reconcile(List.of(), RateTable.defaults(), DiscountSchedule.flat(0));
+
+        SplittableRandom r = new SplittableRandom(1);
+        List<Patient> admitted = new ArrayList<>();
+        RateTable rates = RateTable.defaults();
+        DiscountSchedule discounts = DiscountSchedule.flat(0);
+        for (int i = 0; i < events; i++) {
+            now[0] += STEP;
+            LocalDate today = Instant.ofEpochMilli(now[0]).atZone(ZoneOffset.UTC).toLocalDate();
+            int kind = r.nextInt(100);
+            if (kind < 55 || admitted.isEmpty()) {
+                Patient p = new Patient(SyntheticData.id(i), "Patient " + i, 1 + r.nextInt(90),
+                    SyntheticData.WARDS[r.nextInt(SyntheticData.WARDS.length)], today);
+                admitted.add(p);
+                log.admitted(p);
+            } else if (kind < 95) {
+                Patient p = admitted.remove(admitted.size() - 1 - r.nextInt(Math.min(admitted.size(), 1000)));
+                log.discharged(p, today);
+            } else if (kind < 99) {
+                String ward = SyntheticData.WARDS[r.nextInt(SyntheticData.WARDS.length)];
+                rates = rates.with(ward, rates.get(ward) + 10);
+                log.ratesChanged(rates);
+            } else {
+                discounts = discounts.with(today, r.nextInt(20));
+                log.discountsChanged(discounts);
+            }
+        }
+        end = now[0];
+        log.close();
+        log = AuditLog.openReadOnly(dir);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Object stateAtLatest() throws Exception {
+        return log.stateAt(Instant.ofEpochMilli(end));
+    }
+
+    @Benchmark
+    public Object stateAtRandomTime() throws Exception {
+        return log.stateAt(Instant.ofEpochMilli(START + random.nextLong(end - START)));
+    }
+
+    @Benchmark
+    public Object billAtRandomTime() throws Exception {
+        AuditLog.State state = log.stateAt(Instant.ofEpochMilli(START + random.nextLong(end - START)));
+        return state.billFor(SyntheticData.id(random.nextInt(events)));
+    }
+}
@@ -0,0 +1,69 @@
+package Hospital_Patient_Record_System;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bed-level allocation in a ward that is 90% full with the free beds
+ * scattered across it. Time per admit + discharge (and per reserve +
+ * release) should stay flat as the ward grows from 100 to 100,000 beds.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BedAllocationBenchmark {
+    @Param({"100", "10000", "100000"})
+    public int beds;
+
+    private Ward ward;
+    private Patient patient;
+
+    @Setup
+    public void setUp() throws Exception {
+        ward = new Ward("General", beds);
+        Patient[] admitted = new Patient[beds];
+        for (int i = 0; i < beds; i++) {
+            admitted[i] = new Patient(SyntheticData.id(i), "Patient " + i, 40, "General", LocalDate.now());
+            ward.addPatient(admitted[i]);
+        }
+        Random random = new Random(42);
+        for (int freed = 0; freed < beds / 10; ) {
+            Patient p = admitted[random.nextInt(beds)];
+            if (p != null && ward.getBedNumber(p) != 0) {
+                ward.removePatient(p);
+                freed++;
+            }
+        }
+        patient = new Patient("NEW", "New Patient", 40, "General", LocalDate.now());
+    }
+
+    @Benchmark
+    public int admitAndDischarge() throws Exception {
+        int bed = ward.addPatient(patient);
+        ward.removePatient(patient);
+        return bed;
+    }
+
+    @Benchmark
+    public int reserveAndRelease() throws Exception {
+        int bed = ward.reserveBed();
+        ward.releaseReservedBed(bed);
+        return bed;
+    }
+}
@@ -0,0 +1,89 @@
+package Hospital_Patient_Record_System;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One BedDemandSimulator run of {@code scenarios} 90-day scenarios over two
+ * years of synthetic history (about 14,000 admissions a year across the
+ * four wards, Emergency overflowing into General), with the wards sized so
+ * that most scenarios run out of beds somewhere.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BedDemandBenchmark {
+    private static final double[] ARRIVALS_PER_DAY = {3, 20, 6, 10};
+    private static final int[] MEAN_STAY = {7, 5, 4, 2};
+    private static final int[] BEDS = {25, 100, 25, 25};
+
+    @Param({"1000", "10000"})
+    public int scenarios;
+
+    private BedDemandSimulator simulator;
+    private Map<String, Integer> beds;
+
+    @Setup
+    public void setUp() throws Exception {
+        LocalDate today = LocalDate.now();
+        SplittableRandom random = new SplittableRandom(3);
+        List<Patient> history = new ArrayList<>();
+        int id = 0;
+        for (int day = 730; day >= 0; day--) {
+            LocalDate admitted = today.minusDays(day);
+            for (int w = 0; w < SyntheticData.WARDS.length; w++) {
+                int count = poisson(random, ARRIVALS_PER_DAY[w]);
+                for (int i = 0; i < count; i++) {
+                    Patient p = new Patient(SyntheticData.id(id++), "Patient", 40, SyntheticData.WARDS[w], admitted);
+                    LocalDate discharged = admitted.plusDays(poisson(random, MEAN_STAY[w]));
+                    if (discharged.isBefore(today)) {
+                        p.discharge(discharged);
+                    }
+                    history.add(p);
+                }
+            }
+        }
+        beds = new LinkedHashMap<>();
+        for (int w = 0; w < SyntheticData.WARDS.length; w++) {
+            beds.put(SyntheticData.WARDS[w], BEDS[w]);
+        }
+        simulator = BedDemandSimulator.fromHistory(history, beds, Map.of("Emergency", List.of("General")),
+            today, BedDemandSimulator.DEFAULT_HISTORY_DAYS);
+    }
+
+    private static int poisson(SplittableRandom random, double mean) {
+        double limit = Math.exp(-mean);
+        double product = random.nextDouble();
+        int k = 0;
+        while (product > limit) {
+            product *= random.nextDouble();
+            k++;
+        }
+        return k;
+    }
+
+    @Benchmark
+    public Object forecast90Days() {
+        return simulator.run(beds, scenarios, 90, 42);
+    }
+}
@@ -0,0 +1,62 @@
+package Hospital_Patient_Record_System;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BillingService.generateBillingReport (compute + format), the batch
+ * engine on its own, and the incremental path: reading the running revenue
+ * totals and repricing them after a rate change.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx3g"})
+@State(Scope.Benchmark)
+public class BillingBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private List<Patient> patients;
+    private BillingService billing;
+
+    @Setup
+    public void setUp() throws Exception {
+        SyntheticData.silenceConsole();
+        patients = SyntheticData.dischargedPatients(rows);
+        billing = new BillingService(10);
+        billing.rebuildRevenue(patients);
+    }
+
+    @Benchmark
+    public void generateBillingReport() {
+        billing.generateBillingReport(patients);
+    }
+
+    @Benchmark
+    public BillingResult calculateBills() {
+        return billing.calculateBills(patients);
+    }
+
+    private boolean toggle;
+
+    @Benchmark
+    public RevenueLedger.Totals rateChangeThenTotals() {
+        toggle = !toggle;
+        billing.setWardRate("ICU", toggle ? 5001 : 5000);
+        return billing.getRevenue().getHospitalTotals();
+    }
+}
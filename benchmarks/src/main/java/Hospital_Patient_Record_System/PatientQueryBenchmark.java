@@ -0,0 +1,69 @@
+package Hospital_Patient_Record_System;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static Hospital_Patient_Record_System.PatientQuery.Aggregate;
+import static Hospital_Patient_Record_System.PatientQuery.Dimension;
+import static Hospital_Patient_Record_System.PatientQuery.Measure;
+
+/**
+ * The two reports of menu option 12 over {@code rows} discharged patients
+ * admitted across ten years, in each kind of PatientStore.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx3g"})
+@State(Scope.Benchmark)
+public class PatientQueryBenchmark {
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"columnar", "index"})
+    public String store;
+
+    private PatientStore patients;
+    private LocalDate today;
+
+    @Setup
+    public void setUp() throws Exception {
+        patients = "columnar".equals(store) ? new ColumnarPatientStore() : new PatientIndex();
+        for (Patient p : SyntheticData.dischargedPatients(rows)) {
+            patients.add(p);
+        }
+        today = LocalDate.of(2025, 1, 1);
+    }
+
+    @Benchmark
+    public QueryResult stayByWardAndAgeBand() {
+        return new PatientQuery(patients, today)
+            .where(PatientQuery.status("discharged"))
+            .groupBy(Dimension.WARD, Dimension.ageBand(20))
+            .select(Aggregate.count(), Aggregate.avg(Measure.LENGTH_OF_STAY),
+                Aggregate.percentile(Measure.LENGTH_OF_STAY, 90))
+            .run();
+    }
+
+    @Benchmark
+    public QueryResult dischargesPerWeek() {
+        return new PatientQuery(patients, today)
+            .where(PatientQuery.dischargedBetween(today.minusYears(1), today))
+            .groupBy(Dimension.DISCHARGE_WEEK)
+            .select(Aggregate.count())
+            .run();
+    }
+}
@@ -0,0 +1,77 @@
+package Hospital_Patient_Record_System;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-10 PatientSearchIndex queries over {@code rows} patients whose names
+ * combine common first and last names, a quarter of the first names with
+ * a random two-letter suffix to give the dictionary realistic variety.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx3g"})
+@State(Scope.Benchmark)
+public class PatientSearchBenchmark {
+    private static final String[] FIRST = {"Rajesh", "Priya", "Amit", "Sunita", "Vikram", "Anjali", "Rahul", "Neha",
+        "Suresh", "Kavita", "Arjun", "Meera", "Karan", "Pooja", "Deepak", "Ritu"};
+    private static final String[] LAST = {"Kumar", "Sharma", "Patel", "Singh", "Gupta", "Reddy", "Iyer", "Nair", "Das", "Joshi"};
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    private PatientSearchIndex index;
+
+    @Setup
+    public void setUp() throws Exception {
+        SplittableRandom random = new SplittableRandom(1);
+        List<Patient> patients = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            String first = FIRST[random.nextInt(FIRST.length)];
+            if (random.nextInt(4) == 0) {
+                first += "" + (char) ('a' + random.nextInt(26)) + (char) ('a' + random.nextInt(26));
+            }
+            patients.add(new Patient(SyntheticData.id(i), first + " " + LAST[random.nextInt(LAST.length)],
+                40, "General", LocalDate.now()));
+        }
+        index = new PatientSearchIndex();
+        index.addAll(patients);
+    }
+
+    @Benchmark
+    public Object idPrefix() {
+        return index.search("B1234", 10);
+    }
+
+    @Benchmark
+    public Object namePrefix() {
+        return index.search("Rajesh Kum", 10);
+    }
+
+    @Benchmark
+    public Object misspelledWord() {
+        return index.search("Rajsh", 10);
+    }
+
+    @Benchmark
+    public Object misspelledFullName() {
+        return index.search("Priay Sharam", 10);
+    }
+}
@@ -0,0 +1,115 @@
+package Hospital_Patient_Record_System;
+
+import java.io.BufferedWriter;
+import java.lang.ref.Reference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Measures retained heap per patient record for each PatientStore, with
+ * 1% of the patients still admitted. PagedPatientStore keeps the admitted
+ * ones plus its page cache, so its figure falls as the history grows.
+ * Then measures a whole HospitalSystemWithCSV started over the same
+ * history from patients.csv and from patients.db, which adds the search
+ * index, bed allocators, revenue ledger and occupancy history.
+ *
+ * Usage: java -cp benchmarks/target/benchmarks.jar Hospital_Patient_Record_System.PatientStoreFootprint [records]
+ */
+public class PatientStoreFootprint {
+    public static void main(String[] args) throws Exception {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        measure("PatientIndex", new PatientIndex(), records);
+        measure("ColumnarPatientStore", new ColumnarPatientStore(), records);
+        Path dir = Files.createTempDirectory("footprint");
+        try {
+            PagedPatientStore paged = new PagedPatientStore(dir.resolve("patients.db"), PagedPatientStore.DEFAULT_CACHE_PAGES);
+            measure("PagedPatientStore", paged, records);
+            paged.close();
+        } finally {
+            SyntheticData.deleteRecursively(dir);
+        }
+        Path data = createDataDir(records);
+        try {
+            long before = usedHeap();
+            HospitalSystemWithCSV hospital = new HospitalSystemWithCSV(data, EventSink.NO_OP);
+            report("Hospital (patients.csv)", hospital.getAllPatients().size(), usedHeap() - before, records);
+            Reference.reachabilityFence(hospital);
+            hospital = null;
+
+            new PagedPatientRepository(data, EventSink.NO_OP).load(List.of(SyntheticData.WARDS)); // imports into patients.db
+            before = usedHeap();
+            hospital = new HospitalSystemWithCSV(data, EventSink.NO_OP, new PagedPatientRepository(data, EventSink.NO_OP));
+            report("Hospital (patients.db)", hospital.getAllPatients().size(), usedHeap() - before, records);
+            Reference.reachabilityFence(hospital);
+        } finally {
+            SyntheticData.deleteRecursively(data);
+        }
+    }
+
+    /**
+     * patients.csv with {@code records} patients, 1% admitted, and a
+     * wards.cfg with a bed for each of them
+     */
+    private static Path createDataDir(int records) throws Exception {
+        Path dir = Files.createTempDirectory("footprint-hospital");
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDate first = LocalDate.of(2015, 1, 1);
+        try (BufferedWriter out = Files.newBufferedWriter(dir.resolve("patients.csv"), StandardCharsets.UTF_8)) {
+            out.write(PatientJournal.CSV_HEADER);
+            out.write('\n');
+            for (int i = 0; i < records; i++) {
+                LocalDate admitted = first.plusDays(random.nextInt(3650));
+                out.write(SyntheticData.id(i) + ",Patient " + i + "," + random.nextInt(1, 95) + ","
+                    + SyntheticData.WARDS[i % SyntheticData.WARDS.length] + "," + admitted + ","
+                    + (i % 100 == 0 ? "admitted," : "discharged," + admitted.plusDays(random.nextInt(30))) + "\n");
+            }
+        }
+        StringBuilder wards = new StringBuilder();
+        for (String ward : SyntheticData.WARDS) {
+            wards.append(ward).append('=').append(records / 100 + 1).append('\n');
+        }
+        Files.writeString(dir.resolve("wards.cfg"), wards);
+        return dir;
+    }
+
+    private static void measure(String label, PatientStore store, int records) throws Exception {
+        long before = usedHeap();
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDate first = LocalDate.of(2015, 1, 1);
+        for (int i = 0; i < records; i++) {
+            LocalDate admitted = first.plusDays(random.nextInt(3650));
+            Patient p = new Patient(SyntheticData.id(i), "Patient " + i, random.nextInt(1, 95),
+                SyntheticData.WARDS[i % SyntheticData.WARDS.length], admitted);
+            if (i % 100 != 0) {
+                p.discharge(admitted.plusDays(random.nextInt(30)));
+            }
+            store.add(p);
+            if (store instanceof PagedPatientStore && i % 10_000 == 9_999) {
+                ((PagedPatientStore) store).flush(); // as journal compaction would
+            }
+        }
+        if (store instanceof PagedPatientStore) {
+            ((PagedPatientStore) store).flush();
+        }
+        long after = usedHeap();
+        report(label, store.size(), after - before, records);
+    }
+
+    private static void report(String label, int size, long retained, int records) {
+        System.out.printf("%-24s %,d records: %,d bytes retained, %.1f bytes/record%n",
+            label, size, retained, retained / (double) records);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
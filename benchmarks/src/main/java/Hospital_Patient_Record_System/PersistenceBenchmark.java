@@ -0,0 +1,77 @@
+package Hospital_Patient_Record_System;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup load (CSV, binary snapshot and paged patients.db) and the
+ * savePatients checkpoint at 10k / 100k / 1M rows.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx3g"})
+@State(Scope.Benchmark)
+public class PersistenceBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private Path csvDir;
+    private Path snapshotDir;
+    private Path pagedDir;
+    private HospitalSystemWithCSV loaded;
+
+    @Setup
+    public void setUp() throws Exception {
+        csvDir = SyntheticData.createDataDir(rows);
+        snapshotDir = SyntheticData.createDataDir(rows);
+        new HospitalSystemWithCSV(snapshotDir).savePatients(); // writes patients.snap
+        pagedDir = SyntheticData.createDataDir(rows);
+        new PagedPatientRepository(pagedDir, EventSink.NO_OP).load(List.of(SyntheticData.WARDS)); // imports into patients.db
+        loaded = new HospitalSystemWithCSV(csvDir);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        SyntheticData.deleteRecursively(csvDir);
+        SyntheticData.deleteRecursively(snapshotDir);
+        SyntheticData.deleteRecursively(pagedDir);
+    }
+
+    @Benchmark
+    public HospitalSystemWithCSV loadPatientsFromCsv() throws Exception {
+        Files.deleteIfExists(csvDir.resolve("patients.snap"));
+        return new HospitalSystemWithCSV(csvDir);
+    }
+
+    @Benchmark
+    public HospitalSystemWithCSV loadPatientsFromSnapshot() {
+        return new HospitalSystemWithCSV(snapshotDir);
+    }
+
+    @Benchmark
+    public HospitalSystemWithCSV loadPatientsFromPagedStore() throws Exception {
+        return new HospitalSystemWithCSV(pagedDir, EventSink.NO_OP, new PagedPatientRepository(pagedDir, EventSink.NO_OP));
+    }
+
+    @Benchmark
+    public void savePatients() {
+        loaded.savePatients();
+    }
+}
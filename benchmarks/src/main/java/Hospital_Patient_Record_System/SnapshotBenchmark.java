@@ -0,0 +1,76 @@
+package Hospital_Patient_Record_System;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full patient report over a HospitalSnapshot running next to a thread
+ * that keeps admitting and discharging; both are measured, so the report
+ * shows what reading costs and the front desk shows whether it waits.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Group)
+public class SnapshotBenchmark {
+    @Param({"100000"})
+    int rows;
+
+    Path dataDir;
+    HospitalSystemWithCSV hospital;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dataDir = SyntheticData.createDataDir(rows);
+        hospital = new HospitalSystemWithCSV(dataDir);
+        hospital.setDurabilityMode(DurabilityMode.ASYNC);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        hospital.close();
+        SyntheticData.deleteRecursively(dataDir);
+    }
+
+    @Benchmark
+    @Group("reportDuringAdmissions")
+    @GroupThreads(1)
+    public void admitAndDischarge() throws Exception {
+        String id = "BS" + next++;
+        hospital.admitPatient(id, "Bench Patient", 40, "General");
+        hospital.dischargePatient(id);
+    }
+
+    @Benchmark
+    @Group("reportDuringAdmissions")
+    @GroupThreads(1)
+    public int listAllPatients() {
+        HospitalSnapshot snapshot = hospital.snapshot();
+        int admitted = 0;
+        for (Patient p : snapshot.getAllPatients()) {
+            if ("admitted".equals(p.getStatus())) {
+                admitted++;
+            }
+        }
+        return admitted;
+    }
+}
@@ -0,0 +1,86 @@
+package Hospital_Patient_Record_System;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Deterministic synthetic hospital data for the benchmarks
+ */
+final class SyntheticData {
+    static final String[] WARDS = {"ICU", "General", "Pediatric", "Emergency"};
+    private static final LocalDate FIRST_ADMISSION = LocalDate.of(2015, 1, 1);
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Creates a data directory with a patients.csv of {@code rows} patients
+     * (one admitted patient per ward, the rest discharged) and a rates.cfg.
+     */
+    static Path createDataDir(int rows) throws IOException {
+        Path dir = Files.createTempDirectory("hospital-bench");
+        SplittableRandom random = new SplittableRandom(42);
+        try (BufferedWriter out = Files.newBufferedWriter(dir.resolve("patients.csv"), StandardCharsets.UTF_8)) {
+            out.write(PatientJournal.CSV_HEADER);
+            out.write('\n');
+            for (int i = 0; i < rows; i++) {
+                String status = i < WARDS.length ? "admitted" : "discharged";
+                out.write(id(i) + ",Patient " + i + "," + random.nextInt(1, 95) + "," + WARDS[i % WARDS.length]
+                    + "," + FIRST_ADMISSION.plusDays(random.nextInt(3650)) + "," + status + "\n");
+            }
+        }
+        Files.writeString(dir.resolve("rates.cfg"),
+            "ICU=5000\nGeneral=2000\nPediatric=2500\nEmergency=8000\n", StandardCharsets.UTF_8);
+        return dir;
+    }
+
+    /**
+     * {@code count} discharged patients with stays of 1 to 30 days
+     */
+    static List<Patient> dischargedPatients(int count) throws Exception {
+        SplittableRandom random = new SplittableRandom(7);
+        List<Patient> patients = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDate admitted = FIRST_ADMISSION.plusDays(random.nextInt(3650));
+            Patient p = new Patient(id(i), "Patient " + i, random.nextInt(1, 95), WARDS[i % WARDS.length], admitted);
+            p.discharge(admitted.plusDays(random.nextInt(30)));
+            patients.add(p);
+        }
+        return patients;
+    }
+
+    static String id(int i) {
+        return "B" + i;
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        if (dir == null || !Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    /**
+     * Sends System.out nowhere, for benchmarks of methods whose job is to
+     * print (BillingService.generateBillingReport), so the report stays out
+     * of the JMH output
+     */
+    static void silenceConsole() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+}
@@ -0,0 +1,66 @@
+package Hospital_Patient_Record_System;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ward.addPatient / removePatient with every thread hammering the same
+ * ward, versus each thread using its own ward. Run with -t to vary the
+ * thread count and check that separate wards scale with cores.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class WardContentionBenchmark {
+    @State(Scope.Benchmark)
+    public static class SharedWard {
+        Ward ward;
+
+        @Setup
+        public void setUp() {
+            ward = new Ward("General", 1_000_000);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PerThread {
+        private static final AtomicInteger IDS = new AtomicInteger();
+        Ward ownWard;
+        Patient patient;
+
+        @Setup
+        public void setUp() throws Exception {
+            int id = IDS.incrementAndGet();
+            ownWard = new Ward("Ward" + id, 1_000_000);
+            patient = new Patient(SyntheticData.id(id), "Patient " + id, 40, "General", LocalDate.now());
+        }
+    }
+
+    @Benchmark
+    public void sameWard(SharedWard shared, PerThread thread) throws Exception {
+        shared.ward.addPatient(thread.patient);
+        shared.ward.removePatient(thread.patient);
+    }
+
+    @Benchmark
+    public void separateWards(PerThread thread) throws Exception {
+        thread.ownWard.addPatient(thread.patient);
+        thread.ownWard.removePatient(thread.patient);
+    }
+}
@@ -0,0 +1,193 @@
+package Hospital_Patient_Record_System;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AuditLogTest {
+    private static final long START = Instant.parse("2024-03-01T08:00:00Z").toEpochMilli();
+    private static final String[] NAMES = {"O\\Brien", "Zoë \\c Ünal", "trailing \\", "\\n not a newline", "名前"};
+
+    @TempDir
+    Path dir;
+
+    private final long[] now = {START};
+    private final List<String> warnings = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void awkwardNamesAndWardsRoundTripThroughEventsAndSnapshots() throws Exception {
+        Map<String, Patient> expected = new LinkedHashMap<>();
+        Map<String, Double> rates = new LinkedHashMap<>();
+        rates.put("ICU", 5000.0);
+        rates.put("East, Wing", 1200.0);
+        AuditLog log = writeLog(expected, rates, 40);
+
+        assertTrue(log.getSnapshotCount() > 1, "snapshots were taken: " + log.getSnapshotCount());
+        assertEquals(Collections.emptyList(), warnings);
+        AuditLog.State state = AuditLog.openReadOnly(audit()).stateAt(Instant.ofEpochMilli(now[0]));
+        assertEquals(expected.size(), state.size());
+        for (Patient p : expected.values()) {
+            Patient logged = state.getPatient(p.getId());
+            assertNotNull(logged, p.getId());
+            assertEquals(p.getName(), logged.getName());
+            assertEquals(p.getDischargeDate(), logged.getDischargeDate());
+        }
+        assertEquals(rates, state.getRates().asMap());
+    }
+
+    @Test
+    void corruptedEventDoesNotHideTheEventsAfterIt() throws Exception {
+        Map<String, Patient> expected = new LinkedHashMap<>();
+        Map<String, Double> rates = new LinkedHashMap<>();
+        rates.put("ICU", 5000.0);
+        writeLog(expected, rates, 12);
+
+        // a damaged line in the middle of sealed segment 1 (events 1-5)
+        Path segment = audit().resolve("segment-00000001.log.gz");
+        List<String> lines = new ArrayList<>(List.of(gunzip(segment).split("\n")));
+        lines.add(1, "garbage,not,an,event");
+        gzip(segment, String.join("\n", lines) + "\n");
+
+        AuditLog.State state = AuditLog.openReadOnly(audit()).stateAt(Instant.ofEpochMilli(START + 5));
+        assertEquals(4, state.size());
+        assertNotNull(state.getPatient("P1").getDischargeDate());
+        assertNotNull(state.getPatient("P4"));
+    }
+
+    @Test
+    void eventsFromManyThreadsAreAllWritten() throws Exception {
+        AuditLog log = new AuditLog(audit(), event -> warnings.add(event.getMessage()), Clock.systemUTC(), 500, 2);
+        log.reconcile(Collections.emptyList(), RateTable.defaults(), DiscountSchedule.flat(0));
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 500; i++) {
+                        Patient p = new Patient("T" + thread + "-" + i, "Worker", 40, "ICU", LocalDate.of(2024, 3, 1));
+                        log.admitted(p);
+                        if (i % 2 == 0) {
+                            log.discharged(p, LocalDate.of(2024, 3, 2));
+                        }
+                    }
+                } catch (InvalidPatientDataException e) {
+                    throw new AssertionError(e);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        AuditLog.State live = log.stateAt(Instant.now().plusSeconds(1));
+        assertEquals(4000, live.size());
+        assertEquals(2000, live.getAdmittedCount());
+        log.close();
+        assertEquals(6000, log.getAppendedCount());
+        assertEquals(Collections.emptyList(), warnings);
+    }
+
+    @Test
+    void eventsLostInACrashAreRecoveredAtTheNextStart() throws Exception {
+        Patient stays = new Patient("P1", "Asha Rao", 40, "ICU", LocalDate.of(2024, 3, 1));
+        Patient leaves = new Patient("P2", "O\\Brien", 50, "ICU", LocalDate.of(2024, 3, 1));
+        AuditLog crashed = new AuditLog(audit(), event -> warnings.add(event.getMessage()), Clock.systemUTC(), 100, 2);
+        crashed.reconcile(Collections.emptyList(), RateTable.defaults(), DiscountSchedule.flat(0));
+        crashed.admitted(stays);
+        crashed.flush();
+        // the process dies here: P2's admission and discharge were journaled but never audited
+        leaves.discharge(LocalDate.of(2024, 3, 4));
+        Patient lost = new Patient("P3", "Zoë Ünal", 60, "ICU", LocalDate.of(2024, 3, 2));
+
+        AuditLog reopened = new AuditLog(audit(), event -> warnings.add(event.getMessage()), Clock.systemUTC(), 100, 2);
+        reopened.reconcile(List.of(stays, leaves, lost), RateTable.defaults(), DiscountSchedule.flat(0));
+        AuditLog.State state = reopened.stateAt(Instant.now().plusSeconds(1));
+        assertEquals(3, state.size());
+        assertEquals(LocalDate.of(2024, 3, 4), state.getPatient("P2").getDischargeDate());
+        assertEquals("O\\Brien", state.getPatient("P2").getName());
+        assertEquals(LocalDate.of(2024, 3, 2), state.getPatient("P3").getAdmitDate());
+        assertEquals(3, reopened.getAppendedCount(), "P2 admitted and discharged, P3 admitted");
+        assertEquals(1, warnings.size(), warnings.toString());
+        reopened.close();
+
+        // after a clean close nothing was lost, so the patients are not compared again
+        AuditLog afterCleanClose = new AuditLog(audit(), EventSink.NO_OP, Clock.systemUTC(), 100, 2);
+        afterCleanClose.reconcile(List.of(stays, leaves, lost), RateTable.defaults(), DiscountSchedule.flat(0));
+        afterCleanClose.close();
+        assertEquals(0, afterCleanClose.getAppendedCount());
+    }
+
+    /**
+     * Writes {@code events} admissions, discharges and rate changes of the
+     * comma ward, one per millisecond, in segments of five
+     */
+    private AuditLog writeLog(Map<String, Patient> expected, Map<String, Double> rates, int events) throws Exception {
+        Clock clock = new Clock() {
+            public ZoneId getZone() { return ZoneOffset.UTC; }
+            public Clock withZone(ZoneId zone) { return this; }
+            public Instant instant() { return Instant.ofEpochMilli(now[0]); }
+        };
+        AuditLog log = new AuditLog(audit(), event -> warnings.add(event.getMessage()), clock, 5, 2);
+        log.reconcile(Collections.emptyList(), RateTable.of(rates), DiscountSchedule.flat(0));
+        LocalDate today = LocalDate.of(2024, 3, 1);
+        for (int i = 0; i < events; i++) {
+            now[0]++;
+            if (i % 3 == 2 && expected.containsKey("P" + (i - 1))) {
+                Patient p = expected.get("P" + (i - 1));
+                p.discharge(today.plusDays(i));
+                log.discharged(p, p.getDischargeDate());
+            } else if (i % 10 == 9) {
+                rates.put("East, Wing", 1200.0 + i);
+                log.ratesChanged(RateTable.of(rates));
+            } else {
+                Patient p = new Patient("P" + i, NAMES[i % NAMES.length], 40, "ICU", today);
+                expected.put(p.getId(), p);
+                log.admitted(p);
+            }
+        }
+        log.close();
+        return log;
+    }
+
+    private Path audit() {
+        return dir.resolve("audit");
+    }
+
+    private static String gunzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            in.transferTo(out);
+            return out.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void gzip(Path file, String text) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package Hospital_Patient_Record_System;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class BedAllocatorTest {
+
+    @Test
+    void handsOutTheLowestFreeBedUntilFull() {
+        BedAllocator beds = new BedAllocator(130);
+        for (int bed = 0; bed < 130; bed++) {
+            assertEquals(bed, beds.allocate());
+        }
+        assertEquals(-1, beds.allocate());
+        beds.release(64);
+        beds.release(3);
+        assertEquals(2, beds.getFreeCount());
+        assertEquals(3, beds.allocate());
+        assertEquals(64, beds.allocate());
+        assertEquals(0, beds.getFreeCount());
+    }
+
+    @Test
+    void shrinkingBelowHeldBedsDoesNotFreeThem() {
+        BedAllocator beds = new BedAllocator(10);
+        for (int bed = 0; bed < 10; bed++) {
+            beds.allocate();
+        }
+        beds.release(2);
+        beds.setCapacity(5);
+        assertEquals(1, beds.getFreeCount());
+        assertTrue(beds.isHeld(8));
+        assertFalse(beds.allocate(7), "held bed above the capacity");
+
+        beds.release(8);
+        assertEquals(1, beds.getFreeCount(), "a released bed above the capacity stays out of use");
+        assertEquals(2, beds.allocate());
+        assertEquals(-1, beds.allocate());
+
+        beds.setCapacity(10);
+        assertEquals(1, beds.getFreeCount(), "only bed 8 comes back, 5-7 and 9 are still held");
+        assertEquals(8, beds.allocate());
+        assertEquals(-1, beds.allocate());
+    }
+
+    @Test
+    void growingAcrossLevelsKeepsHeldBeds() {
+        BedAllocator beds = new BedAllocator(3);
+        beds.allocate();
+        beds.allocate();
+        beds.setCapacity(100_000);
+        assertEquals(99_998, beds.getFreeCount());
+        assertEquals(2, beds.allocate());
+        assertTrue(beds.allocate(99_999));
+        assertFalse(beds.allocate(99_999));
+        assertFalse(beds.allocate(100_000));
+        beds.setCapacity(2);
+        assertEquals(0, beds.getFreeCount());
+        assertEquals(-1, beds.allocate());
+    }
+
+    @Test
+    void randomResizesMatchAPlainBitSet() {
+        Random random = new Random(3);
+        BedAllocator beds = new BedAllocator(20);
+        BitSet held = new BitSet();
+        int capacity = 20;
+        for (int step = 0; step < 20_000; step++) {
+            int op = random.nextInt(10);
+            if (op == 0) {
+                capacity = random.nextInt(5_000);
+                beds.setCapacity(capacity);
+            } else if (op < 6) {
+                int expected = lowestFree(held, capacity);
+                assertEquals(expected, beds.allocate());
+                if (expected >= 0) {
+                    held.set(expected);
+                }
+            } else if (!held.isEmpty()) {
+                int bed = held.nextSetBit(random.nextInt(held.length()));
+                if (bed < 0) {
+                    bed = held.nextSetBit(0);
+                }
+                beds.release(bed);
+                held.clear(bed);
+            }
+            int free = 0;
+            for (int bed = 0; bed < capacity; bed++) {
+                if (!held.get(bed)) {
+                    free++;
+                }
+            }
+            assertEquals(free, beds.getFreeCount(), "free beds after step " + step);
+        }
+    }
+
+    private static int lowestFree(BitSet held, int capacity) {
+        int bed = held.nextClearBit(0);
+        return bed < capacity ? bed : -1;
+    }
+}
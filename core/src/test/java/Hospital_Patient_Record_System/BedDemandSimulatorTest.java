@@ -0,0 +1,91 @@
+package Hospital_Patient_Record_System;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class BedDemandSimulatorTest {
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 30);
+
+    @Test
+    void aSeedRepeatsTheSameForecast() throws Exception {
+        Map<String, Integer> beds = new LinkedHashMap<>();
+        beds.put("ICU", 12);
+        beds.put("General", 40);
+        beds.put("Pediatric", 15);
+        BedDemandSimulator simulator = BedDemandSimulator.fromHistory(history(new Random(31)), beds,
+            Map.of("ICU", List.of("General"), "Pediatric", List.of("General")), TODAY, 180);
+
+        // not a multiple of the scenarios per task, so the last task is short
+        BedDemandSimulator.Forecast first = simulator.run(simulator.scaledBeds(90), 1_000, 60, 42);
+        BedDemandSimulator.Forecast again = simulator.run(simulator.scaledBeds(90), 1_000, 60, 42);
+        BedDemandSimulator.Forecast other = simulator.run(simulator.scaledBeds(90), 1_000, 60, 43);
+
+        assertEquals(first.getAdmissions(), again.getAdmissions());
+        for (String ward : beds.keySet()) {
+            BedDemandSimulator.WardForecast a = first.getWard(ward);
+            BedDemandSimulator.WardForecast b = again.getWard(ward);
+            assertEquals(a.getBeds(), b.getBeds(), ward);
+            assertEquals(a.getProbabilityFull(), b.getProbabilityFull(), ward);
+            assertEquals(a.getProbabilityTurnedAway(), b.getProbabilityTurnedAway(), ward);
+            assertEquals(a.getMeanTurnedAway(), b.getMeanTurnedAway(), ward);
+            assertEquals(a.getPeakOccupancyP95(), b.getPeakOccupancyP95(), ward);
+        }
+        assertNotEquals(first.getAdmissions(), other.getAdmissions());
+    }
+
+    @Test
+    void aSteadyHistoryGivesASteadyForecast() throws Exception {
+        // two ICU admissions every day for a month, each staying three days
+        List<Patient> history = new ArrayList<>();
+        for (int day = 30; day > 0; day--) {
+            for (int i = 0; i < 2; i++) {
+                Patient p = new Patient("P" + day + "-" + i, "Patient", 50, "ICU", TODAY.minusDays(day));
+                p.discharge(p.getAdmitDate().plusDays(2));
+                history.add(p);
+            }
+        }
+        Map<String, Integer> beds = new LinkedHashMap<>();
+        beds.put("ICU", 20);
+        beds.put("General", 20);
+        BedDemandSimulator simulator = BedDemandSimulator.fromHistory(history, beds,
+            Map.of("ICU", List.of("General")), TODAY, 365);
+
+        BedDemandSimulator.Forecast roomy = simulator.run(beds, 200, 30, 7);
+        assertEquals(200L * 30 * 2, roomy.getAdmissions());
+        assertEquals(0.0, roomy.getWard("ICU").getProbabilityFull());
+        assertEquals(6, roomy.getWard("ICU").getPeakOccupancyP95());
+        assertEquals(0, roomy.getWard("General").getPeakOccupancyP95());
+
+        // four ICU beds: the overflow to General takes the other two
+        BedDemandSimulator.Forecast tight = simulator.run(Map.of("ICU", 4), 200, 30, 7);
+        assertEquals(200L * 30 * 2, tight.getAdmissions());
+        assertEquals(1.0, tight.getWard("ICU").getProbabilityFull());
+        assertEquals(0.0, tight.getWard("ICU").getProbabilityTurnedAway());
+        assertEquals(4, tight.getWard("ICU").getPeakOccupancyP95());
+        assertEquals(2, tight.getWard("General").getPeakOccupancyP95());
+    }
+
+    private static List<Patient> history(Random random) throws Exception {
+        String[] wards = {"ICU", "General", "Pediatric"};
+        List<Patient> list = new ArrayList<>();
+        for (int i = 0; i < 4_000; i++) {
+            LocalDate in = TODAY.minusDays(random.nextInt(180));
+            Patient p = new Patient("P" + i, "Patient " + i, random.nextInt(90), wards[random.nextInt(wards.length)], in);
+            LocalDate out = in.plusDays(random.nextInt(12));
+            if (out.isBefore(TODAY)) {
+                p.discharge(out);
+            }
+            list.add(p);
+        }
+        return list;
+    }
+}
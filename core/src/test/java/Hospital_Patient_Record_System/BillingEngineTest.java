@@ -0,0 +1,107 @@
+package Hospital_Patient_Record_System;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+class BillingEngineTest {
+    private static final String[] WARDS = {"ICU", "General", "Pediatric", "Closed"};
+
+    @Test
+    void parallelRunMatchesBillingOneAtATime() throws Exception {
+        BillingEngine engine = engine();
+        List<Patient> patients = patients(30_000, new Random(7));
+
+        BillingResult result = engine.bill(patients);
+        Map<String, Long> sequential = new HashMap<>();
+        int discharged = 0;
+        for (Patient p : patients) {
+            PatientBill bill = engine.billFor(p);
+            if (bill != null) {
+                sequential.merge(p.getWard(), bill.getNetPaise(), Long::sum);
+                discharged++;
+            }
+        }
+        assertEquals(discharged, result.size());
+        for (int i = 0; i < result.size(); i++) {
+            assertEquals(engine.billFor(result.getPatient(i)).getFinalBill(), result.getFinalBill(i));
+        }
+
+        long all = 0;
+        for (Map.Entry<String, BigDecimal> e : result.getWardTotals().entrySet()) {
+            String ward = e.getKey() == null ? "Closed" : e.getKey();
+            assertEquals(BillingEngine.fromPaise(sequential.getOrDefault(ward, 0L)), e.getValue(), ward);
+            all += sequential.getOrDefault(ward, 0L);
+        }
+        assertEquals(BillingEngine.fromPaise(all), result.getGrandTotal());
+    }
+
+    @Test
+    void smallRunsAndStreamedBillsAddUpToTheParallelTotal() throws Exception {
+        BillingEngine engine = engine();
+        List<Patient> patients = patients(100_000, new Random(11));
+
+        long chunked = 0;
+        for (int from = 0; from < patients.size(); from += 7_000) {
+            BillingResult part = engine.bill(patients.subList(from, Math.min(patients.size(), from + 7_000)));
+            chunked += BillingEngine.toPaise(part.getGrandTotal());
+        }
+        long[] streamed = new long[2];
+        engine.forEachBill(patients, bill -> {
+            streamed[0] += bill.getNetPaise();
+            streamed[1]++;
+        });
+
+        BillingResult whole = engine.bill(patients);
+        assertEquals(BillingEngine.fromPaise(chunked), whole.getGrandTotal());
+        assertEquals(BillingEngine.fromPaise(streamed[0]), whole.getGrandTotal());
+        assertEquals(whole.size(), streamed[1]);
+    }
+
+    @Test
+    void discountsRoundHalfToEvenPerBill() {
+        assertEquals(2, BillingEngine.divideHalfEven(25, 10));
+        assertEquals(4, BillingEngine.divideHalfEven(35, 10));
+        assertEquals(3, BillingEngine.divideHalfEven(26, 10));
+        assertEquals(-2, BillingEngine.divideHalfEven(-25, 10));
+        // 10.5% of ₹1,234.50 is 129.6225
+        assertEquals(12_962, BillingEngine.discountFor(123_450, 1_050));
+    }
+
+    private static BillingEngine engine() {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        rates.put("ICU", 5000.0);
+        rates.put("General", 1999.99);
+        rates.put("Pediatric", 2500.5);
+        NavigableMap<LocalDate, Long> discounts = new TreeMap<>();
+        discounts.put(LocalDate.MIN, 1_000L);
+        discounts.put(LocalDate.of(2023, 6, 1), 1_275L);
+        discounts.put(LocalDate.of(2024, 1, 1), 333L);
+        return new BillingEngine(rates, DiscountSchedule.ofHundredths(discounts));
+    }
+
+    private static List<Patient> patients(int n, Random random) throws Exception {
+        List<Patient> list = new ArrayList<>(n);
+        LocalDate first = LocalDate.of(2023, 1, 1);
+        for (int i = 0; i < n; i++) {
+            LocalDate in = first.plusDays(random.nextInt(600));
+            Patient p = new Patient("P" + i, "Patient " + i, 1 + random.nextInt(90), WARDS[random.nextInt(WARDS.length)], in);
+            if (random.nextInt(10) < 8) {
+                p.discharge(in.plusDays(random.nextInt(40)));
+            }
+            list.add(p);
+        }
+        return list;
+    }
+}
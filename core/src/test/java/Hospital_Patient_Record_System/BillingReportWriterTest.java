@@ -0,0 +1,144 @@
+package Hospital_Patient_Record_System;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BillingReportWriterTest {
+    private static final String[] WARDS = {"ICU", "General", "Pediatric"};
+    // more than one streamed block, so rows from parallel pricing must stay in order
+    private static final int PATIENTS = 60_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void csvHasOneRowPerDischargedPatientInOrder() throws Exception {
+        BillingEngine engine = engine();
+        List<Patient> patients = patients(new Random(13));
+        Path target = dir.resolve("billing.csv");
+
+        BillingReportWriter.Stats stats = new BillingReportWriter(engine, BillingReportWriter.Format.CSV).write(patients, target);
+
+        List<PatientBill> bills = bills(engine, patients);
+        List<String> lines = Files.readAllLines(target);
+        assertEquals(bills.size(), stats.getRows());
+        assertEquals(bills.size() + 1, lines.size());
+        assertEquals("PatientID,Name,Ward,Days,DailyRate,TotalBill,Discount,FinalBill", lines.get(0));
+        for (int i = 0; i < bills.size(); i++) {
+            PatientBill b = bills.get(i);
+            String expected = String.join(",", b.getPatientId(), "Patient " + b.getPatientId(), b.getWard(),
+                String.valueOf(b.getDays()), b.getDailyRate().toPlainString(), b.getTotalBill().toPlainString(),
+                b.getDiscount().toPlainString(), b.getFinalBill().toPlainString());
+            assertEquals(expected, lines.get(i + 1));
+        }
+    }
+
+    @Test
+    void jsonLinesQuoteNamesAndCarryTheFinalBill() throws Exception {
+        BillingEngine engine = engine();
+        List<Patient> patients = new ArrayList<>();
+        Patient quoted = new Patient("Q1", "Anna \"Nan\" Zoë", 40, "ICU", LocalDate.of(2024, 2, 1));
+        quoted.discharge(LocalDate.of(2024, 2, 3));
+        patients.add(quoted);
+        patients.addAll(patients(new Random(17)));
+        Path target = dir.resolve("billing.jsonl");
+
+        new BillingReportWriter(engine, BillingReportWriter.Format.JSONL).write(patients, target);
+
+        List<PatientBill> bills = bills(engine, patients);
+        List<String> lines = Files.readAllLines(target);
+        assertEquals(bills.size(), lines.size());
+        assertEquals("{\"id\":\"Q1\",\"name\":\"Anna \\\"Nan\\\" Zoë\",\"ward\":\"ICU\",\"days\":3,"
+            + "\"dailyRate\":5000.00,\"totalBill\":15000.00,\"discount\":1500.00,\"finalBill\":13500.00}", lines.get(0));
+        for (int i = 0; i < bills.size(); i++) {
+            PatientBill b = bills.get(i);
+            String line = lines.get(i);
+            assertTrue(line.startsWith("{\"id\":\"" + b.getPatientId() + "\","), line);
+            assertTrue(line.endsWith(",\"finalBill\":" + b.getFinalBill().toPlainString() + "}"), line);
+        }
+    }
+
+    @Test
+    void textFooterTotalsEachWardAndTheHospital() throws Exception {
+        BillingEngine engine = engine();
+        List<Patient> patients = patients(new Random(19));
+        StringWriter out = new StringWriter();
+
+        long rows = new BillingReportWriter(engine, BillingReportWriter.Format.TEXT).write(patients, out);
+
+        BillingResult result = engine.bill(patients);
+        assertEquals(result.size(), rows);
+        String text = out.toString();
+        assertTrue(text.startsWith("HOSPITAL BILLING REPORT\n"), text.substring(0, 40));
+        Map<String, BigDecimal> wards = new LinkedHashMap<>();
+        String footer = text.substring(text.lastIndexOf("=".repeat(50) + "\n") + 51);
+        for (String line : footer.split("\n")) {
+            int at = line.indexOf(": ₹");
+            wards.put(line.substring(0, at), new BigDecimal(line.substring(at + 3)));
+        }
+        BigDecimal all = wards.remove("All wards (" + rows + " bills)");
+        assertEquals(result.getGrandTotal(), all);
+        Map<String, BigDecimal> expected = new TreeMap<>();
+        for (Map.Entry<String, BigDecimal> e : result.getWardTotals().entrySet()) {
+            expected.put(e.getKey() + " total", e.getValue());
+        }
+        assertEquals(expected, new TreeMap<>(wards));
+    }
+
+    @Test
+    void formatsAreFoundByNameOrExtension() {
+        assertEquals(BillingReportWriter.Format.JSONL, BillingReportWriter.Format.fromName("jsonl"));
+        assertEquals(BillingReportWriter.Format.CSV, BillingReportWriter.Format.fromName("Csv"));
+        assertEquals(BillingReportWriter.Format.TEXT, BillingReportWriter.Format.fromName("txt"));
+        assertThrows(IllegalArgumentException.class, () -> BillingReportWriter.Format.fromName("xml"));
+    }
+
+    private static List<PatientBill> bills(BillingEngine engine, List<Patient> patients) {
+        List<PatientBill> bills = new ArrayList<>();
+        for (Patient p : patients) {
+            PatientBill bill = engine.billFor(p);
+            if (bill != null) {
+                bills.add(bill);
+            }
+        }
+        return bills;
+    }
+
+    private static BillingEngine engine() {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        rates.put("ICU", 5000.0);
+        rates.put("General", 1999.99);
+        rates.put("Pediatric", 2500.5);
+        return new BillingEngine(rates, 10.0);
+    }
+
+    private static List<Patient> patients(Random random) throws Exception {
+        List<Patient> list = new ArrayList<>(PATIENTS);
+        LocalDate first = LocalDate.of(2023, 1, 1);
+        for (int i = 0; i < PATIENTS; i++) {
+            LocalDate in = first.plusDays(random.nextInt(600));
+            Patient p = new Patient("P" + i, "Patient P" + i, random.nextInt(90), WARDS[random.nextInt(WARDS.length)], in);
+            if (random.nextInt(10) < 7) {
+                p.discharge(in.plusDays(random.nextInt(30)));
+            }
+            list.add(p);
+        }
+        return list;
+    }
+}
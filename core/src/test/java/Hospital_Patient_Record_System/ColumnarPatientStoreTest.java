@@ -0,0 +1,128 @@
+package Hospital_Patient_Record_System;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ColumnarPatientStoreTest {
+    private static final String[] WARDS = {"ICU", "General", "Pediatric"};
+    private static final int PATIENTS = 5_000;
+
+    @Test
+    void flyweightsReadBackEveryColumn() throws Exception {
+        ColumnarPatientStore store = new ColumnarPatientStore();
+        List<Patient> added = fill(store);
+
+        assertEquals(PATIENTS, store.size());
+        assertFalse(store.add(new Patient("P7", "Someone Else", 30, "ICU", LocalDate.of(2024, 1, 1))));
+        assertEquals(PATIENTS, store.size());
+        assertNull(store.get("P" + PATIENTS));
+
+        Iterator<Patient> rows = store.all().iterator();
+        for (Patient p : added) {
+            assertStored(p, store.get(p.getId()));
+            assertStored(p, rows.next());
+        }
+        assertFalse(rows.hasNext());
+
+        int discharged = 0;
+        for (Patient p : added) {
+            if (p.getDischargeDate() != null) {
+                discharged++;
+            }
+        }
+        assertEquals(discharged, store.byStatus("discharged").size());
+        assertEquals(PATIENTS - discharged, count(store.byStatus("admitted")));
+        assertEquals(0, store.byStatus("transferred").size());
+        int inWards = 0;
+        for (String ward : WARDS) {
+            int n = count(store.byWard(ward));
+            assertEquals(n, store.byWard(ward).size());
+            for (Patient p : store.byWard(ward)) {
+                assertEquals(ward, p.getWard());
+            }
+            inWards += n;
+        }
+        assertEquals(PATIENTS, inWards);
+    }
+
+    @Test
+    void dischargeThroughAFlyweightWritesTheColumn() throws Exception {
+        ColumnarPatientStore store = new ColumnarPatientStore();
+        fill(store);
+        Patient admitted = store.byStatus("admitted").iterator().next();
+        int before = store.byStatus("discharged").size();
+        LocalDate out = admitted.getAdmitDate().plusDays(9);
+
+        admitted.discharge(out);
+
+        Patient reread = store.get(admitted.getId());
+        assertEquals("discharged", reread.getStatus());
+        assertEquals(out, reread.getDischargeDate());
+        assertEquals(10, reread.getDaysAdmitted());
+        assertEquals(before + 1, store.byStatus("discharged").size());
+        assertEquals(before + 1, count(store.byStatus("discharged")));
+        assertThrows(PatientAlreadyDischargedException.class, () -> reread.discharge(out.plusDays(1)));
+        assertEquals(out, store.get(admitted.getId()).getDischargeDate());
+    }
+
+    @Test
+    void viewsSeeRowsAddedAndDischargedWhileTheyAreHeld() throws Exception {
+        ColumnarPatientStore store = new ColumnarPatientStore();
+        Collection<Patient> discharged = store.byStatus("discharged");
+        assertTrue(discharged.isEmpty());
+
+        Patient p = new Patient("A1", "Meera Iyer", 72, "ICU", LocalDate.of(2024, 3, 1));
+        store.add(p);
+        assertEquals(0, discharged.size());
+        store.get("A1").discharge(LocalDate.of(2024, 3, 4));
+        assertEquals(1, discharged.size());
+        assertEquals("Meera Iyer", discharged.iterator().next().getName());
+        // the original object is not a view of the row
+        assertNull(p.getDischargeDate());
+    }
+
+    private static List<Patient> fill(ColumnarPatientStore store) throws Exception {
+        List<Patient> added = new ArrayList<>(PATIENTS);
+        LocalDate first = LocalDate.of(2023, 1, 1);
+        for (int i = 0; i < PATIENTS; i++) {
+            Patient p = new Patient("P" + i, (i % 7 == 0 ? "Ŝrī " : "Patient ") + i, i % 120,
+                WARDS[i % WARDS.length], first.plusDays(i % 400));
+            if (i % 3 == 0) {
+                p.discharge(p.getAdmitDate().plusDays(i % 30));
+            }
+            assertTrue(store.add(p));
+            added.add(p);
+        }
+        return added;
+    }
+
+    private static void assertStored(Patient expected, Patient stored) {
+        assertEquals(expected.getId(), stored.getId());
+        assertEquals(expected.getName(), stored.getName());
+        assertEquals(expected.getAge(), stored.getAge());
+        assertEquals(expected.getWard(), stored.getWard());
+        assertEquals(expected.getAdmitDate(), stored.getAdmitDate());
+        assertEquals(expected.getDischargeDate(), stored.getDischargeDate());
+        assertEquals(expected.getStatus(), stored.getStatus());
+        assertEquals(expected, stored);
+    }
+
+    private static int count(Iterable<Patient> patients) {
+        int n = 0;
+        for (Iterator<Patient> it = patients.iterator(); it.hasNext(); it.next()) {
+            n++;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,47 @@
+package Hospital_Patient_Record_System;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ConfigReloaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void failedReloadIsReportedAndWatchingGoesOn() throws Exception {
+        List<HospitalEvent> events = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger reloads = new AtomicInteger();
+        Semaphore reloaded = new Semaphore(0);
+        Runnable reload = () -> {
+            reloaded.release();
+            if (reloads.incrementAndGet() == 1) {
+                throw new IllegalStateException("half-written wards.cfg");
+            }
+        };
+        try (ConfigReloader reloader = new ConfigReloader(dir, reload, events::add)) {
+            reloader.start();
+            Files.writeString(dir.resolve("wards.cfg"), "ICU=5\n");
+            assertTrue(reloaded.tryAcquire(30, TimeUnit.SECONDS), "first reload");
+            Files.writeString(dir.resolve("wards.cfg"), "ICU=6\n");
+            assertTrue(reloaded.tryAcquire(30, TimeUnit.SECONDS), "reload after the failed one");
+        }
+
+        assertEquals(2, reloads.get());
+        assertEquals(1, events.size(), events.toString());
+        assertEquals(HospitalEvent.Severity.ERROR, events.get(0).getSeverity());
+        assertTrue(events.get(0).getMessage().contains("half-written wards.cfg"), events.get(0).getMessage());
+    }
+}
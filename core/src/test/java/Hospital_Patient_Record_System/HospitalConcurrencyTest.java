@@ -0,0 +1,167 @@
+package Hospital_Patient_Record_System;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class HospitalConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 60;
+    private static final int BEDS = 20;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void racingAdmitsDischargesAndCheckpointsOnOneWard() throws Exception {
+        Files.writeString(dir.resolve("wards.cfg"), "ICU=" + BEDS + "\n");
+        HospitalSystemWithCSV hospital = new HospitalSystemWithCSV(dir);
+        Ward icu = ward(hospital);
+
+        // id -> true once discharged, for every acknowledged operation
+        Map<String, Boolean> acknowledged = new ConcurrentHashMap<>();
+        AtomicInteger duplicateAdmits = new AtomicInteger();
+        AtomicInteger duplicateRejects = new AtomicInteger();
+        List<String> overAllocations = Collections.synchronizedList(new ArrayList<>());
+        AtomicBoolean running = new AtomicBoolean(true);
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS + 2);
+        Future<?> monitor = pool.submit(() -> {
+            while (running.get()) {
+                int occupancy = icu.getOccupancy();
+                if (occupancy > BEDS) {
+                    overAllocations.add(occupancy + " of " + BEDS);
+                }
+            }
+        });
+        Future<?> checkpoints = pool.submit(() -> {
+            while (running.get()) {
+                hospital.savePatients();
+                Thread.sleep(2);
+            }
+            return null;
+        });
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            workers.add(pool.submit(() -> {
+                Random random = new Random(thread);
+                List<String> inBed = new ArrayList<>();
+                start.await();
+                try {
+                    hospital.admitPatient("DUP", "Racing Twin", 30, "ICU");
+                    duplicateAdmits.incrementAndGet();
+                    acknowledged.put("DUP", false);
+                } catch (InvalidPatientDataException e) {
+                    duplicateRejects.incrementAndGet();
+                }
+                for (int i = 0; i < ROUNDS; i++) {
+                    if (!inBed.isEmpty() && (random.nextBoolean() || inBed.size() > 2)) {
+                        String id = inBed.remove(random.nextInt(inBed.size()));
+                        hospital.dischargePatient(id);
+                        acknowledged.put(id, true);
+                    } else {
+                        String id = "T" + thread + "-" + i;
+                        try {
+                            hospital.admitPatient(id, "Worker " + thread, 40, "ICU");
+                            acknowledged.put(id, false);
+                            inBed.add(id);
+                        } catch (NoBedsAvailableException e) {
+                            // the ward is full, try again next round
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        running.set(false);
+        monitor.get(10, TimeUnit.SECONDS);
+        checkpoints.get(10, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(1, duplicateAdmits.get(), "DUP admitted");
+        assertEquals(THREADS - 1, duplicateRejects.get(), "DUP rejected");
+        assertEquals(Collections.emptyList(), overAllocations);
+
+        Set<Integer> beds = new HashSet<>();
+        int inWard = 0;
+        for (Map.Entry<String, Boolean> op : acknowledged.entrySet()) {
+            Patient patient = hospital.findPatient(op.getKey());
+            assertNotNull(patient, op.getKey() + " lost");
+            if (op.getValue()) {
+                assertNotNull(patient.getDischargeDate(), op.getKey() + " discharge lost");
+            } else {
+                assertNull(patient.getDischargeDate(), op.getKey());
+                assertTrue(beds.add(icu.getBedNumber(patient)), op.getKey() + " shares a bed");
+                inWard++;
+            }
+        }
+        assertEquals(inWard, icu.getOccupancy());
+
+        // what the checkpoints saved plus what is left in the journal
+        hospital.savePatients();
+        HospitalSystemWithCSV reopened = new HospitalSystemWithCSV(dir);
+        for (Map.Entry<String, Boolean> op : acknowledged.entrySet()) {
+            Patient patient = reopened.findPatient(op.getKey());
+            assertNotNull(patient, op.getKey() + " lost after restart");
+            assertEquals(op.getValue(), patient.getDischargeDate() != null, op.getKey() + " after restart");
+        }
+        assertEquals(inWard, ward(reopened).getOccupancy());
+    }
+
+    @Test
+    void failedJournalWriteDropsTheClaimedReservation() throws Exception {
+        Files.writeString(dir.resolve("wards.cfg"), "ICU=" + BEDS + "\n");
+        HospitalSystemWithCSV hospital = new HospitalSystemWithCSV(dir);
+        Ward icu = ward(hospital);
+        Reservation reservation = hospital.reserveBed("ICU", Duration.ofMinutes(5));
+        hospital.getJournal().close();
+
+        assertThrows(CSVFileException.class, () -> hospital.admitReserved(reservation.getId(), "P1", "Asha Rao", 40));
+
+        assertTrue(hospital.getReservations().isEmpty(), hospital.getReservations().toString());
+        assertThrows(ReservationNotFoundException.class,
+            () -> hospital.admitReserved(reservation.getId(), "P1", "Asha Rao", 40));
+        assertEquals(0, icu.getOccupancy());
+        assertEquals(0, icu.getReservedBeds());
+        assertEquals(BEDS, icu.getAvailableBeds());
+        assertEquals(0, hospital.snapshot().getReservations("ICU").size());
+    }
+
+    private static Ward ward(HospitalSystemWithCSV hospital) {
+        for (Ward ward : hospital.getWards()) {
+            if (ward.getName().equals("ICU")) {
+                return ward;
+            }
+        }
+        throw new AssertionError("no ICU ward");
+    }
+}
@@ -0,0 +1,117 @@
+package Hospital_Patient_Record_System;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class HospitalHttpServerTest {
+    private static final int CLIENTS = 64;
+    private static final int REQUESTS = 2_000;
+
+    @TempDir
+    Path dir;
+
+    private HospitalSystemWithCSV hospital;
+    private HospitalHttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void start() throws Exception {
+        Files.writeString(dir.resolve("wards.cfg"), "General=1000\n");
+        hospital = new HospitalSystemWithCSV(dir);
+        server = new HospitalHttpServer(hospital, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+        baseUrl = "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort();
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop();
+    }
+
+    @Test
+    void loadGeneratorRunsWithoutErrorsAndLeavesConsistentState() throws Exception {
+        HospitalLoadGenerator.Result result = HospitalLoadGenerator.run(baseUrl, CLIENTS, REQUESTS);
+
+        assertEquals(REQUESTS, result.getCompleted());
+        assertEquals(0, result.getErrors(), "failed requests and 5xx responses");
+        assertEquals(REQUESTS / 10, result.getAdmitted(), "every admission has its own ID and a free bed");
+        assertTrue(result.getDischarged() > 0, "no discharge succeeded");
+        assertTrue(result.percentileMillis(0.5) <= result.percentileMillis(0.99));
+
+        int admitted = 0;
+        int discharged = 0;
+        for (Patient p : hospital.getAllPatients()) {
+            if (p.getId().startsWith("LG")) {
+                admitted++;
+                if (p.getDischargeDate() != null) {
+                    discharged++;
+                }
+            }
+        }
+        assertEquals(result.getAdmitted(), admitted);
+        assertEquals(result.getDischarged(), discharged);
+        for (Ward ward : hospital.getWards()) {
+            assertEquals(admitted - discharged, ward.getOccupancy(), ward.getName());
+        }
+    }
+
+    @Test
+    void idsAndNamesThatWouldSplitARecordAreRejectedWith400() throws Exception {
+        String[] forms = {
+            "id=X1&name=foo%0Abar&age=40&ward=General",
+            "id=X1&name=foo%0Dbar&age=40&ward=General",
+            "id=X1&name=Smith%2C+John&age=40&ward=General",
+            "id=X1&name=tab%09bed&age=40&ward=General",
+            "id=X%0A1&name=Asha+Rao&age=40&ward=General",
+            "id=X%2C1&name=Asha+Rao&age=40&ward=General",
+        };
+        for (String form : forms) {
+            assertEquals(400, post("/patients", form).statusCode(), form);
+        }
+        assertNull(hospital.findPatient("X1"));
+        assertEquals(0, hospital.getAllPatients().size());
+
+        assertEquals(201, post("/patients", "id=X1&name=Asha+Rao&age=40&ward=General").statusCode());
+        assertEquals(409, post("/patients", "id=X1&name=Asha+Rao&age=40&ward=General").statusCode());
+    }
+
+    @Test
+    void occupancyHistoryStartsAtTheFirstRecordedHourAndRejectsBadDates() throws Exception {
+        for (String from : new String[] {"0001-01-01", "-999999999-01-01"}) {
+            HttpResponse<String> response = get("/occupancy/history?ward=General&by=hour&from=" + from);
+            assertEquals(200, response.statusCode(), from);
+            assertTrue(response.body().length() < 1_000, response.body());
+        }
+        assertEquals(400, get("/occupancy/history?ward=General&from=2024-13-01").statusCode());
+        assertEquals(400, get("/occupancy/history?ward=General&by=week").statusCode());
+        assertEquals(400, get("/occupancy/history?ward=Nowhere").statusCode());
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return HttpClient.newHttpClient().send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+            HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String form) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString(form))
+            .build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,79 @@
+package Hospital_Patient_Record_System;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class HospitalShutdownTest {
+    private static final int PATIENTS = 200;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void closeWritesQueuedRecordsAndSealsTheAuditLog() throws Exception {
+        Files.writeString(dir.resolve("wards.cfg"), "ICU=" + PATIENTS + "\n");
+        HospitalSystemWithCSV hospital = new HospitalSystemWithCSV(dir);
+        admitAndDischarge(hospital);
+        hospital.close();
+
+        assertTrue(Files.exists(dir.resolve("audit").resolve("audit.clean")));
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(dir.resolve("audit"), "segment-*.log.gz")) {
+            for (Path segment : segments) {
+                // a segment without its GZIP trailer fails with EOFException
+                try (InputStream in = new GZIPInputStream(Files.newInputStream(segment))) {
+                    in.readAllBytes();
+                }
+            }
+        }
+        assertRestored(new HospitalSystemWithCSV(dir));
+    }
+
+    @Test
+    void closeReleasesThePagedStore() throws Exception {
+        Files.writeString(dir.resolve("wards.cfg"), "ICU=" + PATIENTS + "\n");
+        HospitalSystemWithCSV hospital = new HospitalSystemWithCSV(dir, EventSink.NO_OP,
+            new PagedPatientRepository(dir, EventSink.NO_OP));
+        admitAndDischarge(hospital);
+        hospital.savePatients();
+        hospital.close();
+
+        assertRestored(new HospitalSystemWithCSV(dir, EventSink.NO_OP, new PagedPatientRepository(dir, EventSink.NO_OP)));
+    }
+
+    private static void admitAndDischarge(HospitalSystemWithCSV hospital) throws Exception {
+        for (int i = 0; i < PATIENTS; i++) {
+            hospital.admitPatient("P" + i, "Asha Rao", 40, "ICU", i % 2 == 0 ? DurabilityMode.ASYNC : DurabilityMode.GROUP);
+        }
+        for (int i = 0; i < PATIENTS; i += 4) {
+            hospital.dischargePatient("P" + i, DurabilityMode.ASYNC);
+        }
+    }
+
+    private static void assertRestored(HospitalSystemWithCSV reopened) {
+        try {
+            for (int i = 0; i < PATIENTS; i++) {
+                Patient p = reopened.findPatient("P" + i);
+                assertNotNull(p, "P" + i);
+                if (i % 4 == 0) {
+                    assertNotNull(p.getDischargeDate(), "P" + i);
+                } else {
+                    assertNull(p.getDischargeDate(), "P" + i);
+                }
+            }
+            assertEquals(PATIENTS - PATIENTS / 4, reopened.getWards().iterator().next().getOccupancy());
+        } finally {
+            reopened.close();
+        }
+    }
+}
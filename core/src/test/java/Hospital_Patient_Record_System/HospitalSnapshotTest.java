@@ -0,0 +1,84 @@
+package Hospital_Patient_Record_System;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class HospitalSnapshotTest {
+    private static final int PATIENTS = 3 * HospitalVersions.PRUNE_AT;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void dischargedPatientsAreDroppedOnceNoSnapshotNeedsThem() throws Exception {
+        HospitalSystemWithCSV hospital = open();
+        try {
+            admitAll(hospital);
+            HospitalSnapshot admitted = hospital.snapshot();
+            dischargeAll(hospital);
+
+            HospitalSnapshot latest = hospital.snapshot();
+            assertTrue(latest.discharged().size() < HospitalVersions.PRUNE_AT, "tracked " + latest.discharged().size());
+            assertEquals(PATIENTS, latest.getPatientCount());
+            assertEquals(PATIENTS, count(latest.getDischargedPatients()));
+            assertNotNull(latest.findPatient("P0").getDischargeDate());
+
+            // the older snapshot still sees everyone admitted
+            assertEquals(PATIENTS, admitted.getAdmittedPatients().size());
+            assertEquals(0, count(admitted.getDischargedPatients()));
+            assertNull(admitted.findPatient("P0").getDischargeDate());
+        } finally {
+            hospital.close();
+        }
+    }
+
+    @Test
+    void aSnapshotFromBeforeTheAdmissionsHoldsThePatientsBack() throws Exception {
+        HospitalSystemWithCSV hospital = open();
+        try {
+            HospitalSnapshot empty = hospital.snapshot();
+            admitAll(hospital);
+            dischargeAll(hospital);
+
+            assertEquals(PATIENTS, hospital.snapshot().discharged().size());
+            assertEquals(0, empty.getPatientCount());
+            assertEquals(0, count(empty.getAllPatients()));
+            assertNull(empty.findPatient("P0"));
+        } finally {
+            hospital.close();
+        }
+    }
+
+    private HospitalSystemWithCSV open() throws Exception {
+        Files.writeString(dir.resolve("wards.cfg"), "ICU=" + PATIENTS + "\n");
+        return new HospitalSystemWithCSV(dir);
+    }
+
+    private static void admitAll(HospitalSystemWithCSV hospital) throws Exception {
+        for (int i = 0; i < PATIENTS; i++) {
+            hospital.admitPatient("P" + i, "Patient " + i, 40, "ICU");
+        }
+    }
+
+    private static void dischargeAll(HospitalSystemWithCSV hospital) throws Exception {
+        for (int i = 0; i < PATIENTS; i++) {
+            hospital.dischargePatient("P" + i);
+        }
+    }
+
+    private static int count(Iterable<Patient> patients) {
+        int n = 0;
+        for (Patient p : patients) {
+            n++;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,123 @@
+package Hospital_Patient_Record_System;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IncrementalBillingTest {
+    private static final LocalDate FIRST = LocalDate.of(2024, 1, 1);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rateReloadRepricesOnlyThatWardsLedgerGroups() throws Exception {
+        BillingService billing = new BillingService(10);
+        List<Patient> patients = discharged(2_000, new Random(3));
+        for (Patient p : patients) {
+            billing.billDischarged(p);
+        }
+        assertLedgerMatches(billing, patients);
+        BigDecimal general = billing.getRevenue().getWardTotals().get("General").getRevenue();
+
+        Files.writeString(dir.resolve("rates.cfg"), "ICU=6150.25\n");
+        billing.setRates(RateTable.load(dir.resolve("rates.cfg"), billing.getRates(), EventSink.NO_OP));
+
+        assertLedgerMatches(billing, patients);
+        assertEquals(general, billing.getRevenue().getWardTotals().get("General").getRevenue());
+        Set<String> icuGroups = new HashSet<>();
+        for (Patient p : patients) {
+            if ("ICU".equals(p.getWard())) {
+                icuGroups.add(p.getDischargeDate() + "/" + p.getDaysAdmitted());
+            }
+        }
+        assertEquals(icuGroups.size(), billing.getRevenue().getRepricedGroups());
+    }
+
+    @Test
+    void discountChangeRepricesOnlyLaterDischarges() throws Exception {
+        BillingService billing = new BillingService(10);
+        List<Patient> patients = discharged(2_000, new Random(5));
+        for (Patient p : patients) {
+            billing.billDischarged(p);
+        }
+        LocalDate from = FIRST.plusDays(60);
+        billing.applyDiscount(12.5, from);
+
+        assertLedgerMatches(billing, patients);
+        for (Patient p : patients) {
+            BigDecimal expected = p.getDischargeDate().isBefore(from) ? new BigDecimal("10.00") : new BigDecimal("12.50");
+            assertEquals(expected, billing.billFor(p).getDiscountPercentage(), p.getId());
+        }
+    }
+
+    @Test
+    void cachedBillsAreInvalidatedOnlyWhereTheReloadChangedThePrice() throws Exception {
+        BillingService billing = new BillingService(10);
+        Patient icu = patient("P1", "ICU", FIRST, 4);
+        Patient general = patient("P2", "General", FIRST, 3);
+        BigDecimal before = billing.billDischarged(icu).getFinalBill();
+        billing.billDischarged(general);
+
+        billing.billFor(icu);
+        billing.billFor(general);
+        BillCache cache = billing.getBillCache();
+        assertEquals(2, cache.getHits());
+        assertEquals(0, cache.getMisses());
+
+        Files.writeString(dir.resolve("rates.cfg"), "ICU=7000\nGeneral=2000\n");
+        billing.setRates(RateTable.load(dir.resolve("rates.cfg"), billing.getRates(), EventSink.NO_OP));
+
+        PatientBill repriced = billing.billFor(icu);
+        assertNotEquals(before, repriced.getFinalBill());
+        // five days, counting admission and discharge day, less 10%
+        assertEquals(new BigDecimal("31500.00"), repriced.getFinalBill());
+        assertEquals(1, cache.getMisses());
+        billing.billFor(general);
+        assertEquals(3, cache.getHits());
+        // the repriced bill replaced the stale one
+        billing.billFor(icu);
+        assertEquals(4, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    private static void assertLedgerMatches(BillingService billing, List<Patient> patients) {
+        BillingResult fresh = billing.newEngine().bill(patients);
+        Map<String, RevenueLedger.Totals> ledger = billing.getRevenue().getWardTotals();
+        for (Map.Entry<String, BigDecimal> e : fresh.getWardTotals().entrySet()) {
+            RevenueLedger.Totals totals = ledger.get(e.getKey());
+            assertEquals(e.getValue(), totals == null ? new BigDecimal("0.00") : totals.getRevenue(), e.getKey());
+        }
+        assertEquals(fresh.getGrandTotal(), billing.getRevenue().getHospitalTotals().getRevenue());
+        assertEquals(fresh.size(), billing.getRevenue().getHospitalTotals().getBills());
+    }
+
+    private static List<Patient> discharged(int n, Random random) throws Exception {
+        String[] wards = {"ICU", "General", "Pediatric"};
+        List<Patient> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            list.add(patient("P" + i, wards[random.nextInt(wards.length)],
+                FIRST.plusDays(random.nextInt(120)), random.nextInt(15)));
+        }
+        return list;
+    }
+
+    private static Patient patient(String id, String ward, LocalDate in, int days) throws Exception {
+        Patient p = new Patient(id, "Patient " + id, 50, ward, in);
+        p.discharge(in.plusDays(days));
+        return p;
+    }
+}
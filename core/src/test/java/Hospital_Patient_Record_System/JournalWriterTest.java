@@ -0,0 +1,106 @@
+package Hospital_Patient_Record_System;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class JournalWriterTest {
+    private static final int THREADS = 4;
+    private static final int PER_THREAD = 200;
+
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest
+    @EnumSource(DurabilityMode.class)
+    void everyRecordIsWrittenOnceAndInOrderPerCaller(DurabilityMode mode) throws Exception {
+        PatientJournal journal = new PatientJournal(dir.resolve("patients.csv"), dir.resolve("patients.journal"));
+        journal.recover(new PatientJournalTest.Recorder());
+        JournalWriter writer = new JournalWriter(journal);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<List<CompletableFuture<Void>>>> callers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            callers.add(pool.submit(() -> {
+                List<CompletableFuture<Void>> futures = new ArrayList<>();
+                for (int i = 0; i < PER_THREAD; i++) {
+                    Patient p = PatientJournalTest.patient("T" + thread + "-" + i, "Caller " + thread);
+                    futures.add(writer.admit(p, mode));
+                    if (i % 10 == 9) {
+                        futures.add(writer.discharge(p, LocalDate.of(2024, 3, 2), mode));
+                    }
+                }
+                return futures;
+            }));
+        }
+        for (Future<List<CompletableFuture<Void>>> caller : callers) {
+            for (CompletableFuture<Void> durable : caller.get()) {
+                JournalWriter.await(durable);
+            }
+        }
+        JournalWriter.await(writer.flush());
+        pool.shutdown();
+        writer.close();
+        journal.close();
+
+        int expected = THREADS * PER_THREAD * 11 / 10;
+        assertEquals(expected, writer.getRecordCount());
+        assertTrue(writer.getBatchCount() <= expected);
+
+        PatientJournalTest.Recorder replayed = new PatientJournalTest.Recorder();
+        assertEquals(expected, new PatientJournal(dir.resolve("patients.csv"), dir.resolve("patients.journal"))
+            .recover(replayed));
+        Set<String> admitted = new HashSet<>();
+        int[] next = new int[THREADS];
+        for (String record : replayed.records) {
+            String[] f = record.split(" ");
+            String id = f[1];
+            int thread = id.charAt(1) - '0';
+            int i = Integer.parseInt(id.substring(id.indexOf('-') + 1));
+            if ("A".equals(f[0])) {
+                assertEquals(next[thread]++, i, "admissions of thread " + thread + " out of order");
+                assertTrue(admitted.add(id), id + " written twice");
+            } else {
+                assertTrue(admitted.contains(id), id + " discharged before it was admitted");
+            }
+        }
+        assertEquals(THREADS * PER_THREAD, admitted.size());
+    }
+
+    @Test
+    void failedWriteFailsTheFuture() throws Exception {
+        // never recovered, so the journal is not open for appending
+        PatientJournal journal = new PatientJournal(dir.resolve("patients.csv"), dir.resolve("patients.journal"));
+        JournalWriter writer = new JournalWriter(journal);
+        CompletableFuture<Void> durable = writer.admit(PatientJournalTest.patient("P1", "Asha Rao"), DurabilityMode.SYNC);
+        assertThrows(CSVFileException.class, () -> JournalWriter.await(durable));
+        writer.close();
+    }
+
+    @Test
+    void closedWriterRejectsRecords() throws Exception {
+        PatientJournal journal = new PatientJournal(dir.resolve("patients.csv"), dir.resolve("patients.journal"));
+        journal.recover(new PatientJournalTest.Recorder());
+        JournalWriter writer = new JournalWriter(journal);
+        writer.close();
+        CompletableFuture<Void> durable = writer.admit(PatientJournalTest.patient("P1", "Asha Rao"), DurabilityMode.GROUP);
+        assertThrows(CSVFileException.class, () -> JournalWriter.await(durable));
+        journal.close();
+    }
+}
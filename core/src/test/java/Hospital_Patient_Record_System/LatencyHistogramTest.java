@@ -0,0 +1,66 @@
+package Hospital_Patient_Record_System;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void smallValuesHaveBucketsOfTheirOwn() {
+        for (long value = 0; value < 32; value++) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertEquals(value, bucket);
+            assertEquals(value, LatencyHistogram.upperBound(bucket));
+        }
+    }
+
+    @Test
+    void everyValueIsWithinSixPercentOfItsBucketBound() {
+        Random random = new Random(11);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong() >>> (1 + random.nextInt(63));
+            assertBounded(value);
+        }
+        for (int shift = 0; shift < 63; shift++) {
+            assertBounded((1L << shift) - 1);
+            assertBounded(1L << shift);
+            assertBounded((1L << shift) + 1);
+        }
+        assertBounded(Long.MAX_VALUE);
+    }
+
+    @Test
+    void bucketsFollowEachOtherWithoutGaps() {
+        int last = LatencyHistogram.bucket(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBound(last));
+        for (int bucket = 1; bucket <= last; bucket++) {
+            long lowest = LatencyHistogram.upperBound(bucket - 1) + 1;
+            assertEquals(bucket, LatencyHistogram.bucket(lowest), "first value of bucket " + bucket);
+            assertEquals(bucket, LatencyHistogram.bucket(LatencyHistogram.upperBound(bucket)));
+        }
+    }
+
+    @Test
+    void percentilesReportBucketBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 1_000; nanos++) {
+            histogram.record(nanos * 1_000);
+        }
+        assertEquals(1_000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMaxNanos());
+        assertEquals(1_000_000, histogram.percentileNanos(1.0));
+        long median = histogram.percentileNanos(0.5);
+        assertTrue(median >= 500_000 && median <= 500_000 * 17 / 16, "median " + median);
+        assertEquals(0, new LatencyHistogram().percentileNanos(0.99));
+    }
+
+    private static void assertBounded(long value) {
+        long bound = LatencyHistogram.upperBound(LatencyHistogram.bucket(value));
+        assertTrue(bound >= value, value + " above its bound " + bound);
+        assertTrue(bound - value <= value / 16, value + " too far below its bound " + bound);
+    }
+}
@@ -0,0 +1,152 @@
+package Hospital_Patient_Record_System;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class OccupancyTimeSeriesTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 15, 10, 30);
+    private static final Clock CLOCK = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+
+    @Test
+    void rollupsStartAtTheFirstRecordedHourAndAreCapped() throws Exception {
+        Patient p = new Patient("P1", "Asha Rao", 40, "ICU", LocalDate.of(2022, 6, 1));
+        OccupancyTimeSeries history = OccupancyTimeSeries.rebuild(List.of("ICU"), List.of(p), CLOCK);
+
+        assertEquals(LocalDateTime.of(2022, 6, 1, 0, 0), history.firstHour("ICU"));
+        List<OccupancyTimeSeries.Bucket> days = history.rollup("ICU",
+            LocalDateTime.of(1, 1, 1, 0, 0), NOW, OccupancyTimeSeries.Resolution.DAY);
+        assertEquals(LocalDateTime.of(2022, 6, 1, 0, 0), days.get(0).getStart());
+        assertEquals(746, days.size());
+
+        LocalDateTime lastMonths = NOW.minusDays(93);
+        assertEquals(93 * 24, history.rollup("ICU", lastMonths.withMinute(0).plusHours(1), NOW.plusDays(1),
+            OccupancyTimeSeries.Resolution.HOUR).size());
+        assertThrows(IllegalArgumentException.class, () -> history.rollup("ICU", lastMonths, NOW.plusDays(1),
+            OccupancyTimeSeries.Resolution.HOUR));
+        assertThrows(IllegalArgumentException.class, () -> history.rollup("ICU", LocalDateTime.MIN, NOW,
+            OccupancyTimeSeries.Resolution.HOUR));
+    }
+
+    @Test
+    void sealedChunksDecodeToTheRecordedHours() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        SteppingClock clock = new SteppingClock(start);
+        OccupancyTimeSeries history = new OccupancyTimeSeries(List.of("ICU"), clock);
+        int hours = 5 * OccupancyTimeSeries.CHUNK_HOURS + 300;
+        int[] expected = new int[hours];
+        Random random = new Random(17);
+        int beds = 0;
+        for (int h = 0; h < hours; h++) {
+            clock.set(start.plusHours(h).plusMinutes(5));
+            expected[h] = beds;
+            // long quiet stretches for the run lengths, and jumps of hundreds for multi-byte deltas
+            int events = h % 700 < 200 ? 0 : random.nextInt(4);
+            if (h % 997 == 0) {
+                events = 300;
+            }
+            for (int e = 0; e < events; e++) {
+                if (beds > 0 && (random.nextBoolean() || h % 997 == 500)) {
+                    history.discharged("ICU");
+                    beds--;
+                } else {
+                    history.admitted("ICU");
+                    beds++;
+                }
+                expected[h] = Math.max(expected[h], beds);
+            }
+        }
+
+        LocalDateTime end = start.plusHours(hours);
+        assertArrayEquals(expected, history.range("ICU", start, end));
+        // a slice across two chunk boundaries
+        int from = OccupancyTimeSeries.CHUNK_HOURS - 10;
+        int to = 3 * OccupancyTimeSeries.CHUNK_HOURS + 10;
+        assertArrayEquals(Arrays.copyOfRange(expected, from, to),
+            history.range("ICU", start.plusHours(from), start.plusHours(to)));
+
+        int peakHour = 0;
+        for (int h = 1; h < hours; h++) {
+            if (expected[h] > expected[peakHour]) {
+                peakHour = h;
+            }
+        }
+        OccupancyTimeSeries.Peak peak = history.peak("ICU", start, end);
+        assertEquals(expected[peakHour], peak.getBeds());
+        assertEquals(start.plusHours(peakHour), peak.getHour());
+
+        int sliceMax = Arrays.stream(expected, from, to).max().getAsInt();
+        assertEquals(sliceMax, history.peak("ICU", start.plusHours(from), start.plusHours(to)).getBeds());
+    }
+
+    @Test
+    void rollupsAverageAndPeakEachPeriod() throws Exception {
+        Patient shortStay = new Patient("P1", "Asha Rao", 40, "ICU", LocalDate.of(2024, 6, 1));
+        shortStay.discharge(LocalDate.of(2024, 6, 3));
+        Patient stillIn = new Patient("P2", "Ravi Nair", 61, "ICU", LocalDate.of(2024, 6, 2));
+        OccupancyTimeSeries history = OccupancyTimeSeries.rebuild(List.of("ICU"), List.of(shortStay, stillIn), CLOCK);
+
+        List<OccupancyTimeSeries.Bucket> days = history.rollup("ICU", LocalDateTime.of(2024, 6, 1, 0, 0),
+            LocalDateTime.of(2024, 6, 5, 0, 0), OccupancyTimeSeries.Resolution.DAY);
+        assertEquals(4, days.size());
+        int[] beds = {1, 2, 2, 1};
+        for (int d = 0; d < beds.length; d++) {
+            assertEquals(LocalDateTime.of(2024, 6, 1 + d, 0, 0), days.get(d).getStart());
+            assertEquals(24, days.get(d).getHours());
+            assertEquals(beds[d], days.get(d).getAverage(), 1e-9);
+            assertEquals(beds[d], days.get(d).getPeak());
+        }
+
+        // the month so far: June 1 up to 10:00 on the 15th, the hour NOW falls in
+        List<OccupancyTimeSeries.Bucket> months = history.rollup("ICU", LocalDateTime.of(2024, 1, 1, 0, 0),
+            NOW, OccupancyTimeSeries.Resolution.MONTH);
+        assertEquals(1, months.size());
+        OccupancyTimeSeries.Bucket june = months.get(0);
+        int hours = 14 * 24 + 10;
+        assertEquals(hours, june.getHours());
+        assertEquals((24 + 2 * 48 + (hours - 72)) / (double) hours, june.getAverage(), 1e-9);
+        assertEquals(2, june.getPeak());
+    }
+
+    /**
+     * A clock that stays where the test puts it
+     */
+    private static final class SteppingClock extends Clock {
+        private Instant now;
+
+        SteppingClock(LocalDateTime start) {
+            set(start);
+        }
+
+        void set(LocalDateTime time) {
+            now = time.toInstant(ZoneOffset.UTC);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
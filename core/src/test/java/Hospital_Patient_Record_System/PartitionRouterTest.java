@@ -0,0 +1,160 @@
+package Hospital_Patient_Record_System;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PartitionRouterTest {
+    private static final int RACERS = 16;
+
+    @TempDir
+    Path dir;
+
+    private final List<HospitalHttpServer> partitions = new ArrayList<>();
+    private final Map<String, URI> owners = new LinkedHashMap<>();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private PartitionRouter router;
+
+    @BeforeEach
+    void start() throws Exception {
+        String[][] wards = {{"ICU", "General"}, {"Pediatric", "Emergency"}};
+        for (int p = 0; p < wards.length; p++) {
+            Path data = Files.createDirectory(dir.resolve("partition" + p));
+            Files.writeString(data.resolve("wards.cfg"), wards[p][0] + "=100\n" + wards[p][1] + "=100\n");
+            HospitalHttpServer server = new HospitalHttpServer(new HospitalSystemWithCSV(data),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            server.start();
+            partitions.add(server);
+            URI base = URI.create("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort());
+            owners.put(wards[p][0], base);
+            owners.put(wards[p][1], base);
+        }
+        router = startRouter();
+    }
+
+    @AfterEach
+    void stop() {
+        router.stop();
+        for (HospitalHttpServer server : partitions) {
+            server.stop();
+        }
+    }
+
+    @Test
+    void racingAdmissionsOfOneIdToDifferentPartitionsAdmitItOnce() throws Exception {
+        String[] wards = owners.keySet().toArray(new String[0]);
+        List<CompletableFuture<HttpResponse<String>>> racing = new ArrayList<>();
+        for (int i = 0; i < RACERS; i++) {
+            racing.add(client.sendAsync(admit(router, "DUP", wards[i % wards.length]), HttpResponse.BodyHandlers.ofString()));
+        }
+        int created = 0;
+        int conflicts = 0;
+        for (CompletableFuture<HttpResponse<String>> response : racing) {
+            int status = response.join().statusCode();
+            if (status == 201) {
+                created++;
+            } else if (status == 409) {
+                conflicts++;
+            }
+        }
+        assertEquals(1, created);
+        assertEquals(RACERS - 1, conflicts);
+        assertEquals(1, count(get(router, "/patients"), "\"id\":\"DUP\""));
+    }
+
+    @Test
+    void restartedRouterStillRejectsAnIdHeldByAnotherPartition() throws Exception {
+        assertEquals(201, client.send(admit(router, "P1", "ICU"), HttpResponse.BodyHandlers.ofString()).statusCode());
+        router.stop();
+        router = startRouter();
+
+        assertEquals(409, client.send(admit(router, "P1", "Pediatric"), HttpResponse.BodyHandlers.ofString()).statusCode());
+        assertEquals(201, client.send(admit(router, "P2", "Pediatric"), HttpResponse.BodyHandlers.ofString()).statusCode());
+        assertEquals(2, count(get(router, "/patients"), "\"id\":"));
+    }
+
+    @Test
+    void revenueMergesWardsAndSumsTotalsAcrossPartitions() throws Exception {
+        String[] wards = owners.keySet().toArray(new String[0]);
+        for (int i = 0; i < 12; i++) {
+            assertEquals(201, client.send(admit(router, "R" + i, wards[i % wards.length]), HttpResponse.BodyHandlers.ofString()).statusCode());
+            if (i % 3 != 0) {
+                HttpRequest discharge = HttpRequest.newBuilder(URI.create(base(router) + "/patients/R" + i + "/discharge"))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build();
+                assertEquals(200, client.send(discharge, HttpResponse.BodyHandlers.ofString()).statusCode());
+            }
+        }
+
+        Map<?, ?> merged = (Map<?, ?>) Json.parse(get(router, "/revenue"));
+        BigDecimal bills = BigDecimal.ZERO;
+        BigDecimal revenue = BigDecimal.ZERO;
+        BigDecimal lookups = BigDecimal.ZERO;
+        List<Object> wardRows = new ArrayList<>();
+        for (HospitalHttpServer partition : partitions) {
+            String url = "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + partition.getPort() + "/revenue";
+            Map<?, ?> one = (Map<?, ?>) Json.parse(client.send(HttpRequest.newBuilder(URI.create(url)).GET().build(),
+                HttpResponse.BodyHandlers.ofString()).body());
+            Map<?, ?> total = (Map<?, ?>) one.get("total");
+            bills = bills.add((BigDecimal) total.get("bills"));
+            revenue = revenue.add((BigDecimal) total.get("revenue"));
+            lookups = lookups.add((BigDecimal) ((Map<?, ?>) one.get("billCache")).get("misses"));
+            wardRows.addAll((List<?>) one.get("wards"));
+        }
+        Map<?, ?> total = (Map<?, ?>) merged.get("total");
+        assertEquals(new BigDecimal(8), bills);
+        assertEquals(bills, total.get("bills"));
+        assertEquals(revenue, total.get("revenue"));
+        assertEquals(lookups, ((Map<?, ?>) merged.get("billCache")).get("misses"));
+        assertEquals(wardRows, merged.get("wards"));
+        assertEquals(4, wardRows.size());
+        assertEquals(new BigDecimal(2), merged.get("partitions"));
+    }
+
+    private PartitionRouter startRouter() throws Exception {
+        PartitionRouter started = new PartitionRouter(owners, 0);
+        started.start();
+        return started;
+    }
+
+    private static HttpRequest admit(PartitionRouter router, String id, String ward) {
+        return HttpRequest.newBuilder(URI.create(base(router) + "/patients"))
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString("id=" + id + "&name=Asha+Rao&age=40&ward=" + ward))
+            .build();
+    }
+
+    private String get(PartitionRouter router, String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(base(router) + path)).GET().build(),
+            HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private static String base(PartitionRouter router) {
+        return "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + router.getPort();
+    }
+
+    private static int count(String json, String token) {
+        int n = 0;
+        for (int i = json.indexOf(token); i >= 0; i = json.indexOf(token, i + token.length())) {
+            n++;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,166 @@
+package Hospital_Patient_Record_System;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PatientBTreeTest {
+    /** Same as PatientBTree's side file magic ("HPWA") */
+    private static final int WAL_MAGIC = 0x48505741;
+    private static final int PATIENTS = 20_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void splitsKeepEveryRecordInKeyOrder() throws IOException {
+        Path db = dir.resolve("patients.db");
+        TreeMap<String, byte[]> expected = new TreeMap<>();
+        PatientBTree tree = new PatientBTree(db, 64);
+        // long keys so inner pages split too, inserted in random order so every leaf splits
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < PATIENTS; i++) {
+            order.add(i);
+        }
+        Collections.shuffle(order, new Random(1));
+        for (int i : order) {
+            String key = key(i);
+            byte[] value = value(i, 0);
+            assertFalse(tree.put(key, value, false));
+            expected.put(key, value);
+            if (i % 5_000 == 0) {
+                tree.flush();
+            }
+        }
+        assertTrue(tree.put(key(7), value(7, 1), false));
+        assertArrayEquals(value(7, 0), tree.get(key(7)), "put without replace keeps the old value");
+        assertTrue(tree.put(key(7), value(7, 1), true));
+        expected.put(key(7), value(7, 1));
+        tree.flush();
+        assertTrue(tree.getPageCount() > PATIENTS / 100, "expected many pages, got " + tree.getPageCount());
+        assertContents(expected, tree);
+        tree.close();
+
+        PatientBTree reopened = new PatientBTree(db, 8);
+        assertContents(expected, reopened);
+        assertNull(reopened.get("missing"));
+        reopened.close();
+    }
+
+    @Test
+    void completeSideFileIsWrittenAgainAfterACrash() throws IOException {
+        Path db = dir.resolve("patients.db");
+        PatientBTree tree = new PatientBTree(db, 64);
+        for (int i = 0; i < 1_000; i++) {
+            tree.put(key(i), value(i, 0), false);
+        }
+        tree.flush();
+        byte[] before = Files.readAllBytes(db);
+        for (int i = 1_000; i < 3_000; i++) {
+            tree.put(key(i), value(i, 0), false);
+        }
+        tree.flush();
+        tree.close();
+        byte[] after = Files.readAllBytes(db);
+
+        // Crash after the side file was synced but before any page was written in place
+        Files.write(db, before);
+        Files.write(dir.resolve("patients.db.wal"), sideFile(after));
+
+        PatientBTree recovered = new PatientBTree(db, 64);
+        assertEquals(3_000, recovered.size());
+        for (int i = 0; i < 3_000; i++) {
+            assertArrayEquals(value(i, 0), recovered.get(key(i)), key(i));
+        }
+        recovered.close();
+        assertEquals(0, Files.size(dir.resolve("patients.db.wal")));
+    }
+
+    @Test
+    void tornSideFileLeavesTheLastFlushedTree() throws IOException {
+        Path db = dir.resolve("patients.db");
+        PatientBTree tree = new PatientBTree(db, 64);
+        for (int i = 0; i < 1_000; i++) {
+            tree.put(key(i), value(i, 0), false);
+        }
+        tree.flush();
+        tree.close();
+        byte[] before = Files.readAllBytes(db);
+
+        // Crash while the side file of the next flush was being written
+        byte[] wal = sideFile(before);
+        Files.write(dir.resolve("patients.db.wal"), Arrays.copyOf(wal, wal.length - 100));
+
+        PatientBTree recovered = new PatientBTree(db, 64);
+        assertEquals(1_000, recovered.size());
+        for (int i = 0; i < 1_000; i++) {
+            assertArrayEquals(value(i, 0), recovered.get(key(i)), key(i));
+        }
+        recovered.close();
+        assertArrayEquals(before, Files.readAllBytes(db));
+        assertEquals(0, Files.size(dir.resolve("patients.db.wal")));
+    }
+
+    /**
+     * A complete side file holding every page of {@code tree}
+     */
+    private static byte[] sideFile(byte[] tree) {
+        int pages = tree.length / PatientBTree.PAGE_SIZE;
+        ByteBuffer wal = ByteBuffer.allocate(8 + pages * (4 + PatientBTree.PAGE_SIZE) + 4);
+        wal.putInt(WAL_MAGIC).putInt(pages);
+        for (int page = 0; page < pages; page++) {
+            wal.putInt(page).put(tree, page * PatientBTree.PAGE_SIZE, PatientBTree.PAGE_SIZE);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(wal.array(), 0, wal.position());
+        wal.putInt((int) crc.getValue());
+        return wal.array();
+    }
+
+    private static void assertContents(TreeMap<String, byte[]> expected, PatientBTree tree) {
+        assertEquals(expected.size(), tree.size());
+        List<String> scanned = new ArrayList<>();
+        List<byte[]> values = new ArrayList<>();
+        String after = null;
+        while ((after = tree.scanAfter(after, (k, v) -> {
+            scanned.add(k);
+            values.add(v);
+        })) != null) {
+            // scanAfter returns one leaf at a time
+        }
+        assertEquals(new ArrayList<>(expected.keySet()), scanned);
+        int i = 0;
+        for (byte[] value : expected.values()) {
+            assertArrayEquals(value, values.get(i++));
+        }
+        for (String key : expected.keySet()) {
+            assertArrayEquals(expected.get(key), tree.get(key), key);
+        }
+    }
+
+    private static String key(int i) {
+        return String.format("P%08d-%s", i, "x".repeat(90));
+    }
+
+    private static byte[] value(int i, int version) {
+        return ("Patient " + i + " v" + version + " " + "y".repeat(i % 120)).getBytes(StandardCharsets.UTF_8);
+    }
+}
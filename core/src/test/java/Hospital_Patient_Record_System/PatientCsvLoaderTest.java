@@ -0,0 +1,126 @@
+package Hospital_Patient_Record_System;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PatientCsvLoaderTest {
+    private static final List<String> WARDS = List.of("ICU", "General", "Pediatric");
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 30);
+    // a few MB, so the file is parsed as several chunks
+    private static final int PATIENTS = 60_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void checkpointedCsvLoadsBackRowForRow() throws Exception {
+        PatientIndex store = new PatientIndex();
+        List<Patient> saved = new ArrayList<>(PATIENTS);
+        for (int i = 0; i < PATIENTS; i++) {
+            Patient p = new Patient("P" + i, (i % 5 == 0 ? "Zoë Ñuñez " : "Patient ") + i, i % 100,
+                WARDS.get(i % WARDS.size()), TODAY.minusDays(i % 900));
+            if (i % 3 == 0) {
+                p.discharge(p.getAdmitDate().plusDays(i % 20));
+            }
+            store.add(p);
+            saved.add(p);
+        }
+        CsvPatientRepository repository = new CsvPatientRepository(dir, store, EventSink.NO_OP);
+        repository.checkpoint(repository.openJournal(dir.resolve("patients.journal"), EventSink.NO_OP));
+
+        PatientCsvLoader.Result result = new PatientCsvLoader(WARDS).load(dir.resolve("patients.csv"));
+
+        assertEquals(0, result.getErrorCount(), result.summary());
+        assertEquals(PATIENTS, result.getPatients().size());
+        for (int i = 0; i < PATIENTS; i++) {
+            Patient expected = saved.get(i);
+            Patient loaded = result.getPatients().get(i);
+            assertEquals(expected.getId(), loaded.getId());
+            assertEquals(expected.getName(), loaded.getName());
+            assertEquals(expected.getAge(), loaded.getAge());
+            assertEquals(expected.getWard(), loaded.getWard());
+            assertEquals(expected.getAdmitDate(), loaded.getAdmitDate());
+            assertEquals(expected.getStatus(), loaded.getStatus());
+            assertEquals(expected.getDischargeDate(), loaded.getDischargeDate());
+            assertEquals(i + 2, result.getLineNumber(i));
+        }
+    }
+
+    @Test
+    void badLinesAreSkippedAndReportedWithTheirLineNumbers() throws Exception {
+        List<String> lines = new ArrayList<>();
+        lines.add(PatientJournal.CSV_HEADER);
+        String[] bad = {
+            "B1,Too Few,40,ICU,2024-01-01",
+            "B2,Bad Age,forty,ICU,2024-01-01,admitted,",
+            "B3,Bad Ward,40,Mortuary,2024-01-01,admitted,",
+            "B4,Bad Date,40,ICU,2024-02-30,admitted,",
+            "B5,Bad Status,40,ICU,2024-01-01,transferred,",
+            "B6,Bad Discharge,40,ICU,2024-01-01,discharged,2024-13-01",
+            "B7,Too Old,151,ICU,2024-01-01,admitted,",
+            "B8,Bare Sign,-,ICU,2024-01-01,admitted,",
+            "B9,No Discharge Date,40,ICU,2024-01-01,discharged,",
+            "B10,Six Fields,40,ICU,2024-01-01,discharged",
+        };
+        List<Integer> badLines = new ArrayList<>();
+        int good = 0;
+        for (int i = 0; i < PATIENTS; i++) {
+            if (i % 6_500 == 3_000) {
+                badLines.add(lines.size() + 1);
+                lines.add(bad[badLines.size() - 1]);
+            }
+            lines.add("G" + i + ",Patient " + i + "," + (i % 90) + ",General,2024-01-01,admitted,");
+            good++;
+        }
+        badLines.add(lines.size() + 1);
+        lines.add(bad[badLines.size() - 1]);
+        // blank and CRLF lines are fine
+        lines.add("");
+        lines.add("C1,Carriage Return,33,ICU,2024-03-01,discharged,2024-03-05\r");
+        Files.write(dir.resolve("patients.csv"), lines);
+
+        PatientCsvLoader.Result result = new PatientCsvLoader(WARDS).load(dir.resolve("patients.csv"));
+
+        assertEquals(good + 1, result.getPatients().size());
+        assertEquals(bad.length, result.getErrorCount());
+        for (int i = 0; i < bad.length; i++) {
+            assertTrue(result.getErrors().get(i).startsWith("Line " + badLines.get(i) + ": "), result.getErrors().get(i));
+        }
+        Patient last = result.getPatients().get(good);
+        assertEquals("C1", last.getId());
+        assertEquals(LocalDate.of(2024, 3, 5), last.getDischargeDate());
+        assertEquals(lines.size(), result.getLineNumber(good));
+    }
+
+    @Test
+    void onlyTheFirstErrorsAreKept() throws Exception {
+        List<String> lines = new ArrayList<>();
+        lines.add(PatientJournal.CSV_HEADER);
+        for (int i = 0; i < 25; i++) {
+            lines.add("X" + i + ",Nowhere,40,Mortuary,2024-01-01,admitted,");
+        }
+        Files.write(dir.resolve("patients.csv"), lines);
+
+        PatientCsvLoader.Result result = new PatientCsvLoader(WARDS).load(dir.resolve("patients.csv"));
+
+        assertEquals(25, result.getErrorCount());
+        assertEquals(10, result.getErrors().size());
+        assertTrue(result.summary().endsWith("... and 15 more"), result.summary());
+    }
+
+    @Test
+    void anEmptyFileHasNoHeader() throws Exception {
+        Files.write(dir.resolve("patients.csv"), new byte[0]);
+        assertNull(new PatientCsvLoader(WARDS).load(dir.resolve("patients.csv")));
+    }
+}
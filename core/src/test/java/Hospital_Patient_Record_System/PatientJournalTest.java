@@ -0,0 +1,169 @@
+package Hospital_Patient_Record_System;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PatientJournalTest {
+    private static final LocalDate ADMITTED = LocalDate.of(2024, 3, 1);
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Replayed records as "A id name age ward date" / "D id date"
+     */
+    static final class Recorder implements PatientJournal.Handler {
+        final List<String> records = new ArrayList<>();
+
+        @Override
+        public void onAdmit(String id, String name, int age, String ward, String admitDate) {
+            records.add(String.join(" ", "A", id, name, String.valueOf(age), ward, admitDate));
+        }
+
+        @Override
+        public void onDischarge(String id, String dischargeDate) {
+            records.add(String.join(" ", "D", id, dischargeDate));
+        }
+    }
+
+    @Test
+    void replaysWhatWasAppended() throws Exception {
+        PatientJournal journal = open();
+        journal.appendAdmit(patient("P1", "Asha Rao"));
+        journal.appendAdmits(Arrays.asList(patient("P2", "Ben Ode"), patient("P3", "Cy Lam")));
+        journal.appendDischarge(patient("P1", "Asha Rao"), ADMITTED.plusDays(2));
+        journal.close();
+
+        Recorder replayed = new Recorder();
+        assertEquals(4, new PatientJournal(dir.resolve("patients.csv"), journalFile()).recover(replayed));
+        assertEquals(Arrays.asList(
+            "A P1 Asha Rao 40 ICU 2024-03-01",
+            "A P2 Ben Ode 40 ICU 2024-03-01",
+            "A P3 Cy Lam 40 ICU 2024-03-01",
+            "D P1 2024-03-03"), replayed.records);
+    }
+
+    @Test
+    void tornTailIsTruncatedAndAppendingContinues() throws Exception {
+        PatientJournal journal = open();
+        journal.appendAdmit(patient("P1", "Asha Rao"));
+        journal.appendAdmit(patient("P2", "Ben Ode"));
+        journal.close();
+        long intact = Files.size(journalFile());
+        // a crash in the middle of the next write
+        Files.write(journalFile(), "A,P3,Cy La".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        Recorder replayed = new Recorder();
+        PatientJournal reopened = new PatientJournal(dir.resolve("patients.csv"), journalFile());
+        assertEquals(2, reopened.recover(replayed));
+        assertEquals(intact, Files.size(journalFile()));
+        reopened.appendAdmit(patient("P4", "Di Moss"));
+        reopened.close();
+
+        Recorder again = new Recorder();
+        assertEquals(3, new PatientJournal(dir.resolve("patients.csv"), journalFile()).recover(again));
+        assertEquals("A P4 Di Moss 40 ICU 2024-03-01", again.records.get(2));
+    }
+
+    @Test
+    void corruptedRecordInTheMiddleIsSkippedWithoutLosingLaterOnes() throws Exception {
+        PatientJournal journal = open();
+        journal.appendAdmit(patient("P1", "Asha Rao"));
+        // what an unescaped name with a line break used to produce: one record split over two lines
+        String split = "A,X1,Bob\nEvil,40,ICU,2024-03-01," + RecordCodec.checksum("A,X1,Bob\nEvil,40,ICU,2024-03-01") + "\n";
+        Files.write(journalFile(), split.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        for (int i = 2; i <= 5; i++) {
+            journal.appendAdmit(patient("P" + i, "Later " + i));
+        }
+        journal.close();
+        long size = Files.size(journalFile());
+
+        List<String> warnings = new ArrayList<>();
+        Recorder replayed = new Recorder();
+        assertEquals(5, new PatientJournal(dir.resolve("patients.csv"), journalFile(),
+            event -> warnings.add(event.getMessage())).recover(replayed));
+        assertEquals("A P5 Later 5 40 ICU 2024-03-01", replayed.records.get(4));
+        assertEquals(size, Files.size(journalFile()), "nothing may be truncated");
+        assertEquals(2, warnings.size(), warnings.toString());
+        assertTrue(warnings.get(0).startsWith("Corrupted journal record skipped"), warnings.get(0));
+    }
+
+    @Test
+    void malformedRecordIsSkippedWithAWarningAndNotCounted() throws Exception {
+        PatientJournal journal = open();
+        journal.append(Arrays.asList(RecordCodec.join("A", "P1", "Asha", "Rao", 40, "ICU", ADMITTED),
+            RecordCodec.join("D", "P1"), PatientJournal.admitRecord(patient("P2", "Ben Ode"))));
+        journal.close();
+
+        List<String> warnings = new ArrayList<>();
+        Recorder replayed = new Recorder();
+        assertEquals(1, new PatientJournal(dir.resolve("patients.csv"), journalFile(),
+            event -> warnings.add(event.getMessage())).recover(replayed));
+        assertEquals(Arrays.asList("A P2 Ben Ode 40 ICU 2024-03-01"), replayed.records);
+        assertEquals(2, warnings.size(), warnings.toString());
+    }
+
+    @Test
+    void awkwardNamesRoundTrip() throws Exception {
+        String[] names = {"O\\Brien", "Zoë \\c Ünal", "trailing \\", "\\n not a newline", "名前"};
+        PatientJournal journal = open();
+        for (int i = 0; i < names.length; i++) {
+            journal.appendAdmit(patient("P" + i, names[i]));
+        }
+        journal.close();
+
+        Recorder replayed = new Recorder();
+        assertEquals(names.length, new PatientJournal(dir.resolve("patients.csv"), journalFile()).recover(replayed));
+        for (int i = 0; i < names.length; i++) {
+            assertEquals("A P" + i + " " + names[i] + " 40 ICU 2024-03-01", replayed.records.get(i));
+        }
+    }
+
+    @Test
+    void recordFieldsSurviveCommasLineBreaksAndBackslashes() {
+        String[] fields = {"A", "Smith, John", "Bob\nEvil", "C\r\nD", "back\\slash", "\\c", "", ",", "\\"};
+        String body = RecordCodec.join((Object[]) fields);
+        assertEquals(-1, body.indexOf('\n'));
+        assertEquals(-1, body.indexOf('\r'));
+        assertEquals(Arrays.asList(fields), Arrays.asList(RecordCodec.split(body)));
+        assertEquals(body, RecordCodec.open(RecordCodec.seal(body)));
+        assertEquals(null, RecordCodec.open(RecordCodec.seal(body).replace("Smith", "Smyth")));
+        // records written before escaping existed read the same
+        assertEquals(Arrays.asList("A", "P1", "O\\Brien"), Arrays.asList(RecordCodec.split("A,P1,O\\Brien")));
+    }
+
+    @Test
+    void patientsRejectIdsAndNamesThatWouldSplitARecord() {
+        for (String name : new String[] {"Smith, John", "Bob\nEvil", "Bob\rEvil"}) {
+            assertThrows(InvalidPatientDataException.class, () -> patient("P1", name), name);
+            assertThrows(InvalidPatientDataException.class, () -> patient(name, "Asha Rao"), name);
+        }
+    }
+
+    private PatientJournal open() throws CSVFileException {
+        PatientJournal journal = new PatientJournal(dir.resolve("patients.csv"), journalFile());
+        journal.recover(new Recorder());
+        return journal;
+    }
+
+    private Path journalFile() {
+        return dir.resolve("patients.journal");
+    }
+
+    static Patient patient(String id, String name) throws InvalidPatientDataException {
+        return new Patient(id, name, 40, "ICU", ADMITTED);
+    }
+}
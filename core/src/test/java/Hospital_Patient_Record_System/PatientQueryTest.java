@@ -0,0 +1,126 @@
+package Hospital_Patient_Record_System;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class PatientQueryTest {
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 30);
+    private static final String[] WARDS = {"ICU", "General", "Pediatric", "Emergency"};
+    // more than two scan blocks, so per-block results are merged
+    private static final int PATIENTS = 150_000;
+
+    @Test
+    void groupByWardAndAgeBandMatchesABruteForceCount() throws Exception {
+        List<Patient> patients = patients(new Random(23));
+        Map<String, List<Integer>> stays = new HashMap<>();
+        for (Patient p : patients) {
+            if (p.getDischargeDate() != null) {
+                int band = p.getAge() / 10 * 10;
+                stays.computeIfAbsent(p.getWard() + "|" + band + "-" + (band + 9), k -> new ArrayList<>())
+                    .add((int) p.getDaysAdmitted());
+            }
+        }
+
+        for (PatientStore store : stores(patients)) {
+            QueryResult result = new PatientQuery(store, TODAY)
+                .where(PatientQuery.status("discharged"))
+                .groupBy(PatientQuery.Dimension.WARD, PatientQuery.Dimension.ageBand(10))
+                .select(PatientQuery.Aggregate.count(),
+                    PatientQuery.Aggregate.avg(PatientQuery.Measure.LENGTH_OF_STAY),
+                    PatientQuery.Aggregate.min(PatientQuery.Measure.LENGTH_OF_STAY),
+                    PatientQuery.Aggregate.max(PatientQuery.Measure.LENGTH_OF_STAY),
+                    PatientQuery.Aggregate.percentile(PatientQuery.Measure.LENGTH_OF_STAY, 50),
+                    PatientQuery.Aggregate.percentile(PatientQuery.Measure.LENGTH_OF_STAY, 90))
+                .run();
+
+            assertEquals(List.of("Ward", "Age", "Count", "Avg stay", "Min stay", "Max stay", "P50 stay", "P90 stay"),
+                result.getHeader());
+            assertEquals(PATIENTS, result.getScanned());
+            assertEquals(stays.size(), result.getRows().size());
+            long matched = 0;
+            for (QueryResult.Row row : result.getRows()) {
+                List<Integer> values = stays.get(row.getKey(0) + "|" + row.getKey(1));
+                Collections.sort(values);
+                long sum = 0;
+                for (int v : values) {
+                    sum += v;
+                }
+                String group = row.getKey(0) + " " + row.getKey(1);
+                assertEquals(values.size(), row.getValue(0), group);
+                assertEquals((double) sum / values.size(), row.getValue(1), 1e-9, group);
+                assertEquals((double) values.get(0), row.getValue(2), group);
+                assertEquals((double) values.get(values.size() - 1), row.getValue(3), group);
+                assertEquals(nearestRank(values, 50), row.getValue(4), group);
+                assertEquals(nearestRank(values, 90), row.getValue(5), group);
+                matched += values.size();
+            }
+            assertEquals(matched, result.getMatched());
+        }
+    }
+
+    @Test
+    void rangesOnOneColumnAreIntersected() throws Exception {
+        List<Patient> patients = patients(new Random(29));
+        int expected = 0;
+        for (Patient p : patients) {
+            if (p.getAge() >= 30 && p.getAge() <= 35 && "ICU".equals(p.getWard())) {
+                expected++;
+            }
+        }
+        for (PatientStore store : stores(patients)) {
+            QueryResult some = new PatientQuery(store, TODAY)
+                .where(PatientQuery.ageBetween(20, 35), PatientQuery.ageBetween(30, 60), PatientQuery.ward("ICU"))
+                .run();
+            assertEquals(1, some.getRows().size());
+            assertEquals(expected, some.getRows().get(0).getValue(0));
+
+            QueryResult none = new PatientQuery(store, TODAY)
+                .where(PatientQuery.ageBetween(10, 20), PatientQuery.ageBetween(30, 40))
+                .groupBy(PatientQuery.Dimension.WARD)
+                .run();
+            assertEquals(0, none.getMatched());
+            assertEquals(0, none.getRows().size());
+        }
+    }
+
+    private static double nearestRank(List<Integer> sorted, double percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.size());
+        return sorted.get(Math.max(rank, 1) - 1);
+    }
+
+    /**
+     * The same patients in the columnar store (copied columns) and an object store (extracted columns)
+     */
+    private static List<PatientStore> stores(List<Patient> patients) {
+        PatientStore columnar = new ColumnarPatientStore();
+        PatientStore objects = new PatientIndex();
+        for (Patient p : patients) {
+            columnar.add(p);
+            objects.add(p);
+        }
+        return List.of(columnar, objects);
+    }
+
+    private static List<Patient> patients(Random random) throws Exception {
+        List<Patient> list = new ArrayList<>(PATIENTS);
+        for (int i = 0; i < PATIENTS; i++) {
+            LocalDate in = TODAY.minusDays(random.nextInt(700));
+            Patient p = new Patient("P" + i, "Patient " + i, random.nextInt(95), WARDS[random.nextInt(WARDS.length)], in);
+            int stay = random.nextInt(10) == 0 ? 20 + random.nextInt(60) : random.nextInt(8);
+            if (!in.plusDays(stay).isAfter(TODAY) && random.nextInt(4) != 0) {
+                p.discharge(in.plusDays(stay));
+            }
+            list.add(p);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,99 @@
+package Hospital_Patient_Record_System;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PatientSearchIndexTest {
+    private static final String[] SURNAMES = {"Rao", "Sharma", "Okafor", "Lindqvist", "Nakamura"};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void removedPatientsLeaveEveryKindOfResult() throws Exception {
+        PatientSearchIndex index = new PatientSearchIndex();
+        index.add(patient("P1", "Rajesh Sharma"));
+        index.add(patient("P2", "Rajesh Sharma"));
+        index.addAll(List.of(patient("P10", "Rajesh Sharmah"), patient("P11", "Asha Rao")));
+
+        index.remove("P1");
+        index.remove("P10");
+        index.remove("P99");
+
+        assertEquals(2, index.size());
+        assertEquals(List.of("P11"), ids(index.search("p1", 10)));
+        assertEquals(List.of("P2"), ids(index.search("raj sharma", 10)));
+        assertEquals(List.of("P2"), ids(index.search("rajesh shrama", 10)));
+        // an ID can come back after it was removed
+        index.add(patient("P1", "Rajesh Sharma"));
+        assertEquals(List.of("P2", "P1"), ids(index.search("rajesh", 10)));
+    }
+
+    @Test
+    void indexShrinksOnceMostPatientsAreRemoved() throws Exception {
+        PatientSearchIndex index = new PatientSearchIndex();
+        List<Patient> admitted = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            Patient p = patient("P" + i, "Word" + i + " " + SURNAMES[i % SURNAMES.length]);
+            index.add(p);
+            admitted.add(p);
+        }
+        assertEquals(10_000 + SURNAMES.length, index.getWordCount());
+        for (int i = 0; i < 9_900; i++) {
+            index.remove(admitted.get(i).getId());
+        }
+
+        assertEquals(100, index.size());
+        assertTrue(index.getWordCount() < 1_000, "words of removed patients dropped: " + index.getWordCount());
+        assertEquals(List.of("P9999"), ids(index.search("word9999", 1)));
+        assertEquals(List.of("P9950"), ids(index.search("P9950", 10)));
+        assertEquals(20, index.search("okafor", 100).size());
+        assertEquals(0, index.search("P42", 10).size());
+    }
+
+    @Test
+    void pagedRecordWithoutADischargeDateIsReportedAsCorrupt() throws Exception {
+        Path db = dir.resolve("patients.db");
+        PatientBTree tree = new PatientBTree(db, 16);
+        byte[] name = "Asha Rao".getBytes(StandardCharsets.UTF_8);
+        byte[] ward = "ICU".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(2 + name.length + 2 + 2 + ward.length + 4 + 4 + 1);
+        record.putShort((short) name.length).put(name).putShort((short) 40)
+            .putShort((short) ward.length).put(ward)
+            .putInt((int) LocalDate.of(2024, 3, 1).toEpochDay())
+            .putInt(Integer.MIN_VALUE) // no discharge date
+            .put((byte) 1);            // but discharged
+        tree.put("P1", record.array(), false);
+        tree.flush();
+        tree.close();
+        assertTrue(Files.size(db) > 0);
+
+        PagedPatientStore store = new PagedPatientStore(db, 16);
+        assertThrows(IllegalStateException.class, () -> store.get("P1"));
+        store.close();
+    }
+
+    private static List<String> ids(List<PatientSearchIndex.Match> matches) {
+        List<String> ids = new ArrayList<>();
+        for (PatientSearchIndex.Match m : matches) {
+            ids.add(m.getPatientId());
+        }
+        return ids;
+    }
+
+    private static Patient patient(String id, String name) throws InvalidPatientDataException {
+        return new Patient(id, name, 40, "ICU", LocalDate.of(2024, 3, 1));
+    }
+}
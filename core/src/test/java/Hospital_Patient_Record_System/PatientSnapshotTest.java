@@ -0,0 +1,136 @@
+package Hospital_Patient_Record_System;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PatientSnapshotTest {
+    private static final String[] WARDS = {"ICU", "General", "Pediatric", "Maternity"};
+    private static final int PATIENTS = 20_000;
+
+    @TempDir
+    Path dir;
+
+    private Path csv;
+    private Path snap;
+    private List<Patient> saved;
+
+    @BeforeEach
+    void writeSnapshot() throws Exception {
+        PatientIndex store = new PatientIndex();
+        saved = new ArrayList<>(PATIENTS);
+        LocalDate first = LocalDate.of(2023, 1, 1);
+        for (int i = 0; i < PATIENTS; i++) {
+            Patient p = new Patient("P" + i, (i % 4 == 0 ? "Zoë Ñuñez " : "Patient ") + i, i % 151,
+                WARDS[i % WARDS.length], first.plusDays(i % 500));
+            if (i % 3 == 0) {
+                p.discharge(p.getAdmitDate().plusDays(i % 25));
+            }
+            store.add(p);
+            saved.add(p);
+        }
+        CsvPatientRepository repository = new CsvPatientRepository(dir, store, EventSink.NO_OP);
+        repository.checkpoint(repository.openJournal(dir.resolve("patients.journal"), EventSink.NO_OP));
+        csv = dir.resolve("patients.csv");
+        snap = dir.resolve("patients.snap");
+        PatientSnapshot.write(snap, csv, saved);
+    }
+
+    @Test
+    void snapshotReadsBackEveryRecordInOrder() throws Exception {
+        List<HospitalEvent> events = new ArrayList<>();
+        List<Patient> loaded = PatientSnapshot.read(snap, csv, events::add);
+
+        assertEquals(List.of(), events);
+        assertEquals(PATIENTS, loaded.size());
+        for (int i = 0; i < PATIENTS; i++) {
+            Patient expected = saved.get(i);
+            Patient p = loaded.get(i);
+            assertEquals(expected.getId(), p.getId());
+            assertEquals(expected.getName(), p.getName());
+            assertEquals(expected.getAge(), p.getAge());
+            assertEquals(expected.getWard(), p.getWard());
+            assertEquals(expected.getAdmitDate(), p.getAdmitDate());
+            assertEquals(expected.getStatus(), p.getStatus());
+            assertEquals(expected.getDischargeDate(), p.getDischargeDate());
+        }
+    }
+
+    @Test
+    void aChangedCsvMakesTheSnapshotStale() throws Exception {
+        Files.writeString(csv, "N1,Late Row,40,ICU,2024-01-01,admitted,\n", StandardOpenOption.APPEND);
+        assertStale("patients.csv changed since it was written");
+    }
+
+    @Test
+    void aFlippedBodyByteFailsTheChecksum() throws Exception {
+        byte[] bytes = Files.readAllBytes(snap);
+        bytes[bytes.length / 2] ^= 0x40;
+        Files.write(snap, bytes);
+        assertStale("checksum mismatch");
+    }
+
+    @Test
+    void truncatedAndForeignFilesAreIgnored() throws Exception {
+        byte[] bytes = Files.readAllBytes(snap);
+        Files.write(snap, Arrays.copyOf(bytes, bytes.length - 7));
+        assertStale("checksum mismatch");
+
+        Files.write(snap, Arrays.copyOf(bytes, 10));
+        assertStale("unexpected size");
+
+        bytes[0] = 'X';
+        Files.write(snap, bytes);
+        assertStale("unknown format");
+    }
+
+    @Test
+    void aDischargedRecordWithoutADateIsCorrupt() throws Exception {
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(snap));
+        int header = 44;
+        int records = header;
+        for (String ward : WARDS) {
+            records += 2 + ward.getBytes(StandardCharsets.UTF_8).length;
+        }
+        // P1 is still admitted; mark it discharged, keeping its -1 date and a valid checksum
+        assertEquals(-1, buf.getInt(records + 20 + 16));
+        buf.put(records + 20 + 11, (byte) 1);
+        CRC32C body = new CRC32C();
+        body.update(buf.array(), header, buf.capacity() - header);
+        buf.putLong(header - 8, body.getValue());
+        Files.write(snap, buf.array());
+
+        assertStale("record 1: discharged without a discharge date");
+    }
+
+    @Test
+    void aMissingSnapshotIsNotReported() throws Exception {
+        Files.delete(snap);
+        List<HospitalEvent> events = new ArrayList<>();
+        assertNull(PatientSnapshot.read(snap, csv, events::add));
+        assertEquals(List.of(), events);
+    }
+
+    private void assertStale(String reason) throws Exception {
+        List<HospitalEvent> events = new ArrayList<>();
+        assertNull(PatientSnapshot.read(snap, csv, events::add));
+        assertEquals(1, events.size(), events.toString());
+        assertEquals(HospitalEvent.Severity.WARNING, events.get(0).getSeverity());
+        assertTrue(events.get(0).getMessage().contains("(" + reason), events.get(0).getMessage());
+    }
+}
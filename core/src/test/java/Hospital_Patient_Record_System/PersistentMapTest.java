@@ -0,0 +1,133 @@
+package Hospital_Patient_Record_System;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class PersistentMapTest {
+
+    /**
+     * Key whose hash is chosen by the test, to force collisions at any depth
+     */
+    private static final class Key {
+        final String name;
+        final int hash;
+
+        Key(String name, int hash) {
+            this.name = name;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).name.equals(name);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    @Test
+    void randomPutsAndRemovesMatchHashMap() {
+        Random random = new Random(42);
+        Map<String, Integer> expected = new HashMap<>();
+        PersistentMap<String, Integer> map = PersistentMap.empty();
+        for (int i = 0; i < 50_000; i++) {
+            String key = "P" + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.remove(key);
+            } else {
+                expected.put(key, i);
+                map = map.put(key, i);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        assertSameContents(expected, map);
+    }
+
+    @Test
+    void fullHashCollisionsAreKeptApart() {
+        Random random = new Random(7);
+        Map<Key, Integer> expected = new HashMap<>();
+        PersistentMap<Key, Integer> map = PersistentMap.empty();
+        // a handful of hashes (two of which agree in their low bits) shared by many keys
+        int[] hashes = {0, 1, 32, 1 << 20, 0x7fffffff};
+        for (int i = 0; i < 20_000; i++) {
+            int n = random.nextInt(400);
+            Key key = new Key("K" + n, hashes[n % hashes.length]);
+            if (random.nextInt(4) == 0) {
+                expected.remove(key);
+                map = map.remove(key);
+            } else {
+                expected.put(key, i);
+                map = map.put(key, i);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        assertSameContents(expected, map);
+    }
+
+    @Test
+    void olderVersionsAreUnchanged() {
+        List<PersistentMap<String, Integer>> versions = new ArrayList<>();
+        PersistentMap<String, Integer> map = PersistentMap.empty();
+        for (int i = 0; i < 2_000; i++) {
+            map = map.put("P" + i, i);
+            versions.add(map);
+        }
+        for (int i = 0; i < 2_000; i += 2) {
+            map = map.remove("P" + i);
+        }
+        for (int v = 0; v < versions.size(); v++) {
+            PersistentMap<String, Integer> version = versions.get(v);
+            assertEquals(v + 1, version.size());
+            assertEquals(Integer.valueOf(v), version.get("P" + v));
+            assertNull(version.get("P" + (v + 1)));
+        }
+        assertEquals(1_000, map.size());
+        assertFalse(map.containsKey("P0"));
+        assertTrue(map.containsKey("P1"));
+    }
+
+    @Test
+    void unchangedMapIsReturnedAsIs() {
+        Integer value = 1;
+        PersistentMap<String, Integer> map = PersistentMap.<String, Integer>empty().put("P1", value);
+        assertSame(map, map.put("P1", value));
+        assertSame(map, map.remove("P2"));
+        assertEquals(0, map.remove("P1").size());
+        assertFalse(map.remove("P1").values().iterator().hasNext());
+    }
+
+    private static <K> void assertSameContents(Map<K, Integer> expected, PersistentMap<K, Integer> map) {
+        for (Map.Entry<K, Integer> e : expected.entrySet()) {
+            assertEquals(e.getValue(), map.get(e.getKey()), "value of " + e.getKey());
+        }
+        List<Integer> values = new ArrayList<>();
+        for (Integer v : map.values()) {
+            values.add(v);
+        }
+        List<Integer> expectedValues = new ArrayList<>(expected.values());
+        values.sort(null);
+        expectedValues.sort(null);
+        assertEquals(expectedValues, values);
+    }
+}
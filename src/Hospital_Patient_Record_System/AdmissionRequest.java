@@ -0,0 +1,23 @@
+package Hospital_Patient_Record_System;
+
+/**
+ * One entry of a batch admission (see HospitalSystemWithCSV.admitBatch)
+ */
+public final class AdmissionRequest {
+    private final String id;
+    private final String name;
+    private final int age;
+    private final String ward;
+
+    public AdmissionRequest(String id, String name, int age, String ward) {
+        this.id = id;
+        this.name = name;
+        this.age = age;
+        this.ward = ward;
+    }
+
+    public String getId() { return id; }
+    public String getName() { return name; }
+    public int getAge() { return age; }
+    public String getWard() { return ward; }
+}
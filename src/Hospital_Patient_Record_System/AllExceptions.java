@@ -1,7 +1,7 @@
 package Hospital_Patient_Record_System;
 
 /**
- * All 6 Custom Exceptions for Hospital System
+ * All 7 Custom Exceptions for Hospital System
  */
 
 // 1) InvalidWardException
@@ -110,3 +110,16 @@ class CSVFileException extends Exception {
     public String getFileName() { return fileName; }
     public String getOperation() { return operation; }
 }
+
+// 7) ReservationNotFoundException
+class ReservationNotFoundException extends Exception {
+    private static final long serialVersionUID = 1L;
+    private final String reservationId;
+
+    public ReservationNotFoundException(String reservationId) {
+        super("❌ RESERVATION NOT FOUND: Reservation '" + reservationId + "' does not exist or has expired.");
+        this.reservationId = reservationId;
+    }
+
+    public String getReservationId() { return reservationId; }
+}
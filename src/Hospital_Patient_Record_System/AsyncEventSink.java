@@ -0,0 +1,125 @@
+package Hospital_Patient_Record_System;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands events to another sink on a background thread.
+ *
+ * Publishers claim a slot in a fixed-size ring buffer with one CAS and
+ * return immediately, so a slow sink (e.g. the console) never blocks
+ * admissions. If the ring is full the event is dropped and counted rather
+ * than stalling the caller; the count is reported when the sink is closed.
+ */
+public class AsyncEventSink implements EventSink, AutoCloseable {
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+
+    private final EventSink delegate;
+    private final AtomicReferenceArray<HospitalEvent> ring;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread consumer;
+    private volatile long head;
+    private volatile boolean idle;
+    private volatile boolean running = true;
+
+    public AsyncEventSink(EventSink delegate) {
+        this(delegate, 1 << 16);
+    }
+
+    /**
+     * @param capacity ring size, rounded up to a power of two
+     */
+    public AsyncEventSink(EventSink delegate, int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.delegate = delegate;
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.consumer = new Thread(this::drain, "event-sink");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @Override
+    public void publish(HospitalEvent event) {
+        long slot;
+        do {
+            slot = tail.get();
+            if (slot - head > mask || !running) {
+                dropped.increment();
+                return;
+            }
+        } while (!tail.compareAndSet(slot, slot + 1));
+        ring.set((int) slot & mask, event);
+        if (idle) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Stops accepting events, delivers everything already queued and waits
+     * for the background thread to finish.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // publishers that claimed a slot just before running went false
+        for (long next = head; next < tail.get(); next++) {
+            HospitalEvent event;
+            while ((event = ring.getAndSet((int) next & mask, null)) == null) {
+                Thread.onSpinWait();
+            }
+            head = next + 1;
+            deliver(event);
+        }
+        long lost = dropped.sum();
+        if (lost > 0) {
+            delegate.publish(new HospitalEvent.Notice(HospitalEvent.Severity.WARNING,
+                lost + " event(s) dropped because the event buffer was full"));
+        }
+    }
+
+    private void drain() {
+        long next = head;
+        while (running || next < tail.get()) {
+            int index = (int) next & mask;
+            HospitalEvent event = ring.get(index);
+            if (event == null) {
+                if (next < tail.get()) {
+                    Thread.onSpinWait(); // slot claimed, not yet filled
+                } else {
+                    idle = true;
+                    if (running && next == tail.get()) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    idle = false;
+                }
+                continue;
+            }
+            ring.set(index, null);
+            head = ++next;
+            deliver(event);
+        }
+    }
+
+    private void deliver(HospitalEvent event) {
+        try {
+            delegate.publish(event);
+        } catch (RuntimeException e) {
+            // a failing sink must not kill the consumer
+        }
+    }
+}
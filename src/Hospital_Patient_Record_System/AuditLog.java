@@ -0,0 +1,947 @@
+package Hospital_Patient_Record_System;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Immutable history of every admission, discharge, rate change and discount,
+ * from which the hospital as it was at any past moment can be rebuilt for
+ * audits and billing disputes.
+ *
+ * Events are appended as timestamped, checksummed lines (in the escaped
+ * format of RecordCodec, shared with the patient journal) to numbered GZIP
+ * segments in the audit directory. A segment is sealed once it holds
+ * enough events (or at shutdown) and is never written again; audit.idx
+ * lists every sealed segment with its first and last timestamp. Every few
+ * segments a background thread folds the previous snapshot and the
+ * segments after it into a snapshot of the full state. Rebuilding the
+ * state at time T loads the last snapshot taken at or before T and replays
+ * only the segments between it and T, so the cost is bounded by the
+ * snapshot interval, not by how many years the log covers.
+ *
+ * Admissions and discharges hand their events to a queue and return; an
+ * appender thread writes whatever has queued up and flushes it to the
+ * operating system once, so request threads never wait on the log or on
+ * each other. Events are not fsync'd: patients.csv and its journal stay
+ * the durable record. A segment left unsealed by a crash is sealed at the
+ * next start up to its last intact event, and unless the last run closed
+ * the log cleanly, admissions and discharges the patients have but the
+ * log lost are recorded again at that start.
+ */
+public class AuditLog implements AutoCloseable {
+    public static final int DEFAULT_SEGMENT_EVENTS = 100_000;
+    public static final int DEFAULT_SNAPSHOT_EVERY = 4;
+    private static final String INDEX_FILE = "audit.idx";
+    private static final String CLEAN_FILE = "audit.clean";
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final int MAX_BATCH = 4096;
+
+    /**
+     * Events of one call, stamped when they were handed over
+     */
+    private static final class Pending {
+        final long millis;
+        final List<String> bodies;
+        final CompletableFuture<Void> written = new CompletableFuture<>();
+
+        Pending(long millis, List<String> bodies) {
+            this.millis = millis;
+            this.bodies = bodies;
+        }
+    }
+
+    /**
+     * One patient as recorded in the log
+     */
+    private static final class Row {
+        final String id;
+        final String name;
+        final int age;
+        final String ward;
+        final LocalDate admitDate;
+        LocalDate dischargeDate;
+
+        Row(String id, String name, int age, String ward, LocalDate admitDate, LocalDate dischargeDate) {
+            this.id = id;
+            this.name = name;
+            this.age = age;
+            this.ward = ward;
+            this.admitDate = admitDate;
+            this.dischargeDate = dischargeDate;
+        }
+    }
+
+    /**
+     * Position of one segment in time; segment 0 is the genesis snapshot
+     */
+    private static final class Segment {
+        final int number;
+        final long firstMillis;
+        long lastMillis;
+        int events;
+
+        Segment(int number, long firstMillis, long lastMillis, int events) {
+            this.number = number;
+            this.firstMillis = firstMillis;
+            this.lastMillis = lastMillis;
+            this.events = events;
+        }
+
+        Segment copy() {
+            return new Segment(number, firstMillis, lastMillis, events);
+        }
+    }
+
+    /**
+     * The hospital as it was at one moment: every patient admitted up to
+     * then (discharged or not), the ward rates and the discount history
+     */
+    public static final class State {
+        private Instant time;
+        private final Map<String, Row> patients = new LinkedHashMap<>();
+        private final Map<String, Double> rates = new LinkedHashMap<>();
+        private final NavigableMap<LocalDate, Long> discounts = new TreeMap<>(Map.of(LocalDate.MIN, 0L));
+        // events and snapshots repeat the same few thousand dates
+        private final Map<String, LocalDate> dates = new HashMap<>();
+
+        private State(Instant time) {
+            this.time = time;
+        }
+
+        public Instant getTime() { return time; }
+        public int size() { return patients.size(); }
+        public RateTable getRates() { return RateTable.of(rates); }
+        public DiscountSchedule getDiscounts() { return DiscountSchedule.ofHundredths(discounts); }
+
+        /**
+         * The patient as of this moment, or null if not yet admitted
+         */
+        public Patient getPatient(String patientId) {
+            Row row = patients.get(patientId);
+            return row == null ? null : toPatient(row);
+        }
+
+        public List<Patient> getPatients() {
+            List<Patient> list = new ArrayList<>(patients.size());
+            for (Row row : patients.values()) {
+                list.add(toPatient(row));
+            }
+            return list;
+        }
+
+        public long getAdmittedCount() {
+            return patients.values().stream().filter(r -> r.dischargeDate == null).count();
+        }
+
+        /**
+         * Bill of a patient discharged by this moment, priced with the rates
+         * and discounts in effect then; null if not discharged
+         */
+        public PatientBill billFor(String patientId) {
+            Patient patient = getPatient(patientId);
+            return patient == null ? null : new BillingEngine(rates, getDiscounts()).billFor(patient);
+        }
+
+        private static Patient toPatient(Row row) {
+            try {
+                Patient patient = new Patient(row.id, row.name, row.age, row.ward, row.admitDate);
+                if (row.dischargeDate != null) {
+                    patient.discharge(row.dischargeDate);
+                }
+                return patient;
+            } catch (InvalidPatientDataException | PatientAlreadyDischargedException e) {
+                throw new IllegalStateException("Audit record for " + row.id + " is invalid: " + e.getMessage(), e);
+            }
+        }
+
+        private void apply(String[] event) {
+            switch (event[1]) {
+                case "A":
+                    patients.putIfAbsent(event[2], new Row(event[2], event[3], Integer.parseInt(event[4]),
+                        event[5], date(event[6]), null));
+                    break;
+                case "D":
+                    Row row = patients.get(event[2]);
+                    if (row != null) {
+                        row.dischargeDate = date(event[3]);
+                    }
+                    break;
+                case "R":
+                    rates.put(event[2], Double.parseDouble(event[3]));
+                    break;
+                case "S":
+                    discounts.put(date(event[2]), hundredths(event[3]));
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private LocalDate date(String text) {
+            LocalDate date = dates.get(text);
+            if (date == null) {
+                date = LocalDate.parse(text);
+                dates.put(text, date);
+            }
+            return date;
+        }
+    }
+
+    private final Path dir;
+    private final EventSink events;
+    private final Clock clock;
+    private final int segmentEvents;
+    private final int snapshotEvery;
+    private final boolean readOnly;
+    // sealed.get(n) is segment n; entry 0 is the genesis snapshot
+    private final List<Segment> sealed = new ArrayList<>();
+    private final NavigableSet<Integer> snapshots = new ConcurrentSkipListSet<>();
+    private final ExecutorService snapshotter;
+    private final BlockingQueue<Pending> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread appender;
+    // guards loggedRates and loggedDiscounts; never held while waiting for the appender
+    private final Object pricingLock = new Object();
+    private Segment active;
+    private FileChannel activeChannel;
+    private GZIPOutputStream gzip;
+    private Writer out;
+    private long lastMillis;
+    private Map<String, Double> loggedRates = new LinkedHashMap<>();
+    private DiscountSchedule loggedDiscounts = DiscountSchedule.flat(0);
+    private long appended;
+    private volatile boolean failed;
+    private volatile boolean closed;
+    // true once the genesis snapshot exists, so events can be appended
+    private volatile boolean started;
+    // the previous run closed the log, so it holds every event that run made
+    private boolean clean;
+
+    public AuditLog(Path dir, EventSink events) {
+        this(dir, events, Clock.systemUTC(), DEFAULT_SEGMENT_EVENTS, DEFAULT_SNAPSHOT_EVERY, false);
+    }
+
+    /**
+     * @param segmentEvents events per segment before it is sealed
+     * @param snapshotEvery sealed segments between full-state snapshots
+     */
+    public AuditLog(Path dir, EventSink events, Clock clock, int segmentEvents, int snapshotEvery) {
+        this(dir, events, clock, segmentEvents, snapshotEvery, false);
+    }
+
+    private AuditLog(Path dir, EventSink events, Clock clock, int segmentEvents, int snapshotEvery, boolean readOnly) {
+        this.dir = dir;
+        this.events = events;
+        this.clock = clock;
+        this.segmentEvents = segmentEvents;
+        this.snapshotEvery = snapshotEvery;
+        this.readOnly = readOnly;
+        this.snapshotter = readOnly ? null : Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "audit-snapshotter");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            if (!readOnly) {
+                Files.createDirectories(dir);
+            }
+            open();
+        } catch (IOException | RuntimeException e) {
+            failed = true;
+            warn("Audit log disabled, could not open " + dir + ": " + e.getMessage());
+        }
+        this.appender = readOnly ? null : new Thread(this::run, "audit-appender");
+        if (appender != null) {
+            appender.setDaemon(true);
+            appender.start();
+        }
+    }
+
+    /**
+     * Opens a log for reading only, e.g. while the hospital that writes it is running
+     */
+    public static AuditLog openReadOnly(Path dir) {
+        return new AuditLog(dir, EventSink.NO_OP, Clock.systemUTC(), DEFAULT_SEGMENT_EVENTS, DEFAULT_SNAPSHOT_EVERY, true);
+    }
+
+    /**
+     * Reads audit.idx, seals segments a crash left unsealed and picks up the
+     * rates and discounts last logged
+     */
+    private void open() throws IOException {
+        try {
+            for (String line : Files.readAllLines(dir.resolve(INDEX_FILE), StandardCharsets.UTF_8)) {
+                String[] parts = line.split(",");
+                if (parts.length == 4 && Integer.parseInt(parts[0]) == sealed.size()) {
+                    sealed.add(new Segment(sealed.size(), Long.parseLong(parts[1]),
+                        Long.parseLong(parts[2]), Integer.parseInt(parts[3])));
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return; // new log; reconcile writes the genesis snapshot
+        }
+        if (sealed.isEmpty()) {
+            return;
+        }
+        if (!readOnly) {
+            // deleted now, so a crash during this run is noticed at the next start
+            clean = Files.deleteIfExists(dir.resolve(CLEAN_FILE));
+        }
+        lastMillis = sealed.get(sealed.size() - 1).lastMillis;
+        while (Files.exists(segmentFile(sealed.size()))) {
+            Segment recovered = scan(sealed.size());
+            if (readOnly) {
+                active = recovered; // still being written by the running hospital
+                break;
+            }
+            if (recovered.events == 0) {
+                Files.delete(segmentFile(recovered.number));
+                break;
+            }
+            writeIndex(recovered);
+            sealed.add(recovered);
+            lastMillis = recovered.lastMillis;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "snapshot-*.gz")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                snapshots.add(Integer.parseInt(name.substring("snapshot-".length(), name.length() - ".gz".length())));
+            }
+        }
+        if (!readOnly) {
+            State pricing = new State(Instant.ofEpochMilli(lastMillis));
+            int base = snapshots.isEmpty() ? 0 : snapshots.last();
+            readSnapshot(base, pricing, true);
+            for (int n = base + 1; n < sealed.size(); n++) {
+                replay(n, pricing, Long.MAX_VALUE, true);
+            }
+            loggedRates = pricing.rates;
+            loggedDiscounts = pricing.getDiscounts();
+            scheduleSnapshots();
+        }
+        started = true;
+    }
+
+    /**
+     * True until the genesis snapshot has been written
+     */
+    public synchronized boolean isEmpty() {
+        return sealed.isEmpty();
+    }
+
+    /**
+     * Brings the log in line with the hospital at startup. A new log starts
+     * with a genesis snapshot of the current patients, rates and discounts;
+     * an existing one records any rate or discount changed while the
+     * hospital was down (e.g. rates.cfg edited by hand), and, unless the
+     * last run closed the log, any admission or discharge of
+     * {@code patients} it lost (a crash between the journal write and the
+     * audit append, or a failed write that disabled the log). Recovered
+     * events are stamped with the time of this start.
+     */
+    public void reconcile(Collection<Patient> patients, RateTable rates, DiscountSchedule discounts) {
+        if (failed || readOnly) {
+            return;
+        }
+        if (started) {
+            if (!clean) {
+                recoverPatients(patients);
+            }
+            ratesChanged(rates);
+            discountsChanged(discounts);
+            return;
+        }
+        synchronized (this) {
+            long now = clock.millis();
+            State genesis = new State(Instant.ofEpochMilli(now));
+            for (Patient p : patients) {
+                genesis.patients.put(p.getId(), new Row(p.getId(), p.getName(), p.getAge(), p.getWard(),
+                    p.getAdmitDate(), p.getDischargeDate()));
+            }
+            genesis.rates.putAll(rates.asMap());
+            genesis.discounts.putAll(discounts.asMap());
+            try {
+                writeSnapshot(0, genesis);
+                Segment segment = new Segment(0, now, now, 0);
+                writeIndex(segment);
+                sealed.add(segment);
+                snapshots.add(0);
+                lastMillis = now;
+                synchronized (pricingLock) {
+                    loggedRates = new LinkedHashMap<>(rates.asMap());
+                    loggedDiscounts = discounts;
+                }
+                started = true;
+            } catch (IOException e) {
+                failed = true;
+                warn("Audit log disabled, could not write its genesis snapshot: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Appends an admission for every patient the log does not know and a
+     * discharge for every discharged patient it still has in a bed
+     */
+    private void recoverPatients(Collection<Patient> patients) {
+        State logged;
+        try {
+            logged = stateAt(Instant.ofEpochMilli(Long.MAX_VALUE));
+        } catch (IOException | RuntimeException e) {
+            warn("Could not check the audit log for lost events: " + e.getMessage());
+            return;
+        }
+        List<String> missing = new ArrayList<>();
+        for (Patient p : patients) {
+            Row row = logged.patients.get(p.getId());
+            if (row == null) {
+                missing.add(admitRecord(p));
+            }
+            if (p.getDischargeDate() != null && (row == null || row.dischargeDate == null)) {
+                missing.add(RecordCodec.join("D", p.getId(), p.getDischargeDate()));
+            }
+        }
+        if (!missing.isEmpty() && append(missing)) {
+            warn("Audit log was missing " + missing.size() + " admissions and discharges; recorded them now");
+        }
+    }
+
+    public void admitted(Patient patient) {
+        append(Collections.singletonList(admitRecord(patient)));
+    }
+
+    public void admitted(Collection<Patient> batch) {
+        List<String> bodies = new ArrayList<>(batch.size());
+        for (Patient p : batch) {
+            bodies.add(admitRecord(p));
+        }
+        append(bodies);
+    }
+
+    public void discharged(Patient patient, LocalDate date) {
+        append(Collections.singletonList(RecordCodec.join("D", patient.getId(), date)));
+    }
+
+    public void discharged(Collection<Patient> batch, LocalDate date) {
+        List<String> bodies = new ArrayList<>(batch.size());
+        for (Patient p : batch) {
+            bodies.add(RecordCodec.join("D", p.getId(), date));
+        }
+        append(bodies);
+    }
+
+    /**
+     * Records every ward whose rate differs from the last one logged
+     */
+    public void ratesChanged(RateTable rates) {
+        synchronized (pricingLock) {
+            List<String> bodies = new ArrayList<>();
+            for (Map.Entry<String, Double> e : rates.asMap().entrySet()) {
+                if (!Objects.equals(loggedRates.get(e.getKey()), e.getValue())) {
+                    bodies.add(RecordCodec.join("R", e.getKey(), e.getValue()));
+                }
+            }
+            if (!bodies.isEmpty() && append(bodies)) {
+                loggedRates.putAll(rates.asMap());
+            }
+        }
+    }
+
+    /**
+     * Records every discount entry that differs from the history last logged
+     */
+    public void discountsChanged(DiscountSchedule discounts) {
+        synchronized (pricingLock) {
+            List<String> bodies = new ArrayList<>();
+            for (Map.Entry<LocalDate, Long> e : discounts.asMap().entrySet()) {
+                if (!e.getValue().equals(loggedDiscounts.asMap().get(e.getKey()))) {
+                    bodies.add(RecordCodec.join("S", e.getKey(), percentage(e.getValue())));
+                }
+            }
+            if (!bodies.isEmpty() && append(bodies)) {
+                loggedDiscounts = discounts;
+            }
+        }
+    }
+
+    private static String admitRecord(Patient p) {
+        return RecordCodec.join("A", p.getId(), p.getName(), p.getAge(), p.getWard(), p.getAdmitDate());
+    }
+
+    /**
+     * Hands the records to the appender with one timestamp, blocking only
+     * while its queue is full; returns false if the log is disabled
+     */
+    private boolean append(List<String> bodies) {
+        if (readOnly) {
+            throw new IllegalStateException("Audit log was opened read-only");
+        }
+        if (failed || closed || !started) {
+            return false;
+        }
+        if (bodies.isEmpty()) {
+            return true;
+        }
+        return enqueue(new Pending(clock.millis(), bodies));
+    }
+
+    private boolean enqueue(Pending pending) {
+        if (!queue.offer(pending)) {
+            try {
+                queue.put(pending);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                warn(pending.bodies.size() + " audit events lost, interrupted while waiting for the audit log");
+                return false;
+            }
+        }
+        // close() may have written the last of the queue between the check in append and the put
+        return !(closed && queue.remove(pending));
+    }
+
+    /**
+     * Waits until every event handed to the log so far has been written
+     */
+    public void flush() {
+        if (readOnly || closed) {
+            return;
+        }
+        Pending marker = new Pending(0, Collections.emptyList());
+        if (enqueue(marker)) {
+            marker.written.join();
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>();
+        while (!closed || !queue.isEmpty()) {
+            Pending first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, MAX_BATCH - 1);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writes a batch of queued calls and flushes them to the OS once
+     */
+    private synchronized void write(List<Pending> batch) {
+        try {
+            if (failed) {
+                return;
+            }
+            for (Pending pending : batch) {
+                if (pending.bodies.isEmpty()) {
+                    continue;
+                }
+                long now = Math.max(lastMillis, pending.millis);
+                if (active == null) {
+                    openSegment(now);
+                }
+                for (String body : pending.bodies) {
+                    out.write(RecordCodec.seal(now + "," + body));
+                    out.write('\n');
+                }
+                lastMillis = now;
+                active.lastMillis = now;
+                active.events += pending.bodies.size();
+                appended += pending.bodies.size();
+                if (active.events >= segmentEvents) {
+                    seal();
+                }
+            }
+            if (out != null) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            failed = true;
+            warn("Audit log disabled after a write failed: " + e.getMessage());
+        } finally {
+            for (Pending pending : batch) {
+                pending.written.complete(null);
+            }
+        }
+    }
+
+    private void openSegment(long firstMillis) throws IOException {
+        int number = sealed.size();
+        activeChannel = FileChannel.open(segmentFile(number),
+            StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        gzip = new GZIPOutputStream(Channels.newOutputStream(activeChannel), 1 << 16, true);
+        out = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), 1 << 16);
+        active = new Segment(number, firstMillis, firstMillis, 0);
+    }
+
+    /**
+     * Finishes the active segment, records it in audit.idx and snapshots
+     * the state if this completes a snapshot interval
+     */
+    private void seal() throws IOException {
+        if (active == null) {
+            return;
+        }
+        try (FileChannel ch = activeChannel) {
+            out.flush();
+            gzip.finish();
+            ch.force(true);
+        } finally {
+            out = null;
+            gzip = null;
+            activeChannel = null;
+        }
+        writeIndex(active);
+        sealed.add(active);
+        active = null;
+        scheduleSnapshots();
+    }
+
+    private void writeIndex(Segment segment) throws IOException {
+        String line = segment.number + "," + segment.firstMillis + "," + segment.lastMillis + "," + segment.events + "\n";
+        try (FileChannel ch = FileChannel.open(dir.resolve(INDEX_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ch.write(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)));
+            ch.force(true);
+        }
+    }
+
+    /**
+     * Queues a snapshot for every completed interval that does not have one yet
+     */
+    private void scheduleSnapshots() {
+        for (int n = snapshotEvery; n < sealed.size(); n += snapshotEvery) {
+            if (!snapshots.contains(n)) {
+                int number = n;
+                snapshotter.submit(() -> buildSnapshot(number));
+            }
+        }
+    }
+
+    private void buildSnapshot(int number) {
+        if (snapshots.contains(number)) {
+            return;
+        }
+        try {
+            Integer base = snapshots.lower(number);
+            State state = new State(Instant.ofEpochMilli(segment(number).lastMillis));
+            readSnapshot(base == null ? 0 : base, state, false);
+            for (int n = (base == null ? 0 : base) + 1; n <= number; n++) {
+                replay(n, state, Long.MAX_VALUE, false);
+            }
+            writeSnapshot(number, state);
+            snapshots.add(number);
+        } catch (IOException | RuntimeException e) {
+            warn("Audit snapshot " + number + " failed, will retry at next start: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the hospital as it was at {@code time}. Before the log began
+     * nothing is known, so the result is empty.
+     */
+    public State stateAt(Instant time) throws IOException {
+        flush();
+        long t = time.toEpochMilli();
+        List<Segment> segments = new ArrayList<>();
+        synchronized (this) {
+            for (Segment s : sealed) {
+                segments.add(s.copy());
+            }
+            if (active != null) {
+                segments.add(active.copy());
+            }
+        }
+        State state = new State(time);
+        if (segments.isEmpty() || t < segments.get(0).firstMillis) {
+            return state;
+        }
+        int base = 0;
+        for (Integer s : snapshots.descendingSet()) {
+            if (s < segments.size() && segments.get(s).lastMillis <= t) {
+                base = s;
+                break;
+            }
+        }
+        readSnapshot(base, state, false);
+        for (int n = base + 1; n < segments.size() && segments.get(n).firstMillis <= t; n++) {
+            replay(n, state, t, false);
+        }
+        state.time = time;
+        return state;
+    }
+
+    /**
+     * Events written since this log was opened
+     */
+    public synchronized long getAppendedCount() {
+        return appended;
+    }
+
+    /**
+     * Sealed segments plus the one being written, if any (the genesis snapshot not counted)
+     */
+    public synchronized int getSegmentCount() {
+        return Math.max(0, sealed.size() - 1) + (active != null ? 1 : 0);
+    }
+
+    public int getSnapshotCount() {
+        return snapshots.size();
+    }
+
+    /**
+     * Writes the events still queued, seals the segment being written, marks
+     * the log as cleanly closed and waits for pending snapshots
+     */
+    @Override
+    public void close() {
+        if (appender != null && !closed) {
+            closed = true;
+            try {
+                appender.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            List<Pending> rest = new ArrayList<>();
+            queue.drainTo(rest);
+            write(rest);
+        }
+        synchronized (this) {
+            if (!readOnly && !failed && started) {
+                try {
+                    seal();
+                    Files.write(dir.resolve(CLEAN_FILE), new byte[0]);
+                } catch (IOException e) {
+                    warn("Could not seal audit segment: " + e.getMessage());
+                }
+            }
+        }
+        if (snapshotter != null) {
+            snapshotter.shutdown();
+            try {
+                snapshotter.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private synchronized Segment segment(int number) {
+        return sealed.get(number);
+    }
+
+    /**
+     * Reads a segment's events up to its last intact one to recover its time range
+     */
+    private Segment scan(int number) throws IOException {
+        long[] range = {-1, -1};
+        int[] count = {0};
+        forEachEvent(segmentFile(number), Long.MAX_VALUE, event -> {
+            long millis = Long.parseLong(event[0]);
+            if (range[0] < 0) {
+                range[0] = millis;
+            }
+            range[1] = millis;
+            count[0]++;
+        });
+        return new Segment(number, range[0], range[1], count[0]);
+    }
+
+    private void replay(int number, State state, long until, boolean pricingOnly) throws IOException {
+        forEachEvent(segmentFile(number), until, event -> {
+            if (!pricingOnly || "R".equals(event[1]) || "S".equals(event[1])) {
+                state.apply(event);
+            }
+        });
+    }
+
+    private interface EventHandler {
+        void onEvent(String[] event);
+    }
+
+    /**
+     * Calls {@code handler} for each intact event up to {@code until}. A torn
+     * last line is the tail of a segment that was being written and is
+     * ignored; a corrupted or malformed event before it is skipped with a
+     * warning, so the events after it are still read.
+     */
+    private void forEachEvent(Path file, long until, EventHandler handler) throws IOException {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new UnsealedSegmentStream(new GZIPInputStream(Files.newInputStream(file), 1 << 16)),
+                StandardCharsets.UTF_8), 1 << 16)) {
+            String corrupted = null;
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (corrupted != null) {
+                    warn("Corrupted audit event skipped in " + file.getFileName() + ": " + corrupted);
+                    corrupted = null;
+                }
+                String body = RecordCodec.open(line);
+                if (body == null) {
+                    corrupted = line;
+                    continue;
+                }
+                String[] event = RecordCodec.split(body);
+                try {
+                    if (Long.parseLong(event[0]) > until) {
+                        return;
+                    }
+                    handler.onEvent(event);
+                } catch (RuntimeException e) {
+                    warn("Audit event skipped in " + file.getFileName() + " (" + e + "): " + body);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ends the stream where an unsealed segment (no GZIP trailer yet) runs
+     * out, instead of failing; everything flushed before that point has
+     * already been returned by then
+     */
+    private static final class UnsealedSegmentStream extends FilterInputStream {
+        UnsealedSegmentStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                return super.read();
+            } catch (EOFException e) {
+                return -1;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            try {
+                return super.read(b, off, len);
+            } catch (EOFException e) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Full state as one GZIP file: a header, then patients, rates and discount entries
+     */
+    private void writeSnapshot(int number, State state) throws IOException {
+        Path target = snapshotFile(number);
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            GZIPOutputStream compressed = new GZIPOutputStream(Channels.newOutputStream(ch), 1 << 16);
+            BufferedWriter w = new BufferedWriter(new OutputStreamWriter(compressed, StandardCharsets.UTF_8), 1 << 16);
+            w.write("#snapshot," + number + "," + state.time.toEpochMilli() + "\n");
+            for (Row r : state.patients.values()) {
+                w.write(RecordCodec.join("P", r.id, r.name, r.age, r.ward, r.admitDate,
+                    r.dischargeDate == null ? "" : r.dischargeDate));
+                w.write('\n');
+            }
+            for (Map.Entry<String, Double> e : state.rates.entrySet()) {
+                w.write(RecordCodec.join("R", e.getKey(), e.getValue()));
+                w.write('\n');
+            }
+            for (Map.Entry<LocalDate, Long> e : state.discounts.entrySet()) {
+                w.write(RecordCodec.join("S", e.getKey(), percentage(e.getValue())));
+                w.write('\n');
+            }
+            w.flush();
+            compressed.finish();
+            ch.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void readSnapshot(int number, State state, boolean pricingOnly) throws IOException {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(snapshotFile(number)), 1 << 16), StandardCharsets.UTF_8), 1 << 16)) {
+            String line = in.readLine();
+            if (line == null || !line.startsWith("#snapshot," + number + ",")) {
+                throw new IOException(snapshotFile(number).getFileName() + " is not a valid audit snapshot");
+            }
+            while ((line = in.readLine()) != null) {
+                char kind = line.charAt(0);
+                if (kind == 'P' && !pricingOnly) {
+                    String[] f = RecordCodec.split(line);
+                    state.patients.put(f[1], new Row(f[1], f[2], Integer.parseInt(f[3]), f[4],
+                        state.date(f[5]), f[6].isEmpty() ? null : state.date(f[6])));
+                } else if (kind == 'R') {
+                    String[] f = RecordCodec.split(line);
+                    state.rates.put(f[1], Double.parseDouble(f[2]));
+                } else if (kind == 'S') {
+                    String[] f = RecordCodec.split(line);
+                    state.discounts.put(state.date(f[1]), hundredths(f[2]));
+                }
+            }
+        }
+    }
+
+    private Path segmentFile(int number) {
+        return dir.resolve(String.format("segment-%08d.log.gz", number));
+    }
+
+    private Path snapshotFile(int number) {
+        return dir.resolve(String.format("snapshot-%08d.gz", number));
+    }
+
+    private static String percentage(long hundredths) {
+        return BigDecimal.valueOf(hundredths, 2).toPlainString();
+    }
+
+    private static long hundredths(String percentage) {
+        return new BigDecimal(percentage).movePointRight(2).longValueExact();
+    }
+
+    private void warn(String message) {
+        events.publish(new HospitalEvent.Notice(HospitalEvent.Severity.WARNING, message));
+    }
+}
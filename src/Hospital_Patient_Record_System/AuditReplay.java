@@ -0,0 +1,88 @@
+package Hospital_Patient_Record_System;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * Prints the hospital as the audit log says it was at a past moment: how
+ * many patients were admitted and discharged, the ward rates and discount
+ * in effect, and optionally one patient's record and the bill they were
+ * charged. Opens the log read-only, so it can run next to the hospital.
+ *
+ * The time is an instant (2026-03-01T10:15:30Z), a local date-time
+ * (2026-03-01T10:15) or a date, meaning the end of that day.
+ *
+ * Usage: java Hospital_Patient_Record_System.AuditReplay dataDir time [patientId]
+ */
+public class AuditReplay {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: AuditReplay <dataDir> <time> [patientId]");
+            return;
+        }
+        Path auditDir = Paths.get(args[0]).resolve("audit");
+        Instant time;
+        try {
+            time = parseTime(args[1]);
+        } catch (DateTimeParseException e) {
+            System.out.println("❌ Invalid time '" + args[1] + "'. Use 2026-03-01, 2026-03-01T10:15 or 2026-03-01T10:15:30Z");
+            return;
+        }
+
+        AuditLog log = AuditLog.openReadOnly(auditDir);
+        if (log.isEmpty()) {
+            System.out.println("⚠️  No audit log in " + auditDir);
+            return;
+        }
+        long started = System.nanoTime();
+        AuditLog.State state = log.stateAt(time);
+        long ms = (System.nanoTime() - started) / 1_000_000;
+
+        System.out.println("\n🕓 HOSPITAL STATE AT " + time.atZone(ZoneId.systemDefault()).toLocalDateTime());
+        System.out.println("═══════════════════════════════════════");
+        long admitted = state.getAdmittedCount();
+        System.out.println("Patients: " + state.size() + " (" + admitted + " admitted, "
+            + (state.size() - admitted) + " discharged)");
+        for (Map.Entry<String, Double> rate : state.getRates().asMap().entrySet()) {
+            System.out.printf("Rate %-10s ₹%.2f/day%n", rate.getKey(), rate.getValue());
+        }
+        LocalDate day = time.atZone(ZoneId.systemDefault()).toLocalDate();
+        System.out.println("Discount: " + state.getDiscounts().percentageOn(day) + "%");
+        System.out.println("(rebuilt in " + ms + " ms from " + log.getSegmentCount() + " segments, "
+            + log.getSnapshotCount() + " snapshots)");
+
+        if (args.length > 2) {
+            Patient patient = state.getPatient(args[2]);
+            if (patient == null) {
+                System.out.println("\n❌ Patient " + args[2] + " had not been admitted by then");
+                return;
+            }
+            System.out.println();
+            patient.displayInfo();
+            PatientBill bill = state.billFor(args[2]);
+            if (bill != null) {
+                System.out.println("Days: " + bill.getDays() + " @ ₹" + bill.getDailyRate() + "/day");
+                System.out.println("Total: ₹" + bill.getTotalBill());
+                System.out.println("Discount (" + bill.getDiscountPercentage() + "%): ₹" + bill.getDiscount());
+                System.out.println("Final Bill: ₹" + bill.getFinalBill());
+            }
+        }
+    }
+
+    private static Instant parseTime(String text) {
+        if (text.endsWith("Z")) {
+            return Instant.parse(text);
+        }
+        if (text.contains("T")) {
+            return LocalDateTime.parse(text).atZone(ZoneId.systemDefault()).toInstant();
+        }
+        return LocalDate.parse(text).plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().minusMillis(1);
+    }
+}
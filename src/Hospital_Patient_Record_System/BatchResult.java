@@ -0,0 +1,84 @@
+package Hospital_Patient_Record_System;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a batch admission or discharge: one item per request, in
+ * request order, holding either the patient or the exception that would
+ * have been thrown had the request been made on its own.
+ */
+public class BatchResult {
+    /**
+     * Outcome of one request of the batch
+     */
+    public static final class Item {
+        private final String patientId;
+        private final Patient patient;
+        private final Exception error;
+
+        Item(String patientId, Patient patient, Exception error) {
+            this.patientId = patientId;
+            this.patient = patient;
+            this.error = error;
+        }
+
+        public String getPatientId() { return patientId; }
+        public boolean isSuccess() { return error == null; }
+
+        /**
+         * The admitted or discharged patient; null if the request failed
+         */
+        public Patient getPatient() { return patient; }
+
+        /**
+         * Why the request failed; null if it succeeded
+         */
+        public Exception getError() { return error; }
+    }
+
+    private final List<Item> items;
+    private final int succeeded;
+
+    BatchResult(List<Item> items) {
+        this.items = Collections.unmodifiableList(new ArrayList<>(items));
+        int ok = 0;
+        for (Item item : items) {
+            if (item.isSuccess()) {
+                ok++;
+            }
+        }
+        this.succeeded = ok;
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    public Item get(int i) {
+        return items.get(i);
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public int getFailed() {
+        return items.size() - succeeded;
+    }
+
+    public List<Item> getFailures() {
+        List<Item> failures = new ArrayList<>();
+        for (Item item : items) {
+            if (!item.isSuccess()) {
+                failures.add(item);
+            }
+        }
+        return failures;
+    }
+}
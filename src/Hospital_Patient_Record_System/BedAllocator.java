@@ -0,0 +1,174 @@
+package Hospital_Patient_Record_System;
+
+/**
+ * Free-bed bitmap for one ward. Beds are numbered from 0 here; Ward shows
+ * them to people starting at 1.
+ *
+ * Level 0 has one bit per bed, set while the bed is free. Each level above
+ * has one bit per 64-bit word of the level below, set while that word still
+ * has a free bed. Finding the lowest free bed therefore reads one word per
+ * level (three levels cover 262,144 beds), and allocate and release touch at
+ * most one word per level, so both are O(1) for any realistic ward size.
+ *
+ * A separate bitmap records which beds are held, so the capacity can shrink
+ * below a bed that is still in use and grow back later without handing that
+ * bed out twice.
+ *
+ * Not thread-safe; Ward calls it while holding its own lock.
+ */
+final class BedAllocator {
+    private long[][] free;
+    private long[] held;
+    private int capacity;
+    private int freeCount;
+
+    BedAllocator(int capacity) {
+        this.free = levels(capacity);
+        this.held = new long[words(capacity)];
+        setCapacity(capacity);
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    int getFreeCount() {
+        return freeCount;
+    }
+
+    boolean isHeld(int bed) {
+        int word = bed >>> 6;
+        return word < held.length && (held[word] & (1L << bed)) != 0;
+    }
+
+    /**
+     * Takes the lowest-numbered free bed, or returns -1 if there is none
+     */
+    int allocate() {
+        int top = free.length - 1;
+        if (free[top][0] == 0) {
+            return -1;
+        }
+        int index = 0;
+        for (int level = top; level >= 0; level--) {
+            index = (index << 6) + Long.numberOfTrailingZeros(free[level][index]);
+        }
+        take(index);
+        return index;
+    }
+
+    /**
+     * Takes a specific bed; false if it is held or beyond the capacity
+     */
+    boolean allocate(int bed) {
+        if (bed < 0 || bed >= capacity || isHeld(bed)) {
+            return false;
+        }
+        take(bed);
+        return true;
+    }
+
+    /**
+     * Gives a held bed back. A bed beyond the current capacity stays out of
+     * use until the ward grows again.
+     */
+    void release(int bed) {
+        if (!isHeld(bed)) {
+            return;
+        }
+        held[bed >>> 6] &= ~(1L << bed);
+        if (bed < capacity) {
+            markFree(bed);
+            freeCount++;
+        }
+    }
+
+    /**
+     * Changes the number of beds. Held beds are never freed by this; beds
+     * above a lower capacity simply stop being handed out.
+     */
+    void setCapacity(int newCapacity) {
+        if (words(newCapacity) > held.length) {
+            long[][] grown = levels(newCapacity);
+            System.arraycopy(free[0], 0, grown[0], 0, free[0].length);
+            free = grown;
+            long[] grownHeld = new long[grown[0].length];
+            System.arraycopy(held, 0, grownHeld, 0, held.length);
+            held = grownHeld;
+            rebuildSummaries();
+        }
+        for (int bed = capacity; bed < newCapacity; bed++) {
+            if (!isHeld(bed)) {
+                markFree(bed);
+                freeCount++;
+            }
+        }
+        for (int bed = newCapacity; bed < capacity; bed++) {
+            if (!isHeld(bed)) {
+                markTaken(bed);
+                freeCount--;
+            }
+        }
+        capacity = newCapacity;
+    }
+
+    private void take(int bed) {
+        held[bed >>> 6] |= 1L << bed;
+        markTaken(bed);
+        freeCount--;
+    }
+
+    private void markFree(int bed) {
+        int index = bed;
+        for (long[] level : free) {
+            int word = index >>> 6;
+            boolean wasEmpty = level[word] == 0;
+            level[word] |= 1L << index;
+            if (!wasEmpty) {
+                return;
+            }
+            index = word;
+        }
+    }
+
+    private void markTaken(int bed) {
+        int index = bed;
+        for (long[] level : free) {
+            int word = index >>> 6;
+            level[word] &= ~(1L << index);
+            if (level[word] != 0) {
+                return;
+            }
+            index = word;
+        }
+    }
+
+    private void rebuildSummaries() {
+        for (int level = 1; level < free.length; level++) {
+            long[] below = free[level - 1];
+            for (int word = 0; word < below.length; word++) {
+                if (below[word] != 0) {
+                    free[level][word >>> 6] |= 1L << word;
+                }
+            }
+        }
+    }
+
+    private static int words(int bits) {
+        return Math.max(1, (bits + 63) >>> 6);
+    }
+
+    private static long[][] levels(int capacity) {
+        int count = 1;
+        for (int n = words(capacity); n > 1; n = words(n)) {
+            count++;
+        }
+        long[][] levels = new long[count][];
+        int n = words(capacity);
+        for (int level = 0; level < count; level++) {
+            levels[level] = new long[n];
+            n = words(n);
+        }
+        return levels;
+    }
+}
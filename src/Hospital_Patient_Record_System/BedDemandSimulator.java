@@ -0,0 +1,438 @@
+package Hospital_Patient_Record_System;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Monte Carlo forecast of bed demand: how likely each ward is to run out of
+ * beds (the point where Ward.addPatient throws NoBedsAvailableException)
+ * over the coming days, for a given number of beds per ward.
+ *
+ * Arrivals and lengths of stay are resampled from the hospital's own
+ * history: each simulated day replays the admissions of a random past day
+ * in the look-back window (all wards together, so busy days stay busy
+ * everywhere), and each admission draws a length of stay from the
+ * requested ward's discharged patients. Patients admitted today keep
+ * their beds for a stay drawn from the stays longer than what they have
+ * already spent. Admissions follow the same route as admitPatient: the
+ * requested ward, then its overflow wards in order, then turned away.
+ *
+ * Wards are simulated as bed counts plus a ring of upcoming discharges
+ * per ward, not as Ward and Patient objects, so a scenario allocates
+ * nothing after its arrays are set up. Scenarios run in parallel on the
+ * common fork-join pool, each chunk with its own random stream, so results
+ * are repeatable for a given seed.
+ */
+public class BedDemandSimulator {
+    public static final int DEFAULT_HISTORY_DAYS = 365;
+    private static final int SCENARIOS_PER_TASK = 64;
+
+    /**
+     * Outcome for one ward over all scenarios
+     */
+    public static final class WardForecast {
+        private final String ward;
+        private final int beds;
+        private final double probabilityFull;
+        private final double probabilityTurnedAway;
+        private final double meanTurnedAway;
+        private final int peakOccupancyP95;
+
+        WardForecast(String ward, int beds, double probabilityFull, double probabilityTurnedAway,
+                     double meanTurnedAway, int peakOccupancyP95) {
+            this.ward = ward;
+            this.beds = beds;
+            this.probabilityFull = probabilityFull;
+            this.probabilityTurnedAway = probabilityTurnedAway;
+            this.meanTurnedAway = meanTurnedAway;
+            this.peakOccupancyP95 = peakOccupancyP95;
+        }
+
+        public String getWard() { return ward; }
+        public int getBeds() { return beds; }
+
+        /**
+         * Share of scenarios in which the ward was full at least once when a patient was sent to it
+         */
+        public double getProbabilityFull() { return probabilityFull; }
+
+        /**
+         * Share of scenarios in which a patient asking for this ward found it and every overflow ward full
+         */
+        public double getProbabilityTurnedAway() { return probabilityTurnedAway; }
+
+        public double getMeanTurnedAway() { return meanTurnedAway; }
+        public int getPeakOccupancyP95() { return peakOccupancyP95; }
+    }
+
+    /**
+     * Result of one run: a forecast per ward plus how much was simulated
+     */
+    public static final class Forecast {
+        private final Map<String, WardForecast> wards;
+        private final int scenarios;
+        private final int days;
+        private final long admissions;
+        private final long elapsedNanos;
+
+        Forecast(Map<String, WardForecast> wards, int scenarios, int days, long admissions, long elapsedNanos) {
+            this.wards = Collections.unmodifiableMap(wards);
+            this.scenarios = scenarios;
+            this.days = days;
+            this.admissions = admissions;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public Map<String, WardForecast> getWards() { return wards; }
+        public WardForecast getWard(String ward) { return wards.get(ward); }
+        public int getScenarios() { return scenarios; }
+        public int getDays() { return days; }
+        public long getAdmissions() { return admissions; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        public double getAdmissionsPerSecond() {
+            return elapsedNanos == 0 ? 0 : admissions * 1e9 / elapsedNanos;
+        }
+    }
+
+    private final String[] wards;
+    private final int[] currentBeds;
+    // route[w] = w followed by its overflow wards, as indices
+    private final int[][] routes;
+    // arrivals[k][w] = admissions to ward w on the k-th day of the look-back window
+    private final int[][] arrivals;
+    // sorted lengths of stay (days) of the ward's discharged patients
+    private final int[][] stays;
+    // days already spent by each patient currently in the ward
+    private final int[][] elapsed;
+    private final int ringSize;
+
+    private BedDemandSimulator(String[] wards, int[] currentBeds, int[][] routes, int[][] arrivals,
+                               int[][] stays, int[][] elapsed) {
+        this.wards = wards;
+        this.currentBeds = currentBeds;
+        this.routes = routes;
+        this.arrivals = arrivals;
+        this.stays = stays;
+        this.elapsed = elapsed;
+        int longest = 1;
+        for (int[] s : stays) {
+            longest = Math.max(longest, s[s.length - 1]);
+        }
+        this.ringSize = longest + 1;
+    }
+
+    /**
+     * Builds the arrival and length-of-stay distributions from {@code patients}
+     *
+     * @param beds           current beds per ward, in the order wards are reported
+     * @param overflowRoutes overflow wards tried, in order, when a ward is full
+     * @param today          first simulated day; patients still admitted occupy beds from it
+     * @param historyDays    days before {@code today} whose admissions are resampled
+     */
+    public static BedDemandSimulator fromHistory(Collection<Patient> patients, Map<String, Integer> beds,
+                                                 Map<String, List<String>> overflowRoutes,
+                                                 LocalDate today, int historyDays) {
+        String[] wards = beds.keySet().toArray(new String[0]);
+        Map<String, Integer> index = new LinkedHashMap<>();
+        for (int i = 0; i < wards.length; i++) {
+            index.put(wards[i], i);
+        }
+        int[] currentBeds = new int[wards.length];
+        int[][] routes = new int[wards.length][];
+        for (int w = 0; w < wards.length; w++) {
+            currentBeds[w] = beds.get(wards[w]);
+            List<Integer> route = new ArrayList<>();
+            route.add(w);
+            for (String fallback : overflowRoutes.getOrDefault(wards[w], Collections.emptyList())) {
+                Integer f = index.get(fallback);
+                if (f != null && !route.contains(f)) {
+                    route.add(f);
+                }
+            }
+            routes[w] = route.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        LocalDate windowStart = today.minusDays(historyDays);
+        LocalDate earliest = today;
+        for (Patient p : patients) {
+            if (index.containsKey(p.getWard()) && p.getAdmitDate().isBefore(earliest)
+                    && !p.getAdmitDate().isBefore(windowStart)) {
+                earliest = p.getAdmitDate();
+            }
+        }
+        // the window only reaches back as far as the history does, so a young
+        // hospital is not diluted with days it did not exist
+        int windowDays = Math.max(1, (int) ChronoUnit.DAYS.between(earliest, today));
+        int[][] arrivals = new int[windowDays][wards.length];
+        List<List<Integer>> stayLists = new ArrayList<>();
+        List<List<Integer>> elapsedLists = new ArrayList<>();
+        for (int w = 0; w < wards.length; w++) {
+            stayLists.add(new ArrayList<>());
+            elapsedLists.add(new ArrayList<>());
+        }
+        List<Integer> allStays = new ArrayList<>();
+        for (Patient p : patients) {
+            Integer w = index.get(p.getWard());
+            if (w == null) {
+                continue;
+            }
+            long day = ChronoUnit.DAYS.between(earliest, p.getAdmitDate());
+            if (day >= 0 && day < windowDays) {
+                arrivals[(int) day][w]++;
+            }
+            if (p.getDischargeDate() != null) {
+                int stay = (int) Math.max(1, p.getDaysAdmitted());
+                stayLists.get(w).add(stay);
+                allStays.add(stay);
+            } else {
+                elapsedLists.get(w).add((int) Math.max(0, ChronoUnit.DAYS.between(p.getAdmitDate(), today)));
+            }
+        }
+
+        int[] fallbackStays = allStays.isEmpty() ? new int[] {1} : sorted(allStays);
+        int[][] stays = new int[wards.length][];
+        int[][] elapsed = new int[wards.length][];
+        for (int w = 0; w < wards.length; w++) {
+            stays[w] = stayLists.get(w).isEmpty() ? fallbackStays : sorted(stayLists.get(w));
+            elapsed[w] = elapsedLists.get(w).stream().mapToInt(Integer::intValue).toArray();
+        }
+        return new BedDemandSimulator(wards, currentBeds, routes, arrivals, stays, elapsed);
+    }
+
+    private static int[] sorted(List<Integer> values) {
+        int[] array = values.stream().mapToInt(Integer::intValue).toArray();
+        Arrays.sort(array);
+        return array;
+    }
+
+    /**
+     * Current beds per ward, the starting point for what-if bed counts
+     */
+    public Map<String, Integer> getCurrentBeds() {
+        Map<String, Integer> beds = new LinkedHashMap<>();
+        for (int w = 0; w < wards.length; w++) {
+            beds.put(wards[w], currentBeds[w]);
+        }
+        return beds;
+    }
+
+    /**
+     * Current beds of every ward scaled by {@code percent} (e.g. 110 for 10% more), at least one each
+     */
+    public Map<String, Integer> scaledBeds(int percent) {
+        Map<String, Integer> beds = new LinkedHashMap<>();
+        for (int w = 0; w < wards.length; w++) {
+            beds.put(wards[w], Math.max(1, (int) Math.round(currentBeds[w] * percent / 100.0)));
+        }
+        return beds;
+    }
+
+    /**
+     * Runs {@code scenarios} independent simulations of the next {@code days}
+     * days with {@code beds} beds per ward (wards not listed keep their current count)
+     */
+    public Forecast run(Map<String, Integer> beds, int scenarios, int days, long seed) {
+        if (scenarios <= 0 || days <= 0) {
+            throw new IllegalArgumentException("scenarios and days must be positive");
+        }
+        int[] capacity = currentBeds.clone();
+        for (int w = 0; w < wards.length; w++) {
+            capacity[w] = beds.getOrDefault(wards[w], currentBeds[w]);
+        }
+        long started = System.nanoTime();
+        int tasks = (scenarios + SCENARIOS_PER_TASK - 1) / SCENARIOS_PER_TASK;
+        Tally total = IntStream.range(0, tasks).parallel()
+            .mapToObj(t -> {
+                Scenario scenario = new Scenario(capacity, new SplittableRandom(seed + t * 0x9E3779B97F4A7C15L));
+                int count = Math.min(SCENARIOS_PER_TASK, scenarios - t * SCENARIOS_PER_TASK);
+                for (int i = 0; i < count; i++) {
+                    scenario.run(days);
+                }
+                return scenario.tally;
+            })
+            .reduce(Tally::merge)
+            .orElseThrow();
+        long elapsedNanos = System.nanoTime() - started;
+
+        Map<String, WardForecast> forecasts = new LinkedHashMap<>();
+        for (int w = 0; w < wards.length; w++) {
+            forecasts.put(wards[w], new WardForecast(wards[w], capacity[w],
+                (double) total.scenariosFull[w] / scenarios,
+                (double) total.scenariosTurnedAway[w] / scenarios,
+                (double) total.turnedAway[w] / scenarios,
+                total.peakPercentile(w, 0.95, scenarios)));
+        }
+        return new Forecast(forecasts, scenarios, days, total.admissions, elapsedNanos);
+    }
+
+    /**
+     * Counters summed over the scenarios of one task, then over all tasks
+     */
+    private static final class Tally {
+        final long[] scenariosFull;
+        final long[] scenariosTurnedAway;
+        final long[] turnedAway;
+        // peaks[w][n] = scenarios whose highest occupancy of ward w was n beds
+        final long[][] peaks;
+        long admissions;
+
+        Tally(int[] capacity) {
+            int n = capacity.length;
+            scenariosFull = new long[n];
+            scenariosTurnedAway = new long[n];
+            turnedAway = new long[n];
+            peaks = new long[n][];
+            for (int w = 0; w < n; w++) {
+                peaks[w] = new long[capacity[w] + 1];
+            }
+        }
+
+        Tally merge(Tally other) {
+            for (int w = 0; w < scenariosFull.length; w++) {
+                scenariosFull[w] += other.scenariosFull[w];
+                scenariosTurnedAway[w] += other.scenariosTurnedAway[w];
+                turnedAway[w] += other.turnedAway[w];
+                for (int n = 0; n < peaks[w].length; n++) {
+                    peaks[w][n] += other.peaks[w][n];
+                }
+            }
+            admissions += other.admissions;
+            return this;
+        }
+
+        int peakPercentile(int w, double quantile, int scenarios) {
+            long rank = (long) Math.ceil(quantile * scenarios);
+            long seen = 0;
+            for (int n = 0; n < peaks[w].length; n++) {
+                seen += peaks[w][n];
+                if (seen >= rank) {
+                    return n;
+                }
+            }
+            return peaks[w].length - 1;
+        }
+    }
+
+    /**
+     * Working state of one simulation, reused for every scenario of a task
+     */
+    private final class Scenario {
+        final int[] capacity;
+        final SplittableRandom random;
+        final Tally tally;
+        final int[] occupied = new int[wards.length];
+        final int[] peak = new int[wards.length];
+        // discharges[w][d % ringSize] = beds of ward w freed at the start of day d
+        final int[][] discharges = new int[wards.length][ringSize];
+        final boolean[] full = new boolean[wards.length];
+        final long[] turnedAway = new long[wards.length];
+
+        Scenario(int[] capacity, SplittableRandom random) {
+            this.capacity = capacity;
+            this.random = random;
+            this.tally = new Tally(capacity);
+        }
+
+        void run(int days) {
+            for (int w = 0; w < wards.length; w++) {
+                Arrays.fill(discharges[w], 0);
+                full[w] = false;
+                turnedAway[w] = 0;
+                occupied[w] = 0;
+                // patients already in beds; more than the simulated beds
+                // (a cut being tried) just leaves the ward over capacity
+                for (int spent : elapsed[w]) {
+                    occupied[w]++;
+                    discharges[w][remainingStay(stays[w], spent) % ringSize]++;
+                }
+                peak[w] = Math.min(occupied[w], capacity[w]);
+            }
+
+            int wardCount = wards.length;
+            for (int day = 0; day < days; day++) {
+                int slot = day % ringSize;
+                for (int w = 0; w < wardCount; w++) {
+                    occupied[w] -= discharges[w][slot];
+                    discharges[w][slot] = 0;
+                }
+                // start each day at a random ward so none always gets first pick of shared overflow beds
+                int[] past = arrivals[random.nextInt(arrivals.length)];
+                int first = random.nextInt(wardCount);
+                for (int k = 0; k < wardCount; k++) {
+                    int w = first + k < wardCount ? first + k : first + k - wardCount;
+                    for (int i = past[w]; i > 0; i--) {
+                        admit(w, day);
+                    }
+                }
+            }
+
+            for (int w = 0; w < wards.length; w++) {
+                if (full[w]) {
+                    tally.scenariosFull[w]++;
+                }
+                if (turnedAway[w] > 0) {
+                    tally.scenariosTurnedAway[w]++;
+                    tally.turnedAway[w] += turnedAway[w];
+                }
+                tally.peaks[w][Math.min(peak[w], capacity[w])]++;
+            }
+        }
+
+        void admit(int ward, int day) {
+            for (int target : routes[ward]) {
+                if (occupied[target] < capacity[target]) {
+                    int[] s = stays[ward];
+                    int stay = s[random.nextInt(s.length)];
+                    discharges[target][(day + stay) % ringSize]++;
+                    if (++occupied[target] > peak[target]) {
+                        peak[target] = occupied[target];
+                    }
+                    tally.admissions++;
+                    return;
+                }
+                full[target] = true;
+            }
+            turnedAway[ward]++;
+        }
+
+        /**
+         * Days left for a patient who has spent {@code spent} days so far,
+         * drawn from the stays longer than that
+         */
+        int remainingStay(int[] sortedStays, int spent) {
+            int longer = upperBound(sortedStays, spent);
+            if (longer == sortedStays.length) {
+                return 1; // already past every stay on record: assume discharge tomorrow
+            }
+            int stay = sortedStays[longer + random.nextInt(sortedStays.length - longer)];
+            return stay - spent;
+        }
+    }
+
+    /**
+     * Index of the first value greater than {@code key}
+     */
+    private static int upperBound(int[] sorted, int key) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,70 @@
+package Hospital_Patient_Record_System;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded least-recently-used cache of bills by patient ID.
+ *
+ * Entries are never invalidated eagerly: each bill remembers the rate and
+ * discount it was priced with, and a lookup only accepts it if the current
+ * BillingEngine would price it the same way. A rate change therefore only
+ * misses on bills of that ward, and a discount change only on bills
+ * discharged after it took effect; every other entry stays valid.
+ */
+public class BillCache {
+    private final int capacity;
+    private final Map<String, PatientBill> bills;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BillCache(int capacity) {
+        this.capacity = capacity;
+        this.bills = new LinkedHashMap<String, PatientBill>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PatientBill> eldest) {
+                if (size() > BillCache.this.capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * The cached bill for {@code patientId} if it is still priced correctly
+     * by {@code engine}, otherwise null
+     */
+    public PatientBill get(String patientId, BillingEngine engine) {
+        PatientBill bill;
+        synchronized (bills) {
+            bill = bills.get(patientId);
+        }
+        if (bill != null && bill.isCurrent(engine)) {
+            hits.increment();
+            return bill;
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(PatientBill bill) {
+        synchronized (bills) {
+            bills.put(bill.getPatientId(), bill);
+        }
+    }
+
+    public int size() {
+        synchronized (bills) {
+            return bills.size();
+        }
+    }
+
+    public int getCapacity() { return capacity; }
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getEvictions() { return evictions.sum(); }
+}
@@ -0,0 +1,305 @@
+package Hospital_Patient_Record_System;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Batch billing engine.
+ *
+ * Discharged patients are turned into primitive columns (ward ordinal, days)
+ * and billed in parallel. All money is held as whole paise in longs and the
+ * discount is applied with half-even rounding per bill, so a parallel run
+ * produces exactly the same amounts and totals as a sequential one.
+ *
+ * Each bill gets the discount that was in effect on its discharge date
+ * (see DiscountSchedule). An engine captures the rates and discounts it was
+ * created with; create a new one to bill against changed rates.
+ */
+public class BillingEngine {
+    private static final int PARALLEL_THRESHOLD = 10_000;
+    private static final int STREAM_BLOCK = 4 * PARALLEL_THRESHOLD;
+
+    private final String[] wardNames;
+    private final long[] ratePaise;
+    private final Map<String, Integer> wardOrdinals;
+    private final DiscountSchedule discounts;
+    private final long[] discountFromDay;
+    private final long[] discountHundredths;
+
+    /**
+     * @param dailyRates          rate per day for each ward, in rupees
+     * @param discountPercentage  discount in percent for every bill; applied with two-decimal precision
+     */
+    public BillingEngine(Map<String, Double> dailyRates, double discountPercentage) {
+        this(dailyRates, DiscountSchedule.flat(discountPercentage));
+    }
+
+    /**
+     * @param dailyRates rate per day for each ward, in rupees
+     * @param discounts  discount by discharge date
+     */
+    public BillingEngine(Map<String, Double> dailyRates, DiscountSchedule discounts) {
+        this.wardNames = dailyRates.keySet().toArray(new String[0]);
+        this.ratePaise = new long[wardNames.length + 1]; // last slot: unknown ward, rate 0
+        this.wardOrdinals = new HashMap<>();
+        for (int i = 0; i < wardNames.length; i++) {
+            wardOrdinals.put(wardNames[i], i);
+            ratePaise[i] = toPaise(BigDecimal.valueOf(dailyRates.get(wardNames[i])));
+        }
+        this.discounts = discounts;
+        int changes = discounts.asMap().size();
+        this.discountFromDay = new long[changes];
+        this.discountHundredths = new long[changes];
+        int i = 0;
+        for (Map.Entry<LocalDate, Long> e : discounts.asMap().entrySet()) {
+            discountFromDay[i] = e.getKey().toEpochDay();
+            discountHundredths[i++] = e.getValue();
+        }
+    }
+
+    /**
+     * Discount in effect today
+     */
+    public BigDecimal getDiscountPercentage() {
+        return BigDecimal.valueOf(discountHundredthsOn(LocalDate.now()), 2);
+    }
+
+    public DiscountSchedule getDiscounts() {
+        return discounts;
+    }
+
+    public BigDecimal getDailyRate(String wardName) {
+        return fromPaise(ratePaise[ordinal(wardName)]);
+    }
+
+    /**
+     * Bills every discharged patient in {@code patients}; admitted patients are skipped.
+     */
+    public BillingResult bill(Collection<Patient> patients) {
+        List<Patient> billed = new ArrayList<>(patients.size());
+        for (Patient p : patients) {
+            if ("discharged".equalsIgnoreCase(p.getStatus())) {
+                billed.add(p);
+            }
+        }
+
+        int n = billed.size();
+        int[] ward = new int[n];
+        int[] days = new int[n];
+        long[] gross = new long[n];
+        long[] discount = new long[n];
+        long[] net = new long[n];
+
+        IntStream rows = IntStream.range(0, n);
+        if (n >= PARALLEL_THRESHOLD) {
+            rows = rows.parallel();
+        }
+        rows.forEach(i -> {
+            Patient p = billed.get(i);
+            ward[i] = ordinal(p.getWard());
+            days[i] = (int) p.getDaysAdmitted();
+            gross[i] = ratePaise[ward[i]] * days[i];
+            discount[i] = discountFor(gross[i], p.getDischargeDate());
+            net[i] = gross[i] - discount[i];
+        });
+
+        int wards = ratePaise.length;
+        IntStream totalsRows = IntStream.range(0, n);
+        if (n >= PARALLEL_THRESHOLD) {
+            totalsRows = totalsRows.parallel();
+        }
+        long[] wardTotals = totalsRows.collect(() -> new long[wards],
+            (acc, i) -> acc[ward[i]] += net[i],
+            (a, b) -> {
+                for (int w = 0; w < wards; w++) {
+                    a[w] += b[w];
+                }
+            });
+
+        return new BillingResult(this, billed, ward, days, gross, discount, net, wardTotals);
+    }
+
+    /**
+     * Streams bills one at a time without materializing the whole run, for
+     * reports over more patients than fit comfortably in memory. Bills are
+     * priced in blocks of {@value #STREAM_BLOCK}, each block in parallel, and
+     * handed to {@code consumer} in order. The Bill passed to {@code consumer}
+     * is reused and only valid during the call.
+     */
+    public <E extends Exception> void forEachBill(Iterable<Patient> patients, BillConsumer<E> consumer) throws E {
+        Block block = new Block();
+        for (Patient p : patients) {
+            if (!"discharged".equalsIgnoreCase(p.getStatus())) {
+                continue;
+            }
+            block.patients[block.size++] = p;
+            if (block.size == STREAM_BLOCK) {
+                block.emit(consumer);
+            }
+        }
+        block.emit(consumer);
+    }
+
+    /**
+     * One block of {@link #forEachBill}: priced together, then emitted in order
+     */
+    private final class Block {
+        private final Patient[] patients = new Patient[STREAM_BLOCK];
+        private final int[] days = new int[STREAM_BLOCK];
+        private final long[] rate = new long[STREAM_BLOCK];
+        private final long[] hundredths = new long[STREAM_BLOCK];
+        private final Bill bill = new Bill();
+        private int size;
+
+        <E extends Exception> void emit(BillConsumer<E> consumer) throws E {
+            IntStream rows = IntStream.range(0, size);
+            if (size >= PARALLEL_THRESHOLD) {
+                rows = rows.parallel();
+            }
+            rows.forEach(i -> {
+                Patient p = patients[i];
+                days[i] = (int) p.getDaysAdmitted();
+                rate[i] = ratePaise[ordinal(p.getWard())];
+                hundredths[i] = discountHundredthsOn(p.getDischargeDate());
+            });
+            for (int i = 0; i < size; i++) {
+                bill.patient = patients[i];
+                bill.days = days[i];
+                bill.ratePaise = rate[i];
+                bill.grossPaise = rate[i] * days[i];
+                bill.discountHundredths = hundredths[i];
+                bill.discountPaise = discountFor(bill.grossPaise, hundredths[i]);
+                bill.netPaise = bill.grossPaise - bill.discountPaise;
+                consumer.accept(bill);
+                patients[i] = null;
+            }
+            size = 0;
+        }
+    }
+
+    /**
+     * Receiver for {@link #forEachBill}
+     */
+    public interface BillConsumer<E extends Exception> {
+        void accept(Bill bill) throws E;
+    }
+
+    /**
+     * One computed bill; amounts are in paise
+     */
+    public static class Bill {
+        private Patient patient;
+        private int days;
+        private long ratePaise;
+        private long grossPaise;
+        private long discountHundredths;
+        private long discountPaise;
+        private long netPaise;
+
+        public Patient getPatient() { return patient; }
+        public int getDays() { return days; }
+        public long getRatePaise() { return ratePaise; }
+        public long getGrossPaise() { return grossPaise; }
+        public BigDecimal getDiscountPercentage() { return BigDecimal.valueOf(discountHundredths, 2); }
+        public long getDiscountPaise() { return discountPaise; }
+        public long getNetPaise() { return netPaise; }
+        public BigDecimal getFinalBill() { return fromPaise(netPaise); }
+    }
+
+    /**
+     * The bill of one discharged patient, or null if they are still admitted
+     */
+    public PatientBill billFor(Patient p) {
+        if (!"discharged".equalsIgnoreCase(p.getStatus())) {
+            return null;
+        }
+        int w = ordinal(p.getWard());
+        int days = (int) p.getDaysAdmitted();
+        long gross = ratePaise[w] * days;
+        long hundredths = discountHundredthsOn(p.getDischargeDate());
+        return new PatientBill(p.getId(), p.getWard(), p.getDischargeDate(), days,
+            ratePaise[w], hundredths, gross, discountFor(gross, hundredths));
+    }
+
+    /**
+     * Discount in hundredths of a percent for a bill discharged on {@code date}
+     */
+    long discountHundredthsOn(LocalDate date) {
+        if (discountFromDay.length == 1) {
+            return discountHundredths[0];
+        }
+        return discountHundredthsOnDay((date == null ? LocalDate.now() : date).toEpochDay());
+    }
+
+    long discountHundredthsOnDay(long day) {
+        if (discountFromDay.length == 1) {
+            return discountHundredths[0];
+        }
+        int i = Arrays.binarySearch(discountFromDay, day);
+        if (i < 0) {
+            i = -i - 2;
+        }
+        return i < 0 ? 0 : discountHundredths[i];
+    }
+
+    long discountFor(long grossPaise, LocalDate dischargeDate) {
+        return discountFor(grossPaise, discountHundredthsOn(dischargeDate));
+    }
+
+    static long discountFor(long grossPaise, long hundredths) {
+        return divideHalfEven(grossPaise * hundredths, 10_000);
+    }
+
+    String wardName(int ordinal) {
+        return ordinal < wardNames.length ? wardNames[ordinal] : null;
+    }
+
+    int wardCount() {
+        return ratePaise.length;
+    }
+
+    long ratePaise(int ordinal) {
+        return ratePaise[ordinal];
+    }
+
+    long ratePaise(String wardName) {
+        return ratePaise[ordinal(wardName)];
+    }
+
+    private int ordinal(String wardName) {
+        Integer ordinal = wardOrdinals.get(wardName);
+        return ordinal == null ? wardNames.length : ordinal;
+    }
+
+    static long toPaise(BigDecimal rupees) {
+        return rupees.setScale(2, RoundingMode.HALF_EVEN).movePointRight(2).longValueExact();
+    }
+
+    static BigDecimal fromPaise(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    /**
+     * Integer division (positive denominator) rounded half-to-even
+     */
+    static long divideHalfEven(long numerator, long denominator) {
+        if (numerator < 0) {
+            return -divideHalfEven(-numerator, denominator);
+        }
+        long q = numerator / denominator;
+        long r = numerator % denominator;
+        long twice = 2 * r;
+        if (twice > denominator || (twice == denominator && (q & 1) == 1)) {
+            q++;
+        }
+        return q;
+    }
+}
@@ -0,0 +1,201 @@
+package Hospital_Patient_Record_System;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Streams a billing report to disk.
+ *
+ * Bills are pulled one at a time from a BillingEngine and written through a
+ * 1 MB buffered writer, so memory use does not grow with the number of
+ * patients. Only the per-ward running totals are kept for the footer.
+ */
+public class BillingReportWriter {
+    private static final int BUFFER_CHARS = 1 << 20;
+
+    /**
+     * Output formats supported by the writer
+     */
+    public enum Format {
+        TEXT("txt"), CSV("csv"), JSONL("jsonl");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format fromName(String name) {
+            for (Format f : values()) {
+                if (f.name().equalsIgnoreCase(name) || f.extension.equalsIgnoreCase(name)) {
+                    return f;
+                }
+            }
+            throw new IllegalArgumentException("Unknown report format: " + name);
+        }
+    }
+
+    /**
+     * Rows written and time taken by one report
+     */
+    public static class Stats {
+        private final long rows;
+        private final long nanos;
+
+        Stats(long rows, long nanos) {
+            this.rows = rows;
+            this.nanos = nanos;
+        }
+
+        public long getRows() { return rows; }
+        public double getSeconds() { return nanos / 1e9; }
+        public double getRowsPerSecond() { return nanos == 0 ? rows : rows / getSeconds(); }
+    }
+
+    private final BillingEngine engine;
+    private final Format format;
+
+    public BillingReportWriter(BillingEngine engine, Format format) {
+        this.engine = engine;
+        this.format = format;
+    }
+
+    public Stats write(Iterable<Patient> patients, Path target) throws IOException {
+        long started = System.nanoTime();
+        try (FileChannel ch = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             Writer out = new BufferedWriter(
+                 new OutputStreamWriter(Channels.newOutputStream(ch), StandardCharsets.UTF_8), BUFFER_CHARS)) {
+            long rows = write(patients, out);
+            out.flush();
+            return new Stats(rows, System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * Writes the report to {@code out}; returns the number of bills written
+     */
+    public long write(Iterable<Patient> patients, Writer out) throws IOException {
+        Map<String, long[]> wardTotals = new LinkedHashMap<>();
+        long[] rows = new long[1];
+        StringBuilder line = new StringBuilder(256);
+
+        header(out);
+        engine.forEachBill(patients, bill -> {
+            line.setLength(0);
+            row(line, bill);
+            out.append(line);
+            wardTotals.computeIfAbsent(bill.getPatient().getWard(), k -> new long[1])[0] += bill.getNetPaise();
+            rows[0]++;
+        });
+        footer(out, wardTotals, rows[0]);
+        return rows[0];
+    }
+
+    private void header(Writer out) throws IOException {
+        switch (format) {
+            case TEXT:
+                out.write("HOSPITAL BILLING REPORT\n");
+                out.write("=".repeat(50) + "\n");
+                out.write("Discount: " + engine.getDiscountPercentage() + "% (each bill uses the discount in effect at its discharge)\n\n");
+                break;
+            case CSV:
+                out.write("PatientID,Name,Ward,Days,DailyRate,TotalBill,Discount,FinalBill\n");
+                break;
+            case JSONL:
+                break;
+        }
+    }
+
+    private void row(StringBuilder sb, BillingEngine.Bill bill) {
+        Patient p = bill.getPatient();
+        switch (format) {
+            case TEXT:
+                sb.append("Patient: ").append(p.getName()).append(" (ID: ").append(p.getId()).append(")\n");
+                sb.append("Ward: ").append(p.getWard()).append(" | Days: ").append(bill.getDays()).append('\n');
+                sb.append("Total: ₹");
+                money(sb, bill.getGrossPaise());
+                sb.append(" | Discount (").append(bill.getDiscountPercentage()).append("%): -₹");
+                money(sb, bill.getDiscountPaise());
+                sb.append(" | Bill: ₹");
+                money(sb, bill.getNetPaise());
+                sb.append("\n\n");
+                break;
+            case CSV:
+                sb.append(p.getId()).append(',').append(p.getName()).append(',').append(p.getWard())
+                  .append(',').append(bill.getDays()).append(',');
+                money(sb, bill.getRatePaise());
+                sb.append(',');
+                money(sb, bill.getGrossPaise());
+                sb.append(',');
+                money(sb, bill.getDiscountPaise());
+                sb.append(',');
+                money(sb, bill.getNetPaise());
+                sb.append('\n');
+                break;
+            case JSONL:
+                sb.append("{\"id\":").append(HospitalHttpServer.quote(p.getId()))
+                  .append(",\"name\":").append(HospitalHttpServer.quote(p.getName()))
+                  .append(",\"ward\":").append(HospitalHttpServer.quote(p.getWard()))
+                  .append(",\"days\":").append(bill.getDays())
+                  .append(",\"dailyRate\":");
+                money(sb, bill.getRatePaise());
+                sb.append(",\"totalBill\":");
+                money(sb, bill.getGrossPaise());
+                sb.append(",\"discount\":");
+                money(sb, bill.getDiscountPaise());
+                sb.append(",\"finalBill\":");
+                money(sb, bill.getNetPaise());
+                sb.append("}\n");
+                break;
+        }
+    }
+
+    private void footer(Writer out, Map<String, long[]> wardTotals, long rows) throws IOException {
+        if (format != Format.TEXT) {
+            return; // CSV and JSON lines stay one record per line
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("=".repeat(50)).append('\n');
+        long all = 0;
+        for (Map.Entry<String, long[]> e : wardTotals.entrySet()) {
+            sb.append(e.getKey()).append(" total: ₹");
+            money(sb, e.getValue()[0]);
+            sb.append('\n');
+            all += e.getValue()[0];
+        }
+        sb.append("All wards (").append(rows).append(" bills): ₹");
+        money(sb, all);
+        sb.append('\n');
+        out.write(sb.toString());
+    }
+
+    /**
+     * Appends paise as rupees with exactly two decimals, without BigDecimal
+     */
+    static void money(StringBuilder sb, long paise) {
+        if (paise < 0) {
+            sb.append('-');
+            paise = -paise;
+        }
+        sb.append(paise / 100).append('.');
+        long fraction = paise % 100;
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        sb.append(fraction);
+    }
+}
@@ -0,0 +1,102 @@
+package Hospital_Patient_Record_System;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a BillingEngine run: one bill per discharged patient (in input
+ * order) plus per-ward and hospital-wide totals. Amounts are exact decimals
+ * in rupees with two fractional digits.
+ */
+public class BillingResult {
+    private final BillingEngine engine;
+    private final List<Patient> patients;
+    private final int[] ward;
+    private final int[] days;
+    private final long[] gross;
+    private final long[] discount;
+    private final long[] net;
+    private final long[] wardTotals;
+
+    BillingResult(BillingEngine engine, List<Patient> patients, int[] ward, int[] days,
+                  long[] gross, long[] discount, long[] net, long[] wardTotals) {
+        this.engine = engine;
+        this.patients = patients;
+        this.ward = ward;
+        this.days = days;
+        this.gross = gross;
+        this.discount = discount;
+        this.net = net;
+        this.wardTotals = wardTotals;
+    }
+
+    public int size() {
+        return patients.size();
+    }
+
+    public Patient getPatient(int i) {
+        return patients.get(i);
+    }
+
+    public List<Patient> getPatients() {
+        return Collections.unmodifiableList(patients);
+    }
+
+    public int getDays(int i) {
+        return days[i];
+    }
+
+    public BigDecimal getDailyRate(int i) {
+        return BillingEngine.fromPaise(engine.ratePaise(ward[i]));
+    }
+
+    public BigDecimal getTotalBill(int i) {
+        return BillingEngine.fromPaise(gross[i]);
+    }
+
+    public BigDecimal getDiscount(int i) {
+        return BillingEngine.fromPaise(discount[i]);
+    }
+
+    public BigDecimal getFinalBill(int i) {
+        return BillingEngine.fromPaise(net[i]);
+    }
+
+    /**
+     * Discount in effect today; older bills may have been discounted differently
+     */
+    public BigDecimal getDiscountPercentage() {
+        return engine.getDiscountPercentage();
+    }
+
+    /**
+     * Discount applied to bill {@code i}, the one in effect on its discharge date
+     */
+    public BigDecimal getDiscountPercentage(int i) {
+        return BigDecimal.valueOf(engine.discountHundredthsOn(patients.get(i).getDischargeDate()), 2);
+    }
+
+    /**
+     * Final-bill totals per ward; patients in wards without a rate are under key null
+     */
+    public Map<String, BigDecimal> getWardTotals() {
+        Map<String, BigDecimal> totals = new LinkedHashMap<>();
+        for (int w = 0; w < wardTotals.length; w++) {
+            if (wardTotals[w] != 0 || w < wardTotals.length - 1) {
+                totals.put(engine.wardName(w), BillingEngine.fromPaise(wardTotals[w]));
+            }
+        }
+        return totals;
+    }
+
+    public BigDecimal getGrandTotal() {
+        long sum = 0;
+        for (long t : wardTotals) {
+            sum += t;
+        }
+        return BillingEngine.fromPaise(sum);
+    }
+}
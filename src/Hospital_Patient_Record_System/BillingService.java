@@ -1,69 +1,295 @@
 package Hospital_Patient_Record_System;
 
 /**
- * BillingService class for handling hospital billing
+ * BillingService class for handling hospital billing.
+ *
+ * Bills are priced once, when a patient is discharged, and kept in a
+ * bounded BillCache; running per-ward revenue is kept in a RevenueLedger.
+ * Rate and discount changes swap in a new immutable BillingEngine and
+ * reprice only what they affect: the ledger groups of the changed ward or
+ * discharged after the discount's effective date, and (lazily) the cached
+ * bills that no longer match.
  */
 public class BillingService {
-    private double discountPercentage;
-    private java.util.Map<String, Double> wardRates;
+    public static final int DEFAULT_BILL_CACHE_SIZE = 100_000;
+
+    private final java.util.concurrent.atomic.AtomicReference<RateTable> rates;
+    private final java.util.concurrent.atomic.AtomicReference<DiscountSchedule> discounts;
+    private volatile BillingEngine engine;
+    private final BillCache billCache;
+    private final RevenueLedger revenue = new RevenueLedger();
+    // Serializes pricing changes against bills being added to the ledger
+    private final Object pricingLock = new Object();
+    private final EventSink events;
+    private final LatencyHistogram billingLatency;
 
     public BillingService(double discountPercentage) {
-        this.discountPercentage = discountPercentage;
-        this.wardRates = new java.util.HashMap<>();
-        initializeRates();
+        this(discountPercentage, EventSink.NO_OP, new LatencyHistogram());
+    }
+
+    /**
+     * @param billingLatency records how long each billing run takes
+     */
+    public BillingService(double discountPercentage, EventSink events, LatencyHistogram billingLatency) {
+        this(discountPercentage, events, billingLatency, DEFAULT_BILL_CACHE_SIZE);
     }
 
-    private void initializeRates() {
-        wardRates.put("ICU", 5000.0);
-        wardRates.put("General", 2000.0);
-        wardRates.put("Pediatric", 2500.0);
-        wardRates.put("Emergency", 8000.0);
+    /**
+     * @param billCacheSize most bills kept in memory; older ones are repriced on demand
+     */
+    public BillingService(double discountPercentage, EventSink events, LatencyHistogram billingLatency, int billCacheSize) {
+        this.events = events;
+        this.billingLatency = billingLatency;
+        this.rates = new java.util.concurrent.atomic.AtomicReference<>(RateTable.defaults());
+        this.discounts = new java.util.concurrent.atomic.AtomicReference<>(DiscountSchedule.flat(discountPercentage));
+        this.billCache = new BillCache(billCacheSize);
+        this.engine = new BillingEngine(rates.get().asMap(), discounts.get());
     }
 
     public void setWardRate(String wardName, double rate) {
-        wardRates.put(wardName, rate);
+        synchronized (pricingLock) {
+            RateTable old = rates.get();
+            repriceRates(old, old.with(wardName, rate));
+        }
     }
 
+    /**
+     * Atomically replaces all rates; billing runs already in progress keep the old table
+     */
+    public void setRates(RateTable table) {
+        synchronized (pricingLock) {
+            repriceRates(rates.get(), table);
+        }
+    }
+
+    private void repriceRates(RateTable old, RateTable next) {
+        rates.set(next);
+        engine = new BillingEngine(next.asMap(), discounts.get());
+        java.util.Set<String> wards = new java.util.HashSet<>(old.asMap().keySet());
+        wards.addAll(next.asMap().keySet());
+        for (String ward : wards) {
+            if (old.get(ward) != next.get(ward)) {
+                revenue.wardRateChanged(ward, engine);
+            }
+        }
+    }
+
+    public RateTable getRates() {
+        return rates.get();
+    }
+
+    /**
+     * Sets the discount for bills discharged from today on; earlier bills keep theirs
+     */
     public void applyDiscount(double percentage) {
-        this.discountPercentage = percentage;
-        System.out.println("✓ Discount applied: " + percentage + "%");
+        applyDiscount(percentage, java.time.LocalDate.now());
     }
 
-    public void calculatePatientBill(Patient patient) {
-        if ("discharged".equalsIgnoreCase(patient.getStatus())) {
-            double dailyRate = wardRates.getOrDefault(patient.getWard(), 0.0);
-            double totalBill = dailyRate * patient.getDaysAdmitted();
-            double discount = totalBill * (discountPercentage / 100.0);
-            double finalBill = totalBill - discount;
+    /**
+     * Sets the discount for bills discharged on or after {@code from}, until the next later change
+     */
+    public void applyDiscount(double percentage, java.time.LocalDate from) {
+        synchronized (pricingLock) {
+            discounts.set(discounts.get().with(from, percentage));
+            engine = new BillingEngine(rates.get().asMap(), discounts.get());
+            revenue.discountChanged(from, engine);
+        }
+        events.publish(new HospitalEvent.DiscountApplied(percentage, from));
+    }
+
+    /**
+     * Replaces the whole discount history (e.g. when loading discounts.cfg)
+     */
+    public void setDiscounts(DiscountSchedule schedule) {
+        synchronized (pricingLock) {
+            discounts.set(schedule);
+            engine = new BillingEngine(rates.get().asMap(), schedule);
+            revenue.discountChanged(java.time.LocalDate.MIN, engine);
+        }
+    }
+
+    public DiscountSchedule getDiscounts() {
+        return discounts.get();
+    }
+
+    public double getDailyRate(String wardName) {
+        return rates.get().get(wardName);
+    }
+
+    /**
+     * Discount in effect for bills discharged today
+     */
+    public double getDiscountPercentage() {
+        return discounts.get().percentageOn(java.time.LocalDate.now()).doubleValue();
+    }
+
+    /**
+     * Engine over the current rate table and discount history
+     */
+    public BillingEngine newEngine() {
+        return engine;
+    }
+
+    /**
+     * Prices a patient's bill at discharge: caches it and adds it to the revenue totals
+     */
+    public PatientBill billDischarged(Patient patient) {
+        PatientBill bill;
+        synchronized (pricingLock) {
+            bill = engine.billFor(patient);
+            if (bill == null) {
+                return null;
+            }
+            revenue.add(bill);
+        }
+        billCache.put(bill);
+        return bill;
+    }
+
+    /**
+     * Recomputes the revenue totals from scratch, e.g. after loading patients
+     */
+    public void rebuildRevenue(Iterable<Patient> discharged) {
+        synchronized (pricingLock) {
+            revenue.clear();
+            for (Patient p : discharged) {
+                if ("discharged".equalsIgnoreCase(p.getStatus())) {
+                    revenue.add(p, engine);
+                }
+            }
+        }
+    }
 
+    /**
+     * Bill of a discharged patient, from the cache if it is still current; null if admitted
+     */
+    public PatientBill billFor(Patient patient) {
+        BillingEngine current = engine;
+        PatientBill bill = billCache.get(patient.getId(), current);
+        if (bill == null) {
+            bill = current.billFor(patient);
+            if (bill != null) {
+                billCache.put(bill);
+            }
+        }
+        return bill;
+    }
+
+    public RevenueLedger getRevenue() {
+        return revenue;
+    }
+
+    public BillCache getBillCache() {
+        return billCache;
+    }
+
+    /**
+     * Bills all discharged patients without printing anything
+     */
+    public BillingResult calculateBills(java.util.Collection<Patient> patients) {
+        long started = System.nanoTime();
+        BillingResult result = newEngine().bill(patients);
+        billingLatency.recordSince(started);
+        return result;
+    }
+
+    /**
+     * Final bill (after discount) for a discharged patient, without printing anything
+     */
+    public java.math.BigDecimal calculateFinalBill(Patient patient) {
+        PatientBill bill = billFor(patient);
+        return bill == null ? java.math.BigDecimal.ZERO.setScale(2) : bill.getFinalBill();
+    }
+
+    public void calculatePatientBill(Patient patient) {
+        PatientBill bill = billFor(patient);
+        if (bill != null) {
             System.out.println("\n💰 BILLING STATEMENT");
             System.out.println("═══════════════════════════════════════");
             System.out.println("Patient: " + patient.getName() + " (ID: " + patient.getId() + ")");
             System.out.println("Ward: " + patient.getWard());
-            System.out.println("Daily Rate: ₹" + dailyRate);
-            System.out.println("Days Admitted: " + patient.getDaysAdmitted());
-            System.out.println("Total Bill: ₹" + totalBill);
-            System.out.println("Discount (" + discountPercentage + "%): -₹" + discount);
-            System.out.println("Final Bill: ₹" + finalBill);
+            System.out.println("Daily Rate: ₹" + bill.getDailyRate());
+            System.out.println("Days Admitted: " + bill.getDays());
+            System.out.println("Total Bill: ₹" + bill.getTotalBill());
+            System.out.println("Discount (" + bill.getDiscountPercentage() + "%): -₹" + bill.getDiscount());
+            System.out.println("Final Bill: ₹" + bill.getFinalBill());
             System.out.println("═══════════════════════════════════════\n");
         } else {
             System.out.println("❌ Patient " + patient.getName() + " is still admitted. Cannot generate bill.");
         }
     }
 
-    public void generateBillingReport(java.util.List<Patient> patients) {
-        System.out.println("\n📊 BILLING REPORT FOR ALL PATIENTS");
-        System.out.println("═══════════════════════════════════════");
-        for (Patient p : patients) {
-            if ("discharged".equalsIgnoreCase(p.getStatus())) {
-                double dailyRate = wardRates.getOrDefault(p.getWard(), 0.0);
-                double totalBill = dailyRate * p.getDaysAdmitted();
-                double discount = totalBill * (discountPercentage / 100.0);
-                double finalBill = totalBill - discount;
-                System.out.printf("%-20s | Ward: %-15s | Days: %d | Bill: ₹%.2f%n",
-                    p.getName(), p.getWard(), p.getDaysAdmitted(), finalBill);
-            }
+    /**
+     * Prints a bill line per discharged patient. Bills come from the parallel
+     * engine block by block and each line goes straight to the console
+     * through a buffered writer, so only per-ward totals are kept in memory.
+     */
+    public void generateBillingReport(Iterable<Patient> patients) {
+        long started = System.nanoTime();
+        java.io.PrintWriter out = new java.io.PrintWriter(new java.io.BufferedWriter(
+            new java.io.OutputStreamWriter(System.out), 1 << 16));
+        out.write("\n📊 BILLING REPORT FOR ALL PATIENTS\n");
+        out.write("═══════════════════════════════════════\n");
+        java.util.Map<String, long[]> wardTotals = new java.util.LinkedHashMap<>();
+        long[] all = new long[1];
+        StringBuilder line = new StringBuilder(128);
+        newEngine().forEachBill(patients, bill -> {
+            Patient p = bill.getPatient();
+            line.setLength(0);
+            pad(line, p.getName(), 20).append(" | Ward: ");
+            pad(line, p.getWard(), 15).append(" | Days: ").append(bill.getDays()).append(" | Bill: ₹");
+            BillingReportWriter.money(line, bill.getNetPaise());
+            out.append(line.append('\n'));
+            wardTotals.computeIfAbsent(p.getWard(), k -> new long[1])[0] += bill.getNetPaise();
+            all[0] += bill.getNetPaise();
+        });
+        out.write("───────────────────────────────────────\n");
+        for (java.util.Map.Entry<String, long[]> e : wardTotals.entrySet()) {
+            total(line, e.getKey(), e.getValue()[0]);
+            out.append(line);
+        }
+        total(line, "ALL WARDS", all[0]);
+        out.append(line);
+        out.write("═══════════════════════════════════════\n\n");
+        out.flush();
+        billingLatency.recordSince(started);
+    }
+
+    private static StringBuilder pad(StringBuilder sb, String value, int width) {
+        int start = sb.length();
+        sb.append(value);
+        for (int i = sb.length() - start; i < width; i++) {
+            sb.append(' ');
+        }
+        return sb;
+    }
+
+    private static void total(StringBuilder sb, String label, long paise) {
+        sb.setLength(0);
+        pad(sb, label, 20).append("   Total: ₹");
+        BillingReportWriter.money(sb, paise);
+        sb.append('\n');
+    }
+
+    /**
+     * Formatting step for a computed billing run
+     */
+    public void printBillingReport(BillingResult result) {
+        StringBuilder out = new StringBuilder();
+        out.append("\n📊 BILLING REPORT FOR ALL PATIENTS\n");
+        out.append("═══════════════════════════════════════\n");
+        java.util.Formatter f = new java.util.Formatter(out);
+        for (int i = 0; i < result.size(); i++) {
+            Patient p = result.getPatient(i);
+            f.format("%-20s | Ward: %-15s | Days: %d | Bill: ₹%.2f%n",
+                p.getName(), p.getWard(), result.getDays(i), result.getFinalBill(i));
+        }
+        out.append("───────────────────────────────────────\n");
+        for (java.util.Map.Entry<String, java.math.BigDecimal> e : result.getWardTotals().entrySet()) {
+            f.format("%-20s   Total: ₹%s%n", e.getKey() == null ? "(no rate)" : e.getKey(), e.getValue());
         }
-        System.out.println("═══════════════════════════════════════\n");
+        f.format("%-20s   Total: ₹%s%n", "ALL WARDS", result.getGrandTotal());
+        out.append("═══════════════════════════════════════\n");
+        System.out.println(out);
     }
 }
@@ -0,0 +1,379 @@
+package Hospital_Patient_Record_System;
+
+import java.time.LocalDate;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Compact PatientStore for multi-million record histories.
+ *
+ * Every patient is one row across primitive columns: ward as a byte
+ * ordinal, age as a byte, admit and discharge dates as epoch-day ints,
+ * discharged as one bit, and ID and name as codes into a StringDictionary.
+ * No object is kept per patient; get() and the collection views hand out
+ * short-lived flyweight Patient objects that read and write the columns.
+ *
+ * Writes take a StampedLock's write lock. Primitive reads are optimistic
+ * (no shared-memory writes) and strings are decoded under the read lock.
+ */
+public class ColumnarPatientStore implements PatientStore {
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int BATCH = 1024;
+    private static final int MAX_WARDS = 256;
+
+    private final StampedLock lock = new StampedLock();
+    private final StringDictionary strings = new StringDictionary();
+    private final List<String> wardNames = new CopyOnWriteArrayList<>();
+    private final Map<String, Integer> wardOrdinals = new ConcurrentHashMap<>();
+    private final int[] wardCounts = new int[MAX_WARDS];
+    private int[] rowByCode = filled(new int[1024]);
+    private int[] idCode = new int[1024];
+    private int[] nameCode = new int[1024];
+    private int[] admitDay = new int[1024];
+    private int[] dischargeDay = new int[1024];
+    private byte[] age = new byte[1024];
+    private byte[] ward = new byte[1024];
+    private long[] discharged = new long[1024 / 64];
+    private volatile int size;
+    private volatile int dischargedCount;
+
+    private final IntUnaryOperator ageOf = row -> age[row] & 0xFF;
+    private final IntUnaryOperator wardOf = row -> ward[row] & 0xFF;
+    private final IntUnaryOperator admitDayOf = row -> admitDay[row];
+    private final IntUnaryOperator dischargeDayOf = row -> dischargeDay[row];
+    private final IntUnaryOperator dischargedOf = row -> isDischarged(row) ? 1 : 0;
+
+    @Override
+    public boolean add(Patient patient) {
+        long stamp = lock.writeLock();
+        try {
+            int id = strings.intern(patient.getId());
+            growCodes();
+            if (rowByCode[id] >= 0) {
+                return false;
+            }
+            int w = wardOrdinal(patient.getWard());
+            int row = size;
+            growRows(row + 1);
+            idCode[row] = id;
+            nameCode[row] = strings.intern(patient.getName());
+            growCodes();
+            age[row] = (byte) patient.getAge();
+            ward[row] = (byte) w;
+            admitDay[row] = (int) patient.getAdmitDate().toEpochDay();
+            LocalDate out = patient.getDischargeDate();
+            dischargeDay[row] = out == null ? NO_DATE : (int) out.toEpochDay();
+            if ("discharged".equalsIgnoreCase(patient.getStatus())) {
+                discharged[row >>> 6] |= 1L << row;
+                dischargedCount++;
+            }
+            wardCounts[w]++;
+            rowByCode[id] = row;
+            size = row + 1;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Patient get(String patientId) {
+        long stamp = lock.readLock();
+        try {
+            int code = strings.find(patientId);
+            int row = code < 0 ? -1 : rowByCode[code];
+            return row < 0 ? null : new StoredPatient(this, row);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public boolean contains(String patientId) {
+        return get(patientId) != null;
+    }
+
+    @Override
+    public void statusChanged(Patient patient, String oldStatus) {
+        // status is a column of this store; StoredPatient.discharge already updated it
+    }
+
+    @Override
+    public Collection<Patient> all() {
+        return new RowView(-1, -1);
+    }
+
+    @Override
+    public Collection<Patient> byWard(String wardName) {
+        Integer w = wardOrdinals.get(wardName);
+        return w == null ? Collections.emptyList() : new RowView(w, -1);
+    }
+
+    @Override
+    public Collection<Patient> byStatus(String status) {
+        if ("admitted".equalsIgnoreCase(status)) {
+            return new RowView(-1, 0);
+        }
+        if ("discharged".equalsIgnoreCase(status)) {
+            return new RowView(-1, 1);
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Copy of the query columns, taken under the read lock
+     */
+    PatientQuery.Columns columns(LocalDate today) {
+        long stamp = lock.readLock();
+        try {
+            int rows = size;
+            int[] wardColumn = new int[rows];
+            int[] ageColumn = new int[rows];
+            int[] dischargedColumn = new int[rows];
+            for (int row = 0; row < rows; row++) {
+                wardColumn[row] = ward[row] & 0xFF;
+                ageColumn[row] = age[row] & 0xFF;
+                dischargedColumn[row] = isDischarged(row) ? 1 : 0;
+            }
+            return new PatientQuery.Columns(wardNames.toArray(new String[0]), rows, wardColumn, ageColumn,
+                Arrays.copyOf(admitDay, rows), Arrays.copyOf(dischargeDay, rows), dischargedColumn, today);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void discharge(int row, LocalDate date) throws PatientAlreadyDischargedException {
+        long stamp = lock.writeLock();
+        try {
+            if (isDischarged(row)) {
+                throw new PatientAlreadyDischargedException(strings.get(idCode[row]), strings.get(nameCode[row]));
+            }
+            dischargeDay[row] = (int) date.toEpochDay();
+            discharged[row >>> 6] |= 1L << row;
+            dischargedCount++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private boolean isDischarged(int row) {
+        return (discharged[row >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * Reads one primitive cell, retrying under the read lock if a writer interfered
+     */
+    private int read(IntUnaryOperator column, int row) {
+        long stamp = lock.tryOptimisticRead();
+        int value = column.applyAsInt(row);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = column.applyAsInt(row);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return value;
+    }
+
+    private String string(int row, boolean name) {
+        long stamp = lock.readLock();
+        try {
+            return strings.get(name ? nameCode[row] : idCode[row]);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private int wardOrdinal(String wardName) {
+        Integer w = wardOrdinals.get(wardName);
+        if (w == null) {
+            if (wardNames.size() == MAX_WARDS) {
+                throw new IllegalStateException("ColumnarPatientStore supports at most " + MAX_WARDS + " wards");
+            }
+            w = wardNames.size();
+            wardNames.add(wardName);
+            wardOrdinals.put(wardName, w);
+        }
+        return w;
+    }
+
+    private void growRows(int needed) {
+        if (needed <= idCode.length) {
+            return;
+        }
+        int capacity = Math.max(needed, idCode.length * 2);
+        idCode = Arrays.copyOf(idCode, capacity);
+        nameCode = Arrays.copyOf(nameCode, capacity);
+        admitDay = Arrays.copyOf(admitDay, capacity);
+        dischargeDay = Arrays.copyOf(dischargeDay, capacity);
+        age = Arrays.copyOf(age, capacity);
+        ward = Arrays.copyOf(ward, capacity);
+        discharged = Arrays.copyOf(discharged, (capacity + 63) / 64);
+    }
+
+    private void growCodes() {
+        if (strings.size() > rowByCode.length) {
+            int old = rowByCode.length;
+            rowByCode = Arrays.copyOf(rowByCode, Math.max(strings.size(), old * 2));
+            Arrays.fill(rowByCode, old, rowByCode.length, -1);
+        }
+    }
+
+    private static int[] filled(int[] array) {
+        Arrays.fill(array, -1);
+        return array;
+    }
+
+    /**
+     * Live, read-only view over the rows matching a ward and/or status
+     */
+    private final class RowView extends AbstractCollection<Patient> {
+        private final int wardFilter;
+        private final int statusFilter;
+
+        RowView(int wardFilter, int statusFilter) {
+            this.wardFilter = wardFilter;
+            this.statusFilter = statusFilter;
+        }
+
+        @Override
+        public int size() {
+            if (wardFilter >= 0) {
+                if (statusFilter < 0) {
+                    return wardCounts[wardFilter];
+                }
+                int n = 0;
+                for (Iterator<Patient> it = iterator(); it.hasNext(); it.next()) {
+                    n++;
+                }
+                return n;
+            }
+            if (statusFilter < 0) {
+                return size;
+            }
+            return statusFilter == 1 ? dischargedCount : size - dischargedCount;
+        }
+
+        @Override
+        public Iterator<Patient> iterator() {
+            return new Iterator<Patient>() {
+                private final int end = size;
+                private final int[] rows = new int[BATCH];
+                private int next;
+                private int pos;
+                private int length;
+
+                @Override
+                public boolean hasNext() {
+                    while (pos == length && next < end) {
+                        fill();
+                    }
+                    return pos < length;
+                }
+
+                @Override
+                public Patient next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return new StoredPatient(ColumnarPatientStore.this, rows[pos++]);
+                }
+
+                // Matching rows are collected a batch at a time under one read lock
+                private void fill() {
+                    pos = 0;
+                    length = 0;
+                    int stop = Math.min(end, next + BATCH);
+                    long stamp = lock.readLock();
+                    try {
+                        for (int row = next; row < stop; row++) {
+                            if ((wardFilter < 0 || (ward[row] & 0xFF) == wardFilter)
+                                    && (statusFilter < 0 || (isDischarged(row) ? 1 : 0) == statusFilter)) {
+                                rows[length++] = row;
+                            }
+                        }
+                    } finally {
+                        lock.unlockRead(stamp);
+                    }
+                    next = stop;
+                }
+            };
+        }
+    }
+
+    /**
+     * Flyweight Patient reading its fields from the store's columns
+     */
+    private static final class StoredPatient extends Patient {
+        private final ColumnarPatientStore store;
+        private final int row;
+
+        StoredPatient(ColumnarPatientStore store, int row) {
+            this.store = store;
+            this.row = row;
+        }
+
+        @Override
+        public String getId() {
+            return store.string(row, false);
+        }
+
+        @Override
+        public String getName() {
+            return store.string(row, true);
+        }
+
+        @Override
+        public int getAge() {
+            return store.read(store.ageOf, row);
+        }
+
+        @Override
+        public String getWard() {
+            return store.wardNames.get(store.read(store.wardOf, row));
+        }
+
+        @Override
+        public LocalDate getAdmitDate() {
+            return LocalDate.ofEpochDay(store.read(store.admitDayOf, row));
+        }
+
+        @Override
+        public LocalDate getDischargeDate() {
+            int day = store.read(store.dischargeDayOf, row);
+            return day == NO_DATE ? null : LocalDate.ofEpochDay(day);
+        }
+
+        @Override
+        public String getStatus() {
+            return store.read(store.dischargedOf, row) == 1 ? "discharged" : "admitted";
+        }
+
+        @Override
+        public void discharge(LocalDate date) throws PatientAlreadyDischargedException {
+            store.discharge(row, date);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package Hospital_Patient_Record_System;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+
+/**
+ * Reads and writes the simple Name=Value files used for configuration
+ * (rates.cfg, wards.cfg). Blank lines and lines starting with # are ignored.
+ */
+final class ConfigFile {
+    /**
+     * Receives one Name=Value entry
+     */
+    interface EntryHandler {
+        void accept(String name, String value, int lineNumber) throws NumberFormatException;
+    }
+
+    private ConfigFile() {
+    }
+
+    /**
+     * Calls {@code handler} for every valid entry; malformed lines are reported
+     * to {@code events} and skipped. Throws NoSuchFileException if the file is missing.
+     */
+    static void read(Path file, EventSink events, EntryHandler handler) throws IOException {
+        String fileName = file.getFileName().toString();
+        try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = br.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("=");
+                if (parts.length != 2 || parts[0].trim().isEmpty()) {
+                    events.publish(new HospitalEvent.ParseWarning(fileName, lineNumber, "Invalid format, skipping"));
+                    continue;
+                }
+                try {
+                    handler.accept(parts[0].trim(), parts[1].trim(), lineNumber);
+                } catch (NumberFormatException e) {
+                    events.publish(new HospitalEvent.ParseWarning(fileName, lineNumber, "Invalid number '" + parts[1].trim() + "'"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces {@code file} with the header comment and entries, atomically,
+     * so a watcher never reads a half-written file.
+     */
+    static void write(Path file, String header, Map<String, ?> entries) throws IOException {
+        StringBuilder sb = new StringBuilder(header).append('\n');
+        for (Map.Entry<String, ?> e : entries.entrySet()) {
+            sb.append(e.getKey()).append('=').append(e.getValue()).append('\n');
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, sb.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,86 @@
+package Hospital_Patient_Record_System;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the data directory and runs a reload when wards.cfg, overflow.cfg
+ * or rates.cfg is created or modified. Editors often save a file in several
+ * writes, so changes are collected until the directory has been quiet for a
+ * moment and then applied once. A reload that throws is reported as an
+ * ERROR notice and watching goes on, so the next edit can fix the file.
+ */
+public class ConfigReloader implements AutoCloseable {
+    private static final long QUIET_MILLIS = 250;
+
+    private final WatchService watcher;
+    private final Runnable reload;
+    private final EventSink events;
+    private final Thread thread;
+
+    /**
+     * @param events receives an ERROR notice for every reload that fails
+     */
+    public ConfigReloader(Path dataDir, Runnable reload, EventSink events) throws IOException {
+        this.watcher = dataDir.getFileSystem().newWatchService();
+        this.reload = reload;
+        this.events = events;
+        dataDir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::run, "config-reloader");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                boolean changed = drain(watcher.take());
+                WatchKey key;
+                while ((key = watcher.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drain(key);
+                }
+                if (changed) {
+                    try {
+                        reload.run();
+                    } catch (RuntimeException e) {
+                        events.publish(new HospitalEvent.Notice(HospitalEvent.Severity.ERROR,
+                            "Configuration reload failed: " + e));
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private static boolean drain(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            Object context = event.context();
+            if (context instanceof Path) {
+                String name = context.toString();
+                changed |= name.equals("wards.cfg") || name.equals("overflow.cfg") || name.equals("rates.cfg");
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    @Override
+    public void close() {
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            // nothing left to release
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package Hospital_Patient_Record_System;
+
+import java.io.PrintStream;
+
+/**
+ * Prints each event as one console line with the usual ✓ / ⚠️ / ❌ prefix;
+ * this is the output the interactive menu has always shown.
+ */
+public class ConsoleEventSink implements EventSink {
+    private final PrintStream out;
+
+    public ConsoleEventSink() {
+        this(System.out);
+    }
+
+    public ConsoleEventSink(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void publish(HospitalEvent event) {
+        out.println(event.getSeverity().getSymbol() + event.getMessage());
+    }
+}
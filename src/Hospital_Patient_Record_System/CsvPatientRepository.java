@@ -0,0 +1,102 @@
+package Hospital_Patient_Record_System;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Patients in patients.csv under a data directory, with patients.snap as a
+ * fast binary copy. Every patient is read into the store at startup, and a
+ * checkpoint rewrites both files from the store.
+ */
+public class CsvPatientRepository implements PatientRepository {
+    private final Path csvFile;
+    private final Path snapshotFile;
+    private final PatientStore store;
+    private final EventSink events;
+    private String source = "patients.csv";
+
+    /**
+     * @param store empty store to keep patients in (PatientIndex, or ColumnarPatientStore for large histories)
+     */
+    public CsvPatientRepository(Path dataDir, PatientStore store, EventSink events) {
+        this.csvFile = dataDir.resolve("patients.csv");
+        this.snapshotFile = dataDir.resolve("patients.snap");
+        this.store = store;
+        this.events = events;
+    }
+
+    @Override
+    public PatientStore getStore() {
+        return store;
+    }
+
+    /**
+     * Reads patients.snap if it matches patients.csv, otherwise parses
+     * patients.csv. Throws NoSuchFileException if there is no patients.csv.
+     */
+    @Override
+    public PatientCsvLoader.Result load(Collection<String> wardNames) throws IOException {
+        List<Patient> fromSnapshot = PatientSnapshot.read(snapshotFile, csvFile, events);
+        if (fromSnapshot != null) {
+            source = "patients.snap";
+            return PatientCsvLoader.Result.of(fromSnapshot);
+        }
+        source = "patients.csv";
+        return new PatientCsvLoader(wardNames).load(csvFile);
+    }
+
+    @Override
+    public String getSource() {
+        return source;
+    }
+
+    @Override
+    public PatientJournal openJournal(Path journalFile, EventSink events) {
+        return new PatientJournal(csvFile, journalFile, events);
+    }
+
+    /**
+     * Writes patients.csv atomically through the journal, which truncates
+     * itself, then patients.snap. A failed patients.snap is only reported:
+     * the next startup parses patients.csv instead.
+     */
+    @Override
+    public String checkpoint(PatientJournal journal) throws IOException {
+        journal.checkpoint(out -> {
+            for (Patient p : store.all()) {
+                out.write(p.getId());
+                out.write(',');
+                out.write(p.getName());
+                out.write(',');
+                out.write(Integer.toString(p.getAge()));
+                out.write(',');
+                out.write(p.getWard());
+                out.write(',');
+                out.write(p.getAdmitDate().toString());
+                out.write(',');
+                out.write(p.getStatus());
+                out.write(',');
+                if (p.getDischargeDate() != null) {
+                    out.write(p.getDischargeDate().toString());
+                }
+                out.write('\n');
+            }
+        });
+        try {
+            PatientSnapshot.write(snapshotFile, csvFile, store.all());
+        } catch (IOException e) {
+            events.publish(new HospitalEvent.Notice(HospitalEvent.Severity.WARNING,
+                "Could not write patients.snap, next startup will parse patients.csv: " + e.getMessage()));
+        }
+        return "patients.csv";
+    }
+
+    /**
+     * Nothing stays open: patients.csv and patients.snap are only open while read or written
+     */
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,107 @@
+package Hospital_Patient_Record_System;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable history of the discount percentage by effective date.
+ *
+ * A bill gets the discount that was in effect on the patient's discharge
+ * date, so changing the discount today no longer reprices bills from last
+ * month. Percentages are kept in hundredths of a percent, the precision
+ * BillingEngine applies them with.
+ */
+public final class DiscountSchedule {
+    private final NavigableMap<LocalDate, Long> hundredths;
+
+    private DiscountSchedule(NavigableMap<LocalDate, Long> hundredths) {
+        this.hundredths = Collections.unmodifiableNavigableMap(hundredths);
+    }
+
+    /**
+     * The same discount for every discharge date
+     */
+    public static DiscountSchedule flat(double percentage) {
+        NavigableMap<LocalDate, Long> map = new TreeMap<>();
+        map.put(LocalDate.MIN, toHundredths(percentage));
+        return new DiscountSchedule(map);
+    }
+
+    /**
+     * Schedule over a copy of effective dates mapped to hundredths of a percent
+     */
+    static DiscountSchedule ofHundredths(NavigableMap<LocalDate, Long> hundredths) {
+        return new DiscountSchedule(new TreeMap<>(hundredths));
+    }
+
+    /**
+     * Reads Date=Percentage entries (e.g. 2024-03-01=10) on top of no discount
+     */
+    public static DiscountSchedule load(Path file, EventSink events) throws IOException {
+        NavigableMap<LocalDate, Long> map = new TreeMap<>();
+        map.put(LocalDate.MIN, 0L);
+        ConfigFile.read(file, events, (date, value, line) -> {
+            LocalDate from;
+            try {
+                from = LocalDate.parse(date);
+            } catch (DateTimeParseException e) {
+                throw new NumberFormatException(date);
+            }
+            map.put(from, toHundredths(Double.parseDouble(value)));
+        });
+        return new DiscountSchedule(map);
+    }
+
+    public void write(Path file) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (Map.Entry<LocalDate, Long> e : hundredths.entrySet()) {
+            if (!e.getKey().equals(LocalDate.MIN) || e.getValue() != 0) {
+                entries.put(e.getKey().toString(), BigDecimal.valueOf(e.getValue(), 2).stripTrailingZeros().toPlainString());
+            }
+        }
+        ConfigFile.write(file, "# Discount history: percentage applied to bills discharged on or after each date\n"
+            + "# Format: YYYY-MM-DD=Percentage\n", entries);
+    }
+
+    /**
+     * This schedule with {@code percentage} in effect from {@code from} until
+     * the next later change, if any
+     */
+    public DiscountSchedule with(LocalDate from, double percentage) {
+        NavigableMap<LocalDate, Long> copy = new TreeMap<>(hundredths);
+        copy.put(from, toHundredths(percentage));
+        return new DiscountSchedule(copy);
+    }
+
+    /**
+     * Discount in hundredths of a percent for a bill discharged on {@code date}
+     */
+    public long hundredthsOn(LocalDate date) {
+        Map.Entry<LocalDate, Long> e = hundredths.floorEntry(date == null ? LocalDate.now() : date);
+        return e == null ? 0 : e.getValue();
+    }
+
+    public BigDecimal percentageOn(LocalDate date) {
+        return BigDecimal.valueOf(hundredthsOn(date), 2);
+    }
+
+    /**
+     * Effective dates and percentages, oldest first
+     */
+    public NavigableMap<LocalDate, Long> asMap() {
+        return hundredths;
+    }
+
+    private static long toHundredths(double percentage) {
+        return BigDecimal.valueOf(percentage).setScale(2, RoundingMode.HALF_EVEN).movePointRight(2).longValueExact();
+    }
+}
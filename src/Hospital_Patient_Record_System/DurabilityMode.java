@@ -0,0 +1,30 @@
+package Hospital_Patient_Record_System;
+
+/**
+ * How long an admission or discharge waits for its journal record.
+ *
+ * SYNC and GROUP return only once the record is on disk; a failed write
+ * fails the operation and undoes it. ASYNC returns as soon as the change is
+ * made in memory, and a record lost to a crash or a failed write loses the
+ * change on the next start.
+ */
+public enum DurabilityMode {
+    /** Waits for the record; the writer syncs it without waiting for others */
+    SYNC,
+    /** Waits for the record; the writer holds the fsync briefly so more records share it */
+    GROUP,
+    /** Returns at once; the record is synced with others a little later */
+    ASYNC;
+
+    /**
+     * The mode named by {@code name} in any case, or {@code fallback} if it names none
+     */
+    public static DurabilityMode parse(String name, DurabilityMode fallback) {
+        for (DurabilityMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(name)) {
+                return mode;
+            }
+        }
+        return fallback;
+    }
+}
@@ -0,0 +1,17 @@
+package Hospital_Patient_Record_System;
+
+/**
+ * Receives the events emitted by the hospital engine.
+ *
+ * The domain classes never print; they publish typed events here and the
+ * front end decides what to do with them. publish may be called from many
+ * threads at once and must not throw.
+ */
+public interface EventSink {
+    /**
+     * Discards every event; used when nothing should be reported
+     */
+    EventSink NO_OP = event -> { };
+
+    void publish(HospitalEvent event);
+}
@@ -0,0 +1,341 @@
+package Hospital_Patient_Record_System;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Something that happened inside the hospital engine.
+ *
+ * Events are small immutable objects published to an EventSink instead of
+ * being printed, so the engine itself does no console I/O. Each event knows
+ * its severity and how to describe itself as a single line.
+ */
+public abstract class HospitalEvent {
+    /**
+     * How an event should be presented
+     */
+    public enum Severity {
+        INFO("✓ "), WARNING("⚠️  "), ERROR("❌ ");
+
+        private final String symbol;
+
+        Severity(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+    }
+
+    private final long timestamp;
+    private final Severity severity;
+
+    protected HospitalEvent(Severity severity) {
+        this.timestamp = System.currentTimeMillis();
+        this.severity = severity;
+    }
+
+    /**
+     * Wall-clock time the event was created, in epoch milliseconds
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Severity getSeverity() {
+        return severity;
+    }
+
+    /**
+     * One-line human readable description, without the severity symbol
+     */
+    public abstract String getMessage();
+
+    @Override
+    public String toString() {
+        return Instant.ofEpochMilli(timestamp) + " " + severity + " " + getClass().getSimpleName() + ": " + getMessage();
+    }
+
+    /**
+     * A patient was admitted and holds a bed
+     */
+    public static class PatientAdmitted extends HospitalEvent {
+        private final Patient patient;
+
+        public PatientAdmitted(Patient patient) {
+            super(Severity.INFO);
+            this.patient = patient;
+        }
+
+        public Patient getPatient() { return patient; }
+
+        @Override
+        public String getMessage() {
+            return "Patient " + patient.getName() + " admitted successfully!";
+        }
+    }
+
+    /**
+     * A patient was discharged and their bed released
+     */
+    public static class PatientDischarged extends HospitalEvent {
+        private final Patient patient;
+
+        public PatientDischarged(Patient patient) {
+            super(Severity.INFO);
+            this.patient = patient;
+        }
+
+        public Patient getPatient() { return patient; }
+
+        @Override
+        public String getMessage() {
+            return "Patient discharged successfully!";
+        }
+    }
+
+    /**
+     * A bed in a ward was taken by a patient
+     */
+    public static class BedAllocated extends HospitalEvent {
+        private final String ward;
+        private final int bedNumber;
+        private final Patient patient;
+
+        public BedAllocated(String ward, int bedNumber, Patient patient) {
+            super(Severity.INFO);
+            this.ward = ward;
+            this.bedNumber = bedNumber;
+            this.patient = patient;
+        }
+
+        public String getWard() { return ward; }
+        public int getBedNumber() { return bedNumber; }
+        public Patient getPatient() { return patient; }
+
+        @Override
+        public String getMessage() {
+            return "Bed " + bedNumber + " allocated in " + ward + " ward";
+        }
+    }
+
+    /**
+     * A bed in a ward became free
+     */
+    public static class BedReleased extends HospitalEvent {
+        private final String ward;
+        private final int bedNumber;
+        private final Patient patient;
+
+        public BedReleased(String ward, int bedNumber, Patient patient) {
+            super(Severity.INFO);
+            this.ward = ward;
+            this.bedNumber = bedNumber;
+            this.patient = patient;
+        }
+
+        public String getWard() { return ward; }
+        public int getBedNumber() { return bedNumber; }
+        public Patient getPatient() { return patient; }
+
+        @Override
+        public String getMessage() {
+            return "Bed " + bedNumber + " released in " + ward + " ward";
+        }
+    }
+
+    /**
+     * A daily ward rate was read from rates.cfg
+     */
+    public static class RateLoaded extends HospitalEvent {
+        private final String ward;
+        private final double rate;
+
+        public RateLoaded(String ward, double rate) {
+            super(Severity.INFO);
+            this.ward = ward;
+            this.rate = rate;
+        }
+
+        public String getWard() { return ward; }
+        public double getRate() { return rate; }
+
+        @Override
+        public String getMessage() {
+            return "Loaded rate: " + ward + " = " + rate;
+        }
+    }
+
+    /**
+     * The billing discount was changed
+     */
+    public static class DiscountApplied extends HospitalEvent {
+        private final double percentage;
+        private final LocalDate effectiveFrom;
+
+        public DiscountApplied(double percentage, LocalDate effectiveFrom) {
+            super(Severity.INFO);
+            this.percentage = percentage;
+            this.effectiveFrom = effectiveFrom;
+        }
+
+        public double getPercentage() { return percentage; }
+        public LocalDate getEffectiveFrom() { return effectiveFrom; }
+
+        @Override
+        public String getMessage() {
+            return "Discount applied: " + percentage + "% (bills discharged from " + effectiveFrom + ")";
+        }
+    }
+
+    /**
+     * A line (or, with line 0, a whole file) of input could not be used
+     */
+    public static class ParseWarning extends HospitalEvent {
+        private final String fileName;
+        private final int lineNumber;
+        private final String problem;
+
+        public ParseWarning(String fileName, int lineNumber, String problem) {
+            super(Severity.WARNING);
+            this.fileName = fileName;
+            this.lineNumber = lineNumber;
+            this.problem = problem;
+        }
+
+        public String getFileName() { return fileName; }
+        public int getLineNumber() { return lineNumber; }
+        public String getProblem() { return problem; }
+
+        @Override
+        public String getMessage() {
+            return fileName + (lineNumber > 0 ? " line " + lineNumber : "") + ": " + problem;
+        }
+    }
+
+    /**
+     * Patients were loaded at startup
+     */
+    public static class PatientsLoaded extends HospitalEvent {
+        private final int count;
+        private final long millis;
+        private final String source;
+
+        public PatientsLoaded(int count, long millis, String source) {
+            super(Severity.INFO);
+            this.count = count;
+            this.millis = millis;
+            this.source = source;
+        }
+
+        public int getCount() { return count; }
+        public long getMillis() { return millis; }
+        public String getSource() { return source; }
+
+        @Override
+        public String getMessage() {
+            return "Total patients loaded: " + count + " from " + source + " (" + millis + " ms)";
+        }
+    }
+
+    /**
+     * A file was written (checkpoint, rates, report)
+     */
+    public static class FileSaved extends HospitalEvent {
+        private final String fileName;
+        private final String message;
+
+        public FileSaved(String fileName, String message) {
+            super(Severity.INFO);
+            this.fileName = fileName;
+            this.message = message;
+        }
+
+        public String getFileName() { return fileName; }
+
+        @Override
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * The requested ward was full and the patient was placed in an overflow ward
+     */
+    public static class PatientRerouted extends HospitalEvent {
+        private final Patient patient;
+        private final String requestedWard;
+
+        public PatientRerouted(Patient patient, String requestedWard) {
+            super(Severity.WARNING);
+            this.patient = patient;
+            this.requestedWard = requestedWard;
+        }
+
+        public Patient getPatient() { return patient; }
+        public String getRequestedWard() { return requestedWard; }
+
+        @Override
+        public String getMessage() {
+            return requestedWard + " ward is full, " + patient.getName() + " routed to " + patient.getWard() + " ward";
+        }
+    }
+
+    /**
+     * A bed was put on hold for an incoming patient
+     */
+    public static class BedReserved extends HospitalEvent {
+        private final Reservation reservation;
+
+        public BedReserved(Reservation reservation) {
+            super(Severity.INFO);
+            this.reservation = reservation;
+        }
+
+        public Reservation getReservation() { return reservation; }
+
+        @Override
+        public String getMessage() {
+            return "Bed " + reservation.getBedNumber() + " in " + reservation.getWard()
+                + " ward reserved (" + reservation.getId() + ") until " + reservation.getExpiresAt();
+        }
+    }
+
+    /**
+     * A reservation ran out before its patient arrived and the bed was freed
+     */
+    public static class ReservationExpired extends HospitalEvent {
+        private final Reservation reservation;
+
+        public ReservationExpired(Reservation reservation) {
+            super(Severity.WARNING);
+            this.reservation = reservation;
+        }
+
+        public Reservation getReservation() { return reservation; }
+
+        @Override
+        public String getMessage() {
+            return "Reservation " + reservation.getId() + " expired, bed " + reservation.getBedNumber()
+                + " in " + reservation.getWard() + " ward released";
+        }
+    }
+
+    /**
+     * Any other status, warning or error message
+     */
+    public static class Notice extends HospitalEvent {
+        private final String message;
+
+        public Notice(Severity severity, String message) {
+            super(severity);
+            this.message = message;
+        }
+
+        @Override
+        public String getMessage() {
+            return message;
+        }
+    }
+}
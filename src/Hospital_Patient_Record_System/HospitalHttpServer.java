@@ -0,0 +1,484 @@
+package Hospital_Patient_Record_System;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Headless HTTP/JSON front end for HospitalSystemWithCSV.
+ *
+ * Endpoints:
+ *   POST /patients                   admit (id, name, age, ward as form or query parameters)
+ *   POST /patients/{id}/discharge     discharge
+ *                                     (both take an optional durability=sync|group|async)
+ *   GET  /patients                    all patients (optionally ?status=admitted|discharged)
+ *   GET  /patients/{id}               patient lookup
+ *   GET  /occupancy                   occupancy of every ward
+ *   GET  /occupancy/history           hourly/daily/monthly average and peak for one ward
+ *                                     (ward, from, to as yyyy-MM-dd, by=hour|day|month;
+ *                                     at most 93 days by hour, 10 years by day, 50 by month)
+ *   GET  /billing/{id}                bill for one discharged patient
+ *   GET  /billing                     bills for all discharged patients
+ *   GET  /revenue                     running revenue totals per ward and bill-cache statistics
+ *   POST /reservations                hold a bed (ward, minutes)
+ *   GET  /reservations                open reservations
+ *   POST /reservations/{id}/admit     admit into the reserved bed (id, name, age)
+ *   DELETE /reservations/{id}         release a reserved bed
+ *   GET  /metrics                     counters, gauges and latencies (Prometheus text format)
+ *
+ * Each request runs on its own virtual thread when the JVM supports them
+ * (Java 21+); older JVMs fall back to a large cached pool of platform threads.
+ */
+public class HospitalHttpServer {
+    private final HospitalSystemWithCSV hospital;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public HospitalHttpServer(HospitalSystemWithCSV hospital, int port) throws IOException {
+        this(hospital, new InetSocketAddress(port));
+    }
+
+    /**
+     * @param address e.g. a loopback address for a partition that only the router talks to
+     */
+    public HospitalHttpServer(HospitalSystemWithCSV hospital, InetSocketAddress address) throws IOException {
+        this.hospital = hospital;
+        this.server = HttpServer.create(address, 4096);
+        this.executor = requestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/patients", this::handlePatients);
+        server.createContext("/occupancy", this::handleOccupancy);
+        server.createContext("/billing", this::handleBilling);
+        server.createContext("/revenue", this::handleRevenue);
+        server.createContext("/metrics", this::handleMetrics);
+        server.createContext("/reservations", this::handleReservations);
+    }
+
+    public void start() {
+        server.start();
+        hospital.getEventSink().publish(new HospitalEvent.Notice(HospitalEvent.Severity.INFO,
+            "HTTP server listening on port " + getPort()));
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Virtual-thread-per-request executor if available, else a cached pool.
+     */
+    static ExecutorService requestExecutor() {
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "http-worker");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    private void handlePatients(HttpExchange ex) throws IOException {
+        String[] path = segments(ex);
+        String method = ex.getRequestMethod();
+        try {
+            if (path.length == 1 && "POST".equals(method)) {
+                Map<String, String> params = params(ex);
+                String id = text(params, "id");
+                int age;
+                try {
+                    age = Integer.parseInt(required(params, "age"));
+                } catch (NumberFormatException e) {
+                    throw new InvalidPatientDataException("Age must be a number", "Age", params.get("age"));
+                }
+                hospital.admitPatient(id, text(params, "name"), age, required(params, "ward"), durability(params));
+                send(ex, 201, patientJson(hospital.findPatient(id)));
+            } else if (path.length == 1 && "GET".equals(method)) {
+                String status = params(ex).get("status");
+                HospitalSnapshot snapshot = hospital.snapshot();
+                StringBuilder sb = new StringBuilder("[");
+                for (Patient p : status == null ? snapshot.getAllPatients() : snapshot.getPatientsByStatus(status)) {
+                    if (sb.length() > 1) {
+                        sb.append(',');
+                    }
+                    sb.append(patientJson(p, snapshot.getBedNumber(p)));
+                }
+                send(ex, 200, sb.append(']').toString());
+            } else if (path.length == 3 && "discharge".equals(path[2]) && "POST".equals(method)) {
+                hospital.dischargePatient(path[1], durability(params(ex)));
+                send(ex, 200, patientJson(hospital.findPatient(path[1])));
+            } else if (path.length == 2 && "GET".equals(method)) {
+                Patient p = hospital.findPatient(path[1]);
+                if (p == null) {
+                    throw new PatientNotFoundException(path[1]);
+                }
+                send(ex, 200, patientJson(p));
+            } else {
+                sendError(ex, 404, "No such endpoint");
+            }
+        } catch (InvalidPatientDataException e) {
+            sendError(ex, "PatientID".equals(e.getFieldName()) ? 409 : 400, e.getMessage());
+        } catch (InvalidWardException e) {
+            sendError(ex, 400, e.getMessage());
+        } catch (NoBedsAvailableException | PatientAlreadyDischargedException e) {
+            sendError(ex, 409, e.getMessage());
+        } catch (PatientNotFoundException e) {
+            sendError(ex, 404, e.getMessage());
+        } catch (CSVFileException | RuntimeException e) {
+            sendError(ex, 500, e.getMessage());
+        }
+    }
+
+    private void handleReservations(HttpExchange ex) throws IOException {
+        String[] path = segments(ex);
+        String method = ex.getRequestMethod();
+        try {
+            if (path.length == 1 && "POST".equals(method)) {
+                Map<String, String> params = params(ex);
+                long minutes;
+                try {
+                    minutes = Long.parseLong(params.getOrDefault("minutes", "30"));
+                } catch (NumberFormatException e) {
+                    throw new InvalidPatientDataException("Minutes must be a number", "minutes", params.get("minutes"));
+                }
+                if (minutes <= 0) {
+                    throw new InvalidPatientDataException("Minutes must be positive", "minutes", params.get("minutes"));
+                }
+                send(ex, 201, reservationJson(hospital.reserveBed(required(params, "ward"), Duration.ofMinutes(minutes))));
+            } else if (path.length == 1 && "GET".equals(method)) {
+                StringBuilder sb = new StringBuilder("[");
+                for (Reservation r : hospital.getReservations()) {
+                    if (sb.length() > 1) {
+                        sb.append(',');
+                    }
+                    sb.append(reservationJson(r));
+                }
+                send(ex, 200, sb.append(']').toString());
+            } else if (path.length == 3 && "admit".equals(path[2]) && "POST".equals(method)) {
+                Map<String, String> params = params(ex);
+                String id = text(params, "id");
+                int age;
+                try {
+                    age = Integer.parseInt(required(params, "age"));
+                } catch (NumberFormatException e) {
+                    throw new InvalidPatientDataException("Age must be a number", "Age", params.get("age"));
+                }
+                hospital.admitReserved(path[1], id, text(params, "name"), age);
+                send(ex, 201, patientJson(hospital.findPatient(id)));
+            } else if (path.length == 2 && "DELETE".equals(method)) {
+                hospital.cancelReservation(path[1]);
+                ex.sendResponseHeaders(204, -1);
+                ex.close();
+            } else {
+                sendError(ex, 404, "No such endpoint");
+            }
+        } catch (InvalidPatientDataException e) {
+            sendError(ex, "PatientID".equals(e.getFieldName()) ? 409 : 400, e.getMessage());
+        } catch (InvalidWardException e) {
+            sendError(ex, 400, e.getMessage());
+        } catch (NoBedsAvailableException e) {
+            sendError(ex, 409, e.getMessage());
+        } catch (ReservationNotFoundException e) {
+            sendError(ex, 404, e.getMessage());
+        } catch (CSVFileException | RuntimeException e) {
+            sendError(ex, 500, e.getMessage());
+        }
+    }
+
+    private void handleOccupancy(HttpExchange ex) throws IOException {
+        String[] path = segments(ex);
+        if (path.length == 2 && "history".equals(path[1])) {
+            handleOccupancyHistory(ex);
+            return;
+        }
+        StringBuilder sb = new StringBuilder("[");
+        for (HospitalSnapshot.WardSnapshot w : hospital.snapshot().getWards()) {
+            if (sb.length() > 1) {
+                sb.append(',');
+            }
+            sb.append("{\"ward\":").append(quote(w.getName()))
+              .append(",\"totalBeds\":").append(w.getTotalBeds())
+              .append(",\"occupied\":").append(w.getOccupancy())
+              .append(",\"reserved\":").append(w.getReservedBeds())
+              .append(",\"available\":").append(w.getAvailableBeds())
+              .append(",\"occupancyPercent\":").append(String.format(Locale.ROOT, "%.1f", w.getOccupancyPercentage()))
+              .append('}');
+        }
+        send(ex, 200, sb.append(']').toString());
+    }
+
+    private void handleOccupancyHistory(HttpExchange ex) throws IOException {
+        Map<String, String> params = params(ex);
+        OccupancyTimeSeries history = hospital.getOccupancyHistory();
+        String ward = params.get("ward");
+        if (ward == null || !history.getWards().contains(ward)) {
+            sendError(ex, 400, new InvalidWardException(String.valueOf(ward)).getMessage());
+            return;
+        }
+        LocalDateTime from;
+        LocalDateTime to;
+        OccupancyTimeSeries.Resolution by;
+        try {
+            to = params.containsKey("to")
+                ? LocalDate.parse(params.get("to")).atStartOfDay() : LocalDateTime.now().plusHours(1);
+            from = params.containsKey("from")
+                ? LocalDate.parse(params.get("from")).atStartOfDay() : to.minusDays(30);
+            by = OccupancyTimeSeries.Resolution.valueOf(params.getOrDefault("by", "day").toUpperCase(Locale.ROOT));
+        } catch (RuntimeException e) {
+            sendError(ex, 400, "Invalid query: " + e.getMessage());
+            return;
+        }
+        OccupancyTimeSeries.Peak peak;
+        List<OccupancyTimeSeries.Bucket> buckets;
+        try {
+            LocalDateTime recorded = history.firstHour(ward);
+            if (from.isBefore(recorded)) {
+                from = recorded;
+            }
+            peak = history.peak(ward, from, to);
+            buckets = history.rollup(ward, from, to, by);
+        } catch (IllegalArgumentException e) {
+            sendError(ex, 400, e.getMessage());
+            return;
+        }
+        StringBuilder sb = new StringBuilder("{\"ward\":").append(quote(ward));
+        if (peak != null) {
+            sb.append(",\"peak\":").append(peak.getBeds())
+              .append(",\"peakHour\":").append(quote(peak.getHour().toString()));
+        }
+        sb.append(",\"buckets\":[");
+        boolean first = true;
+        for (OccupancyTimeSeries.Bucket b : buckets) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append("{\"start\":").append(quote(b.getStart().toString()))
+              .append(",\"average\":").append(String.format(Locale.ROOT, "%.2f", b.getAverage()))
+              .append(",\"peak\":").append(b.getPeak()).append('}');
+        }
+        send(ex, 200, sb.append("]}").toString());
+    }
+
+    private void handleBilling(HttpExchange ex) throws IOException {
+        String[] path = segments(ex);
+        HospitalSnapshot snapshot = hospital.snapshot();
+        if (path.length == 2) {
+            Patient p = snapshot.findPatient(path[1]);
+            if (p == null) {
+                sendError(ex, 404, new PatientNotFoundException(path[1]).getMessage());
+            } else if (!"discharged".equalsIgnoreCase(p.getStatus())) {
+                sendError(ex, 409, "Patient " + p.getName() + " is still admitted. Cannot generate bill.");
+            } else {
+                send(ex, 200, billJson(p));
+            }
+            return;
+        }
+        StringBuilder sb = new StringBuilder("[");
+        for (Patient p : snapshot.getDischargedPatients()) {
+            if (sb.length() > 1) {
+                sb.append(',');
+            }
+            sb.append(billJson(p));
+        }
+        send(ex, 200, sb.append(']').toString());
+    }
+
+    private void handleMetrics(HttpExchange ex) throws IOException {
+        byte[] body = hospital.getMetrics().render().getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        ex.sendResponseHeaders(200, body.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private String billJson(Patient p) {
+        PatientBill bill = hospital.getBillingService().billFor(p);
+        return "{\"id\":" + quote(p.getId())
+            + ",\"name\":" + quote(p.getName())
+            + ",\"ward\":" + quote(p.getWard())
+            + ",\"days\":" + bill.getDays()
+            + ",\"dailyRate\":" + bill.getDailyRate().toPlainString()
+            + ",\"discountPercent\":" + bill.getDiscountPercentage().toPlainString()
+            + ",\"finalBill\":" + bill.getFinalBill().toPlainString() + "}";
+    }
+
+    private void handleRevenue(HttpExchange ex) throws IOException {
+        RevenueLedger revenue = hospital.getBillingService().getRevenue();
+        StringBuilder sb = new StringBuilder("{\"wards\":[");
+        boolean first = true;
+        for (Map.Entry<String, RevenueLedger.Totals> e : revenue.getWardTotals().entrySet()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append("{\"ward\":").append(quote(e.getKey())).append(',');
+            totalsJson(sb, e.getValue()).append('}');
+        }
+        sb.append("],\"total\":{");
+        totalsJson(sb, revenue.getHospitalTotals()).append('}');
+        BillCache cache = hospital.getBillingService().getBillCache();
+        sb.append(",\"billCache\":{\"size\":").append(cache.size())
+          .append(",\"capacity\":").append(cache.getCapacity())
+          .append(",\"hits\":").append(cache.getHits())
+          .append(",\"misses\":").append(cache.getMisses())
+          .append(",\"evictions\":").append(cache.getEvictions()).append("}}");
+        send(ex, 200, sb.toString());
+    }
+
+    private static StringBuilder totalsJson(StringBuilder sb, RevenueLedger.Totals t) {
+        return sb.append("\"bills\":").append(t.getBills())
+            .append(",\"totalBilled\":").append(t.getTotalBilled().toPlainString())
+            .append(",\"discounts\":").append(t.getDiscounts().toPlainString())
+            .append(",\"revenue\":").append(t.getRevenue().toPlainString());
+    }
+
+    private static String reservationJson(Reservation r) {
+        return "{\"id\":" + quote(r.getId())
+            + ",\"ward\":" + quote(r.getWard())
+            + ",\"bed\":" + r.getBedNumber()
+            + ",\"expiresAt\":" + quote(r.getExpiresAt().toString()) + "}";
+    }
+
+    private String patientJson(Patient p) {
+        return patientJson(p, hospital.getBedNumber(p));
+    }
+
+    private static String patientJson(Patient p, int bed) {
+        return "{\"id\":" + quote(p.getId())
+            + ",\"name\":" + quote(p.getName())
+            + ",\"age\":" + p.getAge()
+            + ",\"ward\":" + quote(p.getWard())
+            + ",\"bed\":" + (bed == 0 ? "null" : Integer.toString(bed))
+            + ",\"status\":" + quote(p.getStatus())
+            + ",\"admitDate\":" + quote(String.valueOf(p.getAdmitDate()))
+            + ",\"dischargeDate\":" + (p.getDischargeDate() == null ? "null" : quote(p.getDischargeDate().toString()))
+            + ",\"days\":" + p.getDaysAdmitted() + "}";
+    }
+
+    static String[] segments(HttpExchange ex) {
+        String path = ex.getRequestURI().getPath();
+        while (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        return path.isEmpty() ? new String[0] : path.split("/");
+    }
+
+    /**
+     * Query-string and form-encoded body parameters (body wins)
+     */
+    private static Map<String, String> params(HttpExchange ex) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(ex.getRequestURI().getRawQuery(), params);
+        try (InputStream in = ex.getRequestBody()) {
+            parseForm(new String(in.readAllBytes(), StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+
+    static void parseForm(String form, Map<String, String> into) {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                into.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8).trim());
+            }
+        }
+    }
+
+    /**
+     * The durability a request asks for, or the hospital's default
+     */
+    private DurabilityMode durability(Map<String, String> params) {
+        return DurabilityMode.parse(params.get("durability"), hospital.getDurabilityMode());
+    }
+
+    private static String required(Map<String, String> params, String name) throws InvalidPatientDataException {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new InvalidPatientDataException("Missing parameter '" + name + "'", name, "");
+        }
+        return value;
+    }
+
+    /**
+     * A required parameter that is stored as text (patient ID, name): control
+     * characters and commas are rejected here so they never reach the
+     * journal, the audit log or patients.csv.
+     */
+    private static String text(Map<String, String> params, String name) throws InvalidPatientDataException {
+        String value = required(params, name);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || Character.isISOControl(c)) {
+                throw new InvalidPatientDataException("Parameter '" + name
+                    + "' must not contain commas or control characters", name, value);
+            }
+        }
+        return value;
+    }
+
+    private static void sendError(HttpExchange ex, int status, String message) throws IOException {
+        send(ex, status, "{\"error\":" + quote(message) + "}");
+    }
+
+    private static void send(HttpExchange ex, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, body.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    static String quote(String s) {
+        if (s == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
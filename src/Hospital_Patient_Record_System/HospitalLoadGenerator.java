@@ -0,0 +1,169 @@
+package Hospital_Patient_Record_System;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load generator for HospitalHttpServer.
+ *
+ * Keeps {@code clients} requests in flight against a running server with a
+ * read-heavy mix (lookups, occupancy, bills) plus admit/discharge pairs, then
+ * prints throughput and p50 / p99 / p999 latencies. HospitalHttpServerTest
+ * runs it against an in-process server and checks the outcome.
+ *
+ * Usage: java Hospital_Patient_Record_System.HospitalLoadGenerator [baseUrl] [clients] [requests]
+ */
+public class HospitalLoadGenerator {
+
+    /**
+     * What one run did: latencies of the completed requests (sorted),
+     * failures and 5xx responses, and the admissions and discharges that
+     * the server accepted.
+     */
+    public static final class Result {
+        private final long[] latencies;
+        private final long errors;
+        private final int admitted;
+        private final int discharged;
+        private final double seconds;
+
+        Result(long[] latencies, long errors, int admitted, int discharged, double seconds) {
+            this.latencies = latencies;
+            this.errors = errors;
+            this.admitted = admitted;
+            this.discharged = discharged;
+            this.seconds = seconds;
+        }
+
+        public int getCompleted() {
+            return latencies.length;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public int getAdmitted() {
+            return admitted;
+        }
+
+        public int getDischarged() {
+            return discharged;
+        }
+
+        /**
+         * @return the latency at {@code p} (0..1) in milliseconds
+         */
+        public double percentileMillis(double p) {
+            return percentile(latencies, p);
+        }
+
+        public void print() {
+            System.out.printf("Completed %d requests in %.2f s (%.0f req/s), %d errors%n",
+                latencies.length, seconds, latencies.length / seconds, errors);
+            System.out.printf("Latency p50=%.2f ms  p99=%.2f ms  p999=%.2f ms  max=%.2f ms%n",
+                percentileMillis(0.50), percentileMillis(0.99), percentileMillis(0.999),
+                latencies.length == 0 ? 0.0 : latencies[latencies.length - 1] / 1e6);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+
+        System.out.println("Running " + requests + " requests with " + clients + " concurrent clients against " + baseUrl);
+        run(baseUrl, clients, requests).print();
+    }
+
+    public static Result run(String baseUrl, int clients, int requests) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        Semaphore inFlight = new Semaphore(clients);
+        long[] latencies = new long[requests];
+        AtomicInteger done = new AtomicInteger();
+        AtomicLong errors = new AtomicLong();
+        AtomicInteger admitted = new AtomicInteger();
+        AtomicInteger discharged = new AtomicInteger();
+        ConcurrentLinkedQueue<CompletableFuture<?>> pending = new ConcurrentLinkedQueue<>();
+
+        long started = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            HttpRequest request = nextRequest(baseUrl, i);
+            int kind = i % 10;
+            long sent = System.nanoTime();
+            CompletableFuture<?> f = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    latencies[done.getAndIncrement()] = System.nanoTime() - sent;
+                    if (failure != null || response.statusCode() >= 500) {
+                        errors.incrementAndGet();
+                    } else if (kind == 0 && response.statusCode() == 201) {
+                        admitted.incrementAndGet();
+                    } else if (kind == 1 && response.statusCode() == 200) {
+                        discharged.incrementAndGet();
+                    }
+                    inFlight.release();
+                });
+            pending.add(f);
+            if (pending.size() > clients * 4) {
+                pending.removeIf(CompletableFuture::isDone);
+            }
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).exceptionally(t -> null).join();
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        long[] sorted = Arrays.copyOf(latencies, done.get());
+        Arrays.sort(sorted);
+        return new Result(sorted, errors.get(), admitted.get(), discharged.get(), seconds);
+    }
+
+    /**
+     * 70% lookups, 10% occupancy, 10% bills, 10% admit/discharge
+     */
+    private static HttpRequest nextRequest(String baseUrl, int i) {
+        String id = "LG" + (i / 2);
+        switch (i % 10) {
+            case 0:
+                return post(baseUrl + "/patients",
+                    "id=" + id + "&name=Load+Test&age=40&ward=General");
+            case 1:
+                return post(baseUrl + "/patients/" + "LG" + ((i - 1) / 2) + "/discharge", "");
+            case 2:
+                return get(baseUrl + "/occupancy");
+            case 3:
+                return get(baseUrl + "/billing/P001");
+            default:
+                return get(baseUrl + "/patients/P00" + (1 + i % 6));
+        }
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    private static HttpRequest post(String url, String form) {
+        return HttpRequest.newBuilder(URI.create(url))
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString(form))
+            .build();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+}
@@ -0,0 +1,170 @@
+package Hospital_Patient_Record_System;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters, gauges and latency histograms for one hospital.
+ *
+ * Recording only touches LongAdders and lock-free histograms, so it is
+ * cheap enough to leave on permanently. Ward occupancy is read from the
+ * wards themselves when metrics are scraped. The same numbers are exposed
+ * over JMX and as Prometheus-style text (GET /metrics in server mode).
+ */
+public class HospitalMetrics implements HospitalMetricsMXBean {
+    public static final String OBJECT_NAME = "Hospital_Patient_Record_System:type=HospitalMetrics";
+
+    private final Supplier<Collection<Ward>> wards;
+    private final LongAdder admissions = new LongAdder();
+    private final LongAdder discharges = new LongAdder();
+    private final Map<Class<?>, LongAdder> rejections = new ConcurrentHashMap<>();
+    private final LatencyHistogram loadLatency = new LatencyHistogram();
+    private final LatencyHistogram saveLatency = new LatencyHistogram();
+    private final LatencyHistogram billingLatency = new LatencyHistogram();
+
+    public HospitalMetrics(Supplier<Collection<Ward>> wards) {
+        this.wards = wards;
+    }
+
+    public void admitted() {
+        admissions.increment();
+    }
+
+    public void discharged() {
+        discharges.increment();
+    }
+
+    public void admissionRejected(Exception cause) {
+        LongAdder counter = rejections.get(cause.getClass());
+        if (counter == null) {
+            counter = rejections.computeIfAbsent(cause.getClass(), k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    public LatencyHistogram getLoadLatency() {
+        return loadLatency;
+    }
+
+    public LatencyHistogram getSaveLatency() {
+        return saveLatency;
+    }
+
+    public LatencyHistogram getBillingLatency() {
+        return billingLatency;
+    }
+
+    @Override
+    public long getAdmissions() {
+        return admissions.sum();
+    }
+
+    @Override
+    public long getDischarges() {
+        return discharges.sum();
+    }
+
+    @Override
+    public Map<String, Long> getRejectedAdmissions() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Map.Entry<Class<?>, LongAdder> e : rejections.entrySet()) {
+            result.put(e.getKey().getSimpleName(), e.getValue().sum());
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Integer> getWardOccupancy() {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (Ward w : wards.get()) {
+            result.put(w.getName(), w.getOccupancy());
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Double> getLatencyMillis() {
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (Map.Entry<String, LatencyHistogram> e : histograms().entrySet()) {
+            LatencyHistogram h = e.getValue();
+            result.put(e.getKey() + ".count", (double) h.getCount());
+            result.put(e.getKey() + ".p50", h.percentileNanos(0.50) / 1e6);
+            result.put(e.getKey() + ".p99", h.percentileNanos(0.99) / 1e6);
+            result.put(e.getKey() + ".max", h.getMaxNanos() / 1e6);
+        }
+        return result;
+    }
+
+    /**
+     * Registers this registry with the platform MBean server
+     */
+    public void registerMBean() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+        }
+        server.registerMBean(this, name);
+    }
+
+    /**
+     * Renders all metrics in the Prometheus text exposition format
+     */
+    public String render() {
+        StringBuilder sb = new StringBuilder(2048);
+        sb.append("# TYPE hospital_admissions_total counter\n");
+        sb.append("hospital_admissions_total ").append(getAdmissions()).append('\n');
+        sb.append("# TYPE hospital_discharges_total counter\n");
+        sb.append("hospital_discharges_total ").append(getDischarges()).append('\n');
+        sb.append("# TYPE hospital_admissions_rejected_total counter\n");
+        for (Map.Entry<String, Long> e : getRejectedAdmissions().entrySet()) {
+            sb.append("hospital_admissions_rejected_total{reason=\"").append(e.getKey()).append("\"} ")
+              .append(e.getValue()).append('\n');
+        }
+        sb.append("# TYPE hospital_ward_occupied_beds gauge\n");
+        for (Ward w : wards.get()) {
+            sb.append("hospital_ward_occupied_beds{ward=\"").append(w.getName()).append("\"} ")
+              .append(w.getOccupancy()).append('\n');
+        }
+        sb.append("# TYPE hospital_ward_total_beds gauge\n");
+        for (Ward w : wards.get()) {
+            sb.append("hospital_ward_total_beds{ward=\"").append(w.getName()).append("\"} ")
+              .append(w.getTotalBeds()).append('\n');
+        }
+        sb.append("# TYPE hospital_latency_seconds summary\n");
+        for (Map.Entry<String, LatencyHistogram> e : histograms().entrySet()) {
+            LatencyHistogram h = e.getValue();
+            String op = "hospital_latency_seconds{op=\"" + e.getKey() + "\"";
+            for (double q : new double[] {0.5, 0.9, 0.99, 0.999}) {
+                sb.append(op).append(",quantile=\"").append(q).append("\"} ")
+                  .append(seconds(h.percentileNanos(q))).append('\n');
+            }
+            sb.append("hospital_latency_seconds_sum{op=\"").append(e.getKey()).append("\"} ")
+              .append(seconds(h.getSumNanos())).append('\n');
+            sb.append("hospital_latency_seconds_count{op=\"").append(e.getKey()).append("\"} ")
+              .append(h.getCount()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private Map<String, LatencyHistogram> histograms() {
+        Map<String, LatencyHistogram> all = new LinkedHashMap<>();
+        all.put("load", loadLatency);
+        all.put("save", saveLatency);
+        all.put("billing", billingLatency);
+        return all;
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+}
@@ -0,0 +1,28 @@
+package Hospital_Patient_Record_System;
+
+import java.util.Map;
+
+/**
+ * JMX view of HospitalMetrics (visible in JConsole / VisualVM under
+ * Hospital_Patient_Record_System:type=HospitalMetrics)
+ */
+public interface HospitalMetricsMXBean {
+    long getAdmissions();
+
+    long getDischarges();
+
+    /**
+     * Rejected admissions keyed by exception type
+     */
+    Map<String, Long> getRejectedAdmissions();
+
+    /**
+     * Occupied beds keyed by ward
+     */
+    Map<String, Integer> getWardOccupancy();
+
+    /**
+     * Latency summaries in milliseconds, keyed like "load.p99"
+     */
+    Map<String, Double> getLatencyMillis();
+}
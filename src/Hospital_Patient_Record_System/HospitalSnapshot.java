@@ -0,0 +1,398 @@
+package Hospital_Patient_Record_System;
+
+import java.time.LocalDate;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Point-in-time view of the hospital: its patients, who is in which bed
+ * and the beds held by reservations, all as of one moment.
+ *
+ * Every admission, discharge, reservation and ward change publishes a new
+ * version (see HospitalVersions), and a snapshot is simply the version that
+ * was current when it was taken. Versions are immutable and share most of
+ * their structure through PersistentMaps, so taking one is a single read,
+ * reading one takes no lock, and writers never wait for readers.
+ *
+ * Patients that were already discharged at startup can never change again,
+ * so they are read from the PatientStore instead of being copied: every
+ * version holds only the patients admitted at startup or since, and drops
+ * those discharged once no older snapshot is still in use.
+ */
+public final class HospitalSnapshot {
+    /**
+     * A ward's beds as of the snapshot
+     */
+    public static final class WardSnapshot {
+        private final String name;
+        private final int totalBeds;
+        private final int reserved;
+        private final List<Occupant> occupants;
+
+        WardSnapshot(String name, int totalBeds, int reserved, List<Occupant> occupants) {
+            this.name = name;
+            this.totalBeds = totalBeds;
+            this.reserved = reserved;
+            this.occupants = occupants;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getTotalBeds() {
+            return totalBeds;
+        }
+
+        public int getOccupancy() {
+            return occupants.size();
+        }
+
+        public int getReservedBeds() {
+            return reserved;
+        }
+
+        public int getAvailableBeds() {
+            return Math.max(0, totalBeds - occupants.size() - reserved);
+        }
+
+        public double getOccupancyPercentage() {
+            return totalBeds == 0 ? 0.0 : (occupants.size() * 100.0) / totalBeds;
+        }
+
+        /**
+         * The patients in this ward's beds, in bed order
+         */
+        public List<Patient> getPatients() {
+            List<Patient> list = new ArrayList<>(occupants.size());
+            for (Occupant o : occupants) {
+                list.add(o.patient);
+            }
+            return list;
+        }
+
+        public void displayStatus() {
+            Ward.displayStatus(name, getOccupancy(), totalBeds, getAvailableBeds(), getOccupancyPercentage());
+        }
+    }
+
+    /**
+     * A tracked patient, frozen as of the version, with their bed number (0
+     * once discharged) and the version that admitted them (0 at startup)
+     */
+    static final class Occupant {
+        final Patient patient;
+        final int bed;
+        final long since;
+
+        Occupant(Patient patient, int bed, long since) {
+            this.patient = patient;
+            this.bed = bed;
+            this.since = since;
+        }
+    }
+
+    private final HospitalVersions versions;
+    private final long version;
+    private final Map<String, Integer> wardBeds;
+    private final PersistentMap<String, Occupant> admitted;
+    private final PersistentMap<String, Occupant> discharged;
+    private final PersistentMap<String, Reservation> reservations;
+    // discharged patients read from the store: at startup or dropped since
+    private final int untracked;
+    private volatile List<WardSnapshot> wards;
+
+    HospitalSnapshot(HospitalVersions versions, long version, Map<String, Integer> wardBeds,
+                     PersistentMap<String, Occupant> admitted, PersistentMap<String, Occupant> discharged,
+                     PersistentMap<String, Reservation> reservations, int untracked) {
+        this.versions = versions;
+        this.version = version;
+        this.wardBeds = wardBeds;
+        this.admitted = admitted;
+        this.discharged = discharged;
+        this.reservations = reservations;
+        this.untracked = untracked;
+    }
+
+    /**
+     * Number of changes published before this snapshot; later snapshots have higher versions
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public int getPatientCount() {
+        return untracked + discharged.size() + admitted.size();
+    }
+
+    /**
+     * Every patient, in the PatientStore's order
+     */
+    public Collection<Patient> getAllPatients() {
+        return new View(versions.getStore().all(), true);
+    }
+
+    /**
+     * Admitted patients by ward and bed
+     */
+    public List<Patient> getAdmittedPatients() {
+        List<Patient> list = new ArrayList<>(admitted.size());
+        for (WardSnapshot ward : getWards()) {
+            for (Occupant o : ward.occupants) {
+                list.add(o.patient);
+            }
+        }
+        // patients whose ward no longer exists (e.g. removed from wards.cfg at startup)
+        if (list.size() < admitted.size()) {
+            for (Occupant o : admitted.values()) {
+                if (!wardBeds.containsKey(o.patient.getWard())) {
+                    list.add(o.patient);
+                }
+            }
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Discharged patients, in the PatientStore's order
+     */
+    public Collection<Patient> getDischargedPatients() {
+        return new View(versions.getStore().byStatus("discharged"), false);
+    }
+
+    /**
+     * Admitted or discharged patients, as PatientStore.byStatus; empty for any other status
+     */
+    public Collection<Patient> getPatientsByStatus(String status) {
+        if ("admitted".equalsIgnoreCase(status)) {
+            return getAdmittedPatients();
+        }
+        if ("discharged".equalsIgnoreCase(status)) {
+            return getDischargedPatients();
+        }
+        return Collections.emptyList();
+    }
+
+    public Patient findPatient(String patientId) {
+        Occupant o = admitted.get(patientId);
+        if (o != null) {
+            return o.patient;
+        }
+        Occupant out = discharged.get(patientId);
+        if (out != null) {
+            return out.patient;
+        }
+        return versions.isTracked(patientId) ? null : versions.getStore().get(patientId);
+    }
+
+    /**
+     * Bed number of a patient admitted as of the snapshot, or 0
+     */
+    public int getBedNumber(Patient patient) {
+        Occupant o = admitted.get(patient.getId());
+        return o == null ? 0 : o.bed;
+    }
+
+    /**
+     * Every ward with its occupants and reserved beds
+     */
+    public List<WardSnapshot> getWards() {
+        List<WardSnapshot> result = wards;
+        if (result == null) {
+            Map<String, List<Occupant>> occupants = new LinkedHashMap<>();
+            Map<String, Integer> reserved = new LinkedHashMap<>();
+            for (String ward : wardBeds.keySet()) {
+                occupants.put(ward, new ArrayList<>());
+                reserved.put(ward, 0);
+            }
+            for (Occupant o : admitted.values()) {
+                List<Occupant> inWard = occupants.get(o.patient.getWard());
+                if (inWard != null) {
+                    inWard.add(o);
+                }
+            }
+            for (Reservation r : reservations.values()) {
+                reserved.computeIfPresent(r.getWard(), (ward, n) -> n + 1);
+            }
+            result = new ArrayList<>(wardBeds.size());
+            for (Map.Entry<String, Integer> e : wardBeds.entrySet()) {
+                List<Occupant> inWard = occupants.get(e.getKey());
+                inWard.sort(Comparator.comparingInt(o -> o.bed));
+                result.add(new WardSnapshot(e.getKey(), e.getValue(), reserved.get(e.getKey()),
+                    Collections.unmodifiableList(inWard)));
+            }
+            result = Collections.unmodifiableList(result);
+            wards = result;
+        }
+        return result;
+    }
+
+    public WardSnapshot getWard(String wardName) {
+        for (WardSnapshot ward : getWards()) {
+            if (ward.getName().equals(wardName)) {
+                return ward;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reservations holding a bed in {@code wardName}, in bed order
+     */
+    public List<Reservation> getReservations(String wardName) {
+        List<Reservation> list = new ArrayList<>();
+        for (Reservation r : reservations.values()) {
+            if (r.getWard().equals(wardName)) {
+                list.add(r);
+            }
+        }
+        list.sort(Comparator.comparingInt(Reservation::getBedNumber));
+        return list;
+    }
+
+    HospitalSnapshot withWards(Map<String, Integer> beds) {
+        return new HospitalSnapshot(versions, version + 1, beds, admitted, discharged, reservations, untracked);
+    }
+
+    HospitalSnapshot withAdmitted(PersistentMap<String, Occupant> admitted, PersistentMap<String, Occupant> discharged,
+                                  PersistentMap<String, Reservation> reservations) {
+        return new HospitalSnapshot(versions, version + 1, wardBeds, admitted, discharged, reservations, untracked);
+    }
+
+    /**
+     * The same hospital with {@code dropped} discharged patients left to the store
+     */
+    HospitalSnapshot withPruned(PersistentMap<String, Occupant> discharged, int dropped) {
+        return new HospitalSnapshot(versions, version + 1, wardBeds, admitted, discharged, reservations, untracked + dropped);
+    }
+
+    Map<String, Integer> wardBeds() {
+        return wardBeds;
+    }
+
+    PersistentMap<String, Occupant> admitted() {
+        return admitted;
+    }
+
+    PersistentMap<String, Occupant> discharged() {
+        return discharged;
+    }
+
+    PersistentMap<String, Reservation> reservations() {
+        return reservations;
+    }
+
+    /**
+     * A copy of {@code p} that later discharges do not change
+     */
+    static Patient freeze(Patient p) {
+        try {
+            Patient copy = new Patient(p.getId(), p.getName(), p.getAge(), p.getWard(), p.getAdmitDate());
+            LocalDate out = p.getDischargeDate();
+            if ("discharged".equalsIgnoreCase(p.getStatus())) {
+                copy.discharge(out != null ? out : LocalDate.now());
+            }
+            return copy;
+        } catch (InvalidPatientDataException | PatientAlreadyDischargedException e) {
+            throw new IllegalStateException("Cannot copy patient " + p.getId() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Patients of a live store collection as of this version. Patients the
+     * versions track are replaced by this version's copy, or skipped if they
+     * were admitted after it; those this version has but the store did not
+     * yield yet are added at the end.
+     */
+    private final class View extends AbstractCollection<Patient> {
+        private final Iterable<Patient> live;
+        private final boolean withAdmitted;
+
+        View(Iterable<Patient> live, boolean withAdmitted) {
+            this.live = live;
+            this.withAdmitted = withAdmitted;
+        }
+
+        @Override
+        public int size() {
+            return untracked + discharged.size() + (withAdmitted ? admitted.size() : 0);
+        }
+
+        @Override
+        public Iterator<Patient> iterator() {
+            return new Iterator<Patient>() {
+                private final Iterator<Patient> store = live.iterator();
+                private final Set<String> seen = new HashSet<>();
+                private Iterator<Patient> rest;
+                private Patient next;
+
+                @Override
+                public boolean hasNext() {
+                    while (next == null && store.hasNext()) {
+                        next = resolve(store.next());
+                    }
+                    if (next == null) {
+                        if (rest == null) {
+                            rest = unseen().iterator();
+                        }
+                        if (rest.hasNext()) {
+                            next = rest.next();
+                        }
+                    }
+                    return next != null;
+                }
+
+                @Override
+                public Patient next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Patient p = next;
+                    next = null;
+                    return p;
+                }
+
+                private Patient resolve(Patient p) {
+                    String id = p.getId();
+                    Occupant o = admitted.get(id);
+                    if (o != null) {
+                        return withAdmitted && seen.add(id) ? o.patient : null;
+                    }
+                    Occupant out = discharged.get(id);
+                    if (out != null) {
+                        return seen.add(id) ? out.patient : null;
+                    }
+                    // tracked but in neither map: admitted after this version
+                    return versions.isTracked(id) ? null : p;
+                }
+
+                private List<Patient> unseen() {
+                    List<Patient> list = new ArrayList<>();
+                    for (Occupant o : discharged.values()) {
+                        if (!seen.contains(o.patient.getId())) {
+                            list.add(o.patient);
+                        }
+                    }
+                    if (withAdmitted) {
+                        for (Occupant o : admitted.values()) {
+                            if (!seen.contains(o.patient.getId())) {
+                                list.add(o.patient);
+                            }
+                        }
+                    }
+                    return list;
+                }
+            };
+        }
+    }
+}
@@ -1,267 +1,1130 @@
 package Hospital_Patient_Record_System;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.io.IOException;
-import java.io.FileNotFoundException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
- * Main hospital system with CSV support and exception handling
+ * Main hospital system with CSV support and exception handling.
+ *
+ * Admit, discharge and lookups are safe to call from many threads at once:
+ * beds are claimed atomically per ward, patient IDs are reserved before a
+ * bed is taken, and each discharge claims its patient before journaling.
+ * Journal records go through a JournalWriter thread, so concurrent
+ * operations share fsyncs, and admitBatch / dischargeBatch handle a whole
+ * list with one lock acquisition per ward and one journal write. The
+ * DurabilityMode decides whether an operation waits for its record.
+ *
+ * An operation holds the checkpoint lock's read side from the moment it
+ * hands its record to the journal until the store shows its change, and
+ * savePatients takes the write side, so a checkpoint never truncates a
+ * journaled change that it did not save.
+ *
+ * Reports (patient list, occupancy, ward allocations, billing) read a
+ * HospitalSnapshot, so they see one consistent moment without holding up
+ * admissions and discharges running meanwhile.
  */
 public class HospitalSystemWithCSV {
     private Map<String, Ward> wards;
-    private List<Patient> allPatients;
+    private PatientStore patients;
+    private PatientRepository repository;
+    private Set<String> admissionsInFlight;
+    private Set<String> dischargesInFlight;
     private BillingService billingService;
+    private PatientJournal journal;
+    private JournalWriter journalWriter;
+    private volatile DurabilityMode durability = DurabilityMode.SYNC;
+    private AuditLog audit;
+    private Path dataDir;
+    private EventSink events;
+    private HospitalMetrics metrics;
+    private OccupancyTimeSeries occupancyHistory;
+    private HospitalVersions versions;
+    private final PatientSearchIndex searchIndex = new PatientSearchIndex();
+    // false for a store that keeps only admitted patients in memory: the index then does the same
+    private final boolean searchesHistory;
+    private volatile Map<String, List<String>> overflowRoutes = Collections.emptyMap();
+    private final Map<String, Reservation> reservations = new ConcurrentHashMap<>();
+    private final AtomicLong nextReservation = new AtomicLong(1);
+    private final TimerWheel reservationTimer = new TimerWheel(1, TimeUnit.SECONDS, 512);
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
 
     public HospitalSystemWithCSV() {
-        this.wards = new HashMap<>();
-        this.allPatients = new ArrayList<>();
-        this.billingService = new BillingService(0);
+        this(Paths.get("src"), EventSink.NO_OP);
+    }
+
+    public HospitalSystemWithCSV(Path dataDir) {
+        this(dataDir, EventSink.NO_OP);
+    }
+
+    public HospitalSystemWithCSV(Path dataDir, EventSink events) {
+        this(dataDir, events, new PatientIndex());
+    }
+
+    /**
+     * @param store empty store to keep patients in (PatientIndex, or ColumnarPatientStore for large histories)
+     */
+    public HospitalSystemWithCSV(Path dataDir, EventSink events, PatientStore store) {
+        this(dataDir, events, new CsvPatientRepository(dataDir, store, events));
+    }
+
+    /**
+     * @param dataDir    directory holding wards.cfg, rates.cfg, discounts.cfg, the patients and the files derived from them
+     * @param events     receives admissions, bed changes, load progress and warnings
+     * @param repository where patients are saved between runs (CsvPatientRepository or PagedPatientRepository)
+     */
+    public HospitalSystemWithCSV(Path dataDir, EventSink events, PatientRepository repository) {
+        this.dataDir = dataDir;
+        this.events = events;
+        this.wards = new ConcurrentHashMap<>();
+        this.repository = repository;
+        this.patients = repository.getStore();
+        this.searchesHistory = !(patients instanceof PagedPatientStore);
+        this.admissionsInFlight = ConcurrentHashMap.newKeySet();
+        this.dischargesInFlight = ConcurrentHashMap.newKeySet();
+        this.metrics = new HospitalMetrics(this::getWards);
+        this.billingService = new BillingService(0, events, metrics.getBillingLatency());
+        this.journal = repository.openJournal(dataDir.resolve("patients.journal"), events);
         initializeWards();
+        long started = System.nanoTime();
         try {
             loadPatients();
+            replayJournal();
             loadWardRates();
         } catch (CSVFileException e) {
-            System.out.println("⚠️  Warning: " + e.getMessage());
+            notice(HospitalEvent.Severity.WARNING, "Warning: " + e.getMessage());
         }
+        loadDiscounts();
+        this.journalWriter = new JournalWriter(journal);
+        this.audit = new AuditLog(dataDir.resolve("audit"), events);
+        audit.reconcile(patients.all(), billingService.getRates(), billingService.getDiscounts());
+        searchIndex.addAll(searchesHistory ? patients.all() : patients.byStatus("admitted"));
+        billingService.rebuildRevenue(patients.byStatus("discharged"));
+        this.occupancyHistory = OccupancyTimeSeries.rebuild(wards.keySet(), patients.all(), Clock.systemDefaultZone());
+        this.versions = new HospitalVersions(patients, wards.values(), this::getBedNumber);
+        metrics.getLoadLatency().recordSince(started);
     }
 
     private void initializeWards() {
-        wards.put("ICU", new Ward("ICU", 5));
-        wards.put("General", new Ward("General", 10));
-        wards.put("Pediatric", new Ward("Pediatric", 8));
-        wards.put("Emergency", new Ward("Emergency", 3));
-        System.out.println("✓ Hospital initialized with 4 wards");
+        applyWardConfig(readWardConfig());
+        loadOverflowRoutes();
+        notice(HospitalEvent.Severity.INFO, "Hospital initialized with " + wards.size() + " wards");
+    }
+
+    /**
+     * Ward=Beds entries of wards.cfg, the built-in four wards if the file is
+     * missing, or null if it could not be read
+     */
+    private Map<String, Integer> readWardConfig() {
+        Map<String, Integer> beds = new LinkedHashMap<>();
+        try {
+            ConfigFile.read(dataDir.resolve("wards.cfg"), events, (ward, value, line) -> {
+                int n = Integer.parseInt(value);
+                if (n < 0) {
+                    throw new NumberFormatException(value);
+                }
+                beds.put(ward, n);
+            });
+        } catch (NoSuchFileException e) {
+            notice(HospitalEvent.Severity.WARNING, "wards.cfg not found, using default wards");
+            beds.put("ICU", 5);
+            beds.put("General", 10);
+            beds.put("Pediatric", 8);
+            beds.put("Emergency", 3);
+        } catch (IOException e) {
+            notice(HospitalEvent.Severity.ERROR, "Error reading wards.cfg: " + e.getMessage());
+            return null;
+        }
+        return beds;
+    }
+
+    /**
+     * Adds new wards and resizes existing ones. Patients already in a bed keep
+     * it; a ward that shrinks below its occupancy (or is removed from the file,
+     * which closes it) just stops admitting until enough patients leave.
+     */
+    private void applyWardConfig(Map<String, Integer> beds) {
+        if (beds == null) {
+            return;
+        }
+        for (Map.Entry<String, Integer> e : beds.entrySet()) {
+            Ward ward = wards.get(e.getKey());
+            if (ward == null) {
+                wards.put(e.getKey(), new Ward(e.getKey(), e.getValue(), events));
+                if (occupancyHistory != null) {
+                    occupancyHistory.addWard(e.getKey());
+                }
+            } else if (ward.getTotalBeds() != e.getValue()) {
+                ward.setTotalBeds(e.getValue());
+                notice(HospitalEvent.Severity.INFO, "Ward " + ward.getName() + " now has "
+                    + e.getValue() + " beds (" + ward.getOccupancy() + " occupied)");
+            }
+        }
+        for (Ward ward : wards.values()) {
+            if (!beds.containsKey(ward.getName()) && ward.getTotalBeds() != 0) {
+                ward.setTotalBeds(0);
+                notice(HospitalEvent.Severity.WARNING, "Ward " + ward.getName()
+                    + " is no longer in wards.cfg and is closed to new admissions");
+            }
+        }
+    }
+
+    /**
+     * overflow.cfg lists, per ward, the wards to try in order when it is full
+     * (e.g. ICU=Emergency). Without the file a full ward just rejects.
+     */
+    private void loadOverflowRoutes() {
+        Map<String, List<String>> routes = new LinkedHashMap<>();
+        try {
+            ConfigFile.read(dataDir.resolve("overflow.cfg"), events, (ward, value, line) -> {
+                List<String> fallbacks = new ArrayList<>();
+                for (String fallback : value.split(",")) {
+                    if (!fallback.trim().isEmpty() && !fallback.trim().equals(ward)) {
+                        fallbacks.add(fallback.trim());
+                    }
+                }
+                routes.put(ward, Collections.unmodifiableList(fallbacks));
+            });
+        } catch (NoSuchFileException e) {
+            // overflow routing is optional
+        } catch (IOException e) {
+            notice(HospitalEvent.Severity.ERROR, "Error reading overflow.cfg: " + e.getMessage());
+            return;
+        }
+        overflowRoutes = Collections.unmodifiableMap(routes);
+    }
+
+    /**
+     * Re-reads wards.cfg, overflow.cfg and rates.cfg and applies them without a restart.
+     * The new rate table is swapped in atomically, so billing in progress
+     * finishes on the old rates and the next run sees all of the new ones.
+     */
+    public synchronized void reloadConfig() {
+        applyWardConfig(readWardConfig());
+        versions.wardsChanged(wards.values());
+        loadOverflowRoutes();
+        try {
+            loadWardRates();
+        } catch (CSVFileException e) {
+            notice(HospitalEvent.Severity.ERROR, e.getMessage());
+            return;
+        }
+        audit.ratesChanged(billingService.getRates());
+        notice(HospitalEvent.Severity.INFO, "Configuration reloaded");
+    }
+
+    /**
+     * Starts reloading the configuration whenever wards.cfg, overflow.cfg or rates.cfg changes
+     */
+    public ConfigReloader watchConfig() throws IOException {
+        ConfigReloader reloader = new ConfigReloader(dataDir, this::reloadConfig, events);
+        reloader.start();
+        return reloader;
+    }
+
+    private void notice(HospitalEvent.Severity severity, String message) {
+        events.publish(new HospitalEvent.Notice(severity, message));
+    }
+
+    public EventSink getEventSink() {
+        return events;
+    }
+
+    public HospitalMetrics getMetrics() {
+        return metrics;
+    }
+
+    public OccupancyTimeSeries getOccupancyHistory() {
+        return occupancyHistory;
+    }
+
+    /**
+     * How long admissions and discharges wait for their journal records
+     * unless a call asks for a mode of its own; SYNC unless changed
+     */
+    public DurabilityMode getDurabilityMode() {
+        return durability;
+    }
+
+    public void setDurabilityMode(DurabilityMode durability) {
+        this.durability = durability;
     }
 
     public void admitPatient(String patientId, String name, int age, String wardName)
-            throws InvalidWardException, NoBedsAvailableException, InvalidPatientDataException {
+            throws InvalidWardException, NoBedsAvailableException, InvalidPatientDataException, CSVFileException {
+        admitPatient(patientId, name, age, wardName, durability);
+    }
+
+    /**
+     * Admits a patient, waiting for the journal record unless {@code mode} is
+     * ASYNC. The returned future completes once the admission is on disk.
+     */
+    public CompletableFuture<Void> admitPatient(String patientId, String name, int age, String wardName,
+                                                DurabilityMode mode)
+            throws InvalidWardException, NoBedsAvailableException, InvalidPatientDataException, CSVFileException {
+        CompletableFuture<Void> durable;
+        try {
+            durable = admit(patientId, name, age, wardName, null, mode);
+        } catch (InvalidWardException | NoBedsAvailableException | InvalidPatientDataException | CSVFileException e) {
+            metrics.admissionRejected(e);
+            throw e;
+        }
+        metrics.admitted();
+        return durable;
+    }
+
+    /**
+     * Admits a patient into the bed held by a reservation. If the reservation
+     * runs out at the very moment the patient arrives, they are admitted like
+     * any other patient to the reservation's ward (or its overflow wards).
+     */
+    public void admitReserved(String reservationId, String patientId, String name, int age)
+            throws ReservationNotFoundException, InvalidWardException, NoBedsAvailableException,
+                   InvalidPatientDataException, CSVFileException {
+        Reservation reservation = reservations.get(reservationId);
+        if (reservation == null || !reservation.isActive()) {
+            throw new ReservationNotFoundException(reservationId);
+        }
+        try {
+            admit(patientId, name, age, reservation.getWard(), reservation, durability);
+        } catch (InvalidWardException | NoBedsAvailableException | InvalidPatientDataException | CSVFileException e) {
+            metrics.admissionRejected(e);
+            throw e;
+        }
+        reservations.remove(reservationId, reservation);
+        metrics.admitted();
+    }
+
+    private CompletableFuture<Void> admit(String patientId, String name, int age, String wardName,
+                                          Reservation reservation, DurabilityMode mode)
+            throws InvalidWardException, NoBedsAvailableException, InvalidPatientDataException, CSVFileException {
         if (!wards.containsKey(wardName)) {
             throw new InvalidWardException(wardName);
         }
-        
-        Patient patient = new Patient(patientId, name, age, wardName, LocalDate.now());
-        Ward ward = wards.get(wardName);
-        ward.addPatient(patient);
-        allPatients.add(patient);
-        System.out.println("✓ Patient " + name + " admitted successfully!");
+        // Reserve the ID first so two terminals admitting the same ID cannot
+        // both take a bed; the reservation is dropped once the patient is indexed.
+        if (!admissionsInFlight.add(patientId)) {
+            throw duplicatePatient(patientId);
+        }
+        if (patients.contains(patientId)) {
+            admissionsInFlight.remove(patientId);
+            throw duplicatePatient(patientId);
+        }
+        Patient patient = null;
+        Reservation claimed = null;
+        CompletableFuture<Void> durable;
+        try {
+            if (reservation != null) {
+                Patient reserved = new Patient(patientId, name, age, reservation.getWard(), LocalDate.now());
+                if (reservation.claim(reserved)) {
+                    patient = reserved;
+                    claimed = reservation;
+                }
+            }
+            if (patient == null) {
+                patient = placePatient(patientId, name, age, wardName);
+            }
+            Ward ward = wards.get(patient.getWard());
+            checkpointLock.readLock().lock();
+            try {
+                durable = journalWriter.admit(patient, mode);
+                try {
+                    awaitDurable(durable, mode, "Admission of " + patientId);
+                } catch (CSVFileException e) {
+                    ward.removePatient(patient);
+                    if (claimed != null) {
+                        // the claim cannot be undone, so drop the reservation
+                        // rather than leave it listed and unusable
+                        reservations.remove(claimed.getId(), claimed);
+                        versions.released(claimed);
+                    }
+                    throw e;
+                }
+                versions.admitted(patient, ward.getBedNumber(patient), claimed);
+                // indexed and audited before a discharge can find the patient,
+                // so its removal is never missed and its events stay in order
+                searchIndex.add(patient);
+                audit.admitted(patient);
+                patients.add(patient);
+            } finally {
+                checkpointLock.readLock().unlock();
+            }
+            occupancyHistory.admitted(patient.getWard());
+        } finally {
+            admissionsInFlight.remove(patientId);
+        }
+        events.publish(new HospitalEvent.PatientAdmitted(patient));
+        return durable;
     }
 
-    public void dischargePatient(String patientId)
-            throws PatientNotFoundException, PatientAlreadyDischargedException {
-        Patient patient = null;
-        for (Patient p : allPatients) {
-            if (p.getId().equals(patientId)) {
-                patient = p;
-                break;
+    /**
+     * Puts a new patient in a bed in {@code wardName}, or in the first of its
+     * overflow wards with room. Throws the requested ward's
+     * NoBedsAvailableException if every one of them is full.
+     */
+    private Patient placePatient(String patientId, String name, int age, String wardName)
+            throws NoBedsAvailableException, InvalidPatientDataException {
+        NoBedsAvailableException full = null;
+        for (Ward ward : route(wardName)) {
+            Patient patient = new Patient(patientId, name, age, ward.getName(), LocalDate.now());
+            try {
+                ward.addPatient(patient);
+            } catch (NoBedsAvailableException e) {
+                if (full == null) {
+                    full = e;
+                }
+                continue;
+            }
+            if (!ward.getName().equals(wardName)) {
+                events.publish(new HospitalEvent.PatientRerouted(patient, wardName));
             }
+            return patient;
         }
-        
+        throw full;
+    }
+
+    /**
+     * The requested ward followed by its overflow wards from overflow.cfg
+     */
+    private List<Ward> route(String wardName) {
+        List<String> fallbacks = overflowRoutes.getOrDefault(wardName, Collections.emptyList());
+        List<Ward> route = new ArrayList<>(1 + fallbacks.size());
+        route.add(wards.get(wardName));
+        for (String fallback : fallbacks) {
+            Ward ward = wards.get(fallback);
+            if (ward != null) {
+                route.add(ward);
+            }
+        }
+        return route;
+    }
+
+    /**
+     * Holds a bed for an incoming patient for {@code hold}, in the requested
+     * ward or, if it is full, in its first overflow ward with room. The bed
+     * is released automatically if nobody is admitted to it in time.
+     */
+    public Reservation reserveBed(String wardName, Duration hold) throws InvalidWardException, NoBedsAvailableException {
+        if (!wards.containsKey(wardName)) {
+            throw new InvalidWardException(wardName);
+        }
+        NoBedsAvailableException full = null;
+        for (Ward ward : route(wardName)) {
+            int bed;
+            try {
+                bed = ward.reserveBed();
+            } catch (NoBedsAvailableException e) {
+                if (full == null) {
+                    full = e;
+                }
+                continue;
+            }
+            Reservation reservation = new Reservation("R" + nextReservation.getAndIncrement(), ward, bed, Instant.now().plus(hold));
+            // published before it can be cancelled or expire, so its release always comes after
+            versions.reserved(reservation);
+            reservations.put(reservation.getId(), reservation);
+            reservation.setExpiry(reservationTimer.schedule(() -> expire(reservation), hold.toMillis(), TimeUnit.MILLISECONDS));
+            events.publish(new HospitalEvent.BedReserved(reservation));
+            return reservation;
+        }
+        throw full;
+    }
+
+    /**
+     * Releases a reserved bed before its hold runs out
+     */
+    public void cancelReservation(String reservationId) throws ReservationNotFoundException {
+        Reservation reservation = reservations.remove(reservationId);
+        if (reservation == null || !reservation.release()) {
+            throw new ReservationNotFoundException(reservationId);
+        }
+        versions.released(reservation);
+        notice(HospitalEvent.Severity.INFO, "Reservation " + reservationId + " cancelled");
+    }
+
+    /**
+     * Bed number of an admitted patient, or 0 once discharged
+     */
+    public int getBedNumber(Patient patient) {
+        Ward ward = wards.get(patient.getWard());
+        return ward == null ? 0 : ward.getBedNumber(patient);
+    }
+
+    public Collection<Reservation> getReservations() {
+        return Collections.unmodifiableCollection(reservations.values());
+    }
+
+    private void expire(Reservation reservation) {
+        if (reservation.release()) {
+            versions.released(reservation);
+            reservations.remove(reservation.getId(), reservation);
+            events.publish(new HospitalEvent.ReservationExpired(reservation));
+        }
+    }
+
+    public void dischargePatient(String patientId)
+            throws PatientNotFoundException, PatientAlreadyDischargedException, CSVFileException {
+        dischargePatient(patientId, durability);
+    }
+
+    /**
+     * Discharges a patient, waiting for the journal record unless {@code mode}
+     * is ASYNC. The returned future completes once the discharge is on disk.
+     */
+    public CompletableFuture<Void> dischargePatient(String patientId, DurabilityMode mode)
+            throws PatientNotFoundException, PatientAlreadyDischargedException, CSVFileException {
+        Patient patient = patients.get(patientId);
         if (patient == null) {
             throw new PatientNotFoundException(patientId);
         }
-        
-        patient.discharge(LocalDate.now());
-        Ward ward = wards.get(patient.getWard());
-        ward.removePatient(patient);
-        System.out.println("✓ Patient discharged successfully!");
+        claimDischarge(patient);
+        LocalDate today = LocalDate.now();
+        CompletableFuture<Void> durable;
+        checkpointLock.readLock().lock();
+        try {
+            durable = journalWriter.discharge(patient, today, mode);
+            try {
+                awaitDurable(durable, mode, "Discharge of " + patientId);
+            } catch (CSVFileException e) {
+                dischargesInFlight.remove(patient.getId());
+                throw e;
+            }
+            markDischarged(patient, today);
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+        versions.discharged(Collections.singletonList(patient));
+        audit.discharged(patient, today);
+        wards.get(patient.getWard()).removePatient(patient);
+        dischargeCompleted(patient);
+        return durable;
     }
 
-    private void loadPatients() throws CSVFileException {
-        try (BufferedReader br = new BufferedReader(new FileReader("src/patients.csv"))) {
-            String line;
-            int lineNumber = 0;
-            
-            String header = br.readLine();
-            if (header == null) {
-                System.out.println("⚠️  patients.csv is empty, starting with no patients");
-                return;
-            }
-            
-            lineNumber++;
-            while ((line = br.readLine()) != null) {
-                lineNumber++;
-                try {
-                    String[] parts = line.split(",");
-                    if (parts.length < 6) {
-                        System.out.println("⚠️  Line " + lineNumber + ": Invalid format, skipping");
-                        continue;
-                    }
-                    
-                    String id = parts[0].trim();
-                    String name = parts[1].trim();
-                    int age = Integer.parseInt(parts[2].trim());
-                    String ward = parts[3].trim();
-                    LocalDate admitDate = LocalDate.parse(parts[4].trim());
-                    String status = parts[5].trim();
-                    
-                    if (!wards.containsKey(ward)) {
-                        throw new InvalidWardException("Ward '" + ward + "' not found", ward);
+    /**
+     * Waits for a journal write unless {@code mode} is ASYNC, in which case a
+     * failed write can no longer undo the operation and is reported instead
+     */
+    private void awaitDurable(CompletableFuture<Void> durable, DurabilityMode mode, String operation)
+            throws CSVFileException {
+        if (mode != DurabilityMode.ASYNC) {
+            JournalWriter.await(durable);
+            return;
+        }
+        durable.whenComplete((done, e) -> {
+            if (e != null) {
+                notice(HospitalEvent.Severity.ERROR,
+                    operation + " was not saved to the journal and is lost on restart: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Admits a whole list of patients, e.g. a mass-casualty intake. Requests
+     * are grouped by ward and each ward's beds are allocated under one lock
+     * acquisition (overflow wards included), and all admissions are journaled
+     * with one write and one fsync. Each request succeeds or fails on its own.
+     */
+    public BatchResult admitBatch(List<AdmissionRequest> batch) {
+        Patient[] admitted = new Patient[batch.size()];
+        Exception[] errors = new Exception[batch.size()];
+        List<String> claimed = new ArrayList<>(batch.size());
+        try {
+            Map<String, List<Integer>> byWard = new LinkedHashMap<>();
+            for (int i = 0; i < batch.size(); i++) {
+                AdmissionRequest request = batch.get(i);
+                if (!wards.containsKey(request.getWard())) {
+                    errors[i] = new InvalidWardException(request.getWard());
+                } else if (!admissionsInFlight.add(request.getId())) {
+                    errors[i] = duplicatePatient(request.getId());
+                } else {
+                    claimed.add(request.getId());
+                    if (patients.contains(request.getId())) {
+                        errors[i] = duplicatePatient(request.getId());
+                    } else {
+                        byWard.computeIfAbsent(request.getWard(), k -> new ArrayList<>()).add(i);
                     }
-                    
-                    Patient patient = new Patient(id, name, age, ward, admitDate);
-                    
-                    if ("discharged".equalsIgnoreCase(status)) {
-                        patient.discharge(LocalDate.now());
+                }
+            }
+            for (Map.Entry<String, List<Integer>> e : byWard.entrySet()) {
+                placeBatch(batch, e.getKey(), e.getValue(), admitted, errors);
+            }
+
+            List<Patient> placed = new ArrayList<>(batch.size());
+            for (Patient p : admitted) {
+                if (p != null) {
+                    placed.add(p);
+                }
+            }
+            checkpointLock.readLock().lock();
+            try {
+                try {
+                    awaitDurable(journalWriter.admits(placed, durability), durability,
+                        "Admission of " + placed.size() + " patients");
+                } catch (CSVFileException e) {
+                    for (List<Patient> inWard : groupByWard(placed).values()) {
+                        wards.get(inWard.get(0).getWard()).removePatients(inWard);
                     }
-                    
-                    allPatients.add(patient);
-                    
-                    if ("admitted".equalsIgnoreCase(status)) {
-                        wards.get(ward).addPatient(patient);
+                    for (int i = 0; i < admitted.length; i++) {
+                        if (admitted[i] != null) {
+                            admitted[i] = null;
+                            errors[i] = e;
+                        }
                     }
-                    
-                    System.out.println("✓ Loaded: " + name + " (" + id + ") - " + ward);
-                } catch (InvalidWardException e) {
-                    System.out.println("⚠️  Line " + lineNumber + ": " + e.getMessage());
+                    placed.clear();
+                }
+                versions.admitted(placed, this::getBedNumber, Collections.emptyList());
+                audit.admitted(placed);
+                for (Patient p : placed) {
+                    searchIndex.add(p);
+                    patients.add(p);
+                }
+            } finally {
+                checkpointLock.readLock().unlock();
+            }
+            for (Patient p : placed) {
+                occupancyHistory.admitted(p.getWard());
+            }
+        } finally {
+            admissionsInFlight.removeAll(claimed);
+        }
+
+        List<BatchResult.Item> items = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (admitted[i] != null) {
+                metrics.admitted();
+                events.publish(new HospitalEvent.PatientAdmitted(admitted[i]));
+            } else {
+                metrics.admissionRejected(errors[i]);
+            }
+            items.add(new BatchResult.Item(batch.get(i).getId(), admitted[i], errors[i]));
+        }
+        return new BatchResult(items);
+    }
+
+    /**
+     * Seats the requests at {@code indices} (all asking for {@code wardName})
+     * in that ward and then its overflow wards, one lock acquisition each
+     */
+    private void placeBatch(List<AdmissionRequest> batch, String wardName, List<Integer> indices,
+                            Patient[] admitted, Exception[] errors) {
+        LocalDate today = LocalDate.now();
+        List<Integer> waiting = indices;
+        NoBedsAvailableException full = null;
+        for (Ward ward : route(wardName)) {
+            if (waiting.isEmpty()) {
+                break;
+            }
+            List<Patient> candidates = new ArrayList<>(waiting.size());
+            List<Integer> valid = new ArrayList<>(waiting.size());
+            for (int i : waiting) {
+                AdmissionRequest request = batch.get(i);
+                try {
+                    candidates.add(new Patient(request.getId(), request.getName(), request.getAge(), ward.getName(), today));
+                    valid.add(i);
                 } catch (InvalidPatientDataException e) {
-                    System.out.println("⚠️  Line " + lineNumber + ": Invalid data - " + e.getMessage());
-                } catch (NumberFormatException e) {
-                    System.out.println("⚠️  Line " + lineNumber + ": Invalid age format, skipping");
-                } catch (Exception e) {
-                    System.out.println("⚠️  Line " + lineNumber + ": Error - " + e.getMessage());
+                    errors[i] = e;
                 }
             }
-            
-            System.out.println("✓ Total patients loaded: " + allPatients.size());
-        } catch (FileNotFoundException e) {
-            System.out.println("⚠️  patients.csv not found, starting with empty system");
-        } catch (IOException e) {
-            throw new CSVFileException("Failed to read patients.csv", "patients.csv");
+            int seated = ward.addPatients(candidates);
+            for (int k = 0; k < seated; k++) {
+                admitted[valid.get(k)] = candidates.get(k);
+                if (!ward.getName().equals(wardName)) {
+                    events.publish(new HospitalEvent.PatientRerouted(candidates.get(k), wardName));
+                }
+            }
+            if (seated < candidates.size() && full == null) {
+                full = new NoBedsAvailableException(ward.getName(), ward.getTotalBeds(),
+                    ward.getOccupancy() + ward.getReservedBeds());
+            }
+            waiting = valid.subList(seated, valid.size());
+        }
+        for (int i : waiting) {
+            errors[i] = full;
         }
     }
 
-    private void loadWardRates() throws CSVFileException {
-        try (BufferedReader br = new BufferedReader(new FileReader("src/rates.cfg"))) {
-            String line;
-            int lineNumber = 0;
-            
-            while ((line = br.readLine()) != null) {
-                lineNumber++;
-                line = line.trim();
-                
-                if (line.isEmpty() || line.startsWith("#")) {
-                    continue;
+    /**
+     * Discharges a whole list of patients: all discharges are journaled with
+     * one write and one fsync, and each ward's beds are freed under one lock
+     * acquisition. Each request succeeds or fails on its own.
+     */
+    public BatchResult dischargeBatch(List<String> patientIds) {
+        Patient[] discharged = new Patient[patientIds.size()];
+        Exception[] errors = new Exception[patientIds.size()];
+        List<Patient> claimed = new ArrayList<>(patientIds.size());
+        for (int i = 0; i < patientIds.size(); i++) {
+            Patient patient = patients.get(patientIds.get(i));
+            if (patient == null) {
+                errors[i] = new PatientNotFoundException(patientIds.get(i));
+                continue;
+            }
+            try {
+                claimDischarge(patient);
+                claimed.add(patient);
+                discharged[i] = patient;
+            } catch (PatientAlreadyDischargedException e) {
+                errors[i] = e;
+            }
+        }
+
+        LocalDate today = LocalDate.now();
+        checkpointLock.readLock().lock();
+        try {
+            try {
+                awaitDurable(journalWriter.discharges(claimed, today, durability), durability,
+                    "Discharge of " + claimed.size() + " patients");
+            } catch (CSVFileException e) {
+                for (int i = 0; i < discharged.length; i++) {
+                    if (discharged[i] != null) {
+                        dischargesInFlight.remove(discharged[i].getId());
+                        discharged[i] = null;
+                        errors[i] = e;
+                    }
+                }
+                claimed.clear();
+            }
+            for (Patient patient : claimed) {
+                markDischarged(patient, today);
+            }
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+        versions.discharged(claimed);
+        audit.discharged(claimed, today);
+        for (List<Patient> inWard : groupByWard(claimed).values()) {
+            wards.get(inWard.get(0).getWard()).removePatients(inWard);
+        }
+
+        List<BatchResult.Item> items = new ArrayList<>(patientIds.size());
+        for (int i = 0; i < patientIds.size(); i++) {
+            if (discharged[i] != null) {
+                dischargeCompleted(discharged[i]);
+            }
+            items.add(new BatchResult.Item(patientIds.get(i), discharged[i], errors[i]));
+        }
+        return new BatchResult(items);
+    }
+
+    /**
+     * Makes this thread the only one discharging the patient
+     */
+    private void claimDischarge(Patient patient) throws PatientAlreadyDischargedException {
+        if ("discharged".equalsIgnoreCase(patient.getStatus()) || !dischargesInFlight.add(patient.getId())) {
+            throw new PatientAlreadyDischargedException(patient.getId(), patient.getName());
+        }
+        if ("discharged".equalsIgnoreCase(patient.getStatus())) {
+            dischargesInFlight.remove(patient.getId());
+            throw new PatientAlreadyDischargedException(patient.getId(), patient.getName());
+        }
+    }
+
+    /**
+     * Records a claimed, journaled discharge in the patient and the store
+     */
+    private void markDischarged(Patient patient, LocalDate date) {
+        try {
+            String oldStatus = patient.getStatus();
+            patient.discharge(date);
+            patients.statusChanged(patient, oldStatus);
+        } catch (PatientAlreadyDischargedException e) {
+            // cannot happen: the claim excludes other discharges
+        } finally {
+            dischargesInFlight.remove(patient.getId());
+        }
+    }
+
+    private void dischargeCompleted(Patient patient) {
+        if (!searchesHistory) {
+            searchIndex.remove(patient.getId());
+        }
+        occupancyHistory.discharged(patient.getWard());
+        billingService.billDischarged(patient);
+        metrics.discharged();
+        events.publish(new HospitalEvent.PatientDischarged(patient));
+    }
+
+    private static Map<String, List<Patient>> groupByWard(List<Patient> batch) {
+        Map<String, List<Patient>> byWard = new LinkedHashMap<>();
+        for (Patient p : batch) {
+            byWard.computeIfAbsent(p.getWard(), k -> new ArrayList<>()).add(p);
+        }
+        return byWard;
+    }
+
+    private static InvalidPatientDataException duplicatePatient(String patientId) {
+        return new InvalidPatientDataException(
+            "❌ DUPLICATE PATIENT: Patient ID '" + patientId + "' already exists in the system.",
+            "PatientID", patientId);
+    }
+
+    private void loadPatients() throws CSVFileException {
+        long started = System.nanoTime();
+        PatientCsvLoader.Result result;
+        try {
+            result = repository.load(wards.keySet());
+        } catch (NoSuchFileException e) {
+            notice(HospitalEvent.Severity.WARNING, "patients.csv not found, starting with empty system");
+            return;
+        } catch (IOException e) {
+            throw new CSVFileException("Failed to read " + repository.getSource() + ": " + e.getMessage(), repository.getSource());
+        }
+        if (result == null) {
+            notice(HospitalEvent.Severity.WARNING, "patients.csv is empty, starting with no patients");
+            return;
+        }
+        String source = repository.getSource();
+
+        // Patients the repository's store already holds only need their beds back
+        for (Patient patient : patients.byStatus("admitted")) {
+            Ward ward = wards.get(patient.getWard());
+            try {
+                if (ward == null) {
+                    throw new InvalidWardException(patient.getWard());
                 }
-                
+                ward.addPatient(patient);
+            } catch (InvalidWardException | NoBedsAvailableException e) {
+                notice(HospitalEvent.Severity.WARNING, "Patient " + patient.getId() + " has no bed: " + e.getMessage());
+            }
+        }
+
+        // Bed assignment stays sequential and in file order so Ward capacity
+        // checks behave exactly as if the rows were admitted one by one.
+        List<Patient> parsed = result.getPatients();
+        for (int i = 0; i < parsed.size(); i++) {
+            Patient patient = parsed.get(i);
+            if (!wards.containsKey(patient.getWard())) {
+                result.addError(result.getLineNumber(i), "Ward '" + patient.getWard() + "' not found");
+                continue;
+            }
+            if (!patients.add(patient)) {
+                result.addError(result.getLineNumber(i), "Duplicate patient ID '" + patient.getId() + "', skipping");
+                continue;
+            }
+            if ("admitted".equalsIgnoreCase(patient.getStatus())) {
                 try {
-                    String[] parts = line.split("=");
-                    if (parts.length != 2) {
-                        System.out.println("⚠️  Line " + lineNumber + ": Invalid format, skipping");
-                        continue;
-                    }
-                    
-                    String wardName = parts[0].trim();
-                    double rate = Double.parseDouble(parts[1].trim());
-                    billingService.setWardRate(wardName, rate);
-                    System.out.println("✓ Loaded rate: " + wardName + " = " + rate);
-                } catch (NumberFormatException e) {
-                    System.out.println("⚠️  Line " + lineNumber + ": Invalid rate format");
+                    wards.get(patient.getWard()).addPatient(patient);
+                } catch (NoBedsAvailableException e) {
+                    result.addError(result.getLineNumber(i), "Error - " + e.getMessage());
+                }
+            }
+        }
+
+        if (result.getErrorCount() > 0) {
+            events.publish(new HospitalEvent.ParseWarning(source, 0, result.summary()));
+        }
+        events.publish(new HospitalEvent.PatientsLoaded(
+            patients.size(), (System.nanoTime() - started) / 1_000_000, source));
+    }
+
+    /**
+     * Re-applies admissions and discharges journaled since the last snapshot
+     */
+    private void replayJournal() throws CSVFileException {
+        int replayed = journal.recover(new PatientJournal.Handler() {
+            public void onAdmit(String id, String name, int age, String wardName, String admitDate)
+                    throws Exception {
+                if (patients.contains(id)) {
+                    return;
+                }
+                if (!wards.containsKey(wardName)) {
+                    throw new InvalidWardException("Ward '" + wardName + "' not found", wardName);
+                }
+                Patient patient = new Patient(id, name, age, wardName, LocalDate.parse(admitDate));
+                wards.get(wardName).addPatient(patient);
+                patients.add(patient);
+            }
+
+            public void onDischarge(String id, String dischargeDate) throws Exception {
+                Patient patient = patients.get(id);
+                if (patient == null || "discharged".equalsIgnoreCase(patient.getStatus())) {
+                    return;
                 }
+                String oldStatus = patient.getStatus();
+                patient.discharge(LocalDate.parse(dischargeDate));
+                patients.statusChanged(patient, oldStatus);
+                wards.get(patient.getWard()).removePatient(patient);
             }
-        } catch (FileNotFoundException e) {
-            System.out.println("⚠️  rates.cfg not found, using default rates");
+        });
+        if (replayed > 0) {
+            notice(HospitalEvent.Severity.INFO, "Replayed " + replayed + " journal records");
+        }
+    }
+
+    private void loadWardRates() throws CSVFileException {
+        try {
+            billingService.setRates(RateTable.load(dataDir.resolve("rates.cfg"), RateTable.defaults(), events));
+        } catch (NoSuchFileException e) {
+            notice(HospitalEvent.Severity.WARNING, "rates.cfg not found, using default rates");
         } catch (IOException e) {
             throw new CSVFileException("Failed to read rates.cfg", "rates.cfg");
         }
     }
 
+    /**
+     * Saves all patients through the repository (patients.csv, or the
+     * changed pages of patients.db) and truncates the journal. Admissions
+     * and discharges are already durable through the journal, so this is
+     * only needed as a checkpoint, e.g. on exit. Waits for operations whose
+     * records are journaled but not yet in the store, and holds up new ones
+     * until it is done.
+     */
     public void savePatients() {
-        try (FileWriter fw = new FileWriter("src/patients.csv")) {
-            fw.write("PatientID,Name,Age,Ward,AdmitDate,Status\n");
-            for (Patient p : allPatients) {
-                fw.write(String.format("%s,%s,%d,%s,%s,%s\n",
-                    p.getId(), p.getName(), p.getAge(), p.getWard(), p.getAdmitDate(), p.getStatus()));
-            }
-            System.out.println("✓ Patients saved to CSV");
+        long started = System.nanoTime();
+        checkpointLock.writeLock().lock();
+        try {
+            String file = repository.checkpoint(journal);
+            events.publish(new HospitalEvent.FileSaved(file, "Patients saved to " + file));
+        } catch (IOException e) {
+            notice(HospitalEvent.Severity.ERROR, "Error saving patients: " + e.getMessage());
+            return;
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+        metrics.getSaveLatency().recordSince(started);
+    }
+
+    /**
+     * Shuts the hospital down once no more operations are coming: writes the
+     * journal records still queued (GROUP and ASYNC operations), seals the
+     * audit segment and closes the journal, the store's files and the
+     * reservation timer. Call savePatients first to checkpoint; the
+     * hospital cannot be used afterwards.
+     */
+    public void close() {
+        reservationTimer.close();
+        journalWriter.close();
+        audit.close();
+        journal.close();
+        try {
+            repository.close();
         } catch (IOException e) {
-            System.out.println("❌ Error saving patients: " + e.getMessage());
+            notice(HospitalEvent.Severity.ERROR, "Error closing " + repository.getSource() + ": " + e.getMessage());
         }
     }
 
+    /**
+     * Writes the current rates (including any loaded or changed at runtime) to rates.cfg
+     */
     public void saveWardRates() {
-        try (FileWriter fw = new FileWriter("src/rates.cfg")) {
-            fw.write("# Hospital Ward Rates Configuration\n");
-            fw.write("ICU=5000\n");
-            fw.write("General=2000\n");
-            fw.write("Pediatric=2500\n");
-            fw.write("Emergency=8000\n");
-            System.out.println("✓ Ward rates saved");
+        try {
+            billingService.getRates().write(dataDir.resolve("rates.cfg"));
+            events.publish(new HospitalEvent.FileSaved("rates.cfg", "Ward rates saved"));
         } catch (IOException e) {
-            System.out.println("❌ Error saving rates: " + e.getMessage());
+            notice(HospitalEvent.Severity.ERROR, "Error saving rates: " + e.getMessage());
         }
     }
 
+    /**
+     * The hospital as of now; reading it takes no lock and later changes do not show in it
+     */
+    public HospitalSnapshot snapshot() {
+        return versions.current();
+    }
+
     public void listPatients() {
-        if (allPatients.isEmpty()) {
+        HospitalSnapshot snapshot = snapshot();
+        if (snapshot.getPatientCount() == 0) {
             System.out.println("❌ No patients in the system");
             return;
         }
         
         System.out.println("\n📋 ALL PATIENTS:");
-        for (Patient p : allPatients) {
+        for (Patient p : snapshot.getAllPatients()) {
             p.displayInfo();
         }
     }
 
     public void showOccupancy() {
         System.out.println("\n🏥 WARD OCCUPANCY:");
-        for (Ward ward : wards.values()) {
+        for (HospitalSnapshot.WardSnapshot ward : snapshot().getWards()) {
             ward.displayStatus();
         }
     }
 
     public void showWardAllocations() {
+        HospitalSnapshot snapshot = snapshot();
         System.out.println("\n🛏️  WARD ALLOCATIONS:");
-        for (Ward ward : wards.values()) {
+        for (HospitalSnapshot.WardSnapshot ward : snapshot.getWards()) {
             System.out.println("\n" + ward.getName() + " Ward:");
-            List<Patient> patients = ward.getPatients();
-            if (patients.isEmpty()) {
+            List<Patient> wardPatients = ward.getPatients();
+            boolean empty = wardPatients.isEmpty();
+            for (Patient p : wardPatients) {
+                System.out.println("  - Bed " + snapshot.getBedNumber(p) + ": " + p.getName() + " (ID: " + p.getId() + ")");
+            }
+            for (Reservation r : snapshot.getReservations(ward.getName())) {
+                System.out.println("  - Bed " + r.getBedNumber() + ": reserved (" + r.getId() + ", until " + r.getExpiresAt() + ")");
+                empty = false;
+            }
+            if (empty) {
                 System.out.println("  (No patients)");
-            } else {
-                for (Patient p : patients) {
-                    System.out.println("  - " + p.getName() + " (ID: " + p.getId() + ")");
-                }
             }
         }
     }
 
+    /**
+     * Sets the discount for patients discharged from today on and records it
+     * in discounts.cfg; bills of earlier discharges are not repriced
+     */
     public void applyDiscount(double percentage) {
         billingService.applyDiscount(percentage);
+        audit.discountsChanged(billingService.getDiscounts());
+        try {
+            billingService.getDiscounts().write(dataDir.resolve("discounts.cfg"));
+        } catch (IOException e) {
+            notice(HospitalEvent.Severity.ERROR, "Error saving discounts: " + e.getMessage());
+        }
+    }
+
+    private void loadDiscounts() {
+        try {
+            billingService.setDiscounts(DiscountSchedule.load(dataDir.resolve("discounts.cfg"), events));
+        } catch (NoSuchFileException e) {
+            // no discount has ever been applied
+        } catch (IOException e) {
+            notice(HospitalEvent.Severity.WARNING, "Could not read discounts.cfg, no discount applied: " + e.getMessage());
+        }
     }
 
     public void calculateBilling() {
-        billingService.generateBillingReport(allPatients);
+        billingService.generateBillingReport(snapshot().getDischargedPatients());
     }
 
     public void calculateBillingForPatient(String patientId) {
-        for (Patient p : allPatients) {
-            if (p.getId().equals(patientId)) {
-                billingService.calculatePatientBill(p);
-                return;
+        Patient p = patients.get(patientId);
+        if (p == null) {
+            System.out.println("❌ Patient not found!");
+            return;
+        }
+        billingService.calculatePatientBill(p);
+    }
+
+    public Patient findPatient(String patientId) {
+        return patients.get(patientId);
+    }
+
+    /**
+     * Up to {@code limit} patients whose ID starts with {@code query} or whose
+     * name matches it (word prefixes, then misspellings), best first. With a
+     * PagedPatientStore only admitted patients are searched.
+     */
+    public List<Patient> searchPatients(String query, int limit) {
+        List<Patient> found = new ArrayList<>();
+        for (PatientSearchIndex.Match match : searchIndex.search(query, limit)) {
+            Patient p = patients.get(match.getPatientId());
+            if (p != null) {
+                found.add(p);
             }
         }
-        System.out.println("❌ Patient not found!");
+        return found;
+    }
+
+    public PatientSearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    public Collection<Patient> getAllPatients() {
+        return patients.all();
+    }
+
+    public Collection<Patient> getPatientsByStatus(String status) {
+        return patients.byStatus(status);
+    }
+
+    public Collection<Patient> getAdmittedPatients() {
+        return patients.byStatus("admitted");
+    }
+
+    public Collection<Patient> getDischargedPatients() {
+        return patients.byStatus("discharged");
+    }
+
+    public Collection<Patient> getPatientsInWard(String wardName) {
+        return patients.byWard(wardName);
+    }
+
+    public Collection<Ward> getWards() {
+        return Collections.unmodifiableCollection(wards.values());
+    }
+
+    /**
+     * Bed-demand simulator over the last year of admissions, the current
+     * beds and overflow routes, starting from the patients in beds now
+     */
+    public BedDemandSimulator newBedDemandSimulator() {
+        Map<String, Integer> beds = new TreeMap<>();
+        for (Ward ward : wards.values()) {
+            beds.put(ward.getName(), ward.getTotalBeds());
+        }
+        return BedDemandSimulator.fromHistory(patients.all(), beds, overflowRoutes,
+            LocalDate.now(), BedDemandSimulator.DEFAULT_HISTORY_DAYS);
+    }
+
+    /**
+     * New group-by query over all patients; stays of patients still admitted run to today
+     */
+    public PatientQuery query() {
+        return new PatientQuery(patients, LocalDate.now());
+    }
+
+    /**
+     * History of admissions, discharges, rates and discounts, for rebuilding past states
+     */
+    public AuditLog getAuditLog() {
+        return audit;
+    }
+
+    public PatientRepository getRepository() {
+        return repository;
+    }
+
+    public PatientJournal getJournal() {
+        return journal;
+    }
+
+    public JournalWriter getJournalWriter() {
+        return journalWriter;
+    }
+
+    public BillingService getBillingService() {
+        return billingService;
     }
 
     public void saveBillingReport() {
-        try (FileWriter fw = new FileWriter("src/billing_report.txt")) {
-            fw.write("HOSPITAL BILLING REPORT\n");
-            fw.write("=".repeat(50) + "\n\n");
-            for (Patient p : allPatients) {
-                fw.write(String.format("Patient: %s (ID: %s)\n", p.getName(), p.getId()));
-                fw.write(String.format("Ward: %s | Days: %d\n", p.getWard(), p.getDaysAdmitted()));
-                fw.write(String.format("Status: %s\n\n", p.getStatus()));
-            }
-            System.out.println("✓ Billing report saved to billing_report.txt");
+        saveBillingReport(BillingReportWriter.Format.TEXT);
+    }
+
+    /**
+     * Streams bills for all discharged patients to src/billing_report.(txt|csv|jsonl)
+     */
+    public void saveBillingReport(BillingReportWriter.Format format) {
+        String fileName = "billing_report." + format.getExtension();
+        long started = System.nanoTime();
+        try {
+            BillingReportWriter.Stats stats = new BillingReportWriter(billingService.newEngine(), format)
+                .write(snapshot().getDischargedPatients(), dataDir.resolve(fileName));
+            events.publish(new HospitalEvent.FileSaved(fileName, String.format("Billing report saved to %s (%d bills, %.0f rows/s)",
+                fileName, stats.getRows(), stats.getRowsPerSecond())));
+            metrics.getBillingLatency().recordSince(started);
         } catch (IOException e) {
-            System.out.println("❌ Error saving billing report: " + e.getMessage());
+            notice(HospitalEvent.Severity.ERROR, "Error saving billing report: " + e.getMessage());
         }
     }
 }
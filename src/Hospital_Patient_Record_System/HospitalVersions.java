@@ -0,0 +1,223 @@
+package Hospital_Patient_Record_System;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Publishes a new HospitalSnapshot for every change the hospital makes.
+ *
+ * A change builds the next version from the current one and installs it by
+ * compare-and-set, retrying if another writer got there first, so writers
+ * only ever contend with each other and never wait for a reader.
+ *
+ * Admissions are published before the patient is added to the PatientStore,
+ * so any patient a reader finds in the store is either tracked by the
+ * versions or was already discharged at startup.
+ *
+ * Discharged patients are tracked only until no snapshot handed out could
+ * still need them: once every reachable snapshot is at or after the version
+ * that admitted them, they are dropped and read from the store like those
+ * discharged at startup. Handed-out snapshots are remembered by weak
+ * reference, so the oldest one a reader still holds sets the cutoff.
+ */
+final class HospitalVersions {
+    /** Tracked discharges kept before the first pruning */
+    static final int PRUNE_AT = 1024;
+
+    private final PatientStore store;
+    private final AtomicReference<HospitalSnapshot> current;
+    // Snapshots returned by current(), by version, until they are collected
+    private final ConcurrentSkipListMap<Long, WeakReference<HospitalSnapshot>> handedOut = new ConcurrentSkipListMap<>();
+    // Oldest version a pruning may drop patients for; readers below it retry
+    private volatile long pruneFloor;
+    private volatile int pruneAt = PRUNE_AT;
+
+    /**
+     * Starts from the patients and wards as loaded
+     *
+     * @param bedOf bed number of an admitted patient, 0 if they have none
+     */
+    HospitalVersions(PatientStore store, Collection<Ward> wards, ToIntFunction<Patient> bedOf) {
+        this.store = store;
+        PersistentMap<String, HospitalSnapshot.Occupant> admitted = PersistentMap.empty();
+        for (Patient p : store.byStatus("admitted")) {
+            admitted = admitted.put(p.getId(), new HospitalSnapshot.Occupant(HospitalSnapshot.freeze(p), bedOf.applyAsInt(p), 0));
+        }
+        this.current = new AtomicReference<>(new HospitalSnapshot(this, 0, wardBeds(wards), admitted,
+            PersistentMap.empty(), PersistentMap.empty(), store.size() - admitted.size()));
+    }
+
+    /**
+     * The latest snapshot, remembered until the caller lets go of it so that
+     * no pruning drops a patient it still reads from its own maps
+     */
+    HospitalSnapshot current() {
+        while (true) {
+            HospitalSnapshot latest = current.get();
+            handedOut.computeIfAbsent(latest.getVersion(), v -> new WeakReference<>(latest));
+            // a pruning that started before the snapshot was remembered may not have seen it
+            if (latest.getVersion() >= pruneFloor) {
+                return latest;
+            }
+        }
+    }
+
+    PatientStore getStore() {
+        return store;
+    }
+
+    /**
+     * Whether {@code patientId} was admitted at startup or since, i.e. is not
+     * a patient who was already discharged at startup
+     */
+    boolean isTracked(String patientId) {
+        HospitalSnapshot latest = current.get();
+        return latest.admitted().containsKey(patientId) || latest.discharged().containsKey(patientId);
+    }
+
+    /**
+     * Patients placed in beds, before they are added to the store
+     *
+     * @param claimed reservations whose beds these patients took
+     */
+    void admitted(List<Patient> batch, ToIntFunction<Patient> bedOf, Collection<Reservation> claimed) {
+        if (batch.isEmpty() && claimed.isEmpty()) {
+            return;
+        }
+        Patient[] frozen = new Patient[batch.size()];
+        int[] beds = new int[frozen.length];
+        for (int i = 0; i < frozen.length; i++) {
+            Patient p = batch.get(i);
+            frozen[i] = HospitalSnapshot.freeze(p);
+            beds[i] = bedOf.applyAsInt(p);
+        }
+        update(s -> {
+            PersistentMap<String, HospitalSnapshot.Occupant> admitted = s.admitted();
+            for (int i = 0; i < frozen.length; i++) {
+                admitted = admitted.put(frozen[i].getId(), new HospitalSnapshot.Occupant(frozen[i], beds[i], s.getVersion() + 1));
+            }
+            return s.withAdmitted(admitted, s.discharged(), without(s.reservations(), claimed));
+        });
+    }
+
+    void admitted(Patient patient, int bed, Reservation claimed) {
+        admitted(Collections.singletonList(patient), p -> bed,
+            claimed == null ? Collections.emptyList() : Collections.singletonList(claimed));
+    }
+
+    /**
+     * Patients whose discharge has been recorded in the store
+     */
+    void discharged(List<Patient> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Patient[] frozen = new Patient[batch.size()];
+        for (int i = 0; i < frozen.length; i++) {
+            frozen[i] = HospitalSnapshot.freeze(batch.get(i));
+        }
+        update(s -> {
+            PersistentMap<String, HospitalSnapshot.Occupant> admitted = s.admitted();
+            PersistentMap<String, HospitalSnapshot.Occupant> discharged = s.discharged();
+            for (Patient p : frozen) {
+                HospitalSnapshot.Occupant o = admitted.get(p.getId());
+                admitted = admitted.remove(p.getId());
+                discharged = discharged.put(p.getId(), new HospitalSnapshot.Occupant(p, 0, o == null ? 0 : o.since));
+            }
+            return s.withAdmitted(admitted, discharged, s.reservations());
+        });
+        if (current.get().discharged().size() >= pruneAt) {
+            prune();
+        }
+    }
+
+    /**
+     * Drops the discharged patients that every snapshot still reachable
+     * already knows were admitted; they are read from the store from now on
+     */
+    private synchronized void prune() {
+        long floor = oldestHandedOut();
+        pruneFloor = floor;
+        // readers that remembered a snapshot before seeing the floor are covered here
+        long cutoff = Math.min(floor, oldestHandedOut());
+        update(s -> {
+            PersistentMap<String, HospitalSnapshot.Occupant> discharged = s.discharged();
+            int dropped = 0;
+            for (HospitalSnapshot.Occupant o : s.discharged().values()) {
+                if (o.since <= cutoff) {
+                    discharged = discharged.remove(o.patient.getId());
+                    dropped++;
+                }
+            }
+            return dropped == 0 ? s : s.withPruned(discharged, dropped);
+        });
+        pruneAt = Math.max(PRUNE_AT, 2 * current.get().discharged().size());
+    }
+
+    /**
+     * Version of the oldest snapshot a reader may still hold, or the latest
+     * version if none is
+     */
+    private long oldestHandedOut() {
+        long latest = current.get().getVersion();
+        for (Map.Entry<Long, WeakReference<HospitalSnapshot>> e : handedOut.entrySet()) {
+            if (e.getValue().get() != null) {
+                return Math.min(e.getKey(), latest);
+            }
+            handedOut.remove(e.getKey(), e.getValue());
+        }
+        return latest;
+    }
+
+    void reserved(Reservation reservation) {
+        update(s -> s.withAdmitted(s.admitted(), s.discharged(), s.reservations().put(reservation.getId(), reservation)));
+    }
+
+    /**
+     * A reservation cancelled, expired, or claimed by an admission that then failed
+     */
+    void released(Reservation reservation) {
+        update(s -> s.reservations().containsKey(reservation.getId())
+            ? s.withAdmitted(s.admitted(), s.discharged(), s.reservations().remove(reservation.getId()))
+            : s);
+    }
+
+    void wardsChanged(Collection<Ward> wards) {
+        Map<String, Integer> beds = wardBeds(wards);
+        update(s -> s.wardBeds().equals(beds) ? s : s.withWards(beds));
+    }
+
+    private void update(UnaryOperator<HospitalSnapshot> change) {
+        while (true) {
+            HospitalSnapshot from = current.get();
+            HospitalSnapshot to = change.apply(from);
+            if (to == from || current.compareAndSet(from, to)) {
+                return;
+            }
+        }
+    }
+
+    private static PersistentMap<String, Reservation> without(PersistentMap<String, Reservation> reservations,
+                                                              Collection<Reservation> claimed) {
+        for (Reservation r : claimed) {
+            reservations = reservations.remove(r.getId());
+        }
+        return reservations;
+    }
+
+    private static Map<String, Integer> wardBeds(Collection<Ward> wards) {
+        Map<String, Integer> beds = new LinkedHashMap<>();
+        for (Ward ward : wards) {
+            beds.put(ward.getName(), ward.getTotalBeds());
+        }
+        return Collections.unmodifiableMap(beds);
+    }
+}
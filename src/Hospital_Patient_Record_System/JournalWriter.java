@@ -0,0 +1,278 @@
+package Hospital_Patient_Record_System;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dedicated thread that appends journal records on behalf of request threads.
+ *
+ * Admissions and discharges hand their records to a bounded queue and get
+ * a CompletableFuture that completes once the records are on disk, or fails
+ * with the journal's CSVFileException. The writer takes whatever has queued
+ * up and appends it with one write and one fsync. How long it waits for more
+ * records before syncing depends on the DurabilityMode of the records it
+ * holds: not at all for SYNC, up to the async interval for ASYNC, and for
+ * GROUP up to the group window while operations are arriving together (the
+ * last batch held more than one) and not at all for a lone caller. One
+ * SYNC record also flushes the others.
+ *
+ * When the queue is full, submitting blocks until the writer catches up, so
+ * a slow disk slows callers down instead of growing the queue without limit.
+ */
+public class JournalWriter {
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final long DEFAULT_GROUP_WINDOW_MICROS = 1_000;
+    public static final long DEFAULT_ASYNC_INTERVAL_MICROS = 10_000;
+    private static final int MAX_BATCH_RECORDS = 8192;
+
+    /**
+     * Records of one operation and the future reporting their durability
+     */
+    private static final class Pending {
+        final List<String> records;
+        final DurabilityMode mode;
+        final long submitted = System.nanoTime();
+        final CompletableFuture<Void> durable = new CompletableFuture<>();
+
+        Pending(List<String> records, DurabilityMode mode) {
+            this.records = records;
+            this.mode = mode;
+        }
+    }
+
+    private final PatientJournal journal;
+    private final BlockingQueue<Pending> queue;
+    private final long groupWindowNanos;
+    private final long asyncIntervalNanos;
+    private final Thread thread;
+    private final LongAdder records = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder stalls = new LongAdder();
+    private volatile boolean closed;
+
+    public JournalWriter(PatientJournal journal) {
+        this(journal, DEFAULT_CAPACITY, DEFAULT_GROUP_WINDOW_MICROS, DEFAULT_ASYNC_INTERVAL_MICROS);
+    }
+
+    /**
+     * @param capacity            operations that may wait for the writer before submitting blocks
+     * @param groupWindowMicros   longest a GROUP record waits for others to share its fsync
+     * @param asyncIntervalMicros longest an ASYNC record waits before it is synced
+     */
+    public JournalWriter(PatientJournal journal, int capacity, long groupWindowMicros, long asyncIntervalMicros) {
+        this.journal = journal;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.groupWindowNanos = TimeUnit.MICROSECONDS.toNanos(groupWindowMicros);
+        this.asyncIntervalNanos = TimeUnit.MICROSECONDS.toNanos(asyncIntervalMicros);
+        this.thread = new Thread(this::run, "journal-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public CompletableFuture<Void> admit(Patient p, DurabilityMode mode) {
+        return submit(Collections.singletonList(PatientJournal.admitRecord(p)), mode);
+    }
+
+    public CompletableFuture<Void> discharge(Patient p, LocalDate date, DurabilityMode mode) {
+        return submit(Collections.singletonList(PatientJournal.dischargeRecord(p, date)), mode);
+    }
+
+    /**
+     * Admissions of a whole batch, written in the same fsync
+     */
+    public CompletableFuture<Void> admits(Collection<Patient> batch, DurabilityMode mode) {
+        List<String> bodies = new ArrayList<>(batch.size());
+        for (Patient p : batch) {
+            bodies.add(PatientJournal.admitRecord(p));
+        }
+        return submit(bodies, mode);
+    }
+
+    /**
+     * Discharges of a whole batch, written in the same fsync
+     */
+    public CompletableFuture<Void> discharges(Collection<Patient> batch, LocalDate date, DurabilityMode mode) {
+        List<String> bodies = new ArrayList<>(batch.size());
+        for (Patient p : batch) {
+            bodies.add(PatientJournal.dischargeRecord(p, date));
+        }
+        return submit(bodies, mode);
+    }
+
+    /**
+     * Completes once every record submitted before it is on disk (or failed)
+     */
+    public CompletableFuture<Void> flush() {
+        return submit(Collections.emptyList(), DurabilityMode.SYNC);
+    }
+
+    /**
+     * Queues the records in submission order, blocking while the queue is full
+     */
+    private CompletableFuture<Void> submit(List<String> bodies, DurabilityMode mode) {
+        Pending pending = new Pending(bodies, mode);
+        if (closed) {
+            pending.durable.completeExceptionally(closedException());
+            return pending.durable;
+        }
+        if (!queue.offer(pending)) {
+            stalls.increment();
+            try {
+                queue.put(pending);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pending.durable.completeExceptionally(
+                    new CSVFileException("Interrupted while waiting for the journal", journal.getFile().toString()));
+                return pending.durable;
+            }
+        }
+        // close() may have drained the queue between the check above and the put
+        if (closed && queue.remove(pending)) {
+            pending.durable.completeExceptionally(closedException());
+        }
+        return pending.durable;
+    }
+
+    /**
+     * Waits for {@code durable}, rethrowing the journal's exception if the write failed
+     */
+    public static void await(CompletableFuture<Void> durable) throws CSVFileException {
+        try {
+            durable.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof CSVFileException) {
+                throw (CSVFileException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Writes what is still queued and stops the writer thread
+     */
+    public void close() {
+        closed = true;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Pending pending; (pending = queue.poll()) != null; ) {
+            pending.durable.completeExceptionally(closedException());
+        }
+    }
+
+    /**
+     * Operations waiting for the writer
+     */
+    public int getQueued() {
+        return queue.size();
+    }
+
+    /**
+     * Records written and fsyncs performed by the writer; their ratio is the
+     * average number of records sharing one fsync
+     */
+    public long getRecordCount() {
+        return records.sum();
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * Submissions that found the queue full and had to wait for room
+     */
+    public long getStallCount() {
+        return stalls.sum();
+    }
+
+    private long deadline(Pending pending, boolean grouping) {
+        return pending.submitted + delayNanos(pending.mode, grouping);
+    }
+
+    private long delayNanos(DurabilityMode mode, boolean grouping) {
+        switch (mode) {
+            case GROUP:
+                return grouping ? groupWindowNanos : 0;
+            case ASYNC:
+                return asyncIntervalNanos;
+            default:
+                return 0;
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>();
+        boolean grouping = false;
+        while (!closed || !queue.isEmpty()) {
+            Pending first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            int size = first.records.size();
+            long deadline = deadline(first, grouping);
+            // Gather more until the earliest deadline in the batch; whatever is already queued always joins
+            while (size < MAX_BATCH_RECORDS) {
+                long wait = deadline - System.nanoTime();
+                Pending next;
+                try {
+                    next = wait > 0 && !closed ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                } catch (InterruptedException e) {
+                    next = queue.poll();
+                }
+                if (next == null) {
+                    break;
+                }
+                batch.add(next);
+                size += next.records.size();
+                deadline = Math.min(deadline, deadline(next, grouping));
+            }
+            grouping = batch.size() > 1;
+            write(batch, size);
+            batch.clear();
+        }
+    }
+
+    private void write(List<Pending> batch, int size) {
+        List<String> bodies = new ArrayList<>(size);
+        for (Pending pending : batch) {
+            bodies.addAll(pending.records);
+        }
+        try {
+            if (!bodies.isEmpty()) {
+                journal.append(bodies);
+                records.add(bodies.size());
+                batches.increment();
+            }
+        } catch (CSVFileException | RuntimeException e) {
+            for (Pending pending : batch) {
+                pending.durable.completeExceptionally(e);
+            }
+            return;
+        }
+        for (Pending pending : batch) {
+            pending.durable.complete(null);
+        }
+    }
+
+    private CSVFileException closedException() {
+        return new CSVFileException("Journal writer is closed", journal.getFile().toString());
+    }
+}
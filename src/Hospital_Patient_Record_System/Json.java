@@ -0,0 +1,216 @@
+package Hospital_Patient_Record_System;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON reader and writer for the answers the router merges.
+ *
+ * Objects become LinkedHashMaps (field order kept), arrays ArrayLists,
+ * numbers BigDecimals (so money is not rounded), and strings, booleans and
+ * null the matching Java values. Malformed input throws IllegalArgumentException.
+ */
+final class Json {
+    private final String json;
+    private int pos;
+
+    private Json(String json) {
+        this.json = json;
+    }
+
+    static Object parse(String json) {
+        Json reader = new Json(json);
+        Object value = reader.value();
+        reader.skipSpace();
+        if (reader.pos != json.length()) {
+            throw reader.error("trailing characters");
+        }
+        return value;
+    }
+
+    /**
+     * Appends a value built from maps, lists, strings, numbers, booleans and null
+     */
+    static void write(StringBuilder sb, Object value) {
+        if (value instanceof Map) {
+            sb.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                sb.append(first ? "" : ",").append(HospitalHttpServer.quote(String.valueOf(e.getKey()))).append(':');
+                write(sb, e.getValue());
+                first = false;
+            }
+            sb.append('}');
+        } else if (value instanceof List) {
+            sb.append('[');
+            boolean first = true;
+            for (Object item : (List<?>) value) {
+                sb.append(first ? "" : ",");
+                write(sb, item);
+                first = false;
+            }
+            sb.append(']');
+        } else if (value instanceof String) {
+            sb.append(HospitalHttpServer.quote((String) value));
+        } else if (value instanceof BigDecimal) {
+            sb.append(((BigDecimal) value).toPlainString());
+        } else {
+            sb.append(value);
+        }
+    }
+
+    private Object value() {
+        skipSpace();
+        if (pos == json.length()) {
+            throw error("unexpected end");
+        }
+        char c = json.charAt(pos);
+        switch (c) {
+            case '{': return object();
+            case '[': return array();
+            case '"': return string();
+            case 't': return literal("true", Boolean.TRUE);
+            case 'f': return literal("false", Boolean.FALSE);
+            case 'n': return literal("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return number();
+                }
+                throw error("unexpected '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> object() {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        pos++;
+        skipSpace();
+        if (peek() == '}') {
+            pos++;
+            return fields;
+        }
+        while (true) {
+            skipSpace();
+            if (peek() != '"') {
+                throw error("expected a field name");
+            }
+            String key = string();
+            skipSpace();
+            expect(':');
+            fields.put(key, value());
+            skipSpace();
+            if (peek() == ',') {
+                pos++;
+            } else {
+                expect('}');
+                return fields;
+            }
+        }
+    }
+
+    private List<Object> array() {
+        List<Object> items = new ArrayList<>();
+        pos++;
+        skipSpace();
+        if (peek() == ']') {
+            pos++;
+            return items;
+        }
+        while (true) {
+            items.add(value());
+            skipSpace();
+            if (peek() == ',') {
+                pos++;
+            } else {
+                expect(']');
+                return items;
+            }
+        }
+    }
+
+    private String string() {
+        StringBuilder sb = new StringBuilder();
+        pos++;
+        while (true) {
+            if (pos >= json.length()) {
+                throw error("unterminated string");
+            }
+            char c = json.charAt(pos++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (pos >= json.length()) {
+                throw error("unterminated string");
+            }
+            char escaped = json.charAt(pos++);
+            switch (escaped) {
+                case '"': case '\\': case '/': sb.append(escaped); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'u':
+                    if (pos + 4 > json.length()) {
+                        throw error("short \\u escape");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(json.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("bad \\u escape");
+                    }
+                    pos += 4;
+                    break;
+                default:
+                    throw error("bad escape '\\" + escaped + "'");
+            }
+        }
+    }
+
+    private BigDecimal number() {
+        int start = pos;
+        while (pos < json.length() && "+-0123456789.eE".indexOf(json.charAt(pos)) >= 0) {
+            pos++;
+        }
+        try {
+            return new BigDecimal(json.substring(start, pos));
+        } catch (NumberFormatException e) {
+            throw error("bad number '" + json.substring(start, pos) + "'");
+        }
+    }
+
+    private Object literal(String word, Object value) {
+        if (!json.startsWith(word, pos)) {
+            throw error("unexpected '" + json.charAt(pos) + "'");
+        }
+        pos += word.length();
+        return value;
+    }
+
+    private void expect(char c) {
+        if (peek() != c) {
+            throw error("expected '" + c + "'");
+        }
+        pos++;
+    }
+
+    private char peek() {
+        return pos < json.length() ? json.charAt(pos) : '\0';
+    }
+
+    private void skipSpace() {
+        while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String problem) {
+        return new IllegalArgumentException(problem + " at offset " + pos);
+    }
+}
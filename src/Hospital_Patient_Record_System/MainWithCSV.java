@@ -1,5 +1,7 @@
 package Hospital_Patient_Record_System;
 
+import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.util.Scanner;
 
 /**
@@ -7,7 +9,22 @@ import java.util.Scanner;
  */
 public class MainWithCSV {
     public static void main(String[] args) {
-        HospitalSystemWithCSV hospital = new HospitalSystemWithCSV();
+        if (args.length > 0 && "--server".equals(args[0])) {
+            // Request threads hand events to a background printer instead of
+            // queuing on the console themselves
+            AsyncEventSink events = new AsyncEventSink(new ConsoleEventSink());
+            HospitalSystemWithCSV hospital = new HospitalSystemWithCSV(Paths.get("src"), events, newPatientRepository(events));
+            registerMetrics(hospital);
+            applyDurability(hospital);
+            watchConfig(hospital);
+            runServer(hospital, events, args.length > 1 ? Integer.parseInt(args[1]) : 8080);
+            return;
+        }
+        EventSink console = new ConsoleEventSink();
+        HospitalSystemWithCSV hospital = new HospitalSystemWithCSV(Paths.get("src"), console, newPatientRepository(console));
+        registerMetrics(hospital);
+        applyDurability(hospital);
+        ConfigReloader reloader = watchConfig(hospital);
         Scanner scanner = new Scanner(System.in);
         boolean running = true;
         
@@ -25,16 +42,15 @@ public class MainWithCSV {
                         String name = scanner.nextLine();
                         System.out.print("Enter Age: ");
                         int age = Integer.parseInt(scanner.nextLine());
-                        System.out.println("Available Wards: ICU, General, Pediatric, Emergency");
+                        System.out.println("Available Wards: " + wardNames(hospital));
                         System.out.print("Enter Ward: ");
                         String ward = scanner.nextLine();
                         
                         try {
                             hospital.admitPatient(id, name, age, ward);
-                            hospital.savePatients();
                         } catch (InvalidWardException e) {
                             System.out.println(e.getMessage());
-                            System.out.println("💡 Available wards: ICU, General, Pediatric, Emergency");
+                            System.out.println("💡 Available wards: " + wardNames(hospital));
                         } catch (NoBedsAvailableException e) {
                             System.out.println(e.getMessage());
                             System.out.println("💡 Available beds: " + e.getAvailableBeds());
@@ -42,6 +58,9 @@ public class MainWithCSV {
                         } catch (InvalidPatientDataException e) {
                             System.out.println(e.getMessage());
                             System.out.println("💡 Field: " + e.getFieldName());
+                        } catch (CSVFileException e) {
+                            System.out.println(e.getMessage());
+                            System.out.println("💡 Admission was not recorded. Please try again.");
                         }
                         break;
                     
@@ -52,13 +71,15 @@ public class MainWithCSV {
                         
                         try {
                             hospital.dischargePatient(dischargeId);
-                            hospital.savePatients();
                         } catch (PatientNotFoundException e) {
                             System.out.println(e.getMessage());
                             System.out.println("💡 Patient ID: " + e.getPatientId());
                         } catch (PatientAlreadyDischargedException e) {
                             System.out.println(e.getMessage());
                             System.out.println("💡 Patient: " + e.getPatientName() + " (" + e.getPatientId() + ")");
+                        } catch (CSVFileException e) {
+                            System.out.println(e.getMessage());
+                            System.out.println("💡 Discharge was not recorded. Please try again.");
                         }
                         break;
                     
@@ -87,7 +108,14 @@ public class MainWithCSV {
                     case 7:
                         // Billing Report
                         hospital.calculateBilling();
-                        hospital.saveBillingReport();
+                        System.out.print("Save report as (txt/csv/jsonl) [txt]: ");
+                        String format = scanner.nextLine().trim();
+                        try {
+                            hospital.saveBillingReport(format.isEmpty()
+                                ? BillingReportWriter.Format.TEXT : BillingReportWriter.Format.fromName(format));
+                        } catch (IllegalArgumentException e) {
+                            System.out.println("❌ " + e.getMessage());
+                        }
                         break;
                     
                     case 8:
@@ -97,6 +125,39 @@ public class MainWithCSV {
                         hospital.calculateBillingForPatient(billId);
                         break;
                     
+                    case 10:
+                        // Search Patients
+                        System.out.print("Enter name or ID (misspellings are OK): ");
+                        String query = scanner.nextLine();
+                        long started = System.nanoTime();
+                        java.util.List<Patient> found = hospital.searchPatients(query, 10);
+                        double millis = (System.nanoTime() - started) / 1e6;
+                        if (found.isEmpty()) {
+                            System.out.println("❌ No patients match '" + query + "'");
+                        } else {
+                            System.out.printf("%n🔍 %d MATCHES (%.2f ms):%n", found.size(), millis);
+                            for (Patient p : found) {
+                                p.displayInfo();
+                            }
+                        }
+                        break;
+                    
+                    case 11:
+                        // Forecast Bed Demand
+                        System.out.print("Days to forecast (e.g. 90): ");
+                        int forecastDays = Integer.parseInt(scanner.nextLine().trim());
+                        if (forecastDays <= 0) {
+                            System.out.println("❌ Days must be positive");
+                            break;
+                        }
+                        forecastBedDemand(hospital, forecastDays);
+                        break;
+                    
+                    case 12:
+                        // Patient Statistics
+                        showPatientStatistics(hospital);
+                        break;
+                    
                     case 9:
                         // Exit and Save
                         System.out.println("\n💾 Saving data...");
@@ -115,9 +176,146 @@ public class MainWithCSV {
             }
         }
         
+        if (reloader != null) {
+            reloader.close();
+        }
+        hospital.close();
         scanner.close();
     }
     
+    /**
+     * -Dhospital.store=columnar keeps patients in compact columns instead of
+     * objects; -Dhospital.store=paged keeps them in src/patients.db and only
+     * admitted patients in memory
+     */
+    private static PatientRepository newPatientRepository(EventSink events) {
+        String store = System.getProperty("hospital.store", "");
+        if ("paged".equalsIgnoreCase(store)) {
+            try {
+                return new PagedPatientRepository(Paths.get("src"), events);
+            } catch (java.io.IOException e) {
+                System.out.println("⚠️  Could not open patients.db, using patients.csv: " + e.getMessage());
+            }
+        }
+        PatientStore patients = "columnar".equalsIgnoreCase(store) ? new ColumnarPatientStore() : new PatientIndex();
+        return new CsvPatientRepository(Paths.get("src"), patients, events);
+    }
+
+    /**
+     * -Dhospital.durability=group|async lets admissions and discharges share
+     * fsyncs or return before their journal record is on disk; sync by default
+     */
+    private static void applyDurability(HospitalSystemWithCSV hospital) {
+        String mode = System.getProperty("hospital.durability");
+        if (mode != null) {
+            hospital.setDurabilityMode(DurabilityMode.parse(mode, hospital.getDurabilityMode()));
+        }
+    }
+
+    private static void registerMetrics(HospitalSystemWithCSV hospital) {
+        try {
+            hospital.getMetrics().registerMBean();
+        } catch (javax.management.JMException e) {
+            System.out.println("⚠️  Metrics not available over JMX: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Applies edits to wards.cfg and rates.cfg while running; null if the
+     * data directory cannot be watched
+     */
+    private static ConfigReloader watchConfig(HospitalSystemWithCSV hospital) {
+        try {
+            return hospital.watchConfig();
+        } catch (java.io.IOException e) {
+            System.out.println("⚠️  Config changes will need a restart: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static String wardNames(HospitalSystemWithCSV hospital) {
+        java.util.StringJoiner names = new java.util.StringJoiner(", ");
+        for (Ward ward : hospital.getWards()) {
+            if (ward.getTotalBeds() > 0) {
+                names.add(ward.getName());
+            }
+        }
+        return names.toString();
+    }
+
+    /**
+     * Headless mode: serve the HTTP/JSON API until the JVM is stopped
+     */
+    private static void runServer(HospitalSystemWithCSV hospital, AsyncEventSink events, int port) {
+        try {
+            HospitalHttpServer server = new HospitalHttpServer(hospital, port);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                System.out.println("\n💾 Saving data...");
+                server.stop();
+                hospital.savePatients();
+                hospital.close();
+                events.close();
+            }));
+            server.start();
+        } catch (java.io.IOException e) {
+            System.out.println("❌ Could not start HTTP server: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs the bed-demand simulation at 80% to 120% of today's beds and prints a table per bed count
+     */
+    private static void forecastBedDemand(HospitalSystemWithCSV hospital, int days) {
+        final int scenarios = 2000;
+        BedDemandSimulator simulator = hospital.newBedDemandSimulator();
+        System.out.printf("%n📈 BED DEMAND FORECAST (next %d days, %d scenarios per bed count)%n", days, scenarios);
+        long admissions = 0;
+        long nanos = 0;
+        for (int percent = 80; percent <= 120; percent += 10) {
+            BedDemandSimulator.Forecast forecast = simulator.run(simulator.scaledBeds(percent), scenarios, days, percent);
+            admissions += forecast.getAdmissions();
+            nanos += forecast.getElapsedNanos();
+            System.out.println("═".repeat(66));
+            System.out.printf("%d%% of current beds%n", percent);
+            System.out.printf("%-12s %6s %9s %15s %12s %9s%n", "Ward", "Beds", "P(full)", "P(turned away)", "Turned away", "Peak p95");
+            for (BedDemandSimulator.WardForecast w : forecast.getWards().values()) {
+                System.out.printf("%-12s %6d %8.1f%% %14.1f%% %12.1f %9d%n", w.getWard(), w.getBeds(),
+                    w.getProbabilityFull() * 100, w.getProbabilityTurnedAway() * 100,
+                    w.getMeanTurnedAway(), w.getPeakOccupancyP95());
+            }
+        }
+        System.out.println("═".repeat(66));
+        System.out.printf("✓ Simulated %,d admissions in %d ms (%.1f million/s)%n",
+            admissions, nanos / 1_000_000, nanos == 0 ? 0 : admissions * 1e3 / nanos);
+        System.out.println("💡 P(full): the ward had no bed for a patient sent to it at least once;"
+            + " P(turned away): its overflow wards were full too");
+    }
+
+    private static void showPatientStatistics(HospitalSystemWithCSV hospital) {
+        QueryResult stays = hospital.query()
+            .where(PatientQuery.status("discharged"))
+            .groupBy(PatientQuery.Dimension.WARD, PatientQuery.Dimension.ageBand(20))
+            .select(PatientQuery.Aggregate.count(),
+                PatientQuery.Aggregate.avg(PatientQuery.Measure.LENGTH_OF_STAY),
+                PatientQuery.Aggregate.percentile(PatientQuery.Measure.LENGTH_OF_STAY, 90))
+            .run();
+        System.out.println("\n📊 LENGTH OF STAY BY WARD AND AGE (discharged patients, days)");
+        System.out.println("═".repeat(60));
+        System.out.print(stays.getRows().isEmpty() ? "No discharged patients yet\n" : stays.toTable());
+
+        LocalDate today = LocalDate.now();
+        QueryResult weekly = hospital.query()
+            .where(PatientQuery.dischargedBetween(today.minusWeeks(12), today))
+            .groupBy(PatientQuery.Dimension.DISCHARGE_WEEK)
+            .select(PatientQuery.Aggregate.count())
+            .run();
+        System.out.println("\n📅 DISCHARGES PER WEEK (last 12 weeks, by week starting)");
+        System.out.println("═".repeat(60));
+        System.out.print(weekly.getRows().isEmpty() ? "No discharges in the last 12 weeks\n" : weekly.toTable());
+        System.out.printf("✓ Scanned %,d patients in %.2f ms%n", stays.getScanned(),
+            (stays.getElapsedNanos() + weekly.getElapsedNanos()) / 1e6);
+    }
+
     private static void displayMenu() {
         System.out.println("\n" + "═".repeat(50));
         System.out.println(" HOSPITAL PATIENT RECORD SYSTEM (WITH EXCEPTIONS)");
@@ -131,7 +329,10 @@ public class MainWithCSV {
         System.out.println("7. Billing Report");
         System.out.println("8. Billing for One Patient");
         System.out.println("9. Exit (Save Data)");
+        System.out.println("10. Search Patients");
+        System.out.println("11. Forecast Bed Demand");
+        System.out.println("12. Patient Statistics");
         System.out.println("═".repeat(50));
-        System.out.print("Choose an option (1-9): ");
+        System.out.print("Choose an option (1-12): ");
     }
 }
@@ -0,0 +1,545 @@
+package Hospital_Patient_Record_System;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Hourly bed-occupancy history per ward.
+ *
+ * Each ward's history is a column of one value per hour: the highest number
+ * of occupied beds during that hour. Hours are kept in chunks of 1024; full
+ * chunks are sealed into run-length encoded deltas (a few bytes per change
+ * rather than four bytes per hour) together with their peak, so peak
+ * queries can skip whole chunks without decoding them. Only the newest
+ * chunk is a plain int array.
+ *
+ * The series is fed by admissions and discharges as they happen and can be
+ * rebuilt from the admit and discharge dates of all patients; rebuilt
+ * history has day precision (a stay covers whole days, like billing does).
+ * Hours are local wall-clock hours of the configured clock.
+ */
+public class OccupancyTimeSeries {
+    static final int CHUNK_HOURS = 1024;
+    private static final long MAX_HISTORY_HOURS = 50L * 366 * 24;
+
+    /**
+     * Granularity of a rollup, with the most buckets one rollup may return
+     */
+    public enum Resolution {
+        HOUR(ChronoUnit.HOURS, 93 * 24),
+        DAY(ChronoUnit.DAYS, 10 * 366),
+        MONTH(ChronoUnit.MONTHS, 50 * 12);
+
+        private final ChronoUnit unit;
+        private final int maxBuckets;
+
+        Resolution(ChronoUnit unit, int maxBuckets) {
+            this.unit = unit;
+            this.maxBuckets = maxBuckets;
+        }
+
+        public int getMaxBuckets() { return maxBuckets; }
+    }
+
+    /**
+     * Aggregated occupancy over one rollup period
+     */
+    public static class Bucket {
+        private final LocalDateTime start;
+        private final int hours;
+        private final double average;
+        private final int peak;
+
+        Bucket(LocalDateTime start, int hours, double average, int peak) {
+            this.start = start;
+            this.hours = hours;
+            this.average = average;
+            this.peak = peak;
+        }
+
+        public LocalDateTime getStart() { return start; }
+        public int getHours() { return hours; }
+        public double getAverage() { return average; }
+        public int getPeak() { return peak; }
+    }
+
+    /**
+     * Highest occupancy in a range and the first hour it was reached
+     */
+    public static class Peak {
+        private final int beds;
+        private final LocalDateTime hour;
+
+        Peak(int beds, LocalDateTime hour) {
+            this.beds = beds;
+            this.hour = hour;
+        }
+
+        public int getBeds() { return beds; }
+        public LocalDateTime getHour() { return hour; }
+    }
+
+    private final Clock clock;
+    // Replaced wholesale when a ward is added, so readers never need a lock
+    private volatile Map<String, Series> series;
+
+    public OccupancyTimeSeries(Collection<String> wardNames, Clock clock) {
+        this.clock = clock;
+        Map<String, Series> initial = new LinkedHashMap<>();
+        for (String ward : wardNames) {
+            initial.put(ward, new Series());
+        }
+        this.series = initial;
+    }
+
+    /**
+     * Starts an empty history for a ward added at runtime; does nothing if
+     * the ward is already tracked.
+     */
+    public synchronized void addWard(String ward) {
+        if (!series.containsKey(ward)) {
+            Map<String, Series> copy = new LinkedHashMap<>(series);
+            copy.put(ward, new Series());
+            series = copy;
+        }
+    }
+
+    /**
+     * Builds the history from the admit and discharge dates of {@code patients}
+     */
+    public static OccupancyTimeSeries rebuild(Collection<String> wardNames, Iterable<Patient> patients, Clock clock) {
+        OccupancyTimeSeries ts = new OccupancyTimeSeries(wardNames, clock);
+        long now = ts.nowHour();
+        long first = now - MAX_HISTORY_HOURS;
+        long earliest = now;
+        List<String> names = new ArrayList<>(ts.series.keySet());
+        int[][] diff = new int[names.size()][];
+        int[] current = new int[names.size()];
+        Map<String, Integer> ordinals = new LinkedHashMap<>();
+        for (int w = 0; w < names.size(); w++) {
+            ordinals.put(names.get(w), w);
+        }
+
+        // Pass 1: earliest admission, so the difference arrays can be sized
+        for (Patient p : patients) {
+            if (ordinals.containsKey(p.getWard())) {
+                earliest = Math.min(earliest, Math.max(first, hourOf(p.getAdmitDate())));
+            }
+        }
+        int span = (int) (now - earliest + 2);
+        for (int w = 0; w < diff.length; w++) {
+            diff[w] = new int[span];
+        }
+
+        // Pass 2: +1 at the first hour of each stay, -1 after its last day
+        for (Patient p : patients) {
+            Integer w = ordinals.get(p.getWard());
+            if (w == null) {
+                continue;
+            }
+            long start = Math.max(earliest, hourOf(p.getAdmitDate()));
+            if (start > now) {
+                continue;
+            }
+            LocalDate discharged = p.getDischargeDate();
+            if (discharged == null && "discharged".equalsIgnoreCase(p.getStatus())) {
+                continue; // no discharge date on record, stay length unknown
+            }
+            long end = discharged == null ? now + 1 : Math.min(now, hourOf(discharged.plusDays(1)));
+            if (end <= start) {
+                continue;
+            }
+            diff[w][(int) (start - earliest)]++;
+            diff[w][(int) (end - earliest)]--;
+            if (discharged == null) {
+                current[w]++;
+            }
+        }
+
+        for (int w = 0; w < diff.length; w++) {
+            Series s = ts.series.get(names.get(w));
+            int level = 0;
+            int[] hourly = diff[w];
+            for (int h = 0; h <= now - earliest; h++) {
+                level += hourly[h];
+                hourly[h] = level;
+            }
+            s.load(earliest, hourly, (int) (now - earliest + 1), current[w]);
+        }
+        return ts;
+    }
+
+    public Collection<String> getWards() {
+        return Collections.unmodifiableCollection(series.keySet());
+    }
+
+    /**
+     * A patient took a bed in {@code ward} just now
+     */
+    public void admitted(String ward) {
+        record(ward, +1);
+    }
+
+    /**
+     * A patient left a bed in {@code ward} just now
+     */
+    public void discharged(String ward) {
+        record(ward, -1);
+    }
+
+    private void record(String ward, int delta) {
+        Series s = series.get(ward);
+        if (s != null) {
+            long now = nowHour();
+            synchronized (s) {
+                s.record(now, delta);
+            }
+        }
+    }
+
+    /**
+     * Hourly occupancy of {@code ward} for every hour in [from, to); hours
+     * after the current one are not included.
+     */
+    public int[] range(String ward, LocalDateTime from, LocalDateTime to) {
+        Series s = seriesFor(ward);
+        long fromHour = hourOf(from);
+        long toHour = Math.min(hourOf(to), nowHour() + 1);
+        if (toHour <= fromHour) {
+            return new int[0];
+        }
+        if (toHour - fromHour > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Range too large: " + from + " to " + to);
+        }
+        int[] out = new int[(int) (toHour - fromHour)];
+        long now = nowHour();
+        synchronized (s) {
+            s.advance(now);
+            s.copy(fromHour, out);
+        }
+        return out;
+    }
+
+    /**
+     * Average and peak occupancy of {@code ward} per hour, day or month in
+     * [from, to). Periods before the first recorded hour and after the
+     * current one are left out.
+     *
+     * @throws IllegalArgumentException if that leaves more than
+     *         {@link Resolution#getMaxBuckets()} periods
+     */
+    public List<Bucket> rollup(String ward, LocalDateTime from, LocalDateTime to, Resolution resolution) {
+        LocalDateTime first = firstHour(ward);
+        LocalDateTime start = truncate(from.isBefore(first) ? first : from, resolution);
+        LocalDateTime end = toDateTime(nowHour() + 1);
+        if (to.isBefore(end)) {
+            end = to;
+        }
+        if (end.isAfter(start)
+                && resolution.unit.between(start, end.minusNanos(1)) >= resolution.getMaxBuckets()) {
+            throw new IllegalArgumentException("Range too large: more than " + resolution.getMaxBuckets()
+                + " " + resolution.name().toLowerCase(Locale.ROOT) + " buckets from " + start + " to " + end);
+        }
+        int[] hourly = range(ward, start, end);
+        List<Bucket> buckets = new ArrayList<>();
+        int offset = 0;
+        while (offset < hourly.length) {
+            LocalDateTime next = next(start, resolution);
+            int hours = (int) Math.min(ChronoUnit.HOURS.between(start, next), hourly.length - offset);
+            long sum = 0;
+            int peak = 0;
+            for (int i = offset; i < offset + hours; i++) {
+                sum += hourly[i];
+                peak = Math.max(peak, hourly[i]);
+            }
+            buckets.add(new Bucket(start, hours, (double) sum / hours, peak));
+            offset += hours;
+            start = next;
+        }
+        return buckets;
+    }
+
+    /**
+     * Highest hourly occupancy of {@code ward} in [from, to), or null if the range is empty
+     */
+    public Peak peak(String ward, LocalDateTime from, LocalDateTime to) {
+        Series s = seriesFor(ward);
+        long fromHour = hourOf(from);
+        long now = nowHour();
+        long toHour = Math.min(hourOf(to), now + 1);
+        if (toHour <= fromHour) {
+            return null;
+        }
+        synchronized (s) {
+            s.advance(now);
+            long[] best = s.peak(fromHour, toHour);
+            return new Peak((int) best[0], toDateTime(best[1]));
+        }
+    }
+
+    /**
+     * The first hour of {@code ward}'s history; earlier hours read as zero
+     */
+    public LocalDateTime firstHour(String ward) {
+        Series s = seriesFor(ward);
+        long now = nowHour();
+        synchronized (s) {
+            s.advance(now);
+            return toDateTime(s.firstHour);
+        }
+    }
+
+    private Series seriesFor(String ward) {
+        Series s = series.get(ward);
+        if (s == null) {
+            throw new IllegalArgumentException("Unknown ward: " + ward);
+        }
+        return s;
+    }
+
+    private long nowHour() {
+        return hourOf(LocalDateTime.now(clock));
+    }
+
+    static long hourOf(LocalDateTime t) {
+        return Math.floorDiv(t.toEpochSecond(ZoneOffset.UTC), 3600);
+    }
+
+    static long hourOf(LocalDate d) {
+        return d.toEpochDay() * 24;
+    }
+
+    static LocalDateTime toDateTime(long hour) {
+        return LocalDateTime.ofEpochSecond(hour * 3600, 0, ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime truncate(LocalDateTime t, Resolution r) {
+        switch (r) {
+            case DAY: return t.truncatedTo(ChronoUnit.DAYS);
+            case MONTH: return t.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+            default: return t.truncatedTo(ChronoUnit.HOURS);
+        }
+    }
+
+    private static LocalDateTime next(LocalDateTime t, Resolution r) {
+        switch (r) {
+            case DAY: return t.plusDays(1);
+            case MONTH: return t.plusMonths(1);
+            default: return t.plusHours(1);
+        }
+    }
+
+    /**
+     * One ward's column: sealed chunks followed by the open chunk
+     */
+    private static final class Series {
+        private final List<Chunk> sealed = new ArrayList<>();
+        private long firstHour = Long.MIN_VALUE;
+        private int[] open = new int[CHUNK_HOURS];
+        private long openStart;
+        private int openLength;
+        private int current;
+
+        void load(long start, int[] hourly, int length, int currentBeds) {
+            firstHour = start;
+            openStart = start;
+            for (int i = 0; i < length; i += CHUNK_HOURS) {
+                int n = Math.min(CHUNK_HOURS, length - i);
+                if (n == CHUNK_HOURS && i + n < length) {
+                    sealed.add(Chunk.encode(start + i, hourly, i, n));
+                    openStart = start + i + n;
+                } else {
+                    System.arraycopy(hourly, i, open, 0, n);
+                    openLength = n;
+                }
+            }
+            current = currentBeds;
+        }
+
+        void record(long hour, int delta) {
+            advance(hour);
+            current = Math.max(0, current + delta);
+            open[openLength - 1] = Math.max(open[openLength - 1], current);
+        }
+
+        /**
+         * Stores every hour up to and including {@code hour} at the current level
+         */
+        void advance(long hour) {
+            if (firstHour == Long.MIN_VALUE) {
+                firstHour = hour;
+                openStart = hour;
+            }
+            while (openStart + openLength <= hour) {
+                if (openLength == CHUNK_HOURS) {
+                    sealed.add(Chunk.encode(openStart, open, 0, CHUNK_HOURS));
+                    open = new int[CHUNK_HOURS];
+                    openStart += CHUNK_HOURS;
+                    openLength = 0;
+                }
+                open[openLength++] = current;
+            }
+        }
+
+        void copy(long fromHour, int[] out) {
+            long toHour = fromHour + out.length;
+            int[] scratch = null;
+            for (Chunk c : chunksOverlapping(fromHour, toHour)) {
+                if (scratch == null) {
+                    scratch = new int[CHUNK_HOURS];
+                }
+                c.decode(scratch);
+                copyOverlap(c.start, scratch, c.length, fromHour, out);
+            }
+            copyOverlap(openStart, open, openLength, fromHour, out);
+        }
+
+        /**
+         * {beds, hour} of the first hour in [fromHour, toHour) with the highest occupancy
+         */
+        long[] peak(long fromHour, long toHour) {
+            long bestBeds = -1;
+            long bestHour = Math.max(fromHour, firstHour);
+            int[] scratch = new int[CHUNK_HOURS];
+            for (Chunk c : chunksOverlapping(fromHour, toHour)) {
+                boolean whole = c.start >= fromHour && c.start + c.length <= toHour;
+                if (whole && c.max <= bestBeds) {
+                    continue; // cannot beat the peak found so far, skip decoding
+                }
+                c.decode(scratch);
+                long[] found = scan(c.start, scratch, c.length, fromHour, toHour);
+                if (found[0] > bestBeds) {
+                    bestBeds = found[0];
+                    bestHour = found[1];
+                }
+            }
+            long[] found = scan(openStart, open, openLength, fromHour, toHour);
+            if (found[0] > bestBeds) {
+                bestBeds = found[0];
+                bestHour = found[1];
+            }
+            if (fromHour < firstHour && bestBeds <= 0) {
+                return new long[] {0, fromHour}; // nothing recorded yet, occupancy was zero
+            }
+            return new long[] {Math.max(0, bestBeds), bestHour};
+        }
+
+        private List<Chunk> chunksOverlapping(long fromHour, long toHour) {
+            if (sealed.isEmpty() || toHour <= firstHour) {
+                return Collections.emptyList();
+            }
+            int lo = (int) Math.max(0, Math.floorDiv(fromHour - sealed.get(0).start, CHUNK_HOURS));
+            int hi = (int) Math.min(sealed.size(), Math.floorDiv(toHour - 1 - sealed.get(0).start, CHUNK_HOURS) + 1);
+            return lo >= hi ? Collections.emptyList() : sealed.subList(lo, hi);
+        }
+
+        private static void copyOverlap(long start, int[] values, int length, long fromHour, int[] out) {
+            long lo = Math.max(start, fromHour);
+            long hi = Math.min(start + length, fromHour + out.length);
+            if (lo < hi) {
+                System.arraycopy(values, (int) (lo - start), out, (int) (lo - fromHour), (int) (hi - lo));
+            }
+        }
+
+        private static long[] scan(long start, int[] values, int length, long fromHour, long toHour) {
+            long lo = Math.max(start, fromHour);
+            long hi = Math.min(start + length, toHour);
+            long best = -1;
+            long at = lo;
+            for (long h = lo; h < hi; h++) {
+                int v = values[(int) (h - start)];
+                if (v > best) {
+                    best = v;
+                    at = h;
+                }
+            }
+            return new long[] {best, at};
+        }
+    }
+
+    /**
+     * A sealed, immutable run of CHUNK_HOURS hourly values stored as
+     * (zigzag delta, run length) varint pairs
+     */
+    private static final class Chunk {
+        final long start;
+        final int length;
+        final int max;
+        final byte[] data;
+
+        private Chunk(long start, int length, int max, byte[] data) {
+            this.start = start;
+            this.length = length;
+            this.max = max;
+            this.data = data;
+        }
+
+        static Chunk encode(long start, int[] values, int offset, int length) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+            int previous = 0;
+            int max = 0;
+            int i = 0;
+            while (i < length) {
+                int v = values[offset + i];
+                int run = 1;
+                while (i + run < length && values[offset + i + run] == v) {
+                    run++;
+                }
+                writeVarint(out, (v - previous) << 1 ^ (v - previous) >> 31);
+                writeVarint(out, run);
+                max = Math.max(max, v);
+                previous = v;
+                i += run;
+            }
+            return new Chunk(start, length, max, out.toByteArray());
+        }
+
+        void decode(int[] into) {
+            int pos = 0;
+            int value = 0;
+            int hour = 0;
+            int[] cursor = {0};
+            while (hour < length) {
+                cursor[0] = pos;
+                int zigzag = readVarint(data, cursor);
+                int run = readVarint(data, cursor);
+                pos = cursor[0];
+                value += (zigzag >>> 1) ^ -(zigzag & 1);
+                Arrays.fill(into, hour, hour + run, value);
+                hour += run;
+            }
+        }
+
+        private static void writeVarint(ByteArrayOutputStream out, int v) {
+            while ((v & ~0x7F) != 0) {
+                out.write((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            out.write(v);
+        }
+
+        private static int readVarint(byte[] data, int[] cursor) {
+            int result = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[cursor[0]++];
+                result |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package Hospital_Patient_Record_System;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Patients in patients.db under a data directory (see PagedPatientStore),
+ * so startup and memory use do not grow with the discharged history.
+ *
+ * The first run with an empty patients.db imports patients.csv; after that
+ * patients.csv is no longer read or written. Checkpoints and journal
+ * compactions flush the tree's changed pages instead of rewriting a file of
+ * every patient.
+ */
+public class PagedPatientRepository implements PatientRepository {
+    private static final int IMPORT_FLUSH_ROWS = 10_000;
+
+    private final Path csvFile;
+    private final PagedPatientStore store;
+    private final EventSink events;
+    private String source = "patients.db";
+    private PatientJournal journal;
+
+    public PagedPatientRepository(Path dataDir, EventSink events) throws IOException {
+        this(dataDir, events, PagedPatientStore.DEFAULT_CACHE_PAGES);
+    }
+
+    /**
+     * @param cachePages pages of discharged history kept in memory
+     */
+    public PagedPatientRepository(Path dataDir, EventSink events, int cachePages) throws IOException {
+        this.csvFile = dataDir.resolve("patients.csv");
+        this.store = new PagedPatientStore(dataDir.resolve("patients.db"), cachePages);
+        this.events = events;
+    }
+
+    @Override
+    public PagedPatientStore getStore() {
+        return store;
+    }
+
+    /**
+     * Nothing to add once patients.db holds patients. Otherwise imports
+     * patients.csv into it, flushing every IMPORT_FLUSH_ROWS patients so the
+     * changed pages held in memory stay bounded.
+     */
+    @Override
+    public PatientCsvLoader.Result load(Collection<String> wardNames) throws IOException {
+        if (!store.isEmpty()) {
+            source = "patients.db";
+            return PatientCsvLoader.Result.of(Collections.emptyList());
+        }
+        source = "patients.csv";
+        PatientCsvLoader.Result result = new PatientCsvLoader(wardNames).load(csvFile);
+        if (result == null) {
+            return null;
+        }
+        List<Patient> parsed = result.getPatients();
+        for (int i = 0; i < parsed.size(); i++) {
+            if (!store.add(parsed.get(i))) {
+                result.addError(result.getLineNumber(i), "Duplicate patient ID '" + parsed.get(i).getId() + "', skipping");
+            }
+            if (i % IMPORT_FLUSH_ROWS == IMPORT_FLUSH_ROWS - 1) {
+                store.flush();
+            }
+        }
+        store.flush();
+        if (result.getErrorCount() > 0) {
+            events.publish(new HospitalEvent.ParseWarning("patients.csv", 0, result.summary()));
+        }
+        events.publish(new HospitalEvent.Notice(HospitalEvent.Severity.INFO,
+            "Imported " + store.size() + " patients from patients.csv into patients.db"));
+        return PatientCsvLoader.Result.of(Collections.emptyList());
+    }
+
+    @Override
+    public String getSource() {
+        return source;
+    }
+
+    @Override
+    public PatientJournal openJournal(Path journalFile, EventSink events) {
+        journal = new PatientJournal(csvFile, journalFile, events, this::compact);
+        return journal;
+    }
+
+    @Override
+    public String checkpoint(PatientJournal journal) throws IOException {
+        journal.checkpoint(store::flush);
+        return "patients.db";
+    }
+
+    @Override
+    public void close() throws IOException {
+        store.close();
+    }
+
+    /**
+     * Flushes the tree once every record of the rotated journal is in it. A
+     * record is journaled a moment before its change reaches the store, so
+     * a late one is waited for briefly; if it is still missing, the rotated
+     * journal is kept and folded at the next checkpoint.
+     */
+    private void compact(Path rotated) throws Exception {
+        for (int attempt = 0; !inStore(rotated); attempt++) {
+            if (attempt == 50) {
+                throw new IOException("some journaled changes are still being applied");
+            }
+            Thread.sleep(20);
+        }
+        store.flush();
+    }
+
+    private boolean inStore(Path rotated) throws CSVFileException {
+        boolean[] behind = {false};
+        journal.read(rotated, new PatientJournal.Handler() {
+            public void onAdmit(String id, String name, int age, String ward, String admitDate) {
+                behind[0] |= !store.contains(id);
+            }
+
+            public void onDischarge(String id, String dischargeDate) {
+                behind[0] |= store.contains(id) && !store.isStoredAsDischarged(id);
+            }
+        });
+        return !behind[0];
+    }
+}
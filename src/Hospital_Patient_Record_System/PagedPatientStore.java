@@ -0,0 +1,282 @@
+package Hospital_Patient_Record_System;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+/**
+ * PatientStore on disk: every patient is a record in a B+tree keyed by
+ * patient ID (patients.db, see PatientBTree), and only admitted patients
+ * are kept as objects. Discharged patients are decoded from their page when
+ * asked for, through a buffer pool of a fixed number of pages, so memory
+ * grows with the number of patients in beds rather than with the history.
+ *
+ * Iteration is in patient ID order rather than admission order. Lookups of
+ * discharged patients return a new Patient each time.
+ */
+public class PagedPatientStore implements PatientStore {
+    public static final int DEFAULT_CACHE_PAGES = 1024;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final byte ADMITTED = 0;
+    private static final byte DISCHARGED = 1;
+
+    private final PatientBTree tree;
+    private final ConcurrentNavigableMap<String, Patient> admitted = new ConcurrentSkipListMap<>();
+
+    /**
+     * Opens (or creates) the store in {@code dbFile}, reading the admitted
+     * patients into memory
+     *
+     * @param cachePages pages of discharged history kept in memory; each is 8 KB on disk
+     */
+    public PagedPatientStore(Path dbFile, int cachePages) throws IOException {
+        this.tree = new PatientBTree(dbFile, cachePages);
+        String last = null;
+        do {
+            last = tree.scanAfter(last, (id, record) -> {
+                if (record[record.length - 1] == ADMITTED) {
+                    admitted.put(id, decode(id, record));
+                }
+            });
+        } while (last != null);
+    }
+
+    @Override
+    public boolean add(Patient patient) {
+        synchronized (tree) {
+            if (tree.put(patient.getId(), encode(patient), false)) {
+                return false;
+            }
+            if (!isDischarged(patient)) {
+                admitted.put(patient.getId(), patient);
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public Patient get(String patientId) {
+        Patient patient = admitted.get(patientId);
+        if (patient != null) {
+            return patient;
+        }
+        byte[] record = tree.get(patientId);
+        return record == null ? null : decode(patientId, record);
+    }
+
+    @Override
+    public boolean contains(String patientId) {
+        return admitted.containsKey(patientId) || tree.get(patientId) != null;
+    }
+
+    /**
+     * Writes the discharged patient's record and lets go of the object
+     */
+    @Override
+    public void statusChanged(Patient patient, String oldStatus) {
+        synchronized (tree) {
+            tree.put(patient.getId(), encode(patient), true);
+            if (isDischarged(patient)) {
+                admitted.remove(patient.getId());
+            }
+        }
+    }
+
+    @Override
+    public Collection<Patient> all() {
+        return new RecordView(null);
+    }
+
+    @Override
+    public Collection<Patient> byWard(String wardName) {
+        return new RecordView(p -> p.getWard().equals(wardName));
+    }
+
+    @Override
+    public Collection<Patient> byStatus(String status) {
+        if ("admitted".equalsIgnoreCase(status)) {
+            return Collections.unmodifiableCollection(admitted.values());
+        }
+        if ("discharged".equalsIgnoreCase(status)) {
+            return new RecordView(PagedPatientStore::isDischarged);
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public int size() {
+        return (int) tree.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return tree.size() == 0;
+    }
+
+    /**
+     * Makes every add and discharge so far durable in patients.db
+     */
+    public void flush() throws IOException {
+        tree.flush();
+    }
+
+    public void close() throws IOException {
+        tree.close();
+    }
+
+    public int getCachedPages() {
+        return tree.getCachedPages();
+    }
+
+    /**
+     * Pages changed since the last flush; they stay in memory until then
+     */
+    public int getDirtyPages() {
+        return tree.getDirtyPages();
+    }
+
+    public long getPageReads() {
+        return tree.getPageReads();
+    }
+
+    public int getPageCount() {
+        return tree.getPageCount();
+    }
+
+    /**
+     * Whether the patient's record (not just the object) says discharged
+     */
+    boolean isStoredAsDischarged(String patientId) {
+        byte[] record = tree.get(patientId);
+        return record != null && record[record.length - 1] == DISCHARGED;
+    }
+
+    private static boolean isDischarged(Patient p) {
+        return "discharged".equalsIgnoreCase(p.getStatus());
+    }
+
+    /**
+     * name, age, ward, admit epoch-day, discharge epoch-day (or NO_DATE), status
+     */
+    private static byte[] encode(Patient p) {
+        byte[] name = p.getName().getBytes(StandardCharsets.UTF_8);
+        byte[] ward = p.getWard().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buf = ByteBuffer.allocate(2 + name.length + 2 + 2 + ward.length + 4 + 4 + 1);
+        buf.putShort((short) name.length).put(name);
+        buf.putShort((short) p.getAge());
+        buf.putShort((short) ward.length).put(ward);
+        buf.putInt((int) p.getAdmitDate().toEpochDay());
+        LocalDate out = p.getDischargeDate();
+        if (out == null && isDischarged(p)) {
+            throw new IllegalArgumentException("Discharged patient " + p.getId() + " has no discharge date");
+        }
+        buf.putInt(out == null ? NO_DATE : (int) out.toEpochDay());
+        buf.put(isDischarged(p) ? DISCHARGED : ADMITTED);
+        return buf.array();
+    }
+
+    private static Patient decode(String id, byte[] record) {
+        ByteBuffer buf = ByteBuffer.wrap(record);
+        String name = string(buf);
+        int age = buf.getShort();
+        String ward = string(buf);
+        LocalDate admit = LocalDate.ofEpochDay(buf.getInt());
+        int out = buf.getInt();
+        boolean discharged = buf.get() == DISCHARGED;
+        if (discharged && out == NO_DATE) {
+            throw new IllegalStateException("Corrupt record for patient " + id + ": discharged without a discharge date");
+        }
+        try {
+            Patient p = new Patient(id, name, age, ward, admit);
+            if (discharged) {
+                p.discharge(LocalDate.ofEpochDay(out));
+            }
+            return p;
+        } catch (InvalidPatientDataException | PatientAlreadyDischargedException e) {
+            throw new IllegalStateException("Corrupt record for patient " + id + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String string(ByteBuffer buf) {
+        byte[] bytes = new byte[buf.getShort() & 0xFFFF];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Live, read-only view over the records matching {@code filter}, read one
+     * leaf page at a time. Admitted patients are returned as the objects in
+     * memory, discharged ones decoded from their records.
+     */
+    private final class RecordView extends AbstractCollection<Patient> {
+        private final Predicate<Patient> filter;
+
+        RecordView(Predicate<Patient> filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public int size() {
+            if (filter == null) {
+                return PagedPatientStore.this.size();
+            }
+            int n = 0;
+            for (Iterator<Patient> it = iterator(); it.hasNext(); it.next()) {
+                n++;
+            }
+            return n;
+        }
+
+        @Override
+        public Iterator<Patient> iterator() {
+            return new Iterator<Patient>() {
+                private final List<Patient> batch = new ArrayList<>();
+                private int pos;
+                private String last;
+                private boolean done;
+
+                @Override
+                public boolean hasNext() {
+                    while (pos == batch.size() && !done) {
+                        batch.clear();
+                        pos = 0;
+                        // under the tree lock, so an admitted record and the object in 'admitted' agree
+                        synchronized (tree) {
+                            last = tree.scanAfter(last, (id, record) -> {
+                                Patient p = record[record.length - 1] == ADMITTED ? admitted.get(id) : null;
+                                if (p == null) {
+                                    p = decode(id, record);
+                                }
+                                if (filter == null || filter.test(p)) {
+                                    batch.add(p);
+                                }
+                            });
+                        }
+                        done = last == null;
+                    }
+                    return pos < batch.size();
+                }
+
+                @Override
+                public Patient next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return batch.get(pos++);
+                }
+            };
+        }
+    }
+}
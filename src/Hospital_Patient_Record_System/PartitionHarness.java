@@ -0,0 +1,216 @@
+package Hospital_Patient_Record_System;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Spawns N PartitionServer processes on this machine, each with its own
+ * temporary data directory and share of the wards, puts a PartitionRouter
+ * in front of them and drives concurrent admissions and discharges through
+ * the router. Afterwards it checks that the scatter-gather views (patient
+ * list, occupancy, revenue) add up to what was sent, prints throughput and
+ * stops the partitions. Exits with status 1 if a request failed or a check
+ * did not add up.
+ *
+ * Usage: java Hospital_Patient_Record_System.PartitionHarness [partitions] [admissions] [clients]
+ */
+public class PartitionHarness {
+    private static final String[] BASE_WARDS = {"ICU", "General", "Pediatric", "Emergency"};
+    private static final int BEDS_PER_WARD = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        int partitions = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        int admissions = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+        List<String> wards = new ArrayList<>(List.of(BASE_WARDS));
+        for (int i = wards.size(); i < partitions; i++) {
+            wards.add("Ward" + (i + 1));
+        }
+        List<Path> dirs = new ArrayList<>();
+        List<Process> processes = new ArrayList<>();
+        PartitionRouter router = null;
+        boolean passed = true;
+        try {
+            // Wards are dealt round-robin, so partition p owns wards p, p+N, p+2N, ...
+            Map<String, URI> owners = new LinkedHashMap<>();
+            for (int p = 0; p < partitions; p++) {
+                Path dir = Files.createTempDirectory("partition" + p + "-");
+                dirs.add(dir);
+                StringBuilder cfg = new StringBuilder("# Partition " + p + "\n");
+                for (int w = p; w < wards.size(); w += partitions) {
+                    cfg.append(wards.get(w)).append('=').append(BEDS_PER_WARD).append('\n');
+                }
+                Files.write(dir.resolve("wards.cfg"), cfg.toString().getBytes(StandardCharsets.UTF_8));
+                Files.write(dir.resolve("patients.csv"),
+                    (PatientJournal.CSV_HEADER + "\n").getBytes(StandardCharsets.UTF_8));
+                processes.add(new ProcessBuilder(javaBinary(), "-cp", System.getProperty("java.class.path"),
+                        PartitionServer.class.getName(), "0", dir.toString())
+                    .redirectErrorStream(true)
+                    .redirectOutput(dir.resolve("partition.log").toFile())
+                    .start());
+            }
+            for (int p = 0; p < partitions; p++) {
+                URI base = URI.create("http://127.0.0.1:" + awaitPort(dirs.get(p), processes.get(p)));
+                for (int w = p; w < wards.size(); w += partitions) {
+                    owners.put(wards.get(w), base);
+                }
+                System.out.println("✓ Partition " + p + " on " + base + " (log: " + dirs.get(p).resolve("partition.log") + ")");
+            }
+
+            router = new PartitionRouter(owners, 0);
+            router.start();
+            String url = "http://127.0.0.1:" + router.getPort();
+            System.out.println("✓ Router on " + url + " routing " + wards);
+
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+            AtomicLong errors = new AtomicLong();
+            long started = System.nanoTime();
+            run(client, clients, admissions, errors, i -> post(url + "/patients",
+                "id=PH" + i + "&name=Harness+Patient&age=" + (1 + i % 90) + "&ward=" + wards.get(i % wards.size())));
+            double admitSeconds = (System.nanoTime() - started) / 1e9;
+            int discharges = admissions / 2;
+            started = System.nanoTime();
+            run(client, clients, discharges, errors, i -> post(url + "/patients/PH" + (2 * i) + "/discharge", ""));
+            double dischargeSeconds = (System.nanoTime() - started) / 1e9;
+
+            System.out.printf("Admitted %d patients in %.2f s (%.0f/s), discharged %d in %.2f s (%.0f/s), %d errors%n",
+                admissions, admitSeconds, admissions / admitSeconds,
+                discharges, dischargeSeconds, discharges / dischargeSeconds, errors.get());
+
+            started = System.nanoTime();
+            String patients = client.send(get(url + "/patients"), HttpResponse.BodyHandlers.ofString()).body();
+            String occupancy = client.send(get(url + "/occupancy"), HttpResponse.BodyHandlers.ofString()).body();
+            String revenue = client.send(get(url + "/revenue"), HttpResponse.BodyHandlers.ofString()).body();
+            System.out.printf("Scatter-gather reads over %d partitions took %.1f ms%n",
+                partitions, (System.nanoTime() - started) / 1e6);
+
+            passed &= check("request errors", errors.get(), 0);
+            passed &= check("patients listed", count(patients, "\"id\":"), admissions);
+            passed &= check("beds occupied", sum(occupancy, "occupied"), admissions - discharges);
+            passed &= check("bills in revenue", sum(revenue.substring(revenue.indexOf("\"total\":")), "bills"), discharges);
+        } finally {
+            if (router != null) {
+                router.stop();
+            }
+            for (Process process : processes) {
+                process.destroy();
+            }
+            for (Process process : processes) {
+                process.waitFor();
+            }
+            for (Path dir : dirs) {
+                deleteRecursively(dir);
+            }
+        }
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    private interface RequestFactory {
+        HttpRequest build(int i);
+    }
+
+    /**
+     * Sends {@code count} requests with at most {@code clients} in flight
+     */
+    private static void run(HttpClient client, int clients, int count, AtomicLong errors, RequestFactory requests)
+            throws InterruptedException {
+        Semaphore inFlight = new Semaphore(clients);
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            inFlight.acquire();
+            pending.add(client.sendAsync(requests.build(i), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    if (failure != null || response.statusCode() >= 300) {
+                        errors.incrementAndGet();
+                    }
+                    inFlight.release();
+                }));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).exceptionally(t -> null).join();
+    }
+
+    private static int awaitPort(Path dir, Process process) throws IOException, InterruptedException {
+        Path portFile = dir.resolve(PartitionServer.PORT_FILE);
+        for (int i = 0; i < 600; i++) {
+            if (Files.exists(portFile)) {
+                return Integer.parseInt(new String(Files.readAllBytes(portFile), StandardCharsets.UTF_8).trim());
+            }
+            if (!process.isAlive()) {
+                throw new IOException("Partition in " + dir + " exited with code " + process.exitValue());
+            }
+            Thread.sleep(50);
+        }
+        throw new IOException("Partition in " + dir + " did not start within 30 s");
+    }
+
+    private static boolean check(String what, long actual, long expected) {
+        if (actual == expected) {
+            System.out.println("✓ " + what + ": " + actual);
+            return true;
+        }
+        System.out.println("❌ " + what + ": " + actual + " (expected " + expected + ")");
+        return false;
+    }
+
+    private static long count(String json, String token) {
+        long n = 0;
+        for (int i = json.indexOf(token); i >= 0; i = json.indexOf(token, i + token.length())) {
+            n++;
+        }
+        return n;
+    }
+
+    private static long sum(String json, String field) {
+        long total = 0;
+        Matcher m = Pattern.compile("\"" + field + "\":(\\d+)").matcher(json);
+        while (m.find()) {
+            total += Long.parseLong(m.group(1));
+        }
+        return total;
+    }
+
+    private static String javaBinary() {
+        return System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    private static HttpRequest post(String url, String form) {
+        return HttpRequest.newBuilder(URI.create(url))
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString(form))
+            .build();
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package Hospital_Patient_Record_System;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Thin HTTP router in front of several PartitionServer processes, each
+ * owning a subset of the wards. It speaks the same API as
+ * HospitalHttpServer, so clients do not know the hospital is partitioned:
+ *
+ *   POST /patients                  sent to the partition owning the ward
+ *   /patients/{id}, /billing/{id}   sent to the partition holding the patient
+ *   GET  /occupancy/history         sent to the partition owning the ward
+ *   GET  /patients, /occupancy,     sent to every partition in parallel and
+ *        /billing, /revenue         the answers merged (scatter-gather)
+ *
+ * The partition holding a patient is remembered when the router admits
+ * them; for patients it has not seen (e.g. after a router restart, or
+ * dropped from the bounded cache of owners) it asks every partition once
+ * and remembers the answer. An admission marks its ID as in flight and
+ * asks every partition before it is forwarded, so an ID is admitted once
+ * across all partitions even when two requests race or the router has
+ * restarted. Reservations and /metrics are per partition and not routed.
+ *
+ * Usage: java Hospital_Patient_Record_System.PartitionRouter port Ward1,Ward2=http://127.0.0.1:9001 ...
+ */
+public class PartitionRouter {
+    static final int REMEMBERED_PATIENTS = 100_000;
+
+    private final Map<String, URI> wardOwners;
+    private final List<URI> partitions;
+    // least recently used first; a forgotten patient is found again by asking every partition
+    private final Map<String, URI> patientOwners = new LinkedHashMap<String, URI>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, URI> eldest) {
+            return size() > REMEMBERED_PATIENTS;
+        }
+    };
+    private final Set<String> admitting = ConcurrentHashMap.newKeySet();
+    private final HttpClient client;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * @param wardOwners base URI (e.g. http://127.0.0.1:9001) of the partition owning each ward
+     */
+    public PartitionRouter(Map<String, URI> wardOwners, int port) throws IOException {
+        this.wardOwners = new LinkedHashMap<>(wardOwners);
+        this.partitions = new ArrayList<>(new LinkedHashSet<>(wardOwners.values()));
+        this.client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        this.server = HttpServer.create(new InetSocketAddress(port), 4096);
+        this.executor = HospitalHttpServer.requestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/patients", this::handlePatients);
+        server.createContext("/occupancy", this::handleOccupancy);
+        server.createContext("/billing", this::handleBilling);
+        server.createContext("/revenue", this::handleRevenue);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: PartitionRouter <port> <Ward1,Ward2=http://host:port> ...");
+            return;
+        }
+        Map<String, URI> owners = new LinkedHashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            int eq = args[i].indexOf('=');
+            URI partition = URI.create(args[i].substring(eq + 1));
+            for (String ward : args[i].substring(0, eq).split(",")) {
+                owners.put(ward.trim(), partition);
+            }
+        }
+        PartitionRouter router = new PartitionRouter(owners, Integer.parseInt(args[0]));
+        Runtime.getRuntime().addShutdownHook(new Thread(router::stop));
+        router.start();
+        System.out.println("✓ Routing " + owners.size() + " wards across " + router.partitions.size()
+            + " partitions on port " + router.getPort());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handlePatients(HttpExchange ex) throws IOException {
+        String[] path = HospitalHttpServer.segments(ex);
+        String method = ex.getRequestMethod();
+        try {
+            if (path.length == 1 && "POST".equals(method)) {
+                byte[] body = readBody(ex);
+                Map<String, String> params = new HashMap<>();
+                HospitalHttpServer.parseForm(ex.getRequestURI().getRawQuery(), params);
+                HospitalHttpServer.parseForm(new String(body, StandardCharsets.UTF_8), params);
+                URI owner = wardOwners.get(params.get("ward"));
+                if (owner == null) {
+                    sendError(ex, 400, new InvalidWardException(String.valueOf(params.get("ward"))).getMessage());
+                    return;
+                }
+                String id = params.get("id");
+                if (id == null || id.isEmpty()) {
+                    forward(ex, owner, body);
+                    return;
+                }
+                // IDs must stay unique across partitions, not just within one;
+                // an admission is remembered before its ID stops being in flight
+                if (rememberedOwner(id) != null || !admitting.add(id)) {
+                    sendError(ex, 409, duplicate(id));
+                    return;
+                }
+                try {
+                    if (findOwner(id) != null) {
+                        sendError(ex, 409, duplicate(id));
+                        return;
+                    }
+                    if (forward(ex, owner, body).statusCode() == 201) {
+                        remember(id, owner);
+                    }
+                } finally {
+                    admitting.remove(id);
+                }
+            } else if (path.length == 1 && "GET".equals(method)) {
+                relay(ex, 200, mergeArrays(scatter(ex)));
+            } else if (path.length >= 2) {
+                forwardToPatientOwner(ex, path[1]);
+            } else {
+                sendError(ex, 404, "No such endpoint");
+            }
+        } catch (PartitionUnavailable e) {
+            sendError(ex, 502, e.getMessage());
+        }
+    }
+
+    private void handleOccupancy(HttpExchange ex) throws IOException {
+        String[] path = HospitalHttpServer.segments(ex);
+        try {
+            if (path.length == 2 && "history".equals(path[1])) {
+                Map<String, String> params = new HashMap<>();
+                HospitalHttpServer.parseForm(ex.getRequestURI().getRawQuery(), params);
+                URI owner = wardOwners.get(params.get("ward"));
+                if (owner == null) {
+                    sendError(ex, 400, new InvalidWardException(String.valueOf(params.get("ward"))).getMessage());
+                } else {
+                    forward(ex, owner, new byte[0]);
+                }
+            } else {
+                relay(ex, 200, mergeArrays(scatter(ex)));
+            }
+        } catch (PartitionUnavailable e) {
+            sendError(ex, 502, e.getMessage());
+        }
+    }
+
+    private void handleBilling(HttpExchange ex) throws IOException {
+        String[] path = HospitalHttpServer.segments(ex);
+        try {
+            if (path.length == 2) {
+                forwardToPatientOwner(ex, path[1]);
+            } else {
+                relay(ex, 200, mergeArrays(scatter(ex)));
+            }
+        } catch (PartitionUnavailable e) {
+            sendError(ex, 502, e.getMessage());
+        }
+    }
+
+    /**
+     * Each answer is parsed; wards are merged by name and every other object
+     * (the hospital total, the bill cache counters) summed field by field
+     */
+    private void handleRevenue(HttpExchange ex) throws IOException {
+        try {
+            List<String> bodies = scatter(ex);
+            Map<String, Map<String, Object>> wards = new LinkedHashMap<>();
+            Map<String, Map<String, Object>> sections = new LinkedHashMap<>();
+            for (int i = 0; i < bodies.size(); i++) {
+                try {
+                    Map<?, ?> revenue = object(Json.parse(bodies.get(i)));
+                    Object wardList = revenue.get("wards");
+                    if (!(wardList instanceof List)) {
+                        throw new IllegalArgumentException("no ward list");
+                    }
+                    for (Object ward : (List<?>) wardList) {
+                        Map<?, ?> fields = object(ward);
+                        addFields(wards.computeIfAbsent(String.valueOf(fields.get("ward")), k -> new LinkedHashMap<>()), fields);
+                    }
+                    for (Map.Entry<?, ?> e : revenue.entrySet()) {
+                        if (e.getValue() instanceof Map) {
+                            addFields(sections.computeIfAbsent(String.valueOf(e.getKey()), k -> new LinkedHashMap<>()),
+                                (Map<?, ?>) e.getValue());
+                        }
+                    }
+                } catch (IllegalArgumentException e) {
+                    throw new PartitionUnavailable(partitions.get(i), "unreadable /revenue: " + e.getMessage());
+                }
+            }
+            StringBuilder sb = new StringBuilder("{\"wards\":");
+            Json.write(sb, new ArrayList<>(wards.values()));
+            for (Map.Entry<String, Map<String, Object>> e : sections.entrySet()) {
+                sb.append(',').append(HospitalHttpServer.quote(e.getKey())).append(':');
+                Json.write(sb, e.getValue());
+            }
+            sb.append(",\"partitions\":").append(partitions.size()).append('}');
+            relay(ex, 200, sb.toString());
+        } catch (PartitionUnavailable e) {
+            sendError(ex, 502, e.getMessage());
+        }
+    }
+
+    private static Map<?, ?> object(Object value) {
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("expected an object");
+        }
+        return (Map<?, ?>) value;
+    }
+
+    /**
+     * Adds the numbers of {@code from} to those in {@code into}; other values are kept from the first answer
+     */
+    private static void addFields(Map<String, Object> into, Map<?, ?> from) {
+        for (Map.Entry<?, ?> e : from.entrySet()) {
+            String key = String.valueOf(e.getKey());
+            Object old = into.get(key);
+            if (old instanceof BigDecimal && e.getValue() instanceof BigDecimal) {
+                into.put(key, ((BigDecimal) old).add((BigDecimal) e.getValue()));
+            } else if (old == null) {
+                into.put(key, e.getValue());
+            }
+        }
+    }
+
+    private void forwardToPatientOwner(HttpExchange ex, String patientId) throws IOException, PartitionUnavailable {
+        byte[] body = readBody(ex);
+        URI owner = ownerOf(patientId);
+        if (owner == null) {
+            sendError(ex, 404, new PatientNotFoundException(patientId).getMessage());
+        } else {
+            forward(ex, owner, body);
+        }
+    }
+
+    /**
+     * Partition holding the patient: remembered from admission, or found by
+     * asking every partition once
+     */
+    private URI ownerOf(String patientId) throws PartitionUnavailable {
+        URI owner = rememberedOwner(patientId);
+        if (owner != null) {
+            return owner;
+        }
+        owner = findOwner(patientId);
+        if (owner != null) {
+            remember(patientId, owner);
+        }
+        return owner;
+    }
+
+    private URI rememberedOwner(String patientId) {
+        synchronized (patientOwners) {
+            return patientOwners.get(patientId);
+        }
+    }
+
+    private void remember(String patientId, URI owner) {
+        synchronized (patientOwners) {
+            patientOwners.put(patientId, owner);
+        }
+    }
+
+    int rememberedPatients() {
+        synchronized (patientOwners) {
+            return patientOwners.size();
+        }
+    }
+
+    /**
+     * Asks every partition for the patient, ignoring what the router remembers
+     */
+    private URI findOwner(String patientId) throws PartitionUnavailable {
+        String path = "/patients/" + java.net.URLEncoder.encode(patientId, StandardCharsets.UTF_8).replace("+", "%20");
+        List<CompletableFuture<HttpResponse<byte[]>>> lookups = new ArrayList<>();
+        for (URI partition : partitions) {
+            lookups.add(client.sendAsync(HttpRequest.newBuilder(partition.resolve(path)).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray()));
+        }
+        for (int i = 0; i < partitions.size(); i++) {
+            if (await(lookups.get(i), partitions.get(i)).statusCode() == 200) {
+                return partitions.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sends the request to every partition at once and returns the bodies in partition order
+     */
+    private List<String> scatter(HttpExchange ex) throws PartitionUnavailable {
+        List<CompletableFuture<HttpResponse<byte[]>>> calls = new ArrayList<>();
+        for (URI partition : partitions) {
+            calls.add(client.sendAsync(HttpRequest.newBuilder(target(partition, ex)).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray()));
+        }
+        List<String> bodies = new ArrayList<>(calls.size());
+        for (int i = 0; i < calls.size(); i++) {
+            HttpResponse<byte[]> response = await(calls.get(i), partitions.get(i));
+            if (response.statusCode() != 200) {
+                throw new PartitionUnavailable(partitions.get(i), "HTTP " + response.statusCode());
+            }
+            bodies.add(new String(response.body(), StandardCharsets.UTF_8));
+        }
+        return bodies;
+    }
+
+    private HttpResponse<byte[]> forward(HttpExchange ex, URI partition, byte[] body) throws IOException, PartitionUnavailable {
+        HttpRequest request = HttpRequest.newBuilder(target(partition, ex))
+            .method(ex.getRequestMethod(), body.length == 0
+                ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(body))
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .build();
+        HttpResponse<byte[]> response = await(client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()), partition);
+        relay(ex, response.statusCode(), response.body());
+        return response;
+    }
+
+    private static HttpResponse<byte[]> await(CompletableFuture<HttpResponse<byte[]>> call, URI partition)
+            throws PartitionUnavailable {
+        try {
+            return call.join();
+        } catch (RuntimeException e) {
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            throw new PartitionUnavailable(partition, cause.toString());
+        }
+    }
+
+    private static URI target(URI partition, HttpExchange ex) {
+        URI uri = ex.getRequestURI();
+        return partition.resolve(uri.getRawPath() + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery()));
+    }
+
+    /**
+     * Concatenates JSON arrays
+     */
+    private static String mergeArrays(List<String> arrays) {
+        StringBuilder sb = new StringBuilder("[");
+        for (String array : arrays) {
+            String items = array.trim();
+            items = items.substring(1, items.length() - 1).trim();
+            if (!items.isEmpty()) {
+                if (sb.length() > 1) {
+                    sb.append(',');
+                }
+                sb.append(items);
+            }
+        }
+        return sb.append(']').toString();
+    }
+
+    private static byte[] readBody(HttpExchange ex) throws IOException {
+        try (InputStream in = ex.getRequestBody()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static String duplicate(String patientId) {
+        return "❌ DUPLICATE PATIENT: Patient ID '" + patientId + "' already exists in the system.";
+    }
+
+    private static void sendError(HttpExchange ex, int status, String message) throws IOException {
+        relay(ex, status, "{\"error\":" + HospitalHttpServer.quote(message) + "}");
+    }
+
+    private static void relay(HttpExchange ex, int status, String json) throws IOException {
+        relay(ex, status, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void relay(HttpExchange ex, int status, byte[] body) throws IOException {
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        if (body.length == 0) {
+            ex.sendResponseHeaders(status, -1);
+            ex.close();
+            return;
+        }
+        ex.sendResponseHeaders(status, body.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * A partition could not be reached or gave an unexpected answer
+     */
+    private static class PartitionUnavailable extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        PartitionUnavailable(URI partition, String problem) {
+            super("❌ PARTITION UNAVAILABLE: " + partition + " (" + problem + ")");
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package Hospital_Patient_Record_System;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * One partition of a multi-process deployment: a HospitalSystemWithCSV over
+ * its own data directory (its own patients.csv, journal and wards.cfg
+ * listing only the wards it owns), served over HTTP on the loopback
+ * interface so only a PartitionRouter on the same machine can reach it.
+ *
+ * Once listening it writes the actual port to {@code partition.port} in
+ * the data directory, which is how PartitionHarness finds partitions
+ * started on port 0. Data is checkpointed when the process is stopped.
+ *
+ * Usage: java Hospital_Patient_Record_System.PartitionServer port dataDir
+ */
+public class PartitionServer {
+    public static final String PORT_FILE = "partition.port";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: PartitionServer <port> <dataDir>");
+            return;
+        }
+        int port = Integer.parseInt(args[0]);
+        Path dataDir = Paths.get(args[1]);
+
+        AsyncEventSink events = new AsyncEventSink(new ConsoleEventSink());
+        HospitalSystemWithCSV hospital = new HospitalSystemWithCSV(dataDir, events);
+        HospitalHttpServer server = new HospitalHttpServer(hospital,
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            hospital.savePatients();
+            hospital.close();
+            events.close();
+        }));
+        server.start();
+
+        Path portFile = dataDir.resolve(PORT_FILE);
+        Path tmp = dataDir.resolve(PORT_FILE + ".tmp");
+        Files.write(tmp, Integer.toString(server.getPort()).getBytes(StandardCharsets.UTF_8));
+        Files.move(tmp, portFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
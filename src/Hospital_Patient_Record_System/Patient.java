@@ -1,6 +1,7 @@
 package Hospital_Patient_Record_System;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.Objects;
 
 /**
  * Patient class representing a hospital patient
@@ -8,8 +9,8 @@ import java.time.temporal.ChronoUnit;
 public class Patient extends Person {
     private String ward;
     private LocalDate admitDate;
-    private LocalDate dischargeDate;
-    private String status;
+    private volatile LocalDate dischargeDate;
+    private volatile String status;
 
     public Patient(String id, String name, int age, String ward, LocalDate admitDate)
             throws InvalidPatientDataException {
@@ -18,6 +19,8 @@ public class Patient extends Person {
         if (age < 0 || age > 150) {
             throw new InvalidPatientDataException("Age must be between 0 and 150", "Age");
         }
+        checkText("PatientID", id);
+        checkText("Name", name);
         
         this.ward = ward;
         this.admitDate = admitDate;
@@ -25,6 +28,31 @@ public class Patient extends Person {
         this.status = "admitted";
     }
 
+    /**
+     * IDs and names are stored as fields of comma-separated lines
+     * (patients.csv, the journal, the audit log), so they may not contain a
+     * comma or a line break
+     */
+    static void checkText(String fieldName, String value) throws InvalidPatientDataException {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '\n' || c == '\r') {
+                throw new InvalidPatientDataException(
+                    "❌ INVALID DATA: " + fieldName + " must not contain commas or line breaks", fieldName, value);
+            }
+        }
+    }
+
+    /**
+     * For views whose data lives outside this object (see ColumnarPatientStore)
+     */
+    Patient() {
+        super(null, null, 0);
+    }
+
     public String getWard() {
         return ward;
     }
@@ -42,11 +70,12 @@ public class Patient extends Person {
     }
 
     public long getDaysAdmitted() {
-        LocalDate endDate = (dischargeDate != null) ? dischargeDate : LocalDate.now();
-        return ChronoUnit.DAYS.between(admitDate, endDate) + 1;
+        LocalDate discharged = getDischargeDate();
+        LocalDate endDate = (discharged != null) ? discharged : LocalDate.now();
+        return ChronoUnit.DAYS.between(getAdmitDate(), endDate) + 1;
     }
 
-    public void discharge(LocalDate date) throws PatientAlreadyDischargedException {
+    public synchronized void discharge(LocalDate date) throws PatientAlreadyDischargedException {
         if ("discharged".equalsIgnoreCase(status)) {
             throw new PatientAlreadyDischargedException(id, name);
         }
@@ -58,7 +87,24 @@ public class Patient extends Person {
     public void displayInfo() {
         System.out.printf(
             "ID: %s | Name: %s | Age: %d | Ward: %s | Status: %s | Days: %d%n",
-            id, name, age, ward, status, getDaysAdmitted()
+            getId(), getName(), getAge(), getWard(), getStatus(), getDaysAdmitted()
         );
     }
+
+    /**
+     * Patients are identified by ID, so a stored view and the object it was
+     * created from are interchangeable (e.g. in a Ward's bed set).
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof Patient && Objects.equals(getId(), ((Patient) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getId());
+    }
 }
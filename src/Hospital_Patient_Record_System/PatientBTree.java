@@ -0,0 +1,539 @@
+package Hospital_Patient_Record_System;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * B+tree from string keys to small byte records, stored in fixed-size pages
+ * of one file. Records are never deleted, only added or replaced.
+ *
+ * Page layout (big-endian, CRC32C of the page in its last 4 bytes):
+ *   header  magic, version, page size, root page, page count, record count
+ *   leaf    type, key count, next leaf; then per record: key, value
+ *   inner   type, key count, first child; then per key: key, child right of it
+ * Keys and values are length-prefixed (2 bytes); keys are UTF-8.
+ *
+ * Pages are read through a buffer pool of at most {@code cachePages}
+ * decoded clean pages, evicted least recently used first. Changed pages
+ * stay in memory until {@link #flush()}, which writes them (with the
+ * header) to a side file first, fsyncs it, and only then writes them in
+ * place. A crash during the in-place writes is repaired on the next open
+ * by writing the side file again, so the tree on disk is always the one of
+ * some completed flush. Between flushes the patient journal keeps changes
+ * durable.
+ *
+ * All methods are synchronized on the tree.
+ */
+final class PatientBTree {
+    static final int PAGE_SIZE = 8192;
+    /** Largest key plus value; four always fit in a page, so a split always makes room */
+    static final int MAX_ENTRY_BYTES = PAGE_SIZE / 4 - 8;
+    private static final int MAGIC = 0x48504442; // "HPDB"
+    private static final int VERSION = 1;
+    private static final int WAL_MAGIC = 0x48505741; // "HPWA"
+    private static final byte LEAF = 1;
+    private static final byte INNER = 2;
+    private static final int NODE_HEADER = 1 + 2 + 4;
+    private static final int CRC_BYTES = 4;
+
+    private static final class Node {
+        final int page;
+        final boolean leaf;
+        final List<String> keys = new ArrayList<>();
+        final List<byte[]> values;
+        int[] children;
+        int next = -1;
+        int bytes = NODE_HEADER + CRC_BYTES;
+
+        Node(int page, boolean leaf) {
+            this.page = page;
+            this.leaf = leaf;
+            this.values = leaf ? new ArrayList<>() : null;
+            this.children = leaf ? null : new int[8];
+        }
+
+        int search(String key) {
+            int low = 0;
+            int high = keys.size() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int c = keys.get(mid).compareTo(key);
+                if (c < 0) {
+                    low = mid + 1;
+                } else if (c > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        /**
+         * Child to descend into for {@code key}: keys equal to a separator go right
+         */
+        int childFor(String key) {
+            int i = search(key);
+            return children[i >= 0 ? i + 1 : -i - 1];
+        }
+
+        void insertChild(int index, String key, int child) {
+            keys.add(index, key);
+            if (keys.size() + 1 > children.length) {
+                children = Arrays.copyOf(children, children.length * 2);
+            }
+            System.arraycopy(children, index + 1, children, index + 2, keys.size() - index - 1);
+            children[index + 1] = child;
+            bytes += 2 + utf8Length(key) + 4;
+        }
+    }
+
+    private final FileChannel file;
+    private final Path walFile;
+    private final int cachePages;
+    private final Map<Integer, Node> cache;
+    private final Map<Integer, Node> dirty = new HashMap<>();
+    private int root;
+    private int pageCount;
+    private long size;
+    private boolean headerDirty;
+    private long pageReads;
+    private long pageWrites;
+
+    /**
+     * Opens the tree in {@code dbFile}, creating it if needed, after
+     * finishing a flush that a crash interrupted
+     */
+    PatientBTree(Path dbFile, int cachePages) throws IOException {
+        this.cachePages = cachePages;
+        this.walFile = dbFile.resolveSibling(dbFile.getFileName() + ".wal");
+        this.cache = new LinkedHashMap<Integer, Node>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Node> eldest) {
+                // changed pages are also held in 'dirty' until the next flush
+                return size() > PatientBTree.this.cachePages;
+            }
+        };
+        this.file = FileChannel.open(dbFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            recoverFlush();
+            if (file.size() == 0) {
+                Node leaf = new Node(1, true);
+                root = 1;
+                pageCount = 2;
+                writePage(leaf.page, encode(leaf));
+                writePage(0, encodeHeader());
+                file.force(true);
+            } else {
+                readHeader();
+            }
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    synchronized long size() {
+        return size;
+    }
+
+    synchronized byte[] get(String key) {
+        Node node = node(root);
+        while (!node.leaf) {
+            node = node(node.childFor(key));
+        }
+        int i = node.search(key);
+        return i >= 0 ? node.values.get(i) : null;
+    }
+
+    /**
+     * Stores {@code value} under {@code key}. If the key exists its value is
+     * replaced when {@code replace} is true and left alone otherwise.
+     * Returns whether the key existed.
+     */
+    synchronized boolean put(String key, byte[] value, boolean replace) {
+        int entryBytes = 4 + utf8Length(key) + value.length;
+        if (entryBytes > MAX_ENTRY_BYTES) {
+            throw new IllegalArgumentException("Record for '" + key + "' is " + entryBytes
+                + " bytes, more than the " + MAX_ENTRY_BYTES + " a page entry can hold");
+        }
+        List<Node> path = new ArrayList<>();
+        Node node = node(root);
+        while (!node.leaf) {
+            path.add(node);
+            node = node(node.childFor(key));
+        }
+        int i = node.search(key);
+        if (i >= 0) {
+            if (replace) {
+                node.bytes += value.length - node.values.get(i).length;
+                node.values.set(i, value);
+                markDirty(node);
+                splitIfFull(node, path);
+            }
+            return true;
+        }
+        node.keys.add(-i - 1, key);
+        node.values.add(-i - 1, value);
+        node.bytes += entryBytes;
+        size++;
+        headerDirty = true;
+        markDirty(node);
+        splitIfFull(node, path);
+        return false;
+    }
+
+    /**
+     * Calls {@code visitor} for the entries of one leaf whose keys come after
+     * {@code after} (all keys if null), in key order. Returns the last key
+     * visited, to pass in the next call, or null once there are no more.
+     */
+    synchronized String scanAfter(String after, BiConsumer<String, byte[]> visitor) {
+        Node node = node(root);
+        while (!node.leaf) {
+            node = after == null ? node(node.children[0]) : node(node.childFor(after));
+        }
+        int i = after == null ? 0 : node.search(after);
+        i = i >= 0 && after != null ? i + 1 : i < 0 ? -i - 1 : i;
+        while (i == node.keys.size()) {
+            if (node.next < 0) {
+                return null;
+            }
+            node = node(node.next);
+            i = 0;
+        }
+        String last = null;
+        for (; i < node.keys.size(); i++) {
+            last = node.keys.get(i);
+            visitor.accept(last, node.values.get(i));
+        }
+        return last;
+    }
+
+    /**
+     * Makes every change so far durable: changed pages and the header go to
+     * the side file, which is fsynced, then into the tree file, which is
+     * fsynced, and the side file is emptied.
+     */
+    synchronized void flush() throws IOException {
+        if (dirty.isEmpty() && !headerDirty) {
+            return;
+        }
+        List<Integer> pages = new ArrayList<>(dirty.keySet());
+        pages.sort(null);
+        ByteBuffer wal = ByteBuffer.allocate(8 + (pages.size() + 1) * (4 + PAGE_SIZE) + 4);
+        wal.putInt(WAL_MAGIC).putInt(pages.size() + 1);
+        wal.putInt(0).put(encodeHeader());
+        for (int page : pages) {
+            wal.putInt(page).put(encode(dirty.get(page)));
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(wal.array(), 0, wal.position());
+        wal.putInt((int) crc.getValue());
+        wal.flip();
+        try (FileChannel out = FileChannel.open(walFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (wal.hasRemaining()) {
+                out.write(wal);
+            }
+            out.force(true);
+        }
+        redo(wal);
+        for (Node node : dirty.values()) {
+            cache.put(node.page, node);
+        }
+        dirty.clear();
+        headerDirty = false;
+    }
+
+    synchronized void close() throws IOException {
+        file.close();
+    }
+
+    synchronized int getCachedPages() {
+        return cache.size();
+    }
+
+    synchronized int getDirtyPages() {
+        return dirty.size();
+    }
+
+    synchronized long getPageReads() {
+        return pageReads;
+    }
+
+    synchronized long getPageWrites() {
+        return pageWrites;
+    }
+
+    synchronized int getPageCount() {
+        return pageCount;
+    }
+
+    private Node node(int page) {
+        Node node = dirty.get(page);
+        if (node == null) {
+            node = cache.get(page);
+        }
+        if (node == null) {
+            try {
+                node = decode(page, readPage(page));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            pageReads++;
+            cache.put(page, node);
+        }
+        return node;
+    }
+
+    private void markDirty(Node node) {
+        dirty.put(node.page, node);
+    }
+
+    private Node newNode(boolean leaf) {
+        Node node = new Node(pageCount++, leaf);
+        headerDirty = true;
+        markDirty(node);
+        return node;
+    }
+
+    /**
+     * Splits {@code node} in two while it is larger than a page, adding the
+     * new right half to its parent (the last node of {@code path}), which
+     * may split in turn
+     */
+    private void splitIfFull(Node node, List<Node> path) {
+        while (node.bytes > PAGE_SIZE) {
+            Node right = newNode(node.leaf);
+            String separator;
+            if (node.leaf) {
+                int half = splitPoint(node);
+                right.keys.addAll(node.keys.subList(half, node.keys.size()));
+                right.values.addAll(node.values.subList(half, node.values.size()));
+                node.keys.subList(half, node.keys.size()).clear();
+                node.values.subList(half, node.values.size()).clear();
+                right.next = node.next;
+                node.next = right.page;
+                separator = right.keys.get(0);
+            } else {
+                int mid = node.keys.size() / 2;
+                separator = node.keys.get(mid);
+                right.keys.addAll(node.keys.subList(mid + 1, node.keys.size()));
+                right.children = Arrays.copyOfRange(node.children, mid + 1, Math.max(node.keys.size() + 1, mid + 9));
+                node.keys.subList(mid, node.keys.size()).clear();
+            }
+            node.bytes = measure(node);
+            right.bytes = measure(right);
+
+            Node parent;
+            if (path.isEmpty()) {
+                parent = newNode(false);
+                parent.children[0] = node.page;
+                parent.bytes = measure(parent);
+                root = parent.page;
+            } else {
+                parent = path.remove(path.size() - 1);
+            }
+            parent.insertChild(-parent.search(separator) - 1, separator, right.page);
+            markDirty(parent);
+            node = parent;
+        }
+    }
+
+    /**
+     * First record of the right half: the one at which the left half reaches half a page
+     */
+    private static int splitPoint(Node leaf) {
+        int bytes = NODE_HEADER + CRC_BYTES;
+        for (int i = 0; i < leaf.keys.size(); i++) {
+            bytes += 4 + utf8Length(leaf.keys.get(i)) + leaf.values.get(i).length;
+            if (bytes > PAGE_SIZE / 2) {
+                return Math.max(1, Math.min(i, leaf.keys.size() - 1));
+            }
+        }
+        return leaf.keys.size() / 2;
+    }
+
+    private static int measure(Node node) {
+        int bytes = NODE_HEADER + CRC_BYTES;
+        for (int i = 0; i < node.keys.size(); i++) {
+            bytes += 2 + utf8Length(node.keys.get(i)) + (node.leaf ? 2 + node.values.get(i).length : 4);
+        }
+        return bytes;
+    }
+
+    private static byte[] encode(Node node) {
+        ByteBuffer page = ByteBuffer.allocate(PAGE_SIZE);
+        page.put(node.leaf ? LEAF : INNER);
+        page.putShort((short) node.keys.size());
+        page.putInt(node.leaf ? node.next : node.children[0]);
+        for (int i = 0; i < node.keys.size(); i++) {
+            byte[] key = node.keys.get(i).getBytes(StandardCharsets.UTF_8);
+            page.putShort((short) key.length).put(key);
+            if (node.leaf) {
+                byte[] value = node.values.get(i);
+                page.putShort((short) value.length).put(value);
+            } else {
+                page.putInt(node.children[i + 1]);
+            }
+        }
+        return seal(page);
+    }
+
+    private static Node decode(int pageNumber, ByteBuffer page) throws IOException {
+        byte type = page.get();
+        if (type != LEAF && type != INNER) {
+            throw new IOException("Page " + pageNumber + " has unknown type " + type);
+        }
+        Node node = new Node(pageNumber, type == LEAF);
+        int count = page.getShort() & 0xFFFF;
+        if (node.leaf) {
+            node.next = page.getInt();
+        } else {
+            node.children = new int[Math.max(8, count + 1)];
+            node.children[0] = page.getInt();
+        }
+        for (int i = 0; i < count; i++) {
+            byte[] key = new byte[page.getShort() & 0xFFFF];
+            page.get(key);
+            node.keys.add(new String(key, StandardCharsets.UTF_8));
+            if (node.leaf) {
+                byte[] value = new byte[page.getShort() & 0xFFFF];
+                page.get(value);
+                node.values.add(value);
+            } else {
+                node.children[i + 1] = page.getInt();
+            }
+        }
+        node.bytes = measure(node);
+        return node;
+    }
+
+    private byte[] encodeHeader() {
+        ByteBuffer page = ByteBuffer.allocate(PAGE_SIZE);
+        page.putInt(MAGIC).putInt(VERSION).putInt(PAGE_SIZE).putInt(root).putInt(pageCount).putLong(size);
+        return seal(page);
+    }
+
+    private void readHeader() throws IOException {
+        ByteBuffer page = readPage(0);
+        if (page.getInt() != MAGIC || page.getInt() != VERSION || page.getInt() != PAGE_SIZE) {
+            throw new IOException("Not a patient tree file, or written by another version");
+        }
+        root = page.getInt();
+        pageCount = page.getInt();
+        size = page.getLong();
+    }
+
+    private static byte[] seal(ByteBuffer page) {
+        CRC32C crc = new CRC32C();
+        crc.update(page.array(), 0, PAGE_SIZE - CRC_BYTES);
+        page.putInt(PAGE_SIZE - CRC_BYTES, (int) crc.getValue());
+        return page.array();
+    }
+
+    private ByteBuffer readPage(int page) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(PAGE_SIZE);
+        long position = (long) page * PAGE_SIZE;
+        while (buf.hasRemaining()) {
+            if (file.read(buf, position + buf.position()) < 0) {
+                throw new IOException("Page " + page + " is past the end of the tree file");
+            }
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buf.array(), 0, PAGE_SIZE - CRC_BYTES);
+        if (buf.getInt(PAGE_SIZE - CRC_BYTES) != (int) crc.getValue()) {
+            throw new IOException("Page " + page + " of the tree file is corrupt");
+        }
+        buf.flip();
+        buf.limit(PAGE_SIZE - CRC_BYTES);
+        return buf;
+    }
+
+    private void writePage(int page, byte[] bytes) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        long position = (long) page * PAGE_SIZE;
+        while (buf.hasRemaining()) {
+            file.write(buf, position + buf.position());
+        }
+        pageWrites++;
+    }
+
+    /**
+     * Writes the pages of a complete side file in place, fsyncs the tree file and empties the side file
+     */
+    private void redo(ByteBuffer wal) throws IOException {
+        wal.position(4);
+        int count = wal.getInt();
+        byte[] page = new byte[PAGE_SIZE];
+        for (int i = 0; i < count; i++) {
+            int number = wal.getInt();
+            wal.get(page);
+            writePage(number, page.clone());
+        }
+        file.force(true);
+        try (FileChannel out = FileChannel.open(walFile, StandardOpenOption.WRITE)) {
+            out.truncate(0);
+            out.force(true);
+        }
+    }
+
+    /**
+     * Finishes a flush whose side file was complete when the process stopped;
+     * a torn side file means the tree file was not touched yet and is dropped
+     */
+    private void recoverFlush() throws IOException {
+        if (!Files.exists(walFile) || Files.size(walFile) == 0) {
+            return;
+        }
+        ByteBuffer wal = ByteBuffer.wrap(Files.readAllBytes(walFile));
+        boolean complete = false;
+        if (wal.limit() >= 12 && wal.getInt(0) == WAL_MAGIC) {
+            long count = wal.getInt(4);
+            long expected = 8 + count * (4 + PAGE_SIZE) + 4;
+            if (count > 0 && expected == wal.limit()) {
+                CRC32C crc = new CRC32C();
+                crc.update(wal.array(), 0, wal.limit() - 4);
+                complete = wal.getInt(wal.limit() - 4) == (int) crc.getValue();
+            }
+        }
+        if (complete) {
+            redo(wal);
+        } else {
+            Files.write(walFile, new byte[0]);
+        }
+    }
+
+    private static int utf8Length(String s) {
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
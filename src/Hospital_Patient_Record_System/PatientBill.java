@@ -0,0 +1,55 @@
+package Hospital_Patient_Record_System;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Immutable bill of one discharged patient, as kept in the bill cache.
+ * Amounts are held in paise; it records the daily rate and discount it was
+ * priced with so the cache can tell whether a later change affects it.
+ */
+public final class PatientBill {
+    private final String patientId;
+    private final String ward;
+    private final LocalDate dischargeDate;
+    private final int days;
+    private final long ratePaise;
+    private final long discountHundredths;
+    private final long grossPaise;
+    private final long discountPaise;
+
+    PatientBill(String patientId, String ward, LocalDate dischargeDate, int days,
+                long ratePaise, long discountHundredths, long grossPaise, long discountPaise) {
+        this.patientId = patientId;
+        this.ward = ward;
+        this.dischargeDate = dischargeDate;
+        this.days = days;
+        this.ratePaise = ratePaise;
+        this.discountHundredths = discountHundredths;
+        this.grossPaise = grossPaise;
+        this.discountPaise = discountPaise;
+    }
+
+    public String getPatientId() { return patientId; }
+    public String getWard() { return ward; }
+    public LocalDate getDischargeDate() { return dischargeDate; }
+    public int getDays() { return days; }
+    public BigDecimal getDailyRate() { return BillingEngine.fromPaise(ratePaise); }
+    public BigDecimal getDiscountPercentage() { return BigDecimal.valueOf(discountHundredths, 2); }
+    public BigDecimal getTotalBill() { return BillingEngine.fromPaise(grossPaise); }
+    public BigDecimal getDiscount() { return BillingEngine.fromPaise(discountPaise); }
+    public BigDecimal getFinalBill() { return BillingEngine.fromPaise(grossPaise - discountPaise); }
+
+    long getRatePaise() { return ratePaise; }
+    long getGrossPaise() { return grossPaise; }
+    long getDiscountHundredths() { return discountHundredths; }
+    long getNetPaise() { return grossPaise - discountPaise; }
+
+    /**
+     * True if {@code engine} would still price this bill the same way
+     */
+    boolean isCurrent(BillingEngine engine) {
+        return engine.ratePaise(ward) == ratePaise
+            && engine.discountHundredthsOn(dischargeDate) == discountHundredths;
+    }
+}
@@ -0,0 +1,417 @@
+package Hospital_Patient_Record_System;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parallel loader for patients.csv.
+ *
+ * The file is memory-mapped and cut into byte ranges that end on line
+ * boundaries; each range is parsed on the common fork-join pool with a small
+ * byte-level tokenizer (no String.split, no regex). Rows come back in file
+ * order so the caller can assign beds sequentially, and per-line problems
+ * are collected instead of printed.
+ */
+public class PatientCsvLoader {
+    private static final long MIN_CHUNK_BYTES = 1 << 20;
+    private static final long MAX_CHUNK_BYTES = 64L << 20;
+    private static final int MAX_REPORTED_ERRORS = 10;
+
+    /**
+     * Patients parsed from the file (in file order) plus the problems found
+     */
+    public static class Result {
+        private final List<Patient> patients;
+        private int[] lineNumbers;
+        private final List<String> errors;
+        private int errorCount;
+
+        Result(int expected) {
+            this.patients = new ArrayList<>(expected);
+            this.lineNumbers = new int[expected];
+            this.errors = new ArrayList<>();
+        }
+
+        /**
+         * Wraps patients that were not parsed from text but that mirror the
+         * CSV rows one-to-one (e.g. from patients.snap), so record i maps to line i + 2.
+         */
+        public static Result of(List<Patient> patients) {
+            Result result = new Result(0);
+            result.patients.addAll(patients);
+            result.lineNumbers = new int[patients.size()];
+            for (int i = 0; i < patients.size(); i++) {
+                result.lineNumbers[i] = i + 2;
+            }
+            return result;
+        }
+
+        public List<Patient> getPatients() { return patients; }
+        public int getLineNumber(int index) { return lineNumbers[index]; }
+        public int getErrorCount() { return errorCount; }
+        public List<String> getErrors() { return errors; }
+
+        /**
+         * Records a problem on a line; only the first few messages are kept
+         * so a badly broken file cannot flood memory or the console.
+         */
+        public void addError(int lineNumber, String message) {
+            errorCount++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("Line " + lineNumber + ": " + message);
+            }
+        }
+
+        public String summary() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(errorCount).append(" line(s) skipped");
+            for (String e : errors) {
+                sb.append("\n     - ").append(e);
+            }
+            if (errorCount > errors.size()) {
+                sb.append("\n     - ... and ").append(errorCount - errors.size()).append(" more");
+            }
+            return sb.toString();
+        }
+    }
+
+    private final String[] knownWards;
+    private final byte[][] knownWardBytes;
+
+    /**
+     * @param knownWards ward names accepted by the hospital; rows naming other wards are rejected
+     */
+    public PatientCsvLoader(Collection<String> knownWards) {
+        this.knownWards = knownWards.toArray(new String[0]);
+        this.knownWardBytes = new byte[this.knownWards.length][];
+        for (int i = 0; i < this.knownWards.length; i++) {
+            knownWardBytes[i] = this.knownWards[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Parses the whole file. Returns null if the file has no header line.
+     */
+    public Result load(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            long dataStart = skipLine(ch, 0, size);
+            if (dataStart == 0 && size == 0) {
+                return null;
+            }
+
+            List<long[]> ranges = split(ch, dataStart, size);
+            Chunk[] chunks = new Chunk[ranges.size()];
+            for (int i = 0; i < chunks.length; i++) {
+                chunks[i] = new Chunk(ch, ranges.get(i)[0], ranges.get(i)[1]);
+            }
+            if (chunks.length > 0) {
+                ForkJoinPool.commonPool().invoke(new ParseAll(chunks, 0, chunks.length));
+            }
+
+            int expected = 0;
+            for (Chunk c : chunks) {
+                expected += c.patients.size();
+            }
+            Result result = new Result(expected);
+            int firstLine = 2; // line 1 is the header
+            for (Chunk c : chunks) {
+                if (c.failure != null) {
+                    throw c.failure;
+                }
+                for (int i = 0; i < c.patients.size(); i++) {
+                    result.lineNumbers[result.patients.size()] = firstLine + c.lineOffsets[i];
+                    result.patients.add(c.patients.get(i));
+                }
+                for (int i = 0; i < c.errorLines.size(); i++) {
+                    result.addError(firstLine + c.errorLines.get(i), c.errorMessages.get(i));
+                }
+                firstLine += c.lineCount;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Cuts [start, end) into ranges of roughly equal size whose boundaries
+     * fall right after a newline.
+     */
+    private static List<long[]> split(FileChannel ch, long start, long end) throws IOException {
+        int parallelism = ForkJoinPool.commonPool().getParallelism();
+        long target = Math.max(MIN_CHUNK_BYTES, (end - start) / (parallelism * 4L) + 1);
+        target = Math.min(target, MAX_CHUNK_BYTES);
+
+        List<long[]> ranges = new ArrayList<>();
+        long pos = start;
+        while (pos < end) {
+            long cut = pos + target >= end ? end : skipLine(ch, pos + target, end);
+            ranges.add(new long[] {pos, cut});
+            pos = cut;
+        }
+        return ranges;
+    }
+
+    /**
+     * Returns the position just after the next newline at or after {@code pos}.
+     */
+    private static long skipLine(FileChannel ch, long pos, long end) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(4096);
+        while (pos < end) {
+            buf.clear();
+            int n = ch.read(buf, pos);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                if (buf.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += n;
+        }
+        return end;
+    }
+
+    private class ParseAll extends RecursiveTask<Void> {
+        private static final long serialVersionUID = 1L;
+        private final Chunk[] chunks;
+        private final int from;
+        private final int to;
+
+        ParseAll(Chunk[] chunks, int from, int to) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Void compute() {
+            if (to - from == 1) {
+                chunks[from].parse();
+                return null;
+            }
+            int mid = (from + to) >>> 1;
+            ParseAll left = new ParseAll(chunks, from, mid);
+            left.fork();
+            new ParseAll(chunks, mid, to).compute();
+            left.join();
+            return null;
+        }
+    }
+
+    /**
+     * One line-aligned byte range of the file and what was parsed from it
+     */
+    private class Chunk {
+        private final FileChannel ch;
+        private final long start;
+        private final long end;
+        private final List<Patient> patients = new ArrayList<>();
+        private int[] lineOffsets = new int[1024];
+        private final List<Integer> errorLines = new ArrayList<>();
+        private final List<String> errorMessages = new ArrayList<>();
+        private final int[] fieldStart = new int[7];
+        private final int[] fieldEnd = new int[7];
+        private int lineCount;
+        private IOException failure;
+
+        Chunk(FileChannel ch, long start, long end) {
+            this.ch = ch;
+            this.start = start;
+            this.end = end;
+        }
+
+        void parse() {
+            MappedByteBuffer buf;
+            try {
+                buf = ch.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            } catch (IOException e) {
+                failure = e;
+                return;
+            }
+            int limit = buf.limit();
+            int pos = 0;
+            while (pos < limit) {
+                int eol = pos;
+                while (eol < limit && buf.get(eol) != '\n') {
+                    eol++;
+                }
+                int lineEnd = (eol > pos && buf.get(eol - 1) == '\r') ? eol - 1 : eol;
+                if (lineEnd > pos) {
+                    parseLine(buf, pos, lineEnd);
+                }
+                lineCount++;
+                pos = eol + 1;
+            }
+        }
+
+        private void parseLine(ByteBuffer buf, int from, int to) {
+            int fields = 0;
+            int fs = from;
+            for (int i = from; i <= to && fields < fieldStart.length; i++) {
+                if (i == to || buf.get(i) == ',') {
+                    fieldStart[fields] = fs;
+                    fieldEnd[fields] = i;
+                    fields++;
+                    fs = i + 1;
+                }
+            }
+            for (int f = 0; f < fields; f++) {
+                while (fieldStart[f] < fieldEnd[f] && buf.get(fieldStart[f]) == ' ') fieldStart[f]++;
+                while (fieldEnd[f] > fieldStart[f] && buf.get(fieldEnd[f] - 1) == ' ') fieldEnd[f]--;
+            }
+            if (fields < 6) {
+                error("Invalid format, skipping");
+                return;
+            }
+
+            int age = parseInt(buf, fieldStart[2], fieldEnd[2]);
+            if (age == Integer.MIN_VALUE) {
+                error("Invalid age format, skipping");
+                return;
+            }
+            String ward = matchWard(buf, fieldStart[3], fieldEnd[3]);
+            if (ward == null) {
+                String name = text(buf, fieldStart[3], fieldEnd[3]);
+                error("Ward '" + name + "' not found");
+                return;
+            }
+            LocalDate admitDate = parseDate(buf, fieldStart[4], fieldEnd[4]);
+            if (admitDate == null) {
+                error("Error - invalid admit date '" + text(buf, fieldStart[4], fieldEnd[4]) + "'");
+                return;
+            }
+            boolean discharged = equalsIgnoreCase(buf, fieldStart[5], fieldEnd[5], "discharged");
+            if (!discharged && !equalsIgnoreCase(buf, fieldStart[5], fieldEnd[5], "admitted")) {
+                error("Error - unknown status '" + text(buf, fieldStart[5], fieldEnd[5]) + "'");
+                return;
+            }
+            LocalDate discharge = null;
+            if (discharged) {
+                // a guessed date would change the length of stay and the bill
+                if (fields < 7 || fieldEnd[6] == fieldStart[6]) {
+                    error("Error - discharged without a discharge date, skipping");
+                    return;
+                }
+                discharge = parseDate(buf, fieldStart[6], fieldEnd[6]);
+                if (discharge == null) {
+                    error("Error - invalid discharge date '" + text(buf, fieldStart[6], fieldEnd[6]) + "'");
+                    return;
+                }
+            }
+
+            try {
+                Patient patient = new Patient(text(buf, fieldStart[0], fieldEnd[0]),
+                    text(buf, fieldStart[1], fieldEnd[1]), age, ward, admitDate);
+                if (discharged) {
+                    patient.discharge(discharge);
+                }
+                if (patients.size() == lineOffsets.length) {
+                    lineOffsets = Arrays.copyOf(lineOffsets, lineOffsets.length * 2);
+                }
+                lineOffsets[patients.size()] = lineCount;
+                patients.add(patient);
+            } catch (InvalidPatientDataException e) {
+                error("Invalid data - " + e.getMessage());
+            } catch (PatientAlreadyDischargedException e) {
+                error("Error - " + e.getMessage());
+            }
+        }
+
+        private void error(String message) {
+            errorLines.add(lineCount);
+            errorMessages.add(message);
+        }
+
+        private String matchWard(ByteBuffer buf, int from, int to) {
+            for (int w = 0; w < knownWardBytes.length; w++) {
+                byte[] candidate = knownWardBytes[w];
+                if (candidate.length != to - from) {
+                    continue;
+                }
+                int i = 0;
+                while (i < candidate.length && buf.get(from + i) == candidate[i]) {
+                    i++;
+                }
+                if (i == candidate.length) {
+                    return knownWards[w];
+                }
+            }
+            return null;
+        }
+    }
+
+    private static String text(ByteBuffer buf, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buf.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses a decimal int with an optional leading '-'; returns
+     * Integer.MIN_VALUE if the field is empty, a bare sign, not numeric or too long.
+     */
+    private static int parseInt(ByteBuffer buf, int from, int to) {
+        if (from == to || to - from > 9) {
+            return Integer.MIN_VALUE;
+        }
+        int value = 0;
+        boolean negative = buf.get(from) == '-';
+        if (negative && to - from == 1) {
+            return Integer.MIN_VALUE;
+        }
+        for (int i = negative ? from + 1 : from; i < to; i++) {
+            int d = buf.get(i) - '0';
+            if (d < 0 || d > 9) {
+                return Integer.MIN_VALUE;
+            }
+            value = value * 10 + d;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses yyyy-MM-dd without going through a DateTimeFormatter.
+     */
+    private static LocalDate parseDate(ByteBuffer buf, int from, int to) {
+        if (to - from != 10 || buf.get(from + 4) != '-' || buf.get(from + 7) != '-') {
+            return null;
+        }
+        int year = parseInt(buf, from, from + 4);
+        int month = parseInt(buf, from + 5, from + 7);
+        int day = parseInt(buf, from + 8, from + 10);
+        if (year < 0 || month < 0 || day < 0) {
+            return null;
+        }
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static boolean equalsIgnoreCase(ByteBuffer buf, int from, int to, String expected) {
+        if (to - from != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (Character.toLowerCase((char) buf.get(from + i)) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,119 @@
+package Hospital_Patient_Record_System;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PatientIndex class keeping patients indexed by ID, ward and status.
+ *
+ * Safe for concurrent use: lookups go through a ConcurrentHashMap and the
+ * ordered views are skip lists keyed by insertion sequence, so iteration is
+ * in admission order and never throws ConcurrentModificationException.
+ */
+public class PatientIndex implements PatientStore {
+    private static class Entry {
+        final long seq;
+        final Patient patient;
+
+        Entry(long seq, Patient patient) {
+            this.seq = seq;
+            this.patient = patient;
+        }
+    }
+
+    private final AtomicLong nextSeq = new AtomicLong();
+    private final ConcurrentMap<String, Entry> byId = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<Long, Patient> inOrder = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, ConcurrentNavigableMap<Long, Patient>> byWard = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentNavigableMap<Long, Patient>> byStatus = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a patient to all indexes. Returns false (and changes nothing)
+     * if a patient with the same ID is already indexed.
+     */
+    @Override
+    public boolean add(Patient patient) {
+        Entry entry = new Entry(nextSeq.getAndIncrement(), patient);
+        if (byId.putIfAbsent(patient.getId(), entry) != null) {
+            return false;
+        }
+        inOrder.put(entry.seq, patient);
+        bucket(byWard, patient.getWard()).put(entry.seq, patient);
+        bucket(byStatus, statusKey(patient.getStatus())).put(entry.seq, patient);
+        return true;
+    }
+
+    @Override
+    public Patient get(String patientId) {
+        Entry entry = byId.get(patientId);
+        return entry == null ? null : entry.patient;
+    }
+
+    @Override
+    public boolean contains(String patientId) {
+        return byId.containsKey(patientId);
+    }
+
+    /**
+     * Moves a patient to the bucket of its current status after
+     * {@link Patient#discharge} has changed it.
+     */
+    @Override
+    public void statusChanged(Patient patient, String oldStatus) {
+        Entry entry = byId.get(patient.getId());
+        if (entry == null) {
+            return;
+        }
+        bucket(byStatus, statusKey(patient.getStatus())).put(entry.seq, patient);
+        ConcurrentNavigableMap<Long, Patient> old = byStatus.get(statusKey(oldStatus));
+        if (old != null) {
+            old.remove(entry.seq);
+        }
+    }
+
+    @Override
+    public Collection<Patient> all() {
+        return Collections.unmodifiableCollection(inOrder.values());
+    }
+
+    @Override
+    public Collection<Patient> byWard(String wardName) {
+        return view(byWard.get(wardName));
+    }
+
+    @Override
+    public Collection<Patient> byStatus(String status) {
+        return view(byStatus.get(statusKey(status)));
+    }
+
+    @Override
+    public int size() {
+        return byId.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return byId.isEmpty();
+    }
+
+    private static ConcurrentNavigableMap<Long, Patient> bucket(
+            ConcurrentMap<String, ConcurrentNavigableMap<Long, Patient>> index, String key) {
+        return index.computeIfAbsent(key, k -> new ConcurrentSkipListMap<>());
+    }
+
+    private static Collection<Patient> view(ConcurrentNavigableMap<Long, Patient> bucket) {
+        if (bucket == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableCollection(bucket.values());
+    }
+
+    private static String statusKey(String status) {
+        return status == null ? "" : status.toLowerCase();
+    }
+}
@@ -0,0 +1,494 @@
+package Hospital_Patient_Record_System;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Append-only write-ahead journal for patient admissions and discharges.
+ *
+ * Every admit/discharge is appended as one checksummed line (see
+ * RecordCodec) and fsync'd, so the cost of an operation does not depend on
+ * how many patients exist. The journal is replayed on top of patients.csv at
+ * startup: a torn last record is cut off, and any other record that is
+ * corrupted or cannot be applied is skipped with a warning.
+ *
+ * Appends are group-committed: writing a record only takes the journal lock
+ * briefly, and whichever writer reaches the fsync first syncs everything
+ * written so far, so writers that arrive meanwhile return without an fsync
+ * of their own. A batch of records is written and synced as one unit. Once enough records
+ * pile up the journal is rotated and a background thread folds it into a
+ * fresh patients.csv, which replaces the old one through an atomic rename,
+ * or hands it to the Compactor of a repository that stores patients
+ * elsewhere.
+ */
+public class PatientJournal {
+    public static final String CSV_HEADER = "PatientID,Name,Age,Ward,AdmitDate,Status,DischargeDate";
+    private static final int COMPACTION_THRESHOLD = 1000;
+
+    /**
+     * Callback used while replaying journal records
+     */
+    public interface Handler {
+        void onAdmit(String id, String name, int age, String ward, String admitDate) throws Exception;
+        void onDischarge(String id, String dischargeDate) throws Exception;
+    }
+
+    /**
+     * Makes the records of a rotated journal durable somewhere other than
+     * the journal, so the rotated file can be deleted. Runs on the
+     * compactor thread and fails (to be retried later) by throwing.
+     */
+    public interface Compactor {
+        void compact(Path rotatedJournal) throws Exception;
+    }
+
+    /**
+     * Saves every patient somewhere other than the journal
+     */
+    public interface Checkpoint {
+        void save() throws IOException;
+    }
+
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final Path rotatedFile;
+    private final ExecutorService compactor;
+    private final Compactor folder;
+    private final EventSink events;
+    private final Object syncLock = new Object();
+    private FileChannel channel;
+    private int recordsSinceRotation;
+    private Future<?> pendingCompaction;
+    private long written;
+    private volatile long synced;
+    private long records;
+    private long syncs;
+
+    public PatientJournal(Path snapshotFile, Path journalFile) {
+        this(snapshotFile, journalFile, EventSink.NO_OP);
+    }
+
+    public PatientJournal(Path snapshotFile, Path journalFile, EventSink events) {
+        this(snapshotFile, journalFile, events, null);
+    }
+
+    /**
+     * @param folder where rotated journals go; null folds them into {@code snapshotFile}
+     */
+    public PatientJournal(Path snapshotFile, Path journalFile, EventSink events, Compactor folder) {
+        this.events = events;
+        this.folder = folder != null ? folder : this::foldIntoSnapshot;
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFile;
+        this.rotatedFile = journalFile.resolveSibling(journalFile.getFileName() + ".1");
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "journal-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Replays a rotated journal left behind by an interrupted compaction and
+     * then the live journal, truncating a torn tail record, and opens the
+     * journal for appending. Returns the number of records applied.
+     */
+    public synchronized int recover(Handler handler) throws CSVFileException {
+        int replayed = replay(rotatedFile, handler, false);
+        replayed += replay(journalFile, handler, true);
+        try {
+            channel = FileChannel.open(journalFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new CSVFileException(journalFile.toString(), "open", e);
+        }
+        recordsSinceRotation = replayed;
+        if (Files.exists(rotatedFile)) {
+            pendingCompaction = compactor.submit(this::compact);
+        }
+        return replayed;
+    }
+
+    public void appendAdmit(Patient p) throws CSVFileException {
+        commit(write(Collections.singletonList(admitRecord(p))));
+    }
+
+    public void appendDischarge(Patient p, LocalDate date) throws CSVFileException {
+        commit(write(Collections.singletonList(dischargeRecord(p, date))));
+    }
+
+    /**
+     * Appends admissions of a whole batch with one write and one fsync
+     */
+    public void appendAdmits(Collection<Patient> batch) throws CSVFileException {
+        List<String> bodies = new ArrayList<>(batch.size());
+        for (Patient p : batch) {
+            bodies.add(admitRecord(p));
+        }
+        commit(write(bodies));
+    }
+
+    /**
+     * Appends discharges of a whole batch with one write and one fsync
+     */
+    public void appendDischarges(Collection<Patient> batch, LocalDate date) throws CSVFileException {
+        List<String> bodies = new ArrayList<>(batch.size());
+        for (Patient p : batch) {
+            bodies.add(dischargeRecord(p, date));
+        }
+        commit(write(bodies));
+    }
+
+    /**
+     * Appends already formatted records (see admitRecord, dischargeRecord)
+     * with one write and one fsync, e.g. for a JournalWriter
+     */
+    void append(List<String> bodies) throws CSVFileException {
+        commit(write(bodies));
+    }
+
+    public Path getFile() {
+        return journalFile;
+    }
+
+    /**
+     * Records appended and fsyncs performed since startup; their ratio is
+     * the average number of records sharing one fsync
+     */
+    public synchronized long getRecordCount() {
+        return records;
+    }
+
+    public synchronized long getSyncCount() {
+        return syncs;
+    }
+
+    /**
+     * Writes a full snapshot through {@code writer}, then discards the journal
+     * records it supersedes. Waits for any running compaction first so an
+     * older compacted file cannot replace the new snapshot.
+     */
+    public synchronized void checkpoint(SnapshotWriter writer) throws IOException {
+        checkpoint(() -> writeAtomically(snapshotFile, writer));
+    }
+
+    /**
+     * Runs {@code save}, which must make every patient durable elsewhere,
+     * then discards the whole journal. Waits for any running compaction first.
+     * The caller must keep out operations whose records are appended but not
+     * yet in what {@code save} writes, or their changes are lost.
+     */
+    public synchronized void checkpoint(Checkpoint save) throws IOException {
+        awaitCompaction();
+        save.save();
+        Files.deleteIfExists(rotatedFile);
+        if (channel != null) {
+            channel.truncate(0);
+            channel.force(true);
+        }
+        synced = written;
+        recordsSinceRotation = 0;
+    }
+
+    public synchronized void close() {
+        awaitCompaction();
+        compactor.shutdown();
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            warn("Could not close journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Body of a CSV snapshot, written after the header line
+     */
+    public interface SnapshotWriter {
+        void write(BufferedWriter out) throws IOException;
+    }
+
+    /**
+     * Writes {@code target} via a temp file in the same directory, fsyncs it
+     * and renames it into place atomically, so readers only ever see the old
+     * or the new complete file.
+     */
+    public static void writeAtomically(Path target, SnapshotWriter writer) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             BufferedWriter out = new BufferedWriter(
+                 new OutputStreamWriter(Channels.newOutputStream(ch), StandardCharsets.UTF_8), 1 << 16)) {
+            out.write(CSV_HEADER);
+            out.write('\n');
+            writer.write(out);
+            out.flush();
+            ch.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    static String admitRecord(Patient p) {
+        return RecordCodec.join("A", p.getId(), p.getName(), p.getAge(), p.getWard(), p.getAdmitDate());
+    }
+
+    static String dischargeRecord(Patient p, LocalDate date) {
+        return RecordCodec.join("D", p.getId(), date);
+    }
+
+    /**
+     * Writes the records without syncing and returns the write's sequence
+     * number, to be passed to {@link #commit(long)}
+     */
+    private synchronized long write(List<String> bodies) throws CSVFileException {
+        if (channel == null) {
+            throw new CSVFileException("Journal is not open", journalFile.toString());
+        }
+        StringBuilder sb = new StringBuilder(bodies.size() * 48);
+        for (String body : bodies) {
+            sb.append(RecordCodec.seal(body)).append('\n');
+        }
+        try {
+            ByteBuffer buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+        } catch (IOException e) {
+            throw new CSVFileException(journalFile.toString(), "append to", e);
+        }
+        records += bodies.size();
+        recordsSinceRotation += bodies.size();
+        return ++written;
+    }
+
+    /**
+     * Returns once write {@code seq} is on disk. The first waiter syncs every
+     * write made so far; the others find their write already covered.
+     */
+    private void commit(long seq) throws CSVFileException {
+        if (synced >= seq) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced >= seq) {
+                return;
+            }
+            FileChannel ch;
+            long upTo;
+            synchronized (this) {
+                ch = channel;
+                upTo = written;
+            }
+            if (ch == null) {
+                throw new CSVFileException("Journal is not open", journalFile.toString());
+            }
+            try {
+                ch.force(false);
+            } catch (IOException e) {
+                throw new CSVFileException(journalFile.toString(), "sync", e);
+            }
+            synchronized (this) {
+                synced = Math.max(synced, upTo);
+                syncs++;
+                if (recordsSinceRotation >= COMPACTION_THRESHOLD) {
+                    rotateAndCompact();
+                }
+            }
+        }
+    }
+
+    private void rotateAndCompact() {
+        if ((pendingCompaction != null && !pendingCompaction.isDone()) || Files.exists(rotatedFile)) {
+            return;
+        }
+        try {
+            // Writes not yet synced by their own commit go out with the old file
+            channel.force(false);
+            synced = written;
+            channel.close();
+            Files.move(journalFile, rotatedFile, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(journalFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            recordsSinceRotation = 0;
+            pendingCompaction = compactor.submit(this::compact);
+        } catch (IOException e) {
+            warn("Journal rotation failed: " + e.getMessage());
+            try {
+                channel = FileChannel.open(journalFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            } catch (IOException reopen) {
+                channel = null;
+            }
+        }
+    }
+
+    /**
+     * Replays {@code file} without changing it, e.g. for a Compactor
+     */
+    int read(Path file, Handler handler) throws CSVFileException {
+        return replay(file, handler, false);
+    }
+
+    private void compact() {
+        try {
+            folder.compact(rotatedFile);
+            Files.deleteIfExists(rotatedFile);
+        } catch (Exception e) {
+            warn("Journal compaction failed, will retry at next checkpoint: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Folds the rotated journal into patients.csv. Works purely on files, so
+     * it never touches the in-memory patient index used by request handling.
+     */
+    private void foldIntoSnapshot(Path rotated) throws Exception {
+        Map<String, String[]> rows = new LinkedHashMap<>();
+        try (BufferedReader br = Files.newBufferedReader(snapshotFile, StandardCharsets.UTF_8)) {
+            String line = br.readLine();
+            while ((line = br.readLine()) != null) {
+                String[] parts = line.split(",", -1);
+                if (parts.length >= 6) {
+                    // rows written before the DischargeDate column existed have six fields
+                    rows.put(parts[0].trim(), Arrays.copyOf(parts, 7));
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // first compaction: start from an empty snapshot
+        }
+
+        replay(rotated, new Handler() {
+            public void onAdmit(String id, String name, int age, String ward, String admitDate) {
+                rows.putIfAbsent(id, new String[] {id, name, String.valueOf(age), ward, admitDate, "admitted", ""});
+            }
+
+            public void onDischarge(String id, String dischargeDate) {
+                String[] row = rows.get(id);
+                if (row != null) {
+                    row[5] = "discharged";
+                    row[6] = dischargeDate;
+                }
+            }
+        }, false);
+
+        writeAtomically(snapshotFile, out -> {
+            for (String[] row : rows.values()) {
+                if (row[6] == null) {
+                    row[6] = "";
+                }
+                out.write(String.join(",", row));
+                out.write('\n');
+            }
+        });
+    }
+
+    private int replay(Path file, Handler handler, boolean truncateTornTail) throws CSVFileException {
+        byte[] data;
+        try {
+            data = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return 0;
+        } catch (IOException e) {
+            throw new CSVFileException(file.toString(), "read", e);
+        }
+
+        int count = 0;
+        int start = 0;
+        int validLength = 0;
+        while (start < data.length) {
+            int end = start;
+            while (end < data.length && data[end] != '\n') {
+                end++;
+            }
+            if (end == data.length) {
+                break; // torn record without trailing newline
+            }
+            String body = RecordCodec.open(new String(data, start, end - start, StandardCharsets.UTF_8));
+            if (body == null && end + 1 == data.length) {
+                break; // last record torn: its write never completed
+            }
+            if (body == null) {
+                warn("Corrupted journal record skipped (" + file.getFileName() + ", byte " + start + ")");
+            } else if (apply(file, RecordCodec.split(body), handler)) {
+                count++;
+            }
+            start = end + 1;
+            validLength = start;
+        }
+
+        if (validLength < data.length) {
+            warn("Discarding " + (data.length - validLength)
+                + " bytes of incomplete journal data in " + file.getFileName());
+            if (truncateTornTail) {
+                try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    ch.truncate(validLength);
+                    ch.force(true);
+                } catch (IOException e) {
+                    throw new CSVFileException(file.toString(), "truncate", e);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Passes one record to {@code handler}; warns and returns false if it is
+     * malformed or the handler rejects it
+     */
+    private boolean apply(Path file, String[] parts, Handler handler) {
+        try {
+            if ("A".equals(parts[0]) && parts.length == 6) {
+                handler.onAdmit(parts[1], parts[2], Integer.parseInt(parts[3]), parts[4], parts[5]);
+            } else if ("D".equals(parts[0]) && parts.length == 3) {
+                handler.onDischarge(parts[1], parts[2]);
+            } else {
+                warn("Journal record skipped (" + file.getFileName() + "): unexpected format '"
+                    + String.join(",", parts) + "'");
+                return false;
+            }
+            return true;
+        } catch (Exception e) {
+            warn("Journal record skipped (" + file.getFileName() + "): " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void awaitCompaction() {
+        if (pendingCompaction == null) {
+            return;
+        }
+        try {
+            pendingCompaction.get();
+        } catch (Exception e) {
+            warn("Journal compaction did not complete: " + e.getMessage());
+        }
+        pendingCompaction = null;
+    }
+
+    private void warn(String message) {
+        events.publish(new HospitalEvent.Notice(HospitalEvent.Severity.WARNING, message));
+    }
+}
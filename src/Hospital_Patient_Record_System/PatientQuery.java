@@ -0,0 +1,694 @@
+package Hospital_Patient_Record_System;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Group-by and aggregate queries over all patients, e.g. average length of
+ * stay by ward and age band, or discharges per week:
+ *
+ * <pre>
+ * hospital.query()
+ *     .where(PatientQuery.status("discharged"))
+ *     .groupBy(Dimension.WARD, Dimension.ageBand(10))
+ *     .select(Aggregate.count(), Aggregate.avg(Measure.LENGTH_OF_STAY))
+ *     .run();
+ * </pre>
+ *
+ * The patients are read as primitive columns (copied straight from a
+ * ColumnarPatientStore, or extracted once from Patient objects). Filters
+ * are pushed down before the scan: ranges on the same column are
+ * intersected, and an empty intersection returns without scanning. The
+ * scan is one loop over plain int arrays that checks each remaining filter,
+ * turns each dimension into a group number through a lookup table, and
+ * updates dense per-group accumulators. It runs in parallel over row
+ * blocks, and the per-block results are merged at the end.
+ */
+public class PatientQuery {
+    private static final int BLOCK_ROWS = 1 << 16;
+    private static final int MAX_GROUPS = 1 << 18;
+    private static final int NOT_DISCHARGED = Integer.MIN_VALUE;
+
+    /**
+     * Numeric value aggregated per patient
+     */
+    public enum Measure {
+        AGE,
+        /** Days admitted, counting both ends; up to today for patients still admitted */
+        LENGTH_OF_STAY
+    }
+
+    /**
+     * What rows are grouped by
+     */
+    public static final class Dimension {
+        public static final Dimension WARD = new Dimension("Ward", 0);
+        public static final Dimension STATUS = new Dimension("Status", 0);
+        public static final Dimension ADMIT_WEEK = new Dimension("Admit week", 0);
+        public static final Dimension ADMIT_MONTH = new Dimension("Admit month", 0);
+        public static final Dimension DISCHARGE_WEEK = new Dimension("Discharge week", 0);
+        public static final Dimension DISCHARGE_MONTH = new Dimension("Discharge month", 0);
+
+        private final String label;
+        private final int bandWidth;
+
+        private Dimension(String label, int bandWidth) {
+            this.label = label;
+            this.bandWidth = bandWidth;
+        }
+
+        /**
+         * Ages in bands of {@code width} years: 0-9, 10-19, ... for width 10
+         */
+        public static Dimension ageBand(int width) {
+            if (width <= 0) {
+                throw new IllegalArgumentException("Age band width must be positive");
+            }
+            return new Dimension("Age", width);
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * Value computed per group
+     */
+    public static final class Aggregate {
+        enum Kind { COUNT, SUM, AVG, MIN, MAX, PERCENTILE }
+
+        final Kind kind;
+        final Measure measure;
+        final double percentile;
+
+        private Aggregate(Kind kind, Measure measure, double percentile) {
+            this.kind = kind;
+            this.measure = measure;
+            this.percentile = percentile;
+        }
+
+        public static Aggregate count() { return new Aggregate(Kind.COUNT, null, 0); }
+        public static Aggregate sum(Measure m) { return new Aggregate(Kind.SUM, m, 0); }
+        public static Aggregate avg(Measure m) { return new Aggregate(Kind.AVG, m, 0); }
+        public static Aggregate min(Measure m) { return new Aggregate(Kind.MIN, m, 0); }
+        public static Aggregate max(Measure m) { return new Aggregate(Kind.MAX, m, 0); }
+
+        /**
+         * Nearest-rank percentile, e.g. 90 for the value 90% of the group is at or below
+         */
+        public static Aggregate percentile(Measure m, double percent) {
+            if (percent <= 0 || percent > 100) {
+                throw new IllegalArgumentException("Percentile must be in (0, 100]");
+            }
+            return new Aggregate(Kind.PERCENTILE, m, percent);
+        }
+
+        String label() {
+            if (kind == Kind.COUNT) {
+                return "Count";
+            }
+            String name = measure == Measure.AGE ? "age" : "stay";
+            switch (kind) {
+                case SUM: return "Sum " + name;
+                case AVG: return "Avg " + name;
+                case MIN: return "Min " + name;
+                case MAX: return "Max " + name;
+                default: return "P" + (percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile)) + " " + name;
+            }
+        }
+    }
+
+    /**
+     * Condition on a patient; all conditions of a query must hold
+     */
+    public static final class Filter {
+        final Column column;
+        final int low;
+        final int high;
+        final String[] wards;
+
+        private Filter(Column column, int low, int high, String[] wards) {
+            this.column = column;
+            this.low = low;
+            this.high = high;
+            this.wards = wards;
+        }
+    }
+
+    enum Column { WARD, AGE, ADMIT_DAY, DISCHARGE_DAY, DISCHARGED, STAY }
+
+    public static Filter ward(String... wards) {
+        return new Filter(Column.WARD, 0, 0, wards.clone());
+    }
+
+    /**
+     * "admitted" or "discharged"
+     */
+    public static Filter status(String status) {
+        if ("admitted".equalsIgnoreCase(status)) {
+            return new Filter(Column.DISCHARGED, 0, 0, null);
+        }
+        if ("discharged".equalsIgnoreCase(status)) {
+            return new Filter(Column.DISCHARGED, 1, 1, null);
+        }
+        throw new IllegalArgumentException("Unknown status '" + status + "'");
+    }
+
+    public static Filter ageBetween(int from, int to) {
+        return new Filter(Column.AGE, from, to, null);
+    }
+
+    public static Filter admittedBetween(LocalDate from, LocalDate to) {
+        return new Filter(Column.ADMIT_DAY, (int) from.toEpochDay(), (int) to.toEpochDay(), null);
+    }
+
+    /**
+     * Discharged between the two dates (inclusive); excludes patients still admitted
+     */
+    public static Filter dischargedBetween(LocalDate from, LocalDate to) {
+        return new Filter(Column.DISCHARGE_DAY, (int) from.toEpochDay(), (int) to.toEpochDay(), null);
+    }
+
+    public static Filter stayBetween(int fromDays, int toDays) {
+        return new Filter(Column.STAY, fromDays, toDays, null);
+    }
+
+    /**
+     * Patients as primitive columns, one row per patient
+     */
+    static final class Columns {
+        final String[] wardNames;
+        final int size;
+        final int[] ward;
+        final int[] age;
+        final int[] admitDay;
+        final int[] dischargeDay;
+        final int[] discharged;
+        final int[] stay;
+
+        /**
+         * @param dischargeDay epoch day, or Integer.MIN_VALUE for patients still admitted
+         */
+        Columns(String[] wardNames, int size, int[] ward, int[] age, int[] admitDay, int[] dischargeDay,
+                int[] discharged, LocalDate today) {
+            this.wardNames = wardNames;
+            this.size = size;
+            this.ward = ward;
+            this.age = age;
+            this.admitDay = admitDay;
+            this.dischargeDay = dischargeDay;
+            this.discharged = discharged;
+            this.stay = new int[size];
+            int todayDay = (int) today.toEpochDay();
+            for (int row = 0; row < size; row++) {
+                int end = dischargeDay[row] == NOT_DISCHARGED ? todayDay : dischargeDay[row];
+                stay[row] = end - admitDay[row] + 1;
+            }
+        }
+
+        static Columns of(Collection<Patient> patients, LocalDate today) {
+            Map<String, Integer> ordinals = new HashMap<>();
+            List<String> names = new ArrayList<>();
+            int capacity = patients.size();
+            int[] ward = new int[capacity];
+            int[] age = new int[capacity];
+            int[] admit = new int[capacity];
+            int[] discharge = new int[capacity];
+            int[] discharged = new int[capacity];
+            int row = 0;
+            for (Patient p : patients) {
+                if (row == capacity) {
+                    break; // admitted after size() was read; left for the next query
+                }
+                Integer w = ordinals.get(p.getWard());
+                if (w == null) {
+                    w = names.size();
+                    names.add(p.getWard());
+                    ordinals.put(p.getWard(), w);
+                }
+                LocalDate out = p.getDischargeDate();
+                ward[row] = w;
+                age[row] = p.getAge();
+                admit[row] = (int) p.getAdmitDate().toEpochDay();
+                discharge[row] = out == null ? NOT_DISCHARGED : (int) out.toEpochDay();
+                discharged[row] = "discharged".equalsIgnoreCase(p.getStatus()) ? 1 : 0;
+                row++;
+            }
+            return new Columns(names.toArray(new String[0]), row, ward, age, admit, discharge, discharged, today);
+        }
+
+        int[] column(Column c) {
+            switch (c) {
+                case WARD: return ward;
+                case AGE: return age;
+                case ADMIT_DAY: return admitDay;
+                case DISCHARGE_DAY: return dischargeDay;
+                case DISCHARGED: return discharged;
+                default: return stay;
+            }
+        }
+
+        int[] measure(Measure m) {
+            return m == Measure.AGE ? age : stay;
+        }
+    }
+
+    private final PatientStore store;
+    private final LocalDate today;
+    private final List<Filter> filters = new ArrayList<>();
+    private final List<Dimension> dimensions = new ArrayList<>();
+    private final List<Aggregate> aggregates = new ArrayList<>();
+
+    /**
+     * @param today end of the stay of patients still admitted
+     */
+    public PatientQuery(PatientStore store, LocalDate today) {
+        this.store = store;
+        this.today = today;
+    }
+
+    public PatientQuery where(Filter... conditions) {
+        filters.addAll(Arrays.asList(conditions));
+        return this;
+    }
+
+    public PatientQuery groupBy(Dimension... by) {
+        dimensions.addAll(Arrays.asList(by));
+        return this;
+    }
+
+    /**
+     * Aggregates to compute per group; a count if none are given
+     */
+    public PatientQuery select(Aggregate... values) {
+        aggregates.addAll(Arrays.asList(values));
+        return this;
+    }
+
+    public QueryResult run() {
+        long started = System.nanoTime();
+        Columns columns = store instanceof ColumnarPatientStore
+            ? ((ColumnarPatientStore) store).columns(today)
+            : Columns.of(store.all(), today);
+        return run(columns, started);
+    }
+
+    QueryResult run(Columns columns, long started) {
+        List<Aggregate> selected = aggregates.isEmpty() ? List.of(Aggregate.count()) : new ArrayList<>(aggregates);
+        Plan plan = new Plan(columns, selected);
+        if (plan.empty) {
+            return plan.result(new Accumulator(plan), started);
+        }
+        int blocks = (columns.size + BLOCK_ROWS - 1) / BLOCK_ROWS;
+        Accumulator total = IntStream.range(0, blocks).parallel()
+            .mapToObj(b -> {
+                Accumulator acc = new Accumulator(plan);
+                acc.scan(b * BLOCK_ROWS, Math.min(columns.size, (b + 1) * BLOCK_ROWS));
+                return acc;
+            })
+            .reduce(Accumulator::merge)
+            .orElseGet(() -> new Accumulator(plan));
+        return plan.result(total, started);
+    }
+
+    /**
+     * The query turned into arrays the scan loop can use directly
+     */
+    private final class Plan {
+        final Columns columns;
+        final List<Aggregate> aggregates;
+        boolean empty;
+        // range filters left after merging ranges on the same column
+        final int[][] rangeColumns;
+        final int[] rangeLow;
+        final int[] rangeHigh;
+        // null when every ward passes
+        final boolean[] wardAllowed;
+        // dimension d: group part = table[d][value - base[d]], or outOfRange[d] when outside the table
+        final int[][] dimColumns;
+        final int[] base;
+        final int[][] table;
+        final int[] outOfRange;
+        final String[][] labels;
+        final int[] cardinality;
+        final int groups;
+        // percentiles need every value of the group, not just running totals
+        final boolean[] keepValues = new boolean[Measure.values().length];
+
+        Plan(Columns columns, List<Aggregate> aggregates) {
+            this.columns = columns;
+            this.aggregates = aggregates;
+
+            Map<Column, int[]> ranges = new HashMap<>();
+            boolean[] allowed = null;
+            for (Filter f : filters) {
+                if (f.column == Column.WARD) {
+                    boolean[] these = new boolean[columns.wardNames.length];
+                    for (String name : f.wards) {
+                        for (int w = 0; w < columns.wardNames.length; w++) {
+                            if (columns.wardNames[w].equalsIgnoreCase(name)) {
+                                these[w] = true;
+                            }
+                        }
+                    }
+                    if (allowed != null) {
+                        for (int w = 0; w < these.length; w++) {
+                            these[w] &= allowed[w];
+                        }
+                    }
+                    allowed = these;
+                } else {
+                    int[] r = ranges.computeIfAbsent(f.column, c -> new int[] {Integer.MIN_VALUE + 1, Integer.MAX_VALUE});
+                    r[0] = Math.max(r[0], f.low);
+                    r[1] = Math.min(r[1], f.high);
+                }
+            }
+            this.wardAllowed = allowed;
+            rangeColumns = new int[ranges.size()][];
+            rangeLow = new int[ranges.size()];
+            rangeHigh = new int[ranges.size()];
+            int i = 0;
+            for (Map.Entry<Column, int[]> e : ranges.entrySet()) {
+                rangeColumns[i] = columns.column(e.getKey());
+                rangeLow[i] = e.getValue()[0];
+                rangeHigh[i] = e.getValue()[1];
+                if (rangeLow[i] > rangeHigh[i]) {
+                    empty = true;
+                }
+                i++;
+            }
+            if (allowed != null) {
+                boolean any = false;
+                for (boolean a : allowed) {
+                    any |= a;
+                }
+                empty |= !any;
+            }
+
+            int n = dimensions.size();
+            dimColumns = new int[n][];
+            base = new int[n];
+            table = new int[n][];
+            outOfRange = new int[n];
+            labels = new String[n][];
+            cardinality = new int[n];
+            long product = 1;
+            for (int d = 0; d < n; d++) {
+                plan(d, dimensions.get(d));
+                product *= cardinality[d];
+                if (product > MAX_GROUPS) {
+                    throw new IllegalArgumentException("Query has more than " + MAX_GROUPS + " groups");
+                }
+            }
+            groups = (int) product;
+
+            for (Aggregate a : aggregates) {
+                if (a.kind == Aggregate.Kind.PERCENTILE) {
+                    keepValues[a.measure.ordinal()] = true;
+                }
+            }
+        }
+
+        private void plan(int d, Dimension dim) {
+            if (dim == Dimension.WARD) {
+                String[] names = columns.wardNames.clone();
+                Integer[] order = sortedOrder(names);
+                dimColumns[d] = columns.ward;
+                table[d] = new int[names.length];
+                labels[d] = new String[names.length];
+                for (int k = 0; k < order.length; k++) {
+                    table[d][order[k]] = k;
+                    labels[d][k] = names[order[k]];
+                }
+                cardinality[d] = Math.max(1, names.length);
+            } else if (dim == Dimension.STATUS) {
+                dimColumns[d] = columns.discharged;
+                table[d] = new int[] {0, 1};
+                labels[d] = new String[] {"admitted", "discharged"};
+                cardinality[d] = 2;
+            } else if (dim.bandWidth > 0) {
+                int[] range = minMax(columns.age, Integer.MIN_VALUE);
+                int firstBand = Math.floorDiv(range[0], dim.bandWidth);
+                int lastBand = Math.floorDiv(range[1], dim.bandWidth);
+                dimColumns[d] = columns.age;
+                base[d] = range[0];
+                table[d] = new int[range[1] - range[0] + 1];
+                for (int v = range[0]; v <= range[1]; v++) {
+                    table[d][v - range[0]] = Math.floorDiv(v, dim.bandWidth) - firstBand;
+                }
+                cardinality[d] = lastBand - firstBand + 1;
+                labels[d] = new String[cardinality[d]];
+                for (int k = 0; k < cardinality[d]; k++) {
+                    int low = (firstBand + k) * dim.bandWidth;
+                    labels[d][k] = low + "-" + (low + dim.bandWidth - 1);
+                }
+            } else {
+                boolean admit = dim == Dimension.ADMIT_WEEK || dim == Dimension.ADMIT_MONTH;
+                boolean weekly = dim == Dimension.ADMIT_WEEK || dim == Dimension.DISCHARGE_WEEK;
+                int[] source = admit ? columns.admitDay : columns.dischargeDay;
+                int[] range = minMax(source, NOT_DISCHARGED);
+                dimColumns[d] = source;
+                base[d] = range[0];
+                table[d] = new int[range[1] - range[0] + 1];
+                List<String> names = new ArrayList<>();
+                if (!admit) {
+                    names.add("(admitted)");
+                    outOfRange[d] = 0;
+                }
+                Object last = null;
+                for (int day = range[0]; day <= range[1]; day++) {
+                    LocalDate date = LocalDate.ofEpochDay(day);
+                    Object key = weekly ? date.minusDays(date.getDayOfWeek().getValue() - 1) : YearMonth.from(date);
+                    if (!key.equals(last)) {
+                        names.add(key.toString());
+                        last = key;
+                    }
+                    table[d][day - range[0]] = names.size() - 1;
+                }
+                labels[d] = names.toArray(new String[0]);
+                cardinality[d] = labels[d].length;
+            }
+        }
+
+        QueryResult result(Accumulator acc, long started) {
+            List<String> header = new ArrayList<>();
+            for (Dimension dim : dimensions) {
+                header.add(dim.getLabel());
+            }
+            for (Aggregate a : aggregates) {
+                header.add(a.label());
+            }
+            List<QueryResult.Row> rows = new ArrayList<>();
+            long matched = 0;
+            for (int g = 0; g < groups; g++) {
+                long count = acc.count[g];
+                if (count == 0) {
+                    continue;
+                }
+                matched += count;
+                String[] keys = new String[dimensions.size()];
+                int rest = g;
+                for (int d = dimensions.size() - 1; d >= 0; d--) {
+                    keys[d] = labels[d][rest % cardinality[d]];
+                    rest /= cardinality[d];
+                }
+                double[] values = new double[aggregates.size()];
+                for (int a = 0; a < aggregates.size(); a++) {
+                    values[a] = acc.value(aggregates.get(a), g);
+                }
+                rows.add(new QueryResult.Row(keys, values));
+            }
+            return new QueryResult(header, dimensions.size(), rows, columns.size, matched, System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * Per-group totals for one block of rows, merged into the others at the end
+     */
+    private static final class Accumulator {
+        final Plan plan;
+        final long[] count;
+        final long[][] sum = new long[2][];
+        final int[][] min = new int[2][];
+        final int[][] max = new int[2][];
+        // values[m][g] holds valueCount[m][g] values, sorted once the first percentile is asked for
+        final int[][][] values = new int[2][][];
+        final int[][] valueCount = new int[2][];
+        final boolean[][] sorted = new boolean[2][];
+
+        Accumulator(Plan plan) {
+            this.plan = plan;
+            this.count = new long[plan.groups];
+            for (Aggregate a : plan.aggregates) {
+                if (a.measure == null) {
+                    continue;
+                }
+                int m = a.measure.ordinal();
+                if (sum[m] == null) {
+                    sum[m] = new long[plan.groups];
+                    min[m] = new int[plan.groups];
+                    max[m] = new int[plan.groups];
+                    Arrays.fill(min[m], Integer.MAX_VALUE);
+                    Arrays.fill(max[m], Integer.MIN_VALUE);
+                }
+                if (plan.keepValues[m] && values[m] == null) {
+                    values[m] = new int[plan.groups][];
+                    valueCount[m] = new int[plan.groups];
+                    sorted[m] = new boolean[plan.groups];
+                }
+            }
+        }
+
+        void scan(int from, int to) {
+            final int[][] rangeColumns = plan.rangeColumns;
+            final int[] low = plan.rangeLow;
+            final int[] high = plan.rangeHigh;
+            final int ranges = rangeColumns.length;
+            final boolean[] wardAllowed = plan.wardAllowed;
+            final int[] wards = plan.columns.ward;
+            final int[][] dimColumns = plan.dimColumns;
+            final int[][] table = plan.table;
+            final int[] base = plan.base;
+            final int[] outOfRange = plan.outOfRange;
+            final int[] cardinality = plan.cardinality;
+            final int dims = dimColumns.length;
+            final int[] ageColumn = plan.columns.age;
+            final int[] stayColumn = plan.columns.stay;
+            final long[] ageSum = sum[0];
+            final long[] staySum = sum[1];
+
+            rows:
+            for (int row = from; row < to; row++) {
+                if (wardAllowed != null && !wardAllowed[wards[row]]) {
+                    continue;
+                }
+                for (int r = 0; r < ranges; r++) {
+                    int v = rangeColumns[r][row];
+                    if (v < low[r] || v > high[r]) {
+                        continue rows;
+                    }
+                }
+                int g = 0;
+                for (int d = 0; d < dims; d++) {
+                    int i = dimColumns[d][row] - base[d];
+                    int[] t = table[d];
+                    g = g * cardinality[d] + (i >= 0 && i < t.length ? t[i] : outOfRange[d]);
+                }
+                count[g]++;
+                if (ageSum != null) {
+                    add(0, g, ageColumn[row]);
+                }
+                if (staySum != null) {
+                    add(1, g, stayColumn[row]);
+                }
+            }
+        }
+
+        private void add(int m, int g, int value) {
+            sum[m][g] += value;
+            if (value < min[m][g]) {
+                min[m][g] = value;
+            }
+            if (value > max[m][g]) {
+                max[m][g] = value;
+            }
+            if (values[m] != null) {
+                int[] v = values[m][g];
+                int n = valueCount[m][g];
+                if (v == null) {
+                    v = values[m][g] = new int[16];
+                } else if (n == v.length) {
+                    v = values[m][g] = Arrays.copyOf(v, n * 2);
+                }
+                v[n] = value;
+                valueCount[m][g] = n + 1;
+            }
+        }
+
+        Accumulator merge(Accumulator other) {
+            for (int g = 0; g < count.length; g++) {
+                count[g] += other.count[g];
+            }
+            for (int m = 0; m < 2; m++) {
+                if (sum[m] == null) {
+                    continue;
+                }
+                for (int g = 0; g < count.length; g++) {
+                    sum[m][g] += other.sum[m][g];
+                    min[m][g] = Math.min(min[m][g], other.min[m][g]);
+                    max[m][g] = Math.max(max[m][g], other.max[m][g]);
+                }
+                if (values[m] != null) {
+                    for (int g = 0; g < count.length; g++) {
+                        int n = valueCount[m][g];
+                        int theirs = other.valueCount[m][g];
+                        if (theirs == 0) {
+                            continue;
+                        }
+                        if (n == 0) {
+                            values[m][g] = other.values[m][g];
+                        } else {
+                            int[] mine = values[m][g];
+                            if (n + theirs > mine.length) {
+                                mine = values[m][g] = Arrays.copyOf(mine, n + theirs);
+                            }
+                            System.arraycopy(other.values[m][g], 0, mine, n, theirs);
+                        }
+                        valueCount[m][g] = n + theirs;
+                    }
+                }
+            }
+            return this;
+        }
+
+        double value(Aggregate a, int g) {
+            if (a.kind == Aggregate.Kind.COUNT) {
+                return count[g];
+            }
+            int m = a.measure.ordinal();
+            switch (a.kind) {
+                case SUM: return sum[m][g];
+                case AVG: return (double) sum[m][g] / count[g];
+                case MIN: return min[m][g];
+                case MAX: return max[m][g];
+                default:
+                    int n = valueCount[m][g];
+                    if (!sorted[m][g]) {
+                        Arrays.sort(values[m][g], 0, n);
+                        sorted[m][g] = true;
+                    }
+                    int rank = (int) Math.ceil(a.percentile / 100.0 * n);
+                    return values[m][g][Math.max(rank, 1) - 1];
+            }
+        }
+    }
+
+    private static int[] minMax(int[] column, int ignore) {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int v : column) {
+            if (v != ignore) {
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+        }
+        return min > max ? new int[] {0, 0} : new int[] {min, max};
+    }
+
+    private static Integer[] sortedOrder(String[] names) {
+        Integer[] order = new Integer[names.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> names[a].compareTo(names[b]));
+        return order;
+    }
+}
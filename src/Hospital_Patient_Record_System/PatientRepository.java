@@ -0,0 +1,54 @@
+package Hospital_Patient_Record_System;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * Where HospitalSystemWithCSV keeps patients between runs.
+ *
+ * CsvPatientRepository keeps them in patients.csv (plus patients.snap) and
+ * holds every patient in memory while running. PagedPatientRepository keeps
+ * them in a B+tree file and holds only admitted patients in memory. Either
+ * way, admissions and discharges between checkpoints are made durable by
+ * the journal the repository opens.
+ */
+public interface PatientRepository {
+    /**
+     * The store patients live in while the hospital runs
+     */
+    PatientStore getStore();
+
+    /**
+     * Reads the patients saved by earlier runs. Returns those the caller
+     * must still add to {@link #getStore()} and give beds to (with their
+     * line numbers for error messages), or null if nothing was saved.
+     * Patients the store already holds are not returned; the caller gives
+     * the admitted ones among them their beds back.
+     *
+     * @param wardNames wards of the hospital; patients of other wards are rejected
+     */
+    PatientCsvLoader.Result load(Collection<String> wardNames) throws IOException;
+
+    /**
+     * File the last load came from, for messages (e.g. "patients.snap")
+     */
+    String getSource();
+
+    /**
+     * Opens the journal recording admissions and discharges between checkpoints
+     */
+    PatientJournal openJournal(Path journalFile, EventSink events);
+
+    /**
+     * Saves every patient in the store and discards the journal. Returns the
+     * file saved to, for messages.
+     */
+    String checkpoint(PatientJournal journal) throws IOException;
+
+    /**
+     * Closes the files the store keeps open. Changes made since the last
+     * checkpoint stay in the journal.
+     */
+    void close() throws IOException;
+}
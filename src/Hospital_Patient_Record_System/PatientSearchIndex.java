@@ -0,0 +1,741 @@
+package Hospital_Patient_Record_System;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory search over patient IDs and names, kept up to date as patients
+ * are admitted (and, when only admitted patients are indexed, discharged).
+ *
+ * Names are split into lower-case words. Each distinct word is stored once
+ * with the list of patients using it, so the structures that are searched
+ * grow with the number of distinct words rather than with the number of
+ * patients:
+ *
+ *   - prefix matches walk a sorted word dictionary ("raj" finds Rajesh, Raju);
+ *   - misspelled words are matched within 1 edit (words up to 5 letters) or
+ *     2 edits (longer words), a swap of neighbouring letters counting as
+ *     one. Candidate words come from a trigram index and are confirmed with
+ *     a bounded edit distance;
+ *   - IDs are kept in a sorted array plus a small sorted buffer of recent
+ *     admissions that is merged into the array once it fills up.
+ *
+ * A search returns the top K: ID matches first, then patients whose name
+ * has a word starting with every query word, then fuzzy matches by total
+ * edit distance. It stops as soon as K results are certain, so common
+ * names do not make a search scan every patient.
+ *
+ * A removed patient is only marked as gone; once more than half of the
+ * entries are gone the index is rebuilt from the rest, so its memory
+ * follows the patients still indexed rather than everyone ever added.
+ */
+public class PatientSearchIndex {
+    private static final int ID_BUFFER_SIZE = 4096;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * One search result
+     */
+    public static final class Match {
+        /**
+         * How the query matched: by ID prefix, by name-word prefixes, or by misspelled name words
+         */
+        public enum Kind { ID, PREFIX, FUZZY }
+
+        private final String patientId;
+        private final String name;
+        private final Kind kind;
+        private final int distance;
+
+        Match(String patientId, String name, Kind kind, int distance) {
+            this.patientId = patientId;
+            this.name = name;
+            this.kind = kind;
+            this.distance = distance;
+        }
+
+        public String getPatientId() { return patientId; }
+        public String getName() { return name; }
+        public Kind getKind() { return kind; }
+
+        /**
+         * Total edits between the query words and the name (0 unless FUZZY)
+         */
+        public int getDistance() { return distance; }
+    }
+
+    /**
+     * Growable int array
+     */
+    private static final class IntList {
+        int[] values = new int[2];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Per patient, by ordinal (order of addition); ids[ordinal] is null once removed
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int[][] wordsOf = new int[INITIAL_CAPACITY][];
+    private int size;
+    private int removed;
+
+    // Distinct name words
+    private final Map<String, Integer> wordIds = new HashMap<>();
+    private final List<String> words = new ArrayList<>();
+    private final List<IntList> postings = new ArrayList<>();
+    private final TreeMap<String, Integer> sortedWords = new TreeMap<>();
+    private final Map<Long, IntList> wordsByTrigram = new HashMap<>();
+    private final List<IntList> wordsByLength = new ArrayList<>();
+    private long[] wordMasks = new long[INITIAL_CAPACITY];
+
+    // Lower-cased IDs suffixed with "\0" + ordinal so equal keys stay distinct
+    private String[] sortedIds = new String[0];
+    private int[] sortedIdOrdinals = new int[0];
+    private final TreeMap<String, Integer> recentIds = new TreeMap<>();
+
+    /**
+     * Indexes a patient. Call once per patient, e.g. after it was added to the store.
+     */
+    public void add(Patient patient) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = addEntry(patient.getId(), patient.getName());
+            recentIds.put(idKey(patient.getId(), ordinal), ordinal);
+            if (recentIds.size() >= ID_BUFFER_SIZE) {
+                flushRecentIds();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes many patients at once (e.g. at startup), sorting their IDs in one go
+     */
+    public void addAll(Collection<Patient> patients) {
+        lock.writeLock().lock();
+        try {
+            String[] patientIds = new String[patients.size()];
+            String[] patientNames = new String[patientIds.length];
+            int n = 0;
+            for (Patient p : patients) {
+                patientIds[n] = p.getId();
+                patientNames[n++] = p.getName();
+            }
+            addEntries(patientIds, patientNames, n);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops a patient from the search results. Does nothing if the patient
+     * is not indexed.
+     */
+    public void remove(String patientId) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = ordinalOf(patientId);
+            if (ordinal < 0) {
+                return;
+            }
+            ids[ordinal] = null;
+            names[ordinal] = null;
+            wordsOf[ordinal] = null;
+            removed++;
+            if (removed > size / 2 && size >= INITIAL_CAPACITY) {
+                rebuild();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size - removed;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Distinct name words indexed so far
+     */
+    public int getWordCount() {
+        lock.readLock().lock();
+        try {
+            return words.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} patients matching {@code query}, best first
+     */
+    public List<Match> search(String query, int limit) {
+        String normalized = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        List<String> queryWords = tokenize(normalized);
+        if (normalized.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            List<Match> results = new ArrayList<>(Math.min(limit, 64));
+            Set<Integer> seen = new HashSet<>();
+            if (normalized.indexOf(' ') < 0) {
+                searchIds(normalized, limit, results, seen);
+            }
+            if (!queryWords.isEmpty() && results.size() < limit) {
+                searchPrefixes(queryWords, limit, results, seen);
+            }
+            if (!queryWords.isEmpty() && results.size() < limit) {
+                searchFuzzy(queryWords, limit, results, seen);
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addEntries(String[] patientIds, String[] patientNames, int n) {
+        String[] keys = new String[n];
+        int[] ordinals = new int[n];
+        for (int i = 0; i < n; i++) {
+            ordinals[i] = addEntry(patientIds[i], patientNames[i]);
+            keys[i] = idKey(patientIds[i], ordinals[i]);
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> keys[i]));
+        String[] sortedKeys = new String[n];
+        int[] sortedOrdinals = new int[n];
+        for (int i = 0; i < n; i++) {
+            sortedKeys[i] = keys[order[i]];
+            sortedOrdinals[i] = ordinals[order[i]];
+        }
+        flushRecentIds();
+        mergeIds(sortedKeys, sortedOrdinals);
+    }
+
+    /**
+     * Ordinal of the indexed patient with this exact ID, or -1
+     */
+    private int ordinalOf(String patientId) {
+        String prefix = patientId.toLowerCase(Locale.ROOT) + '\0';
+        for (int a = lowerBound(sortedIds, prefix); a < sortedIds.length && sortedIds[a].startsWith(prefix); a++) {
+            if (patientId.equals(ids[sortedIdOrdinals[a]])) {
+                return sortedIdOrdinals[a];
+            }
+        }
+        for (int ordinal : recentIds.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            if (patientId.equals(ids[ordinal])) {
+                return ordinal;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Starts over with only the patients not removed, dropping name words
+     * nobody uses any more
+     */
+    private void rebuild() {
+        int n = size - removed;
+        String[] patientIds = new String[n];
+        String[] patientNames = new String[n];
+        int live = 0;
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            if (ids[ordinal] != null) {
+                patientIds[live] = ids[ordinal];
+                patientNames[live++] = names[ordinal];
+            }
+        }
+        int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, n)) * 2);
+        ids = new String[capacity];
+        names = new String[capacity];
+        wordsOf = new int[capacity][];
+        size = 0;
+        removed = 0;
+        wordIds.clear();
+        words.clear();
+        postings.clear();
+        sortedWords.clear();
+        wordsByTrigram.clear();
+        wordsByLength.clear();
+        wordMasks = new long[INITIAL_CAPACITY];
+        sortedIds = new String[0];
+        sortedIdOrdinals = new int[0];
+        recentIds.clear();
+        addEntries(patientIds, patientNames, n);
+    }
+
+    private int addEntry(String id, String name) {
+        int ordinal = size++;
+        if (ordinal == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            wordsOf = Arrays.copyOf(wordsOf, capacity);
+        }
+        ids[ordinal] = id;
+        names[ordinal] = name;
+        List<String> nameWords = tokenize(name == null ? "" : name.toLowerCase(Locale.ROOT));
+        int[] wordIdsOfName = new int[nameWords.size()];
+        int n = 0;
+        for (String word : nameWords) {
+            int wordId = wordId(word);
+            IntList list = postings.get(wordId);
+            if (list.size == 0 || list.values[list.size - 1] != ordinal) {
+                list.add(ordinal);
+                wordIdsOfName[n++] = wordId;
+            }
+        }
+        wordsOf[ordinal] = n == wordIdsOfName.length ? wordIdsOfName : Arrays.copyOf(wordIdsOfName, n);
+        return ordinal;
+    }
+
+    private int wordId(String word) {
+        Integer existing = wordIds.get(word);
+        if (existing != null) {
+            return existing;
+        }
+        int wordId = words.size();
+        wordIds.put(word, wordId);
+        words.add(word);
+        postings.add(new IntList());
+        sortedWords.put(word, wordId);
+        if (wordId == wordMasks.length) {
+            wordMasks = Arrays.copyOf(wordMasks, wordId * 2);
+        }
+        wordMasks[wordId] = letterMask(word);
+        for (long gram : trigrams(word)) {
+            wordsByTrigram.computeIfAbsent(gram, k -> new IntList()).add(wordId);
+        }
+        while (wordsByLength.size() <= word.length()) {
+            wordsByLength.add(new IntList());
+        }
+        wordsByLength.get(word.length()).add(wordId);
+        return wordId;
+    }
+
+    private void flushRecentIds() {
+        if (recentIds.isEmpty()) {
+            return;
+        }
+        String[] keys = new String[recentIds.size()];
+        int[] ordinals = new int[recentIds.size()];
+        int n = 0;
+        for (Map.Entry<String, Integer> e : recentIds.entrySet()) {
+            keys[n] = e.getKey();
+            ordinals[n++] = e.getValue();
+        }
+        recentIds.clear();
+        mergeIds(keys, ordinals);
+    }
+
+    /**
+     * Merges sorted {@code keys} into the sorted ID array
+     */
+    private void mergeIds(String[] keys, int[] ordinals) {
+        String[] mergedKeys = new String[sortedIds.length + keys.length];
+        int[] mergedOrdinals = new int[mergedKeys.length];
+        int a = 0, b = 0;
+        for (int i = 0; i < mergedKeys.length; i++) {
+            if (b == keys.length || (a < sortedIds.length && sortedIds[a].compareTo(keys[b]) <= 0)) {
+                mergedKeys[i] = sortedIds[a];
+                mergedOrdinals[i] = sortedIdOrdinals[a++];
+            } else {
+                mergedKeys[i] = keys[b];
+                mergedOrdinals[i] = ordinals[b++];
+            }
+        }
+        sortedIds = mergedKeys;
+        sortedIdOrdinals = mergedOrdinals;
+    }
+
+    private void searchIds(String prefix, int limit, List<Match> results, Set<Integer> seen) {
+        int a = lowerBound(sortedIds, prefix);
+        Iterator<Map.Entry<String, Integer>> recent = recentIds.tailMap(prefix, true).entrySet().iterator();
+        Map.Entry<String, Integer> next = recent.hasNext() ? recent.next() : null;
+        while (results.size() < limit) {
+            boolean fromArray = a < sortedIds.length && sortedIds[a].startsWith(prefix);
+            boolean fromRecent = next != null && next.getKey().startsWith(prefix);
+            int ordinal;
+            if (fromArray && (!fromRecent || sortedIds[a].compareTo(next.getKey()) <= 0)) {
+                ordinal = sortedIdOrdinals[a++];
+            } else if (fromRecent) {
+                ordinal = next.getValue();
+                next = recent.hasNext() ? recent.next() : null;
+            } else {
+                break;
+            }
+            if (ids[ordinal] != null && seen.add(ordinal)) {
+                results.add(new Match(ids[ordinal], names[ordinal], Match.Kind.ID, 0));
+            }
+        }
+    }
+
+    /**
+     * Patients with, for every query word, a name word starting with it.
+     * Driven by the query word with the fewest candidates.
+     */
+    private void searchPrefixes(List<String> queryWords, int limit, List<Match> results, Set<Integer> seen) {
+        List<Collection<Integer>> matching = new ArrayList<>(queryWords.size());
+        int driver = -1;
+        long fewest = Long.MAX_VALUE;
+        for (int q = 0; q < queryWords.size(); q++) {
+            Collection<Integer> wordIdsWithPrefix = prefixRange(queryWords.get(q)).values();
+            long candidates = 0;
+            for (int wordId : wordIdsWithPrefix) {
+                candidates += postings.get(wordId).size;
+            }
+            if (candidates == 0) {
+                return;
+            }
+            if (candidates < fewest) {
+                fewest = candidates;
+                driver = q;
+            }
+            matching.add(wordIdsWithPrefix);
+        }
+        List<Set<Integer>> others = new ArrayList<>();
+        for (int q = 0; q < queryWords.size(); q++) {
+            if (q != driver) {
+                others.add(new HashSet<>(matching.get(q)));
+            }
+        }
+        for (int wordId : matching.get(driver)) {
+            IntList list = postings.get(wordId);
+            for (int i = 0; i < list.size; i++) {
+                int ordinal = list.values[i];
+                if (ids[ordinal] != null && !seen.contains(ordinal) && hasAll(wordsOf[ordinal], others)) {
+                    seen.add(ordinal);
+                    results.add(new Match(ids[ordinal], names[ordinal], Match.Kind.PREFIX, 0));
+                    if (results.size() >= limit) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Patients whose name words are all within a few edits of the query
+     * words (or, for the last query word, start with it), ranked by total
+     * distance
+     */
+    private void searchFuzzy(List<String> queryWords, int limit, List<Match> results, Set<Integer> seen) {
+        List<Map<Integer, Integer>> distances = new ArrayList<>(queryWords.size());
+        int driver = -1;
+        long fewest = Long.MAX_VALUE;
+        for (int q = 0; q < queryWords.size(); q++) {
+            Map<Integer, Integer> near = similarWords(queryWords.get(q));
+            if (q == queryWords.size() - 1) {
+                for (int wordId : prefixRange(queryWords.get(q)).values()) {
+                    near.put(wordId, 0);
+                }
+            }
+            if (near.isEmpty()) {
+                return;
+            }
+            long candidates = 0;
+            for (int wordId : near.keySet()) {
+                candidates += postings.get(wordId).size;
+            }
+            if (candidates < fewest) {
+                fewest = candidates;
+                driver = q;
+            }
+            distances.add(near);
+        }
+
+        // Least the other query words can add to a driver word's distance
+        int othersAtLeast = 0;
+        for (int q = 0; q < distances.size(); q++) {
+            if (q != driver) {
+                othersAtLeast += Collections.min(distances.get(q).values());
+            }
+        }
+        List<Map.Entry<Integer, Integer>> driverWords = new ArrayList<>(distances.get(driver).entrySet());
+        driverWords.sort(Map.Entry.comparingByValue());
+        int wanted = limit - results.size();
+        // Worst of the best candidates so far on top: {total distance, ordinal}
+        PriorityQueue<int[]> best = new PriorityQueue<>(wanted + 1,
+            (x, y) -> x[0] != y[0] ? Integer.compare(y[0], x[0]) : Integer.compare(y[1], x[1]));
+        for (Map.Entry<Integer, Integer> word : driverWords) {
+            int d = word.getValue();
+            if (best.size() == wanted && best.peek()[0] <= d + othersAtLeast) {
+                break; // nothing left can rank higher
+            }
+            IntList list = postings.get(word.getKey());
+            for (int i = 0; i < list.size; i++) {
+                int ordinal = list.values[i];
+                if (ids[ordinal] == null || seen.contains(ordinal)) {
+                    continue;
+                }
+                int others = otherDistances(wordsOf[ordinal], distances, driver);
+                if (others < 0) {
+                    continue;
+                }
+                int total = d + others;
+                if (best.size() < wanted) {
+                    best.add(new int[] {total, ordinal});
+                } else if (total < best.peek()[0]) {
+                    best.poll();
+                    best.add(new int[] {total, ordinal});
+                }
+                if (best.size() == wanted && best.peek()[0] <= d + othersAtLeast) {
+                    break;
+                }
+            }
+        }
+        List<int[]> ranked = new ArrayList<>(best);
+        ranked.sort((x, y) -> x[0] != y[0] ? Integer.compare(x[0], y[0]) : Integer.compare(x[1], y[1]));
+        for (int[] hit : ranked) {
+            seen.add(hit[1]);
+            results.add(new Match(ids[hit[1]], names[hit[1]], Match.Kind.FUZZY, hit[0]));
+        }
+    }
+
+    /**
+     * Sum of the best distance of each non-driver query word to a word of
+     * the name, or -1 if some query word matches none of them
+     */
+    private static int otherDistances(int[] nameWords, List<Map<Integer, Integer>> distances, int driver) {
+        int total = 0;
+        for (int q = 0; q < distances.size(); q++) {
+            if (q == driver) {
+                continue;
+            }
+            int bestForWord = Integer.MAX_VALUE;
+            for (int wordId : nameWords) {
+                Integer d = distances.get(q).get(wordId);
+                if (d != null && d < bestForWord) {
+                    bestForWord = d;
+                }
+            }
+            if (bestForWord == Integer.MAX_VALUE) {
+                return -1;
+            }
+            total += bestForWord;
+        }
+        return total;
+    }
+
+    /**
+     * Dictionary words within the allowed number of edits of {@code word}.
+     *
+     * An edit (insert, delete, substitute, or swap two neighbouring letters)
+     * changes at most four of a word's trigrams, so a word within k edits
+     * shares at least one of any 4k+1 distinct trigrams of the query: only
+     * words listed under the 4k+1 rarest ones need checking. Words with too
+     * few trigrams for that are checked against all words of similar length.
+     * Either way a letter-set mask rules out most candidates before the
+     * distance is computed.
+     */
+    private Map<Integer, Integer> similarWords(String word) {
+        int maxEdits = word.length() <= 2 ? 0 : word.length() <= 5 ? 1 : 2;
+        Map<Integer, Integer> near = new HashMap<>();
+        Integer exact = wordIds.get(word);
+        if (exact != null) {
+            near.put(exact, 0);
+        }
+        if (maxEdits == 0) {
+            return near;
+        }
+        long mask = letterMask(word);
+        long[] grams = trigrams(word);
+        List<IntList> candidateLists = new ArrayList<>();
+        Set<Integer> checked = null;
+        if (grams.length >= 4 * maxEdits + 1) {
+            checked = new HashSet<>(); // a word can be listed under several trigrams
+            IntList[] byGram = new IntList[grams.length];
+            for (int i = 0; i < grams.length; i++) {
+                byGram[i] = wordsByTrigram.get(grams[i]);
+            }
+            Arrays.sort(byGram, Comparator.comparingInt(list -> list == null ? 0 : list.size));
+            for (int i = 0; i < 4 * maxEdits + 1; i++) {
+                if (byGram[i] != null) {
+                    candidateLists.add(byGram[i]);
+                }
+            }
+        } else {
+            for (int len = Math.max(1, word.length() - maxEdits);
+                 len <= word.length() + maxEdits && len < wordsByLength.size(); len++) {
+                candidateLists.add(wordsByLength.get(len));
+            }
+        }
+        for (IntList list : candidateLists) {
+            for (int i = 0; i < list.size; i++) {
+                int wordId = list.values[i];
+                // each edit drops at most one letter from the word's letter set and adds at most one
+                long other = wordMasks[wordId];
+                if (Long.bitCount(mask & ~other) > maxEdits || Long.bitCount(other & ~mask) > maxEdits) {
+                    continue;
+                }
+                String candidate = words.get(wordId);
+                if (Math.abs(candidate.length() - word.length()) > maxEdits
+                        || near.containsKey(wordId) || (checked != null && !checked.add(wordId))) {
+                    continue;
+                }
+                int d = boundedDistance(word, candidate, maxEdits);
+                if (d <= maxEdits) {
+                    near.put(wordId, d);
+                }
+            }
+        }
+        return near;
+    }
+
+    private NavigableMap<String, Integer> prefixRange(String prefix) {
+        return sortedWords.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private static boolean hasAll(int[] nameWords, List<Set<Integer>> required) {
+        for (Set<Integer> anyOf : required) {
+            boolean found = false;
+            for (int wordId : nameWords) {
+                if (anyOf.contains(wordId)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Edit distance counting a swap of two neighbouring letters as one edit
+     * (optimal string alignment), or max + 1 as soon as it is certain to
+     * exceed {@code max}
+     */
+    static int boundedDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int d = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d = Math.min(d, beforePrevious[j - 2] + 1);
+                }
+                current[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * One of 64 bits per distinct letter
+     */
+    private static long letterMask(String word) {
+        long mask = 0;
+        for (int i = 0; i < word.length(); i++) {
+            mask |= 1L << (word.charAt(i) & 63);
+        }
+        return mask;
+    }
+
+    /**
+     * Distinct trigrams of the word padded with start and end markers
+     */
+    private static long[] trigrams(String word) {
+        String padded = "\u0002" + word + "\u0003";
+        long[] grams = new long[padded.length() - 2];
+        int n = 0;
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            long gram = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+            boolean duplicate = false;
+            for (int j = 0; j < n; j++) {
+                if (grams[j] == gram) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (!duplicate) {
+                grams[n++] = gram;
+            }
+        }
+        return n == grams.length ? grams : Arrays.copyOf(grams, n);
+    }
+
+    private static List<String> tokenize(String lowerCase) {
+        List<String> tokens = new ArrayList<>(4);
+        int start = -1;
+        for (int i = 0; i <= lowerCase.length(); i++) {
+            boolean wordChar = i < lowerCase.length() && Character.isLetterOrDigit(lowerCase.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lowerCase.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static String idKey(String id, int ordinal) {
+        return id.toLowerCase(Locale.ROOT) + '\0' + ordinal;
+    }
+
+    private static int lowerBound(String[] sorted, String key) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid].compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,238 @@
+package Hospital_Patient_Record_System;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32C;
+
+/**
+ * Compact binary snapshot of all patients (patients.snap), written next to
+ * patients.csv at every checkpoint and memory-mapped on startup.
+ *
+ * Layout (big-endian):
+ *   header   magic, version, csv size, csv CRC32C, record count, ward count, heap size, body CRC32C
+ *   wards    ward names, length-prefixed UTF-8; a record refers to its ward by index
+ *   records  fixed 20-byte records: id ref, name ref, age, ward code, status,
+ *            admit epoch-day, discharge epoch-day (-1 if none)
+ *   heap     length-prefixed UTF-8 strings referenced by the records
+ *
+ * The snapshot remembers the size and checksum of the patients.csv it was
+ * written with; if the CSV has changed since (or the body checksum fails)
+ * the snapshot is treated as stale and the caller falls back to the CSV.
+ */
+public class PatientSnapshot {
+    private static final int MAGIC = 0x48505253; // "HPRS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4 + 4 + 4 + 8;
+    private static final int RECORD_BYTES = 20;
+    private static final byte STATUS_ADMITTED = 0;
+    private static final byte STATUS_DISCHARGED = 1;
+
+    private PatientSnapshot() {
+    }
+
+    /**
+     * Writes the snapshot for {@code patients}, which must be exactly the
+     * rows of {@code csvFile} in the same order.
+     */
+    public static void write(Path snapshotFile, Path csvFile, Collection<Patient> patients) throws IOException {
+        Map<String, Integer> wardCodes = new HashMap<>();
+        List<String> wardNames = new ArrayList<>();
+        ByteBuffer records = ByteBuffer.allocate(patients.size() * RECORD_BYTES);
+        HeapWriter heap = new HeapWriter();
+
+        for (Patient p : patients) {
+            Integer code = wardCodes.get(p.getWard());
+            if (code == null) {
+                code = wardNames.size();
+                wardCodes.put(p.getWard(), code);
+                wardNames.add(p.getWard());
+            }
+            records.putInt(heap.add(p.getId()));
+            records.putInt(heap.add(p.getName()));
+            records.putShort((short) p.getAge());
+            records.put(code.byteValue());
+            records.put("discharged".equalsIgnoreCase(p.getStatus()) ? STATUS_DISCHARGED : STATUS_ADMITTED);
+            records.putInt((int) p.getAdmitDate().toEpochDay());
+            records.putInt(p.getDischargeDate() == null ? -1 : (int) p.getDischargeDate().toEpochDay());
+        }
+        if (wardNames.size() > 127) {
+            throw new IOException("Too many wards for snapshot format: " + wardNames.size());
+        }
+
+        ByteBuffer wards = encodeStrings(wardNames);
+        records.flip();
+        ByteBuffer heapBytes = ByteBuffer.wrap(heap.bytes(), 0, heap.size());
+
+        CRC32C body = new CRC32C();
+        body.update(wards.duplicate());
+        body.update(records.duplicate());
+        body.update(heapBytes.duplicate());
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION)
+            .putLong(Files.size(csvFile)).putLong(checksum(csvFile))
+            .putInt(patients.size()).putInt(wardNames.size()).putInt(heap.size())
+            .putLong(body.getValue());
+        header.flip();
+
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (ByteBuffer b : new ByteBuffer[] {header, wards, records, heapBytes}) {
+                while (b.hasRemaining()) {
+                    ch.write(b);
+                }
+            }
+            ch.force(true);
+        }
+        Files.move(tmp, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Loads patients from the snapshot. Returns null, after reporting why to
+     * {@code events}, if the snapshot is missing, corrupt or does not match {@code csvFile}.
+     */
+    public static List<Patient> read(Path snapshotFile, Path csvFile, EventSink events) throws IOException {
+        try (FileChannel ch = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            if (ch.size() < HEADER_BYTES || ch.size() > Integer.MAX_VALUE) {
+                return stale(events, "unexpected size");
+            }
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+                return stale(events, "unknown format");
+            }
+            long csvSize = buf.getLong();
+            long csvCrc = buf.getLong();
+            int count = buf.getInt();
+            int wardCount = buf.getInt();
+            int heapSize = buf.getInt();
+            long bodyCrc = buf.getLong();
+
+            if (!Files.exists(csvFile) || Files.size(csvFile) != csvSize || checksum(csvFile) != csvCrc) {
+                return stale(events, "patients.csv changed since it was written");
+            }
+            CRC32C body = new CRC32C();
+            body.update(buf.duplicate());
+            if (body.getValue() != bodyCrc) {
+                return stale(events, "checksum mismatch");
+            }
+
+            String[] wards = new String[wardCount];
+            for (int i = 0; i < wardCount; i++) {
+                wards[i] = readString(buf, buf.position());
+                buf.position(buf.position() + 2 + (buf.getShort(buf.position()) & 0xFFFF));
+            }
+            int recordsStart = buf.position();
+            int heapStart = recordsStart + count * RECORD_BYTES;
+            if (heapStart + heapSize != buf.limit()) {
+                return stale(events, "truncated");
+            }
+
+            Patient[] out = new Patient[count];
+            String[] failure = new String[1];
+            IntStream.range(0, count).parallel().forEach(i -> {
+                int r = recordsStart + i * RECORD_BYTES;
+                try {
+                    String id = readString(buf, heapStart + buf.getInt(r));
+                    String name = readString(buf, heapStart + buf.getInt(r + 4));
+                    Patient p = new Patient(id, name, buf.getShort(r + 8), wards[buf.get(r + 10)],
+                        LocalDate.ofEpochDay(buf.getInt(r + 12)));
+                    if (buf.get(r + 11) == STATUS_DISCHARGED) {
+                        int discharged = buf.getInt(r + 16);
+                        if (discharged < 0) {
+                            throw new IllegalStateException("discharged without a discharge date");
+                        }
+                        p.discharge(LocalDate.ofEpochDay(discharged));
+                    }
+                    out[i] = p;
+                } catch (Exception e) {
+                    failure[0] = "record " + i + ": " + e.getMessage();
+                }
+            });
+            if (failure[0] != null) {
+                return stale(events, failure[0]);
+            }
+            return new ArrayList<>(Arrays.asList(out));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * CRC32C of a whole file, computed over memory-mapped windows
+     */
+    static long checksum(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            for (long pos = 0; pos < size; pos += Integer.MAX_VALUE) {
+                crc.update(ch.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(Integer.MAX_VALUE, size - pos)));
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static List<Patient> stale(EventSink events, String reason) {
+        events.publish(new HospitalEvent.Notice(HospitalEvent.Severity.WARNING,
+            "patients.snap ignored (" + reason + "), loading patients.csv"));
+        return null;
+    }
+
+    private static String readString(ByteBuffer buf, int pos) {
+        int len = buf.getShort(pos) & 0xFFFF;
+        byte[] bytes = new byte[len];
+        buf.get(pos + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer encodeStrings(List<String> values) {
+        HeapWriter w = new HeapWriter();
+        for (String v : values) {
+            w.add(v);
+        }
+        return ByteBuffer.wrap(w.bytes(), 0, w.size());
+    }
+
+    /**
+     * Growable buffer of length-prefixed strings
+     */
+    private static class HeapWriter {
+        private byte[] data = new byte[4096];
+        private int size;
+
+        int add(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IllegalArgumentException("String too long for snapshot: " + bytes.length + " bytes");
+            }
+            if (size + 2 + bytes.length > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + 2 + bytes.length));
+            }
+            int offset = size;
+            data[size++] = (byte) (bytes.length >>> 8);
+            data[size++] = (byte) bytes.length;
+            System.arraycopy(bytes, 0, data, size, bytes.length);
+            size += bytes.length;
+            return offset;
+        }
+
+        byte[] bytes() { return data; }
+        int size() { return size; }
+    }
+}
@@ -0,0 +1,39 @@
+package Hospital_Patient_Record_System;
+
+import java.util.Collection;
+
+/**
+ * Where HospitalSystemWithCSV keeps its patients.
+ *
+ * PatientIndex holds ordinary Patient objects; ColumnarPatientStore packs
+ * records into primitive columns and hands out flyweight Patient views;
+ * PagedPatientStore keeps records on disk and only admitted patients in
+ * memory. Collections returned by all(), byWard() and byStatus() are live,
+ * read-only and iterate in insertion order (PagedPatientStore: ID order).
+ */
+public interface PatientStore {
+    /**
+     * Adds a patient. Returns false (and changes nothing) if a patient with
+     * the same ID is already stored.
+     */
+    boolean add(Patient patient);
+
+    Patient get(String patientId);
+
+    boolean contains(String patientId);
+
+    /**
+     * Called after {@link Patient#discharge} has changed a stored patient's status
+     */
+    void statusChanged(Patient patient, String oldStatus);
+
+    Collection<Patient> all();
+
+    Collection<Patient> byWard(String wardName);
+
+    Collection<Patient> byStatus(String status);
+
+    int size();
+
+    boolean isEmpty();
+}
@@ -0,0 +1,322 @@
+package Hospital_Patient_Record_System;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable hash map (a hash array mapped trie). put and remove return a new
+ * map that shares every untouched node with the old one, copying only the
+ * path to the changed entry (at most seven nodes of up to 32 slots), so old
+ * versions stay valid and cost nothing to keep while someone reads them.
+ *
+ * Each node covers five bits of the key's hash; a bitmap says which of its
+ * 32 slots are in use and the slots are stored densely. Keys whose whole
+ * hash collides share a list node.
+ */
+final class PersistentMap<K, V> {
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(Object key) {
+        return root == null ? null : (V) root.find(0, hash(key), key);
+    }
+
+    boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * This map with {@code key} mapped to {@code value} (which must not be null)
+     */
+    PersistentMap<K, V> put(K key, V value) {
+        Node from = root == null ? BitmapNode.EMPTY : root;
+        boolean[] added = new boolean[1];
+        Node to = from.put(0, hash(key), key, value, added);
+        return to == from ? this : new PersistentMap<>(to, added[0] ? size + 1 : size);
+    }
+
+    PersistentMap<K, V> remove(Object key) {
+        if (root == null) {
+            return this;
+        }
+        Node to = root.remove(0, hash(key), key);
+        return to == root ? this : new PersistentMap<>(to, size - 1);
+    }
+
+    /**
+     * The values in hash order
+     */
+    Iterable<V> values() {
+        return () -> new Iterator<V>() {
+            // (node, next slot) pairs still to visit; a collision node's slots are its key/value pairs
+            private final Deque<Object[]> stack = new ArrayDeque<>();
+            private Object next;
+
+            {
+                if (root != null) {
+                    stack.push(new Object[] {root, 0});
+                }
+                advance();
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public V next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Object value = next;
+                advance();
+                return (V) value;
+            }
+
+            private void advance() {
+                next = null;
+                while (next == null && !stack.isEmpty()) {
+                    Object[] top = stack.peek();
+                    Object[] array = ((Node) top[0]).array();
+                    int slot = (Integer) top[1];
+                    if (slot >= array.length) {
+                        stack.pop();
+                        continue;
+                    }
+                    top[1] = slot + 2;
+                    if (array[slot] == null) {
+                        stack.push(new Object[] {array[slot + 1], 0});
+                    } else {
+                        next = array[slot + 1];
+                    }
+                }
+            }
+        };
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private abstract static class Node {
+        /**
+         * Key/value pairs; in a BitmapNode a null key marks a child node in the value slot
+         */
+        abstract Object[] array();
+
+        abstract Object find(int shift, int hash, Object key);
+
+        abstract Node put(int shift, int hash, Object key, Object value, boolean[] added);
+
+        /**
+         * This node without {@code key}, or null if that leaves it empty
+         */
+        abstract Node remove(int shift, int hash, Object key);
+    }
+
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+        private final Object[] array;
+
+        BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        @Override
+        Object[] array() {
+            return array;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            int i = slot(bit);
+            Object k = array[i];
+            if (k == null) {
+                return ((Node) array[i + 1]).find(shift + 5, hash, key);
+            }
+            return key.equals(k) ? array[i + 1] : null;
+        }
+
+        @Override
+        Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+            int bit = bit(hash, shift);
+            int i = slot(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] copy = new Object[array.length + 2];
+                System.arraycopy(array, 0, copy, 0, i);
+                copy[i] = key;
+                copy[i + 1] = value;
+                System.arraycopy(array, i, copy, i + 2, array.length - i);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, copy);
+            }
+            Object k = array[i];
+            Object v = array[i + 1];
+            if (k == null) {
+                Node child = ((Node) v).put(shift + 5, hash, key, value, added);
+                return child == v ? this : with(i + 1, child);
+            }
+            if (key.equals(k)) {
+                return v == value ? this : with(i + 1, value);
+            }
+            added[0] = true;
+            Object[] copy = array.clone();
+            copy[i] = null;
+            copy[i + 1] = pair(shift + 5, k, v, hash, key, value);
+            return new BitmapNode(bitmap, copy);
+        }
+
+        @Override
+        Node remove(int shift, int hash, Object key) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int i = slot(bit);
+            Object k = array[i];
+            if (k == null) {
+                Node child = (Node) array[i + 1];
+                Node rest = child.remove(shift + 5, hash, key);
+                if (rest == child) {
+                    return this;
+                }
+                return rest != null ? with(i + 1, rest) : without(bit, i);
+            }
+            return key.equals(k) ? without(bit, i) : this;
+        }
+
+        private BitmapNode with(int i, Object value) {
+            Object[] copy = array.clone();
+            copy[i] = value;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        private BitmapNode without(int bit, int i) {
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] copy = new Object[array.length - 2];
+            System.arraycopy(array, 0, copy, 0, i);
+            System.arraycopy(array, i + 2, copy, i, array.length - i - 2);
+            return new BitmapNode(bitmap & ~bit, copy);
+        }
+
+        private int slot(int bit) {
+            return 2 * Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        private static int bit(int hash, int shift) {
+            return 1 << ((hash >>> shift) & 31);
+        }
+
+        /**
+         * A node holding two entries that shared a slot one level up
+         */
+        private static Node pair(int shift, Object k1, Object v1, int hash2, Object k2, Object v2) {
+            int hash1 = hash(k1);
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[] {k1, v1, k2, v2});
+            }
+            boolean[] added = new boolean[1];
+            return EMPTY.put(shift, hash1, k1, v1, added).put(shift, hash2, k2, v2, added);
+        }
+    }
+
+    private static final class CollisionNode extends Node {
+        private final int hash;
+        private final Object[] array;
+
+        CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        @Override
+        Object[] array() {
+            return array;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int i = indexOf(key);
+            return hash == this.hash && i >= 0 ? array[i + 1] : null;
+        }
+
+        @Override
+        Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                // a different hash splits off at this level: put this node in a bitmap node first
+                BitmapNode parent = new BitmapNode(1 << ((this.hash >>> shift) & 31), new Object[] {null, this});
+                return parent.put(shift, hash, key, value, added);
+            }
+            int i = indexOf(key);
+            if (i >= 0) {
+                if (array[i + 1] == value) {
+                    return this;
+                }
+                Object[] copy = array.clone();
+                copy[i + 1] = value;
+                return new CollisionNode(hash, copy);
+            }
+            Object[] copy = Arrays.copyOf(array, array.length + 2);
+            copy[array.length] = key;
+            copy[array.length + 1] = value;
+            added[0] = true;
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        Node remove(int shift, int hash, Object key) {
+            int i = hash == this.hash ? indexOf(key) : -1;
+            if (i < 0) {
+                return this;
+            }
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] copy = new Object[array.length - 2];
+            System.arraycopy(array, 0, copy, 0, i);
+            System.arraycopy(array, i + 2, copy, i, array.length - i - 2);
+            return new CollisionNode(hash, copy);
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
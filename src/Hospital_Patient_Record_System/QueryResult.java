@@ -0,0 +1,119 @@
+package Hospital_Patient_Record_System;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Rows returned by a PatientQuery: one per non-empty group, ordered by the
+ * group keys (ward names alphabetically, ages, dates and months in order).
+ */
+public class QueryResult {
+    /**
+     * One group: its key per dimension and its value per aggregate
+     */
+    public static final class Row {
+        private final String[] keys;
+        private final double[] values;
+
+        Row(String[] keys, double[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        public String getKey(int dimension) {
+            return keys[dimension];
+        }
+
+        public double getValue(int aggregate) {
+            return values[aggregate];
+        }
+    }
+
+    private final List<String> header;
+    private final int dimensions;
+    private final List<Row> rows;
+    private final long scanned;
+    private final long matched;
+    private final long elapsedNanos;
+
+    QueryResult(List<String> header, int dimensions, List<Row> rows, long scanned, long matched, long elapsedNanos) {
+        this.header = header;
+        this.dimensions = dimensions;
+        this.rows = rows;
+        this.scanned = scanned;
+        this.matched = matched;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Dimension labels followed by aggregate labels
+     */
+    public List<String> getHeader() {
+        return Collections.unmodifiableList(header);
+    }
+
+    public List<Row> getRows() {
+        return Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * Patients in the store when the query ran
+     */
+    public long getScanned() {
+        return scanned;
+    }
+
+    /**
+     * Patients that passed the filters
+     */
+    public long getMatched() {
+        return matched;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * The rows as a fixed-width text table, counts without decimals and other values with two
+     */
+    public String toTable() {
+        int columns = header.size();
+        String[][] cells = new String[rows.size()][columns];
+        int[] width = new int[columns];
+        for (int c = 0; c < columns; c++) {
+            width[c] = header.get(c).length();
+        }
+        for (int r = 0; r < rows.size(); r++) {
+            Row row = rows.get(r);
+            for (int c = 0; c < columns; c++) {
+                if (c < dimensions) {
+                    cells[r][c] = row.keys[c];
+                } else {
+                    double v = row.values[c - dimensions];
+                    cells[r][c] = v == Math.rint(v) ? String.valueOf((long) v) : String.format("%.2f", v);
+                }
+                width[c] = Math.max(width[c], cells[r][c].length());
+            }
+        }
+        StringBuilder out = new StringBuilder();
+        appendLine(out, header.toArray(new String[0]), width);
+        int total = 0;
+        for (int w : width) {
+            total += w + 2;
+        }
+        out.append("─".repeat(Math.max(0, total - 2))).append('\n');
+        for (String[] line : cells) {
+            appendLine(out, line, width);
+        }
+        return out.toString();
+    }
+
+    private void appendLine(StringBuilder out, String[] line, int[] width) {
+        for (int c = 0; c < line.length; c++) {
+            String format = c < dimensions ? "%-" + width[c] + "s" : "%" + width[c] + "s";
+            out.append(String.format(format, line[c]));
+            out.append(c + 1 < line.length ? "  " : "\n");
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package Hospital_Patient_Record_System;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable table of daily ward rates (INR per day).
+ *
+ * BillingService holds the current table in an AtomicReference; changes
+ * build a new table and swap it in, so a billing run always sees one
+ * complete, consistent set of rates and never waits for a reload.
+ */
+public final class RateTable {
+    private final Map<String, Double> rates;
+
+    private RateTable(Map<String, Double> rates) {
+        this.rates = Collections.unmodifiableMap(rates);
+    }
+
+    public static RateTable of(Map<String, Double> rates) {
+        return new RateTable(new LinkedHashMap<>(rates));
+    }
+
+    /**
+     * The built-in rates used when rates.cfg does not list a ward
+     */
+    public static RateTable defaults() {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        rates.put("ICU", 5000.0);
+        rates.put("General", 2000.0);
+        rates.put("Pediatric", 2500.0);
+        rates.put("Emergency", 8000.0);
+        return new RateTable(rates);
+    }
+
+    /**
+     * {@code base} overridden by every valid entry of {@code file}
+     */
+    public static RateTable load(Path file, RateTable base, EventSink events) throws IOException {
+        Map<String, Double> rates = new LinkedHashMap<>(base.rates);
+        ConfigFile.read(file, events, (ward, value, line) -> {
+            double rate = Double.parseDouble(value);
+            rates.put(ward, rate);
+            events.publish(new HospitalEvent.RateLoaded(ward, rate));
+        });
+        return new RateTable(rates);
+    }
+
+    public void write(Path file) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (Map.Entry<String, Double> e : rates.entrySet()) {
+            entries.put(e.getKey(), BigDecimal.valueOf(e.getValue()).stripTrailingZeros().toPlainString());
+        }
+        ConfigFile.write(file, "# Hospital Ward Rates (INR per day)\n# Format: WardName=Rate\n", entries);
+    }
+
+    public RateTable with(String ward, double rate) {
+        Map<String, Double> copy = new LinkedHashMap<>(rates);
+        copy.put(ward, rate);
+        return new RateTable(copy);
+    }
+
+    public double get(String ward) {
+        return rates.getOrDefault(ward, 0.0);
+    }
+
+    public Map<String, Double> asMap() {
+        return rates;
+    }
+}
@@ -0,0 +1,123 @@
+package Hospital_Patient_Record_System;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Line format shared by the patient journal and the audit log: the fields
+ * of a record joined with commas, then a comma and the CRC32 of everything
+ * before it.
+ *
+ * Fields are escaped so that no value can split a field or a record: a
+ * backslash starts an escape, with \\ for a backslash, \c for a comma and
+ * \n / \r for line breaks. Values without those characters are written as
+ * they are, so records written before escaping was added read the same.
+ */
+final class RecordCodec {
+    private RecordCodec() {
+    }
+
+    /**
+     * The fields (formatted with String.valueOf) escaped and joined with commas
+     */
+    static String join(Object... fields) {
+        StringBuilder sb = new StringBuilder(fields.length * 12);
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            escape(String.valueOf(fields[i]), sb);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The fields of a record body written by {@link #join}
+     */
+    static String[] split(String body) {
+        String[] fields = body.split(",", -1);
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].indexOf('\\') >= 0) {
+                fields[i] = unescape(fields[i]);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * {@code body} followed by its checksum, ready to be written as one line
+     */
+    static String seal(String body) {
+        return body + "," + checksum(body);
+    }
+
+    /**
+     * The body of a sealed line, or null if the line is torn or corrupted
+     */
+    static String open(String line) {
+        int lastComma = line.lastIndexOf(',');
+        if (lastComma < 0) {
+            return null;
+        }
+        String body = line.substring(0, lastComma);
+        return line.substring(lastComma + 1).equals(checksum(body)) ? body : null;
+    }
+
+    static String checksum(String body) {
+        CRC32 crc = new CRC32();
+        crc.update(body.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+
+    private static void escape(String value, StringBuilder sb) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case ',':
+                    sb.append("\\c");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+    }
+
+    private static String unescape(String field) {
+        StringBuilder sb = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c != '\\' || i + 1 == field.length()) {
+                sb.append(c);
+                continue;
+            }
+            char next = field.charAt(++i);
+            switch (next) {
+                case '\\':
+                    sb.append('\\');
+                    break;
+                case 'c':
+                    sb.append(',');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                default:
+                    // not an escape: a backslash in a record written before escaping
+                    sb.append(c).append(next);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,74 @@
+package Hospital_Patient_Record_System;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bed held for an incoming patient (e.g. an ambulance on its way) until
+ * a deadline.
+ *
+ * Exactly one of claiming, cancelling and expiring wins: the state changes
+ * by compare-and-set, so a patient arriving just as the hold runs out either
+ * gets the bed or finds it already released, never both.
+ */
+public final class Reservation {
+    private static final int ACTIVE = 0, CLAIMED = 1, RELEASED = 2;
+
+    private final String id;
+    private final Ward ward;
+    private final int bedNumber;
+    private final Instant expiresAt;
+    private final AtomicInteger state = new AtomicInteger(ACTIVE);
+    private volatile TimerWheel.Timeout expiry;
+
+    Reservation(String id, Ward ward, int bedNumber, Instant expiresAt) {
+        this.id = id;
+        this.ward = ward;
+        this.bedNumber = bedNumber;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getId() { return id; }
+    public String getWard() { return ward.getName(); }
+    public int getBedNumber() { return bedNumber; }
+    public Instant getExpiresAt() { return expiresAt; }
+
+    public boolean isActive() {
+        return state.get() == ACTIVE;
+    }
+
+    void setExpiry(TimerWheel.Timeout expiry) {
+        this.expiry = expiry;
+    }
+
+    /**
+     * Puts the patient in the held bed; false if the reservation is no longer active
+     */
+    boolean claim(Patient patient) {
+        if (!state.compareAndSet(ACTIVE, CLAIMED)) {
+            return false;
+        }
+        cancelExpiry();
+        ward.addPatient(patient, bedNumber);
+        return true;
+    }
+
+    /**
+     * Gives the bed back; false if it was already claimed or released
+     */
+    boolean release() {
+        if (!state.compareAndSet(ACTIVE, RELEASED)) {
+            return false;
+        }
+        cancelExpiry();
+        ward.releaseReservedBed(bedNumber);
+        return true;
+    }
+
+    private void cancelExpiry() {
+        TimerWheel.Timeout t = expiry;
+        if (t != null) {
+            t.cancel();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package Hospital_Patient_Record_System;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running revenue totals per ward and for the whole hospital, kept up to
+ * date as bills are created instead of being re-summed for every report.
+ *
+ * A bill depends only on its ward, discharge date and length of stay, so
+ * the ledger counts bills per (discharge day, days) group within each ward
+ * rather than storing them. Adding a bill updates one group; a rate change
+ * reprices the groups of that ward, and a discount change only the groups
+ * discharged on or after its effective date. The cost of a change is
+ * proportional to the number of affected groups, not patients, and the
+ * totals stay exactly equal to summing every bill (per-bill rounding included).
+ */
+public class RevenueLedger {
+    private static final int DAYS_BITS = 24;
+    private static final long DAYS_MASK = (1L << DAYS_BITS) - 1;
+
+    /**
+     * Totals for one ward (or the whole hospital); amounts in rupees
+     */
+    public static final class Totals {
+        private final long bills;
+        private final long grossPaise;
+        private final long netPaise;
+
+        Totals(long bills, long grossPaise, long netPaise) {
+            this.bills = bills;
+            this.grossPaise = grossPaise;
+            this.netPaise = netPaise;
+        }
+
+        public long getBills() { return bills; }
+        public BigDecimal getTotalBilled() { return BillingEngine.fromPaise(grossPaise); }
+        public BigDecimal getDiscounts() { return BillingEngine.fromPaise(grossPaise - netPaise); }
+        public BigDecimal getRevenue() { return BillingEngine.fromPaise(netPaise); }
+    }
+
+    private static final class Group {
+        long count;
+        long grossPaise;
+        long netPaise;
+    }
+
+    private static final class WardRevenue {
+        final TreeMap<Long, Group> groups = new TreeMap<>();
+        long bills;
+        long grossPaise;
+        long netPaise;
+    }
+
+    private final Map<String, WardRevenue> wards = new LinkedHashMap<>();
+    private long repricedGroups;
+
+    /**
+     * Adds one newly created bill
+     */
+    public synchronized void add(PatientBill bill) {
+        add(bill.getWard(), bill.getDischargeDate(), bill.getDays(), bill.getGrossPaise(), bill.getNetPaise());
+    }
+
+    /**
+     * Adds the bill of a discharged patient as priced by {@code engine}
+     */
+    public synchronized void add(Patient patient, BillingEngine engine) {
+        int days = (int) patient.getDaysAdmitted();
+        long gross = engine.ratePaise(patient.getWard()) * days;
+        long net = gross - engine.discountFor(gross, patient.getDischargeDate());
+        add(patient.getWard(), patient.getDischargeDate(), days, gross, net);
+    }
+
+    private void add(String ward, LocalDate dischargeDate, int days, long gross, long net) {
+        WardRevenue w = wards.computeIfAbsent(ward, k -> new WardRevenue());
+        Group g = w.groups.computeIfAbsent(key(dischargeDate, days), k -> new Group());
+        g.count++;
+        g.grossPaise += gross;
+        g.netPaise += net;
+        w.bills++;
+        w.grossPaise += gross;
+        w.netPaise += net;
+    }
+
+    /**
+     * Reprices every bill of {@code ward} after its rate changed
+     */
+    public synchronized void wardRateChanged(String ward, BillingEngine engine) {
+        WardRevenue w = wards.get(ward);
+        if (w != null) {
+            for (Map.Entry<Long, Group> e : w.groups.entrySet()) {
+                reprice(ward, w, e.getKey(), e.getValue(), engine);
+            }
+        }
+    }
+
+    /**
+     * Reprices bills discharged on or after {@code from} after the discount changed
+     */
+    public synchronized void discountChanged(LocalDate from, BillingEngine engine) {
+        long fromKey = from.toEpochDay() << DAYS_BITS;
+        for (Map.Entry<String, WardRevenue> ward : wards.entrySet()) {
+            WardRevenue w = ward.getValue();
+            for (Map.Entry<Long, Group> e : w.groups.tailMap(fromKey, true).entrySet()) {
+                reprice(ward.getKey(), w, e.getKey(), e.getValue(), engine);
+            }
+        }
+    }
+
+    private void reprice(String ward, WardRevenue w, long key, Group g, BillingEngine engine) {
+        int days = (int) (key & DAYS_MASK);
+        long gross = engine.ratePaise(ward) * days;
+        long net = gross - BillingEngine.discountFor(gross, engine.discountHundredthsOnDay(key >> DAYS_BITS));
+        long groupGross = gross * g.count;
+        long groupNet = net * g.count;
+        w.grossPaise += groupGross - g.grossPaise;
+        w.netPaise += groupNet - g.netPaise;
+        g.grossPaise = groupGross;
+        g.netPaise = groupNet;
+        repricedGroups++;
+    }
+
+    public synchronized void clear() {
+        wards.clear();
+    }
+
+    /**
+     * Current totals per ward, in the order wards first had a bill
+     */
+    public synchronized Map<String, Totals> getWardTotals() {
+        Map<String, Totals> totals = new LinkedHashMap<>();
+        for (Map.Entry<String, WardRevenue> e : wards.entrySet()) {
+            WardRevenue w = e.getValue();
+            totals.put(e.getKey(), new Totals(w.bills, w.grossPaise, w.netPaise));
+        }
+        return totals;
+    }
+
+    public synchronized Totals getHospitalTotals() {
+        long bills = 0, gross = 0, net = 0;
+        for (WardRevenue w : wards.values()) {
+            bills += w.bills;
+            gross += w.grossPaise;
+            net += w.netPaise;
+        }
+        return new Totals(bills, gross, net);
+    }
+
+    /**
+     * Groups repriced by rate and discount changes so far
+     */
+    public synchronized long getRepricedGroups() {
+        return repricedGroups;
+    }
+
+    private static long key(LocalDate dischargeDate, int days) {
+        LocalDate date = dischargeDate == null ? LocalDate.now() : dischargeDate;
+        return (date.toEpochDay() << DAYS_BITS) | (days & DAYS_MASK);
+    }
+}
@@ -0,0 +1,102 @@
+package Hospital_Patient_Record_System;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Append-only string dictionary without per-string objects.
+ *
+ * Each distinct string gets a dense int code; its UTF-8 bytes live in one
+ * shared byte heap and an open-addressing table of codes finds existing
+ * entries. Not thread-safe; ColumnarPatientStore guards it with its lock.
+ */
+class StringDictionary {
+    private byte[] heap = new byte[1 << 16];
+    private int heapUsed;
+    private int[] offsets = new int[1025]; // offsets[code] .. offsets[code + 1]
+    private int[] hashes = new int[1024];
+    private int count;
+    private int[] table = new int[2048];   // code + 1, 0 = empty
+
+    /**
+     * Code of {@code s}, adding it if it is not present yet
+     */
+    int intern(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(bytes, 0, bytes.length);
+        int slot = findSlot(bytes, hash);
+        if (table[slot] != 0) {
+            return table[slot] - 1;
+        }
+        if (heapUsed + bytes.length > heap.length) {
+            heap = Arrays.copyOf(heap, Math.max(heap.length * 2, heapUsed + bytes.length));
+        }
+        if (count + 2 > offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            hashes = Arrays.copyOf(hashes, offsets.length);
+        }
+        System.arraycopy(bytes, 0, heap, heapUsed, bytes.length);
+        offsets[count] = heapUsed;
+        heapUsed += bytes.length;
+        offsets[count + 1] = heapUsed;
+        hashes[count] = hash;
+        int code = count++;
+        table[slot] = code + 1;
+        if (count * 2 > table.length) {
+            rehash();
+        }
+        return code;
+    }
+
+    /**
+     * Code of {@code s}, or -1 if it was never interned
+     */
+    int find(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        int slot = findSlot(bytes, hash(bytes, 0, bytes.length));
+        return table[slot] - 1;
+    }
+
+    String get(int code) {
+        return new String(heap, offsets[code], offsets[code + 1] - offsets[code], StandardCharsets.UTF_8);
+    }
+
+    int size() {
+        return count;
+    }
+
+    private int findSlot(byte[] bytes, int hash) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != 0 && !matches(table[slot] - 1, hash, bytes)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private boolean matches(int code, int hash, byte[] bytes) {
+        return hashes[code] == hash
+            && Arrays.equals(heap, offsets[code], offsets[code + 1], bytes, 0, bytes.length);
+    }
+
+    private void rehash() {
+        int[] bigger = new int[table.length * 2];
+        int mask = bigger.length - 1;
+        for (int code = 0; code < count; code++) {
+            int slot = hashes[code] & mask;
+            while (bigger[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            bigger[slot] = code + 1;
+        }
+        table = bigger;
+    }
+
+    private static int hash(byte[] bytes, int from, int to) {
+        int h = 0x811C9DC5; // FNV-1a
+        for (int i = from; i < to; i++) {
+            h = (h ^ bytes[i]) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+}
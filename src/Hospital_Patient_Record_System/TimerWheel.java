@@ -0,0 +1,137 @@
+package Hospital_Patient_Record_System;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timer wheel for many short-lived timeouts (bed reservations).
+ *
+ * Scheduling and cancelling are O(1) and never block: new timeouts go onto
+ * a lock-free queue and a single daemon thread moves them into the slot for
+ * their deadline as the wheel turns, one slot per tick. A timeout further
+ * away than one turn waits for the right number of rounds. Deadlines are
+ * rounded up to the next tick.
+ *
+ * The thread starts with the first schedule() call, so a wheel that is
+ * never used costs nothing.
+ */
+public class TimerWheel implements AutoCloseable {
+    /**
+     * Handle for a scheduled task
+     */
+    public static final class Timeout {
+        private static final int PENDING = 0, CANCELLED = 1, EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadlineTick;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        private Timeout(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * Stops the task from running; false if it has already run or been cancelled
+         */
+        public boolean cancel() {
+            return state.compareAndSet(PENDING, CANCELLED);
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+    }
+
+    private final long tickNanos;
+    private final List<Queue<Timeout>> slots;
+    private final Queue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+    private final long startNanos = System.nanoTime();
+    private final Thread worker;
+    private final AtomicInteger started = new AtomicInteger();
+    private volatile boolean closed;
+
+    /**
+     * @param tick      length of one slot
+     * @param wheelSize number of slots in one turn of the wheel
+     */
+    public TimerWheel(long tick, TimeUnit unit, int wheelSize) {
+        if (tick <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive");
+        }
+        this.tickNanos = unit.toNanos(tick);
+        this.slots = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            slots.add(new LinkedList<>());
+        }
+        this.worker = new Thread(this::run, "timer-wheel");
+        this.worker.setDaemon(true);
+    }
+
+    /**
+     * Runs {@code task} on the wheel thread once {@code delay} has passed.
+     * Tasks should be short; a slow task delays every later one.
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (closed) {
+            throw new IllegalStateException("Timer wheel is closed");
+        }
+        long elapsed = System.nanoTime() - startNanos + unit.toNanos(Math.max(0, delay));
+        Timeout timeout = new Timeout(task, (elapsed + tickNanos - 1) / tickNanos);
+        incoming.add(timeout);
+        if (started.get() == 0 && started.compareAndSet(0, 1)) {
+            worker.start();
+        }
+        return timeout;
+    }
+
+    private void run() {
+        long tick = 0;
+        while (!closed) {
+            long wakeAt = startNanos + (tick + 1) * tickNanos;
+            long sleep;
+            while ((sleep = wakeAt - System.nanoTime()) > 0 && !closed) {
+                LockSupport.parkNanos(this, sleep);
+            }
+            tick++;
+            Timeout t;
+            while ((t = incoming.poll()) != null) {
+                if (!t.isCancelled()) {
+                    slots.get((int) (Math.max(t.deadlineTick, tick) % slots.size())).add(t);
+                }
+            }
+            Iterator<Timeout> it = slots.get((int) (tick % slots.size())).iterator();
+            while (it.hasNext()) {
+                Timeout timeout = it.next();
+                if (timeout.isCancelled()) {
+                    it.remove();
+                } else if (timeout.deadlineTick <= tick) {
+                    it.remove();
+                    if (timeout.state.compareAndSet(Timeout.PENDING, Timeout.EXPIRED)) {
+                        try {
+                            timeout.task.run();
+                        } catch (RuntimeException e) {
+                            Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the wheel; pending tasks never run
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(worker);
+    }
+}
@@ -1,20 +1,50 @@
 package Hospital_Patient_Record_System;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Ward class representing a hospital ward
+ * Ward class representing a hospital ward.
+ *
+ * Beds are numbered from 1 and handed out by a BedAllocator bitmap, so
+ * taking the lowest free bed and giving one back are O(1) even for
+ * thousands of beds. Each ward has its own lock, held only for those few
+ * word operations, so admissions to different wards never contend.
+ *
+ * A bed can also be reserved (held with no patient yet) and later filled by
+ * the patient it was held for, or given back.
+ *
+ * The bed count can be changed at runtime (wards.cfg reload). Shrinking
+ * below the current occupancy keeps everyone in their bed and only blocks
+ * new admissions until enough patients have left.
  */
 public class Ward {
-    private String name;
-    private int totalBeds;
-    private List<Patient> occupiedBeds;
+    private final String name;
+    private volatile int totalBeds;
+    private volatile int occupied;
+    private volatile int reserved;
+    private final BedAllocator beds;
+    private Patient[] occupants;
+    private final Map<Patient, Integer> bedOf;
+    private final EventSink events;
 
     public Ward(String name, int totalBeds) {
+        this(name, totalBeds, EventSink.NO_OP);
+    }
+
+    public Ward(String name, int totalBeds, EventSink events) {
+        if (totalBeds < 0) {
+            throw new IllegalArgumentException("Bed count cannot be negative: " + totalBeds);
+        }
+        this.events = events;
         this.name = name;
         this.totalBeds = totalBeds;
-        this.occupiedBeds = new ArrayList<>();
+        this.beds = new BedAllocator(totalBeds);
+        this.occupants = new Patient[totalBeds];
+        this.bedOf = new ConcurrentHashMap<>();
     }
 
     public String getName() {
@@ -25,38 +55,195 @@ public class Ward {
         return totalBeds;
     }
 
-    public List<Patient> getPatients() {
-        return occupiedBeds;
+    public synchronized void setTotalBeds(int totalBeds) {
+        if (totalBeds < 0) {
+            throw new IllegalArgumentException("Bed count cannot be negative: " + totalBeds);
+        }
+        beds.setCapacity(totalBeds);
+        if (totalBeds > occupants.length) {
+            occupants = Arrays.copyOf(occupants, totalBeds);
+        }
+        this.totalBeds = totalBeds;
+    }
+
+    /**
+     * Returns a copy of the patients currently holding a bed, in bed order
+     */
+    public synchronized List<Patient> getPatients() {
+        List<Patient> list = new ArrayList<>(occupied);
+        for (Patient p : occupants) {
+            if (p != null) {
+                list.add(p);
+            }
+        }
+        return list;
     }
 
+    /**
+     * Bed number (from 1) of a patient in this ward, or 0 if they have none
+     */
+    public int getBedNumber(Patient patient) {
+        Integer bed = bedOf.get(patient);
+        return bed == null ? 0 : bed + 1;
+    }
+
+    /**
+     * Beds that can still be taken, not counting reserved ones
+     */
     public int getAvailableBeds() {
-        return totalBeds - occupiedBeds.size();
+        return Math.max(0, totalBeds - occupied - reserved);
     }
 
     public int getOccupancy() {
-        return occupiedBeds.size();
+        return occupied;
+    }
+
+    public int getReservedBeds() {
+        return reserved;
     }
 
     public double getOccupancyPercentage() {
-        return (occupiedBeds.size() * 100.0) / totalBeds;
+        int beds = totalBeds;
+        return beds == 0 ? 0.0 : (occupied * 100.0) / beds;
     }
 
-    public void addPatient(Patient patient) throws NoBedsAvailableException {
-        if (occupiedBeds.size() >= totalBeds) {
-            throw new NoBedsAvailableException(name, totalBeds, occupiedBeds.size());
+    /**
+     * Puts the patient in the lowest-numbered free bed and returns its number
+     */
+    public int addPatient(Patient patient) throws NoBedsAvailableException {
+        int bed;
+        synchronized (this) {
+            bed = takeBed();
+            occupants[bed] = patient;
+            bedOf.put(patient, bed);
+            occupied++;
+        }
+        events.publish(new HospitalEvent.BedAllocated(name, bed + 1, patient));
+        return bed + 1;
+    }
+
+    /**
+     * Seats as many of {@code batch} as there are free beds, in list order,
+     * under one acquisition of the ward lock. Returns how many were seated:
+     * patients from that index on did not get a bed.
+     */
+    public int addPatients(List<Patient> batch) {
+        int[] seated = new int[batch.size()];
+        int count = 0;
+        synchronized (this) {
+            while (count < batch.size() && occupied + reserved < totalBeds) {
+                Patient patient = batch.get(count);
+                int bed = beds.allocate();
+                occupants[bed] = patient;
+                bedOf.put(patient, bed);
+                occupied++;
+                seated[count++] = bed;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            events.publish(new HospitalEvent.BedAllocated(name, seated[i] + 1, batch.get(i)));
+        }
+        return count;
+    }
+
+    /**
+     * Holds the lowest-numbered free bed with no patient in it yet and
+     * returns its number. The bed stays taken until
+     * {@link #addPatient(Patient, int)} fills it or
+     * {@link #releaseReservedBed(int)} gives it back.
+     */
+    public synchronized int reserveBed() throws NoBedsAvailableException {
+        int bed = takeBed();
+        reserved++;
+        return bed + 1;
+    }
+
+    /**
+     * Puts the patient in a bed previously returned by {@link #reserveBed()}
+     */
+    public void addPatient(Patient patient, int bedNumber) {
+        int bed = bedNumber - 1;
+        synchronized (this) {
+            if (!isReserved(bed)) {
+                throw new IllegalStateException("Bed " + bedNumber + " in " + name + " is not reserved");
+            }
+            occupants[bed] = patient;
+            bedOf.put(patient, bed);
+            reserved--;
+            occupied++;
+        }
+        events.publish(new HospitalEvent.BedAllocated(name, bedNumber, patient));
+    }
+
+    /**
+     * Gives back a reserved bed that was never filled
+     */
+    public synchronized void releaseReservedBed(int bedNumber) {
+        int bed = bedNumber - 1;
+        if (isReserved(bed)) {
+            beds.release(bed);
+            reserved--;
         }
-        
-        occupiedBeds.add(patient);
-        System.out.println("✓ Bed allocated in " + name + " ward");
     }
 
     public void removePatient(Patient patient) {
-        occupiedBeds.remove(patient);
-        System.out.println("✓ Bed released in " + name + " ward");
+        Integer bed;
+        synchronized (this) {
+            bed = bedOf.remove(patient);
+            if (bed == null) {
+                return;
+            }
+            occupants[bed] = null;
+            beds.release(bed);
+            occupied--;
+        }
+        events.publish(new HospitalEvent.BedReleased(name, bed + 1, patient));
+    }
+
+    /**
+     * Frees the beds of all of {@code batch} under one acquisition of the ward lock
+     */
+    public void removePatients(List<Patient> batch) {
+        int[] freed = new int[batch.size()];
+        synchronized (this) {
+            for (int i = 0; i < batch.size(); i++) {
+                Integer bed = bedOf.remove(batch.get(i));
+                if (bed == null) {
+                    freed[i] = -1;
+                    continue;
+                }
+                occupants[bed] = null;
+                beds.release(bed);
+                occupied--;
+                freed[i] = bed;
+            }
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            if (freed[i] >= 0) {
+                events.publish(new HospitalEvent.BedReleased(name, freed[i] + 1, batch.get(i)));
+            }
+        }
     }
 
     public void displayStatus() {
+        displayStatus(name, getOccupancy(), totalBeds, getAvailableBeds(), getOccupancyPercentage());
+    }
+
+    static void displayStatus(String name, int occupied, int totalBeds, int available, double percentage) {
         System.out.printf("Ward: %s | Beds: %d/%d | Available: %d | Occupancy: %.1f%%%n",
-            name, getOccupancy(), totalBeds, getAvailableBeds(), getOccupancyPercentage());
+            name, occupied, totalBeds, available, percentage);
+    }
+
+    private int takeBed() throws NoBedsAvailableException {
+        // Counting first keeps a shrunk ward closed while patients are still
+        // in beds above its new size; below that a free bed always exists.
+        if (occupied + reserved >= totalBeds) {
+            throw new NoBedsAvailableException(name, totalBeds, occupied + reserved);
+        }
+        return beds.allocate();
+    }
+
+    private boolean isReserved(int bed) {
+        return bed >= 0 && bed < occupants.length && beds.isHeld(bed) && occupants[bed] == null;
     }
 }